@@ -13,6 +13,10 @@ public final class ASin extends Operation implements UnaryOperation {
 
   protected static final List<String> SYMBOLES = new ArrayList<>(List.of("asin"));
 
+  private static EvaluationException outOfRangeArgument() {
+    return new EvaluationException(EvaluationException.Kind.DOMAIN_ERROR, "Arc sine is only defined for values in the range [-1, 1]");
+  }
+
   /**
    * Class constructor specifying a single Expression argument.
    *
@@ -31,7 +35,7 @@ public final class ASin extends Operation implements UnaryOperation {
    * @throws IllegalConstruction If null or empty list is passed as parameter
    */
   public ASin(List<Expression> elist) throws IllegalConstruction {
-    super(elist, null);
+    super(elist, null, OP_ASIN);
     symbol = "asin";
     neutral = 0; // No real neutral element for arc sine
   }
@@ -44,7 +48,7 @@ public final class ASin extends Operation implements UnaryOperation {
    * @throws IllegalConstruction If a null expression is passed as parameter
    */
   public ASin(Notation n, Expression expr) throws IllegalConstruction {
-    super(n, expr);
+    super(n, OP_ASIN, expr);
     symbol = "asin";
     neutral = 0;
   }
@@ -86,7 +90,7 @@ public final class ASin extends Operation implements UnaryOperation {
   public Number opUnary(Number n) {
     double value = n.doubleValue();
     if (value < -1 || value > 1) {
-      throw new ArithmeticException("Arc sine is only defined for values in the range [-1, 1]");
+      throw outOfRangeArgument();
     }
     return Math.asin(value);
   }
@@ -31,7 +31,7 @@ public final class ATan extends Operation implements UnaryOperation {
    * @throws IllegalConstruction If null or empty list is passed as parameter
    */
   public ATan(List<Expression> elist) throws IllegalConstruction {
-    super(elist, null);
+    super(elist, null, OP_ATAN);
     symbol = "atan";
     neutral = 0; // No real neutral element for arc tangent
   }
@@ -44,7 +44,7 @@ public final class ATan extends Operation implements UnaryOperation {
    * @throws IllegalConstruction If a null expression is passed as parameter
    */
   public ATan(Notation n, Expression expr) throws IllegalConstruction {
-    super(n, expr);
+    super(n, OP_ATAN, expr);
     symbol = "atan";
     neutral = 0;
   }
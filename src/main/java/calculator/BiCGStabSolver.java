@@ -0,0 +1,87 @@
+package calculator;
+
+/**
+ * Right-preconditioned BiCGSTAB (van der Vorst), for general non-symmetric systems.
+ * Each iteration costs two matrix-vector products and two preconditioner applications,
+ * and keeps eight vectors. Convergence is usually smooth, but the method can break down
+ * on some systems, in which case the solve stops unconverged and {@link GmresSolver} is the fallback.
+ */
+public class BiCGStabSolver extends IterativeSolver {
+
+    /**
+     * Creates a solver with the default tolerance and iteration cap.
+     */
+    public BiCGStabSolver() {
+        this(DEFAULT_TOLERANCE, DEFAULT_MAX_ITERATIONS);
+    }
+
+    /**
+     * Creates a solver with a given stopping criterion.
+     *
+     * @param tolerance Relative residual at which a solve stops
+     * @param maxIterations Maximum number of iterations
+     */
+    public BiCGStabSolver(double tolerance, int maxIterations) {
+        super(tolerance, maxIterations);
+    }
+
+    @Override
+    void iterate(RealMatrix a, double[] b, Preconditioner preconditioner, double[] x, Progress progress) {
+        int n = b.length;
+        double[] r = new double[n];
+        double[] shadow = new double[n];
+        double[] p = new double[n];
+        double[] v = new double[n];
+        double[] pHat = new double[n];
+        double[] s = new double[n];
+        double[] sHat = new double[n];
+        double[] t = new double[n];
+
+        if (progress.record(residual(a, b, x, r))) {
+            return;
+        }
+        System.arraycopy(r, 0, shadow, 0, n);
+        double rho = 1.0;
+        double alpha = 1.0;
+        double omega = 1.0;
+
+        while (true) {
+            double next = dot(shadow, r);
+            if (next == 0.0 || omega == 0.0) {
+                // Breakdown: the shadow residual became orthogonal to r, or the stabilization step vanished
+                return;
+            }
+            double beta = (next / rho) * (alpha / omega);
+            rho = next;
+            for (int i = 0; i < n; i++) {
+                p[i] = r[i] + beta * (p[i] - omega * v[i]);
+            }
+
+            preconditioner.apply(p, pHat);
+            multiply(a, pHat, v);
+            alpha = rho / dot(shadow, v);
+            for (int i = 0; i < n; i++) {
+                s[i] = r[i] - alpha * v[i];
+            }
+            double sNorm = norm(s);
+            if (sNorm <= getTolerance() * progress.bNorm) {
+                // Half a step is enough
+                axpy(alpha, pHat, x);
+                progress.record(sNorm);
+                return;
+            }
+
+            preconditioner.apply(s, sHat);
+            multiply(a, sHat, t);
+            double tt = dot(t, t);
+            omega = (tt == 0.0) ? 0.0 : dot(t, s) / tt;
+            for (int i = 0; i < n; i++) {
+                x[i] += alpha * pHat[i] + omega * sHat[i];
+                r[i] = s[i] - omega * t[i];
+            }
+            if (progress.record(norm(r))) {
+                return;
+            }
+        }
+    }
+}
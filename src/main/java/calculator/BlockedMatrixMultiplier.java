@@ -0,0 +1,215 @@
+package calculator;
+
+import java.util.Arrays;
+
+/**
+ * Cache-blocked, register-tiled matrix multiplication.
+ * <p>
+ * The product is computed block by block: a {@value #KC}-deep slice of the inner dimension
+ * of the right operand, {@value #NC} columns wide, is packed to stay in L2, and {@value #MC}-row
+ * slices of the left operand are packed to stay in L1 while they are multiplied by it.
+ * Packing lays both operands out in 4-wide panels, so that the 4x4 micro-kernel keeps its
+ * sixteen partial sums in registers and reads both panels sequentially, in i-k-j order.
+ * Partial tiles on the edges run on zero padding and only their valid part is kept.
+ * When {@link Vectorization} is enabled, the right panels are as wide as a vector register
+ * and the micro-kernel keeps each row of its tile in one register instead.
+ */
+public class BlockedMatrixMultiplier implements MatrixMultiplier {
+
+    /** Depth of a slice of the inner dimension */
+    static final int KC = 256;
+    /** Rows of the result updated per block */
+    static final int MC = 64;
+    /** Columns of the result updated per block */
+    static final int NC = 256;
+    /** Side of the register tile computed by the micro-kernel */
+    static final int TILE = 4;
+
+    @Override
+    public Matrix multiply(Matrix left, Matrix right) {
+        Matrix.checkMultiplicable(left, right);
+
+        Matrix a = left.contiguous();
+        Matrix b = right.contiguous();
+        int rows = a.getRows();
+        int cols = b.getCols();
+        double[] c = new double[rows * cols];
+        multiplyRange(a, b, c, 0, 0, rows, 0, cols);
+
+        return new Matrix(rows, cols, c);
+    }
+
+    @Override
+    public Matrix multiplyInto(Matrix left, Matrix right, Matrix dest) {
+        if (!dest.isContiguous()) {
+            return MatrixMultiplier.super.multiplyInto(left, right, dest);
+        }
+        Matrix.checkProductDestination(left, right, dest);
+
+        Matrix a = left.contiguous();
+        Matrix b = right.contiguous();
+        dest.fill(0.0);
+        multiplyRange(a, b, dest.data, dest.offset, 0, a.getRows(), 0, b.getCols());
+        return dest;
+    }
+
+    /**
+     * Accumulates a rectangular block of the product of two contiguous matrices into a row-major buffer.
+     * Disjoint blocks can be computed concurrently: each call packs its operands into its own buffers,
+     * taken from the pool of the current thread.
+     *
+     * @param a The contiguous left operand
+     * @param b The contiguous right operand
+     * @param c The row-major result buffer, holding a.getRows() * b.getCols() elements from cOffset
+     * @param cOffset Position of the first element of the result in c
+     * @param rowFrom First row of the block (inclusive)
+     * @param rowTo Last row of the block (exclusive)
+     * @param colFrom First column of the block (inclusive)
+     * @param colTo Last column of the block (exclusive)
+     */
+    static void multiplyRange(Matrix a, Matrix b, double[] c, int cOffset,
+                              int rowFrom, int rowTo, int colFrom, int colTo) {
+        int inner = a.getCols();
+        int n = b.getCols();
+        // The SIMD micro-kernel computes tiles as wide as a vector register
+        boolean vectorized = Vectorization.isEnabled();
+        int width = vectorized ? VectorKernels.LANES : TILE;
+        DoubleArrayPool pool = DoubleArrayPool.forCurrentThread();
+        double[] packedA = pool.acquire(roundUp(Math.min(MC, rowTo - rowFrom), TILE) * Math.min(KC, inner));
+        double[] packedB = pool.acquire(roundUp(Math.min(NC, colTo - colFrom), width) * Math.min(KC, inner));
+        double[] edge = pool.acquire(TILE * width);
+
+        for (int jj = colFrom; jj < colTo; jj += NC) {
+            int jEnd = Math.min(jj + NC, colTo);
+            for (int kk = 0; kk < inner; kk += KC) {
+                int kEnd = Math.min(kk + KC, inner);
+                int depth = kEnd - kk;
+                packRight(b, packedB, kk, kEnd, jj, jEnd, width);
+                for (int ii = rowFrom; ii < rowTo; ii += MC) {
+                    int iEnd = Math.min(ii + MC, rowTo);
+                    packLeft(a, packedA, ii, iEnd, kk, kEnd);
+                    for (int i = ii; i < iEnd; i += TILE) {
+                        int aPanel = (i - ii) * depth;
+                        for (int j = jj; j < jEnd; j += width) {
+                            int bPanel = (j - jj) * depth;
+                            if (i + TILE <= iEnd && j + width <= jEnd) {
+                                microKernel(vectorized, packedA, aPanel, packedB, bPanel, depth, c, cOffset + i * n + j, n);
+                            } else {
+                                // Partial tile on the edge: compute it in full on the zero padding and keep the valid part
+                                Arrays.fill(edge, 0.0);
+                                microKernel(vectorized, packedA, aPanel, packedB, bPanel, depth, edge, 0, width);
+                                for (int r = 0; r < Math.min(TILE, iEnd - i); r++) {
+                                    for (int q = 0; q < Math.min(width, jEnd - j); q++) {
+                                        c[cOffset + (i + r) * n + j + q] += edge[r * width + q];
+                                    }
+                                }
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        pool.release(packedA);
+        pool.release(packedB);
+        pool.release(edge);
+    }
+
+    /**
+     * Copies a[iFrom..iTo)[kFrom..kTo) into panels of {@value #TILE} rows, stored column after column,
+     * so that the micro-kernel reads them sequentially. Missing rows of the last panel are zero.
+     */
+    private static void packLeft(Matrix a, double[] packed, int iFrom, int iTo, int kFrom, int kTo) {
+        int p = a.getCols();
+        int depth = kTo - kFrom;
+        for (int i = iFrom; i < iTo; i += TILE) {
+            int panel = (i - iFrom) * depth;
+            for (int r = 0; r < TILE; r++) {
+                if (i + r < iTo) {
+                    int row = a.offset + (i + r) * p;
+                    for (int k = kFrom; k < kTo; k++) {
+                        packed[panel + (k - kFrom) * TILE + r] = a.data[row + k];
+                    }
+                } else {
+                    for (int k = 0; k < depth; k++) {
+                        packed[panel + k * TILE + r] = 0.0;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Copies b[kFrom..kTo)[jFrom..jTo) into panels of the given number of columns, stored row after row,
+     * so that the micro-kernel reads them sequentially. Missing columns of the last panel are zero.
+     */
+    private static void packRight(Matrix b, double[] packed, int kFrom, int kTo, int jFrom, int jTo, int width) {
+        int n = b.getCols();
+        int depth = kTo - kFrom;
+        for (int j = jFrom; j < jTo; j += width) {
+            int panel = (j - jFrom) * depth;
+            int filled = Math.min(width, jTo - j);
+            for (int k = kFrom; k < kTo; k++) {
+                int row = b.offset + k * n + j;
+                int dst = panel + (k - kFrom) * width;
+                for (int q = 0; q < filled; q++) {
+                    packed[dst + q] = b.data[row + q];
+                }
+                for (int q = filled; q < width; q++) {
+                    packed[dst + q] = 0.0;
+                }
+            }
+        }
+    }
+
+    /**
+     * Accumulates one tile of the result with the SIMD or the scalar micro-kernel.
+     */
+    private static void microKernel(boolean vectorized, double[] a, int aPanel, double[] b, int bPanel, int depth,
+                                    double[] c, int c0, int ldc) {
+        if (vectorized) {
+            VectorKernels.microKernel(a, aPanel, b, bPanel, depth, c, c0, ldc);
+        } else {
+            microKernel(a, aPanel, b, bPanel, depth, c, c0, ldc);
+        }
+    }
+
+    /**
+     * Accumulates a 4x4 tile of the result from a packed panel of the left operand
+     * and a packed panel of the right operand, keeping the sixteen partial sums in registers.
+     */
+    private static void microKernel(double[] a, int aPanel, double[] b, int bPanel, int depth,
+                                    double[] c, int c0, int ldc) {
+        int c1 = c0 + ldc;
+        int c2 = c1 + ldc;
+        int c3 = c2 + ldc;
+
+        double c00 = 0, c01 = 0, c02 = 0, c03 = 0;
+        double c10 = 0, c11 = 0, c12 = 0, c13 = 0;
+        double c20 = 0, c21 = 0, c22 = 0, c23 = 0;
+        double c30 = 0, c31 = 0, c32 = 0, c33 = 0;
+
+        int ak = aPanel;
+        int bk = bPanel;
+        for (int k = 0; k < depth; k++, ak += TILE, bk += TILE) {
+            double b0 = b[bk], b1 = b[bk + 1], b2 = b[bk + 2], b3 = b[bk + 3];
+
+            double x = a[ak];
+            c00 += x * b0; c01 += x * b1; c02 += x * b2; c03 += x * b3;
+            x = a[ak + 1];
+            c10 += x * b0; c11 += x * b1; c12 += x * b2; c13 += x * b3;
+            x = a[ak + 2];
+            c20 += x * b0; c21 += x * b1; c22 += x * b2; c23 += x * b3;
+            x = a[ak + 3];
+            c30 += x * b0; c31 += x * b1; c32 += x * b2; c33 += x * b3;
+        }
+
+        c[c0] += c00; c[c0 + 1] += c01; c[c0 + 2] += c02; c[c0 + 3] += c03;
+        c[c1] += c10; c[c1 + 1] += c11; c[c1 + 2] += c12; c[c1 + 3] += c13;
+        c[c2] += c20; c[c2 + 1] += c21; c[c2 + 2] += c22; c[c2 + 3] += c23;
+        c[c3] += c30; c[c3 + 1] += c31; c[c3 + 2] += c32; c[c3 + 3] += c33;
+    }
+
+    private static int roundUp(int size, int multiple) {
+        return (size + multiple - 1) / multiple * multiple;
+    }
+}
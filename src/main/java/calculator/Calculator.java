@@ -47,8 +47,8 @@ public class Calculator <T extends Number & Comparable<T>>{
      * @return The result of the evaluation, could be Number or MyComplexNumber
      */
     public Object eval(Expression e) {
-        // create a new visitor to evaluate expressions
-        Evaluator v = new Evaluator();
+        // reuse the visitor confined to the current thread to evaluate expressions
+        Evaluator v = Evaluator.forCurrentThread();
         // and ask the expression to accept this visitor to start the evaluation process
         e.accept(v);
         // and return the result of the evaluation at the end of the process
@@ -0,0 +1,316 @@
+package calculator;
+
+import java.math.BigInteger;
+
+/**
+ * Overflow-checked integer arithmetic shared by the arithmetic operations.
+ * Integral results are promoted along Integer → Long → BigInteger only when
+ * the narrower type cannot hold them, so the common small-integer case keeps
+ * returning an Integer and never wraps around silently.
+ *
+ * @see Plus
+ * @see Minus
+ * @see Times
+ * @see Power
+ */
+public final class CheckedArithmetic {
+
+    private static final BigInteger LONG_MIN = BigInteger.valueOf(Long.MIN_VALUE);
+    private static final BigInteger LONG_MAX = BigInteger.valueOf(Long.MAX_VALUE);
+
+    /** Marker returned by powLong when the result does not fit; (-2)^63 is rerouted through BigInteger */
+    private static final long OVERFLOW = Long.MIN_VALUE;
+
+    /** Largest power computed exactly, 2^20 bits (about 315,000 decimal digits), which takes milliseconds */
+    static final int MAX_RESULT_BITS = 1 << 20;
+
+    private static EvaluationException zeroToNegativePower() {
+        return new EvaluationException(EvaluationException.Kind.DIVISION_BY_ZERO, "Cannot raise zero to a negative power");
+    }
+
+    private CheckedArithmetic() {}
+
+    /**
+     * Checks whether a number is of an integral type (Byte, Short, Integer, Long or BigInteger).
+     *
+     * @param n The number to check
+     * @return true if the number is integral
+     */
+    public static boolean isIntegral(Number n) {
+        return n instanceof Integer || n instanceof Long || n instanceof BigInteger
+                || n instanceof Short || n instanceof Byte;
+    }
+
+    /**
+     * Adds two ints, returning a Long only if the sum does not fit in an int.
+     *
+     * @param l The first int
+     * @param r The second int
+     * @return The exact sum
+     */
+    public static Number add(int l, int r) {
+        return ofLong((long) l + r);
+    }
+
+    /**
+     * Subtracts two ints, returning a Long only if the difference does not fit in an int.
+     *
+     * @param l The first int
+     * @param r The int to subtract from the first
+     * @return The exact difference
+     */
+    public static Number subtract(int l, int r) {
+        return ofLong((long) l - r);
+    }
+
+    /**
+     * Multiplies two ints, returning a Long only if the product does not fit in an int.
+     *
+     * @param l The first int
+     * @param r The second int
+     * @return The exact product
+     */
+    public static Number multiply(int l, int r) {
+        // The product of two ints always fits in a long
+        return ofLong((long) l * r);
+    }
+
+    /**
+     * Adds two integral numbers, promoting the result only on overflow.
+     *
+     * @param l The first number
+     * @param r The second number
+     * @return The exact sum
+     */
+    public static Number add(Number l, Number r) {
+        if (l instanceof BigInteger || r instanceof BigInteger) {
+            return narrow(toBigInteger(l).add(toBigInteger(r)));
+        }
+        if (l instanceof Long || r instanceof Long) {
+            long a = l.longValue();
+            long b = r.longValue();
+            try {
+                return Math.addExact(a, b);
+            } catch (ArithmeticException e) {
+                return BigInteger.valueOf(a).add(BigInteger.valueOf(b));
+            }
+        }
+        return add(l.intValue(), r.intValue());
+    }
+
+    /**
+     * Subtracts two integral numbers, promoting the result only on overflow.
+     *
+     * @param l The first number
+     * @param r The number to subtract from the first
+     * @return The exact difference
+     */
+    public static Number subtract(Number l, Number r) {
+        if (l instanceof BigInteger || r instanceof BigInteger) {
+            return narrow(toBigInteger(l).subtract(toBigInteger(r)));
+        }
+        if (l instanceof Long || r instanceof Long) {
+            long a = l.longValue();
+            long b = r.longValue();
+            try {
+                return Math.subtractExact(a, b);
+            } catch (ArithmeticException e) {
+                return BigInteger.valueOf(a).subtract(BigInteger.valueOf(b));
+            }
+        }
+        return subtract(l.intValue(), r.intValue());
+    }
+
+    /**
+     * Multiplies two integral numbers, promoting the result only on overflow.
+     *
+     * @param l The first number
+     * @param r The second number
+     * @return The exact product
+     */
+    public static Number multiply(Number l, Number r) {
+        if (l instanceof BigInteger || r instanceof BigInteger) {
+            return narrow(toBigInteger(l).multiply(toBigInteger(r)));
+        }
+        if (l instanceof Long || r instanceof Long) {
+            long a = l.longValue();
+            long b = r.longValue();
+            try {
+                return Math.multiplyExact(a, b);
+            } catch (ArithmeticException e) {
+                return BigInteger.valueOf(a).multiply(BigInteger.valueOf(b));
+            }
+        }
+        return multiply(l.intValue(), r.intValue());
+    }
+
+    /**
+     * Divides two integral numbers (truncating towards zero).
+     * The only overflowing case, MIN_VALUE / -1, is promoted as well.
+     *
+     * @param l The dividend
+     * @param r The divisor, must not be zero
+     * @return The exact quotient
+     */
+    public static Number divide(Number l, Number r) {
+        if (l instanceof BigInteger || r instanceof BigInteger) {
+            return narrow(toBigInteger(l).divide(toBigInteger(r)));
+        }
+        if (l instanceof Long || r instanceof Long) {
+            long a = l.longValue();
+            long b = r.longValue();
+            if (a == Long.MIN_VALUE && b == -1) {
+                return LONG_MIN.negate();
+            }
+            return a / b;
+        }
+        return ofLong((long) l.intValue() / r.intValue());
+    }
+
+    /**
+     * Computes the remainder of two integral numbers, with the sign of the dividend.
+     *
+     * @param l The dividend
+     * @param r The divisor, must not be zero
+     * @return The remainder
+     */
+    public static Number remainder(Number l, Number r) {
+        if (l instanceof BigInteger || r instanceof BigInteger) {
+            return narrow(toBigInteger(l).remainder(toBigInteger(r)));
+        }
+        if (l instanceof Long || r instanceof Long) {
+            return l.longValue() % r.longValue();
+        }
+        return l.intValue() % r.intValue();
+    }
+
+    /**
+     * Raises an integral base to an integral exponent using exponentiation by squaring.
+     * Negative exponents follow integer division semantics and truncate towards zero.
+     *
+     * @param base The integral base
+     * @param exponent The integral exponent
+     * @return The exact power
+     * @throws ArithmeticException If zero is raised to a negative power,
+     *                             or if the power would take more than {@value #MAX_RESULT_BITS} bits
+     */
+    public static Number pow(Number base, Number exponent) {
+        BigInteger bigBase = (base instanceof BigInteger) ? (BigInteger) base : null;
+        long b = (bigBase == null) ? base.longValue() : 0;
+        boolean isZero = (bigBase == null) ? b == 0 : bigBase.signum() == 0;
+        boolean isOne = (bigBase == null) ? b == 1 : bigBase.equals(BigInteger.ONE);
+        boolean isMinusOne = (bigBase == null) ? b == -1 : bigBase.equals(BigInteger.ONE.negate());
+        int expSign = (exponent instanceof BigInteger) ? ((BigInteger) exponent).signum()
+                                                       : Long.signum(exponent.longValue());
+        boolean expOdd = (exponent instanceof BigInteger) ? ((BigInteger) exponent).testBit(0)
+                                                          : (exponent.longValue() & 1) != 0;
+
+        if (expSign == 0 || isOne) {
+            return 1;
+        }
+        if (isMinusOne) {
+            return expOdd ? -1 : 1;
+        }
+        if (expSign < 0) {
+            if (isZero) {
+                throw zeroToNegativePower();
+            }
+            // |base| >= 2, so base^exponent lies strictly between -1 and 1
+            return 0;
+        }
+        if (isZero) {
+            return 0;
+        }
+        if (exponent instanceof BigInteger || exponent.longValue() > Integer.MAX_VALUE) {
+            throw new EvaluationException(EvaluationException.Kind.OVERFLOW, "Exponent is too large: " + exponent);
+        }
+
+        int e = exponent.intValue();
+        // Refuse results that would take seconds and gigabytes to compute, such as 3^1000000000
+        if (e * log2Abs(base) > MAX_RESULT_BITS) {
+            throw new EvaluationException(EvaluationException.Kind.OVERFLOW,
+                    "Result is too large: " + base + "^" + exponent + " exceeds " + MAX_RESULT_BITS + " bits");
+        }
+        if (bigBase == null && e < 64) {
+            long result = powLong(b, e);
+            if (result != OVERFLOW) {
+                return (base instanceof Long) ? (Number) result : ofLong(result);
+            }
+        }
+        return narrow(toBigInteger(base).pow(e));
+    }
+
+    /**
+     * Computes the binary logarithm of the magnitude of an integral number, from its 53 leading bits for a BigInteger.
+     */
+    private static double log2Abs(Number n) {
+        if (!(n instanceof BigInteger)) {
+            return Math.log(Math.abs(n.doubleValue())) / Math.log(2);
+        }
+        BigInteger magnitude = ((BigInteger) n).abs();
+        int shift = Math.max(0, magnitude.bitLength() - 53);
+        return shift + Math.log(magnitude.shiftRight(shift).doubleValue()) / Math.log(2);
+    }
+
+    /**
+     * Raises a long to a non-negative int power by squaring.
+     *
+     * @return The power, or OVERFLOW if it does not fit in a long
+     */
+    private static long powLong(long base, int exponent) {
+        long result = 1;
+        long square = base;
+        int e = exponent;
+        try {
+            while (true) {
+                if ((e & 1) != 0) {
+                    result = Math.multiplyExact(result, square);
+                }
+                e >>>= 1;
+                if (e == 0) {
+                    return result;
+                }
+                square = Math.multiplyExact(square, square);
+            }
+        } catch (ArithmeticException overflow) {
+            return OVERFLOW;
+        }
+    }
+
+    /**
+     * Parses an integer literal into the narrowest of Integer, Long or BigInteger that can hold it.
+     *
+     * @param literal The decimal literal to parse
+     * @return The parsed number
+     * @throws NumberFormatException If the literal is not a valid integer
+     */
+    public static Number parseInteger(String literal) {
+        BigInteger value = new BigInteger(literal);
+        if (value.bitLength() < 32) {
+            return value.intValue();
+        }
+        return narrow(value);
+    }
+
+    private static Number ofLong(long value) {
+        int narrowed = (int) value;
+        if (narrowed == value) {
+            return narrowed;
+        }
+        return value;
+    }
+
+    private static Number narrow(BigInteger value) {
+        if (value.compareTo(LONG_MIN) >= 0 && value.compareTo(LONG_MAX) <= 0) {
+            return ofLong(value.longValue());
+        }
+        return value;
+    }
+
+    private static BigInteger toBigInteger(Number n) {
+        if (n instanceof BigInteger) {
+            return (BigInteger) n;
+        }
+        return BigInteger.valueOf(n.longValue());
+    }
+}
@@ -0,0 +1,66 @@
+package calculator;
+
+/**
+ * Preconditioned conjugate gradient, for symmetric positive definite systems.
+ * Each iteration costs one matrix-vector product and one preconditioner application,
+ * and keeps four vectors. The preconditioner must be symmetric positive definite too,
+ * which {@link JacobiPreconditioner} is for such systems.
+ */
+public class ConjugateGradientSolver extends IterativeSolver {
+
+    /**
+     * Creates a solver with the default tolerance and iteration cap.
+     */
+    public ConjugateGradientSolver() {
+        this(DEFAULT_TOLERANCE, DEFAULT_MAX_ITERATIONS);
+    }
+
+    /**
+     * Creates a solver with a given stopping criterion.
+     *
+     * @param tolerance Relative residual at which a solve stops
+     * @param maxIterations Maximum number of iterations
+     */
+    public ConjugateGradientSolver(double tolerance, int maxIterations) {
+        super(tolerance, maxIterations);
+    }
+
+    @Override
+    void iterate(RealMatrix a, double[] b, Preconditioner preconditioner, double[] x, Progress progress) {
+        int n = b.length;
+        double[] r = new double[n];
+        double[] z = new double[n];
+        double[] p = new double[n];
+        double[] ap = new double[n];
+
+        if (progress.record(residual(a, b, x, r))) {
+            return;
+        }
+        preconditioner.apply(r, z);
+        System.arraycopy(z, 0, p, 0, n);
+        double rz = dot(r, z);
+
+        while (true) {
+            multiply(a, p, ap);
+            double curvature = dot(p, ap);
+            if (curvature <= 0.0) {
+                // Not positive definite along p: CG cannot make progress
+                return;
+            }
+            double alpha = rz / curvature;
+            axpy(alpha, p, x);
+            axpy(-alpha, ap, r);
+            if (progress.record(norm(r))) {
+                return;
+            }
+
+            preconditioner.apply(r, z);
+            double next = dot(r, z);
+            double beta = next / rz;
+            rz = next;
+            for (int i = 0; i < n; i++) {
+                p[i] = z[i] + beta * p[i];
+            }
+        }
+    }
+}
@@ -31,7 +31,7 @@ public final class Cos extends Operation implements UnaryOperation {
    * @throws IllegalConstruction If null or empty list is passed as parameter
    */
   public Cos(List<Expression> elist) throws IllegalConstruction {
-    super(elist, null);
+    super(elist, null, OP_COS);
     symbol = "cos";
     neutral = 0; // No real neutral element for cosine
   }
@@ -44,7 +44,7 @@ public final class Cos extends Operation implements UnaryOperation {
    * @throws IllegalConstruction If a null expression is passed as parameter
    */
   public Cos(Notation n, Expression expr) throws IllegalConstruction {
-    super(n, expr);
+    super(n, OP_COS, expr);
     symbol = "cos";
     neutral = 0;
   }
@@ -41,13 +41,13 @@ public final class Divides extends Operation
      * @see Operation#Operation(List<Expression>,Notation)
      */
   public Divides(List<Expression> elist, Notation n) throws IllegalConstruction {
-    super(elist,n);
+    super(elist, n, OP_DIVIDES);
     symbol = "/";
     neutral = 1;
   }
 
   public Divides(Notation n, Expression... elist) throws IllegalConstruction {
-    super(n, elist);
+    super(n, OP_DIVIDES, elist);
     symbol = "/";
     neutral = 1;
   }
@@ -59,18 +59,23 @@ public final class Divides extends Operation
      * @param l The first integer
      * @param r The second integer that should divide the first
      * @return The integer that is the result of the division
+     * @throws EvaluationException If r is zero, or if the quotient overflows an int (Integer.MIN_VALUE / -1)
      */
     public int op(int l, int r) {
         if (r == 0) {
-            throw new ArithmeticException("Division by zero is not allowed.");
+            throw EvaluationException.divisionByZero();
         }
-        return l / r;
+        Number result = CheckedArithmetic.divide(l, r);
+        if (!(result instanceof Integer)) {
+            throw EvaluationException.intOverflow();
+        }
+        return result.intValue();
     }
 
     public Number op(Number l, Number r) throws Exception {
       // Check for division by zero
       if (r.doubleValue() == 0.0) {
-        throw new ArithmeticException("Division by zero is not allowed.");
+        throw EvaluationException.divisionByZero();
       }
       
       // Determine the highest precision type involved
@@ -78,14 +83,10 @@ public final class Divides extends Operation
           return l.doubleValue() / r.doubleValue();
       } else if (l instanceof Float || r instanceof Float) {
           return l.floatValue() / r.floatValue();
-      } else if (l instanceof Long || r instanceof Long) {
-          return l.longValue() / r.longValue();
-      } else if (l instanceof Integer || r instanceof Integer) {
-          return l.intValue() / r.intValue();
-      } else if (l instanceof Short || r instanceof Short) {
-          return l.shortValue() / r.shortValue();
+      } else if (CheckedArithmetic.isIntegral(l) && CheckedArithmetic.isIntegral(r)) {
+          return CheckedArithmetic.divide(l, r);
       } else {
-          return l.byteValue() / r.byteValue();
+          return l.doubleValue() / r.doubleValue();
       }
   }
 
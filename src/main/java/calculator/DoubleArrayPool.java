@@ -0,0 +1,194 @@
+package calculator;
+
+import java.lang.ref.SoftReference;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+
+/**
+ * Pool of {@code double[]} buffers bucketed by size, so that code producing many matrices of the
+ * same dimensions (iterative solvers, chained expressions) can recycle their storage instead of
+ * allocating it again. Buffer lengths are rounded up to a size class, 2^e, 1.25·2^e, 1.5·2^e or
+ * 1.75·2^e, so that a buffer is at most a quarter longer than requested.
+ * <p>
+ * The pool holds at most a few released buffers of each size, and no more than a byte budget in
+ * all, 4 MiB by default. Buffers of 1 MiB and more are only held through soft references, which
+ * the garbage collector clears before running out of memory, and buffers over 8 MiB are not
+ * pooled at all: a thread that once multiplied large tiles does not keep them for ever.
+ * Since every thread has its own pool, the memory held in total still grows with the number of threads.
+ * <p>
+ * A pool is not thread-safe: use {@link #forCurrentThread()} to get the pool confined to the calling thread.
+ * A buffer, or a matrix built on it, must not be used any more once it has been released.
+ */
+public final class DoubleArrayPool {
+
+    private static final ThreadLocal<DoubleArrayPool> CURRENT = ThreadLocal.withInitial(DoubleArrayPool::new);
+
+    /** Smallest size class, 2^4 doubles */
+    private static final int MIN_SHIFT = 4;
+    /** Length from which released buffers are softly referenced, 2^17 doubles (1 MiB) */
+    static final int SOFT_LENGTH = 1 << 17;
+    /** Largest pooled length, 2^20 doubles (8 MiB); bigger requests are not pooled */
+    static final int MAX_LENGTH = 1 << 20;
+    private static final int DEFAULT_BUFFERS_PER_BUCKET = 4;
+    private static final long DEFAULT_MAX_RETAINED_BYTES = 4L << 20;
+
+    @SuppressWarnings("unchecked")
+    private final ArrayDeque<double[]>[] buckets = new ArrayDeque[classOf(SOFT_LENGTH)];
+    /** Large released buffers, whatever their size, most recent first */
+    private final ArrayDeque<SoftReference<double[]>> large = new ArrayDeque<>();
+    private final int buffersPerBucket;
+    private final long maxRetainedBytes;
+    /** Bytes held by the strongly referenced buffers */
+    private long retainedBytes;
+
+    /**
+     * Creates a pool keeping up to four released buffers of each size, within 4 MiB.
+     */
+    public DoubleArrayPool() {
+        this(DEFAULT_BUFFERS_PER_BUCKET);
+    }
+
+    /**
+     * Creates a pool keeping up to a given number of released buffers of each size, within 4 MiB.
+     *
+     * @param buffersPerBucket Maximum number of buffers kept per size, and of large buffers
+     */
+    public DoubleArrayPool(int buffersPerBucket) {
+        this(buffersPerBucket, DEFAULT_MAX_RETAINED_BYTES);
+    }
+
+    /**
+     * Creates a pool keeping up to a given number of released buffers of each size, within a byte budget.
+     *
+     * @param buffersPerBucket Maximum number of buffers kept per size, and of large buffers
+     * @param maxRetainedBytes Maximum size of the buffers under 1 MiB held by the pool
+     */
+    public DoubleArrayPool(int buffersPerBucket, long maxRetainedBytes) {
+        this.buffersPerBucket = buffersPerBucket;
+        this.maxRetainedBytes = maxRetainedBytes;
+        for (int c = 0; c < buckets.length; c++) {
+            buckets[c] = new ArrayDeque<>();
+        }
+    }
+
+    /**
+     * Gets the pool confined to the current thread.
+     *
+     * @return The pool of the current thread
+     */
+    public static DoubleArrayPool forCurrentThread() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Takes a buffer of at least the given length from the pool, or allocates one.
+     * Its contents are unspecified.
+     *
+     * @param length The minimum length of the buffer
+     * @return A buffer whose length is the next size class, or exactly length for very large requests
+     */
+    public double[] acquire(int length) {
+        if (length > MAX_LENGTH) {
+            return new double[length];
+        }
+        int sizeClass = classOf(length);
+        int size = sizeOf(sizeClass);
+        if (size >= SOFT_LENGTH) {
+            return acquireLarge(size);
+        }
+        double[] buffer = buckets[sizeClass].pollFirst();
+        if (buffer == null) {
+            return new double[size];
+        }
+        retainedBytes -= 8L * size;
+        return buffer;
+    }
+
+    private double[] acquireLarge(int size) {
+        Iterator<SoftReference<double[]>> references = large.iterator();
+        while (references.hasNext()) {
+            double[] buffer = references.next().get();
+            if (buffer == null) {
+                references.remove();
+            } else if (buffer.length == size) {
+                references.remove();
+                return buffer;
+            }
+        }
+        return new double[size];
+    }
+
+    /**
+     * Returns a buffer to the pool. Buffers whose length is not one of the pool sizes are ignored,
+     * as are buffers beyond the capacity of the pool.
+     *
+     * @param buffer The buffer, which must not be used afterwards
+     */
+    public void release(double[] buffer) {
+        int length = buffer.length;
+        if (length < 1 << MIN_SHIFT || length > MAX_LENGTH || sizeOf(classOf(length)) != length) {
+            return;
+        }
+        if (length >= SOFT_LENGTH) {
+            large.removeIf(reference -> reference.get() == null);
+            if (large.size() < buffersPerBucket) {
+                large.addFirst(new SoftReference<>(buffer));
+            }
+            return;
+        }
+        ArrayDeque<double[]> queue = buckets[classOf(length)];
+        if (queue.size() < buffersPerBucket && retainedBytes + 8L * length <= maxRetainedBytes) {
+            queue.addFirst(buffer);
+            retainedBytes += 8L * length;
+        }
+    }
+
+    /**
+     * Creates a matrix on a pooled buffer. Its elements are unspecified.
+     *
+     * @param rows Number of rows
+     * @param cols Number of columns
+     * @return A new matrix backed by a pooled buffer
+     */
+    public Matrix acquireMatrix(int rows, int cols) {
+        return new Matrix(rows, cols, acquire(rows * cols));
+    }
+
+    /**
+     * Returns the buffer of a matrix to the pool.
+     *
+     * @param matrix The matrix, which must not be used afterwards, nor any view of it
+     */
+    public void release(Matrix matrix) {
+        release(matrix.data);
+    }
+
+    /**
+     * Gets the size of the buffers under 1 MiB held by the pool, which is at most its byte budget.
+     */
+    long getRetainedBytes() {
+        return retainedBytes;
+    }
+
+    /**
+     * Numbers the size classes from 0, the class of 2^MIN_SHIFT: the class of a length is the
+     * smallest 2^e + q·2^(e-2), q from 0 to 3, that is at least that length.
+     */
+    static int classOf(int length) {
+        if (length <= 1 << MIN_SHIFT) {
+            return 0;
+        }
+        // 2^e <= length - 1 < 2^(e+1), then q from 1 to 4 quarters of 2^e above it
+        int e = 31 - Integer.numberOfLeadingZeros(length - 1);
+        int q = ((length - 1) - (1 << e)) / (1 << (e - 2)) + 1;
+        return 4 * (e - MIN_SHIFT) + q;
+    }
+
+    /**
+     * Gets the buffer length of a size class.
+     */
+    static int sizeOf(int sizeClass) {
+        int e = MIN_SHIFT + sizeClass / 4;
+        return (1 << e) + (sizeClass % 4) * (1 << (e - 2));
+    }
+}
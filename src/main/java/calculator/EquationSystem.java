@@ -0,0 +1,417 @@
+package calculator;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A system of linear equations edited one equation at a time, re-solved without starting over.
+ * <p>
+ * While the system is square, the LU factors of its coefficients are kept and every edit that
+ * changes a single row of the matrix is applied as a rank-one update in product form
+ * (Sherman–Morrison): replacing an equation over the same number of variables, adding an
+ * equation that brings exactly one new variable, or removing an equation that holds the only
+ * occurrence of one variable. Each update and each solve then costs O(n²) instead of the O(n³)
+ * of a new elimination. Added rows take the place of removed ones, or extend the factored matrix
+ * with identity rows, so that the factors never have to be resized.
+ * <p>
+ * Other edits, or {@value #MAX_UPDATES} updates in a row, only mark the factors stale: the next
+ * solve factors the system again, or hands it to {@link LinearEquationSolver#solveSystem(String[])}
+ * when it is not square, which also reports why a system has no unique solution.
+ */
+public class EquationSystem {
+
+    /** Number of rank-one updates after which the system is factored again, bounding the cost of a solve and the drift */
+    static final int MAX_UPDATES = 64;
+
+    /** Cancellation of a Sherman–Morrison denominator below which an update is replaced by a new factorization */
+    static final double SINGULAR_RATIO = 1e-8;
+
+    /**
+     * A rank-one update A' = A + e_row delta^T, with w = A^-1 e_row.
+     */
+    private static final class Update {
+        final int[] columns;
+        final double[] delta;
+        final double[] w;
+        final double denominator;
+
+        Update(int[] columns, double[] delta, double[] w, double denominator) {
+            this.columns = columns;
+            this.delta = delta;
+            this.w = w;
+            this.denominator = denominator;
+        }
+    }
+
+    private final LinearEquationParser parser = new LinearEquationParser();
+    private final List<String> texts = new ArrayList<>();
+    private final List<LinearEquationParser.Equation> equations = new ArrayList<>();
+    /** Number of equations containing each variable, by id */
+    private int[] occurrences = new int[16];
+
+    /** Whether the factors below describe the current equations */
+    private boolean factored;
+    /** Row of the factored matrix holding each equation */
+    private final List<Integer> rows = new ArrayList<>();
+    /** Column of the factored matrix of each variable by id, -1 if it has none */
+    private int[] columns = new int[16];
+    /** Rows and columns of removed equations and variables, paired by an identity entry: {row, column} */
+    private final Deque<int[]> vacant = new ArrayDeque<>();
+    /** Size of the factored matrix, the base factors followed by identity rows */
+    private int size;
+    private LUDecomposition base;
+    private final List<Update> updates = new ArrayList<>();
+    /** Right-hand side by row of the factored matrix, zero on vacant rows */
+    private double[] rightHandSide = new double[0];
+
+    /**
+     * Gets the number of equations.
+     *
+     * @return The number of equations of the system
+     */
+    public int getEquationCount() {
+        return texts.size();
+    }
+
+    /**
+     * Gets an equation.
+     *
+     * @param index The position of the equation
+     * @return Its text
+     * @throws IndexOutOfBoundsException If there is no such equation
+     */
+    public String getEquation(int index) {
+        return texts.get(index);
+    }
+
+    /**
+     * Appends an equation to the system.
+     *
+     * @param equation The equation
+     * @throws IllegalArgumentException If the equation is not a well-formed linear equation
+     */
+    public void add(String equation) {
+        LinearEquationParser.Equation parsed = parser.parse(equation);
+        growById();
+        texts.add(equation);
+        equations.add(parsed);
+        List<Integer> added = count(parsed, 1);
+        rows.add(-1);
+
+        if (factored) {
+            if (added.size() != 1) {
+                invalidate();
+                return;
+            }
+            int[] slot = vacant.isEmpty() ? extend() : vacant.pop();
+            columns[added.get(0)] = slot[1];
+            rows.set(rows.size() - 1, slot[0]);
+            // The row was e_column^T
+            update(slot[0], parsed, null, slot[1]);
+        }
+    }
+
+    /**
+     * Replaces an equation of the system.
+     *
+     * @param index The position of the equation
+     * @param equation The new equation
+     * @throws IllegalArgumentException If the equation is not a well-formed linear equation
+     * @throws IndexOutOfBoundsException If there is no such equation
+     */
+    public void set(int index, String equation) {
+        LinearEquationParser.Equation old = equations.get(index);
+        LinearEquationParser.Equation parsed = parser.parse(equation);
+        growById();
+        texts.set(index, equation);
+        equations.set(index, parsed);
+        List<Integer> added = count(parsed, 1);
+        List<Integer> removed = count(old, -1);
+
+        if (factored) {
+            if (added.size() != removed.size()) {
+                invalidate();
+                return;
+            }
+            // New variables take the columns of the ones that disappeared, all confined to this row
+            for (int k = 0; k < added.size(); k++) {
+                columns[added.get(k)] = columns[removed.get(k)];
+            }
+            update(rows.get(index), parsed, old, -1);
+            for (int id : removed) {
+                columns[id] = -1;
+            }
+        }
+    }
+
+    /**
+     * Removes an equation from the system.
+     *
+     * @param index The position of the equation
+     * @throws IndexOutOfBoundsException If there is no such equation
+     */
+    public void remove(int index) {
+        LinearEquationParser.Equation old = equations.get(index);
+        texts.remove(index);
+        equations.remove(index);
+        int row = rows.remove(index);
+        List<Integer> removed = count(old, -1);
+
+        if (factored) {
+            if (removed.size() != 1) {
+                invalidate();
+                return;
+            }
+            int column = columns[removed.get(0)];
+            vacant.push(new int[] {row, column});
+            // The row becomes e_column^T
+            update(row, null, old, column);
+            columns[removed.get(0)] = -1;
+        }
+    }
+
+    /**
+     * Replaces all the equations, applying the edits position by position:
+     * the equations that did not change are left alone, so editing one of them costs one update.
+     *
+     * @param newEquations The equations of the system, in order
+     * @throws IllegalArgumentException If an equation is not a well-formed linear equation,
+     *         in which case the system is left unchanged
+     */
+    public void setEquations(List<String> newEquations) {
+        // Check every equation before touching the system
+        LinearEquationParser check = new LinearEquationParser();
+        for (String equation : newEquations) {
+            check.parse(equation);
+        }
+
+        int common = Math.min(texts.size(), newEquations.size());
+        for (int i = 0; i < common; i++) {
+            if (!texts.get(i).equals(newEquations.get(i))) {
+                set(i, newEquations.get(i));
+            }
+        }
+        while (texts.size() > newEquations.size()) {
+            remove(texts.size() - 1);
+        }
+        for (int i = common; i < newEquations.size(); i++) {
+            add(newEquations.get(i));
+        }
+    }
+
+    /**
+     * Solves the system.
+     *
+     * @return A map of variable names to their solution values
+     * @throws IllegalArgumentException If the system has no equations or no unique solution
+     */
+    public Map<String, Double> solve() {
+        if (texts.isEmpty()) {
+            throw new IllegalArgumentException("No equations provided");
+        }
+        // Equations that failed to parse may have left names behind
+        growById();
+        if (!factored || updates.size() >= MAX_UPDATES) {
+            factor();
+        }
+        if (!factored) {
+            return LinearEquationSolver.solveSystem(texts.toArray(new String[0]));
+        }
+
+        double[] x = apply(rightHandSide);
+        Map<String, Double> solutions = new HashMap<>();
+        for (int id = 0; id < parser.getVariableCount(); id++) {
+            if (occurrences[id] > 0) {
+                solutions.put(parser.getName(id), x[columns[id]]);
+            }
+        }
+        return solutions;
+    }
+
+    /**
+     * Checks whether the system is currently factored, so that edits are applied as updates.
+     */
+    boolean isFactored() {
+        return factored;
+    }
+
+    /**
+     * Gets the number of updates applied since the system was last factored.
+     */
+    int getUpdateCount() {
+        return updates.size();
+    }
+
+    /**
+     * Factors the system from scratch when it is square and non-singular.
+     */
+    private void factor() {
+        invalidate();
+        int n = equations.size();
+        int variables = 0;
+        for (int id = 0; id < parser.getVariableCount(); id++) {
+            columns[id] = (occurrences[id] > 0) ? variables++ : -1;
+        }
+        if (variables != n) {
+            return;
+        }
+
+        long start = System.nanoTime();
+        double[] a = new double[n * n];
+        rightHandSide = new double[n];
+        for (int i = 0; i < n; i++) {
+            LinearEquationParser.Equation equation = equations.get(i);
+            for (int t = 0; t < equation.size(); t++) {
+                a[i * n + columns[equation.variables[t]]] = equation.coefficients[t];
+            }
+            rightHandSide[i] = equation.constant;
+            rows.set(i, i);
+        }
+        LUDecomposition decomposition = new LUDecomposition(Matrix.fromRowMajor(n, n, a));
+        LinearEquationSolver.getMetrics().record(SolverMetrics.Step.FACTOR, start);
+        if (!decomposition.isSingular()) {
+            base = decomposition;
+            size = n;
+            factored = true;
+        }
+    }
+
+    /**
+     * Drops the factors; the next solve starts over.
+     */
+    private void invalidate() {
+        factored = false;
+        base = null;
+        updates.clear();
+        vacant.clear();
+    }
+
+    /**
+     * Appends an identity row and column to the factored matrix.
+     */
+    private int[] extend() {
+        size++;
+        rightHandSide = Arrays.copyOf(rightHandSide, size);
+        return new int[] {size - 1, size - 1};
+    }
+
+    /**
+     * Replaces one row of the factored matrix, from an old equation or the identity row e_unit^T
+     * to a new equation or e_unit^T, with the Sherman–Morrison formula.
+     *
+     * @param row The row of the factored matrix
+     * @param equation The new equation, or null if the row becomes e_unit^T
+     * @param old The old equation, or null if the row was e_unit^T
+     * @param unit The column of the identity entry, if any
+     */
+    private void update(int row, LinearEquationParser.Equation equation, LinearEquationParser.Equation old, int unit) {
+        long start = System.nanoTime();
+        double[] difference = new double[size];
+        if (equation != null) {
+            for (int t = 0; t < equation.size(); t++) {
+                difference[columns[equation.variables[t]]] += equation.coefficients[t];
+            }
+        } else {
+            difference[unit] += 1.0;
+        }
+        if (old != null) {
+            for (int t = 0; t < old.size(); t++) {
+                difference[columns[old.variables[t]]] -= old.coefficients[t];
+            }
+        } else {
+            difference[unit] -= 1.0;
+        }
+        rightHandSide[row] = (equation != null) ? equation.constant : 0.0;
+
+        int nonZeros = 0;
+        for (double value : difference) {
+            if (value != 0.0) {
+                nonZeros++;
+            }
+        }
+        int[] deltaColumns = new int[nonZeros];
+        double[] delta = new double[nonZeros];
+        int k = 0;
+        for (int j = 0; j < size; j++) {
+            if (difference[j] != 0.0) {
+                deltaColumns[k] = j;
+                delta[k] = difference[j];
+                k++;
+            }
+        }
+
+        double[] unitRow = new double[size];
+        unitRow[row] = 1.0;
+        double[] w = apply(unitRow);
+        double denominator = 1.0;
+        double scale = 1.0;
+        for (int t = 0; t < nonZeros; t++) {
+            denominator += delta[t] * w[deltaColumns[t]];
+            scale += Math.abs(delta[t] * w[deltaColumns[t]]);
+        }
+        // The denominator is det(A') / det(A): when it nearly cancels, the updated matrix is nearly
+        // singular and a new factorization decides whether the system still has a unique solution
+        if (Math.abs(denominator) <= SINGULAR_RATIO * scale) {
+            invalidate();
+            return;
+        }
+        updates.add(new Update(deltaColumns, delta, w, denominator));
+        LinearEquationSolver.getMetrics().record(SolverMetrics.Step.UPDATE, start);
+    }
+
+    /**
+     * Solves the factored matrix against a right-hand side: the base factors, identity on the
+     * rows added since, then each update in turn.
+     */
+    private double[] apply(double[] y) {
+        int n = base.getSize();
+        double[] x = Arrays.copyOf(y, size);
+        System.arraycopy(base.solve(Arrays.copyOf(y, n)), 0, x, 0, n);
+        for (Update update : updates) {
+            double dot = 0.0;
+            for (int t = 0; t < update.columns.length; t++) {
+                dot += update.delta[t] * x[update.columns[t]];
+            }
+            double factor = dot / update.denominator;
+            if (factor != 0.0) {
+                // Rows appended after the update have no component in w
+                for (int j = 0; j < update.w.length; j++) {
+                    x[j] -= factor * update.w[j];
+                }
+            }
+        }
+        return x;
+    }
+
+    /**
+     * Adds sign to the occurrence count of the variables of an equation.
+     *
+     * @return The ids of the variables that appeared (sign 1) or disappeared (sign -1)
+     */
+    private List<Integer> count(LinearEquationParser.Equation equation, int sign) {
+        List<Integer> changed = new ArrayList<>();
+        for (int id : equation.variables) {
+            occurrences[id] += sign;
+            if ((sign > 0) ? occurrences[id] == 1 : occurrences[id] == 0) {
+                changed.add(id);
+            }
+        }
+        return changed;
+    }
+
+    private void growById() {
+        int count = parser.getVariableCount();
+        if (count > occurrences.length) {
+            int length = Math.max(count, occurrences.length * 2);
+            occurrences = Arrays.copyOf(occurrences, length);
+            int from = columns.length;
+            columns = Arrays.copyOf(columns, length);
+            Arrays.fill(columns, from, length, -1);
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package calculator;
+
+/**
+ * Exception thrown when a well-formed arithmetic expression cannot be evaluated,
+ * for instance because of a division by zero.
+ * The errors raised during evaluation carry no stack trace: their kind and message
+ * are all a caller needs, and an error-heavy workload then costs little more than a
+ * successful one. Each error is a new instance, since a shared Throwable would
+ * accumulate the suppressed exceptions and causes that callers attach to it.
+ */
+public class EvaluationException extends ArithmeticException {
+
+    /**
+     * The kind of evaluation error, used by callers to report it without parsing the message.
+     */
+    public enum Kind {
+        /** Division or modulo by zero */
+        DIVISION_BY_ZERO,
+        /** Argument outside the domain of a function (e.g. the logarithm of a negative number) */
+        DOMAIN_ERROR,
+        /** Result that cannot be represented */
+        OVERFLOW,
+        /** Operation that cannot be applied to its operands */
+        INVALID_OPERATION
+    }
+
+    /**
+     * Creates the error raised by a division by zero.
+     *
+     * @return A new evaluation error
+     */
+    public static EvaluationException divisionByZero() {
+        return new EvaluationException(Kind.DIVISION_BY_ZERO, "Division by zero is not allowed.");
+    }
+
+    /**
+     * Creates the error raised by a modulo by zero.
+     *
+     * @return A new evaluation error
+     */
+    public static EvaluationException moduloByZero() {
+        return new EvaluationException(Kind.DIVISION_BY_ZERO, "Modulo by zero is not allowed.");
+    }
+
+    /**
+     * Creates the error raised when the result of an int operation does not fit in an int.
+     *
+     * @return A new evaluation error
+     */
+    public static EvaluationException intOverflow() {
+        return new EvaluationException(Kind.OVERFLOW, "integer overflow");
+    }
+
+    private final Kind kind;
+
+    /**
+     * Constructor method
+     *
+     * @param kind The kind of evaluation error
+     * @param message The message describing the error
+     */
+    public EvaluationException(Kind kind, String message) {
+        super(message);
+        this.kind = kind;
+    }
+
+    /**
+     * getter method to obtain the kind of evaluation error
+     *
+     * @return The kind of the error
+     */
+    public Kind getKind() {
+        return kind;
+    }
+
+    /**
+     * Evaluation errors do not record a stack trace, which is what makes them cheap to raise.
+     *
+     * @return This exception
+     */
+    @Override
+    public synchronized Throwable fillInStackTrace() {
+        return this;
+    }
+}
@@ -31,7 +31,7 @@ public final class Exp extends Operation implements UnaryOperation {
    * @throws IllegalConstruction If null or empty list is passed as parameter
    */
   public Exp(List<Expression> elist) throws IllegalConstruction {
-    super(elist, null);
+    super(elist, null, OP_EXP);
     symbol = "exp";
     neutral = 0; // No real neutral element for exponential
   }
@@ -44,7 +44,7 @@ public final class Exp extends Operation implements UnaryOperation {
    * @throws IllegalConstruction If a null expression is passed as parameter
    */
   public Exp(Notation n, Expression expr) throws IllegalConstruction {
-    super(n, expr);
+    super(n, OP_EXP, expr);
     symbol = "exp";
     neutral = 0;
   }
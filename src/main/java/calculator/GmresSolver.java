@@ -0,0 +1,128 @@
+package calculator;
+
+import java.util.Arrays;
+
+/**
+ * Restarted GMRES(m) with right preconditioning, for general non-symmetric systems.
+ * <p>
+ * Each cycle builds an orthonormal basis of up to m Krylov vectors by modified Gram-Schmidt
+ * and picks the combination minimizing the residual, kept up to date with Givens rotations,
+ * so the residual never increases. Memory grows with the restart length, m + 1 vectors
+ * per cycle; longer restarts converge in fewer iterations on hard systems.
+ */
+public class GmresSolver extends IterativeSolver {
+
+    /** Default number of iterations between restarts */
+    public static final int DEFAULT_RESTART = 30;
+
+    private final int restart;
+
+    /**
+     * Creates a solver with the default restart length, tolerance and iteration cap.
+     */
+    public GmresSolver() {
+        this(DEFAULT_RESTART, DEFAULT_TOLERANCE, DEFAULT_MAX_ITERATIONS);
+    }
+
+    /**
+     * Creates a solver with a given restart length and stopping criterion.
+     *
+     * @param restart Number of iterations between restarts, positive
+     * @param tolerance Relative residual at which a solve stops
+     * @param maxIterations Maximum number of iterations, over all cycles
+     */
+    public GmresSolver(int restart, double tolerance, int maxIterations) {
+        super(tolerance, maxIterations);
+        if (restart <= 0) {
+            throw new IllegalArgumentException("GMRES restart length must be positive, got " + restart);
+        }
+        this.restart = restart;
+    }
+
+    @Override
+    void iterate(RealMatrix a, double[] b, Preconditioner preconditioner, double[] x, Progress progress) {
+        int n = b.length;
+        int m = Math.min(restart, n);
+        double[][] basis = new double[m + 1][n];
+        double[][] h = new double[m + 1][m];
+        double[] cosines = new double[m];
+        double[] sines = new double[m];
+        double[] g = new double[m + 1];
+        double[] z = new double[n];
+        double[] w = new double[n];
+
+        double beta = residual(a, b, x, basis[0]);
+        if (progress.record(beta)) {
+            return;
+        }
+
+        while (true) {
+            for (int i = 0; i < n; i++) {
+                basis[0][i] /= beta;
+            }
+            Arrays.fill(g, 0.0);
+            g[0] = beta;
+
+            int k = 0;
+            boolean stop = false;
+            while (k < m && !stop) {
+                preconditioner.apply(basis[k], z);
+                multiply(a, z, w);
+                for (int i = 0; i <= k; i++) {
+                    h[i][k] = dot(w, basis[i]);
+                    axpy(-h[i][k], basis[i], w);
+                }
+                h[k + 1][k] = norm(w);
+                boolean lucky = h[k + 1][k] == 0.0;
+                if (!lucky) {
+                    for (int i = 0; i < n; i++) {
+                        basis[k + 1][i] = w[i] / h[k + 1][k];
+                    }
+                }
+
+                // Apply the previous rotations to the new column, then eliminate its subdiagonal
+                for (int i = 0; i < k; i++) {
+                    double upper = cosines[i] * h[i][k] + sines[i] * h[i + 1][k];
+                    h[i + 1][k] = -sines[i] * h[i][k] + cosines[i] * h[i + 1][k];
+                    h[i][k] = upper;
+                }
+                double radius = Math.hypot(h[k][k], h[k + 1][k]);
+                cosines[k] = h[k][k] / radius;
+                sines[k] = h[k + 1][k] / radius;
+                h[k][k] = radius;
+                h[k + 1][k] = 0.0;
+                g[k + 1] = -sines[k] * g[k];
+                g[k] = cosines[k] * g[k];
+
+                k++;
+                stop = progress.record(Math.abs(g[k])) || lucky;
+            }
+
+            // x += M⁻¹ V y, where H y = g is upper triangular
+            double[] y = new double[k];
+            for (int i = k - 1; i >= 0; i--) {
+                double sum = g[i];
+                for (int j = i + 1; j < k; j++) {
+                    sum -= h[i][j] * y[j];
+                }
+                y[i] = sum / h[i][i];
+            }
+            Arrays.fill(w, 0.0);
+            for (int j = 0; j < k; j++) {
+                axpy(y[j], basis[j], w);
+            }
+            preconditioner.apply(w, z);
+            axpy(1.0, z, x);
+
+            if (progress.converged || progress.iterations >= getMaxIterations()) {
+                return;
+            }
+            // Restart from the true residual, which rounding may have moved away from |g|
+            beta = residual(a, b, x, basis[0]);
+            if (beta == 0.0) {
+                progress.converged = true;
+                return;
+            }
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package calculator;
+
+/**
+ * Outcome of an iterative solve: the approximate solution and how the solver got there.
+ * The residual history lets callers compare solvers and preconditioners on their systems.
+ */
+public class IterativeSolution {
+
+    private final double[] solution;
+    private final boolean converged;
+    private final int iterations;
+    private final double[] residualHistory;
+    private final long elapsedNanos;
+
+    IterativeSolution(double[] solution, boolean converged, int iterations, double[] residualHistory, long elapsedNanos) {
+        this.solution = solution;
+        this.converged = converged;
+        this.iterations = iterations;
+        this.residualHistory = residualHistory;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    /**
+     * Gets the approximate solution x of Ax = b.
+     *
+     * @return The solution vector, owned by the caller
+     */
+    public double[] getSolution() {
+        return solution;
+    }
+
+    /**
+     * Tells whether the relative residual went below the tolerance.
+     * When it did not, the solution is the last iterate and should not be trusted.
+     *
+     * @return true if the solver converged
+     */
+    public boolean isConverged() {
+        return converged;
+    }
+
+    /**
+     * Gets the number of iterations run, each costing about one matrix-vector product
+     * (two for BiCGSTAB).
+     *
+     * @return The number of iterations
+     */
+    public int getIterations() {
+        return iterations;
+    }
+
+    /**
+     * Gets the final relative residual ||b - Ax|| / ||b||, as tracked by the solver.
+     *
+     * @return The relative residual
+     */
+    public double getResidual() {
+        return residualHistory[residualHistory.length - 1];
+    }
+
+    /**
+     * Gets the relative residual before the first iteration and after each of them.
+     *
+     * @return A new array of iterations + 1 residuals
+     */
+    public double[] getResidualHistory() {
+        return residualHistory.clone();
+    }
+
+    /**
+     * Gets the wall-clock time of the solve, preconditioner application included.
+     *
+     * @return The elapsed time in nanoseconds
+     */
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    @Override
+    public String toString() {
+        return (converged ? "Converged" : "Did not converge") + " in " + iterations + " iterations, residual " +
+               getResidual() + ", " + (elapsedNanos / 1_000_000) + " ms";
+    }
+}
@@ -0,0 +1,228 @@
+package calculator;
+
+import java.util.Arrays;
+
+/**
+ * Base of the Krylov solvers of Ax = b for large sparse systems, which only touch A through
+ * matrix-vector products: each iteration costs O(nnz) instead of the O(n³) of elimination,
+ * and nothing beyond a few vectors is allocated.
+ * <p>
+ * A solve stops when the relative residual ||b - Ax|| / ||b|| falls below the tolerance, or
+ * after the maximum number of iterations; the returned {@link IterativeSolution} tells which
+ * and records the residual after every iteration. A {@link Listener} can follow the solve as
+ * it runs, for instance to log or plot its convergence.
+ *
+ * @see ConjugateGradientSolver
+ * @see BiCGStabSolver
+ * @see GmresSolver
+ */
+public abstract class IterativeSolver {
+
+    /** Default relative residual at which a solve stops */
+    public static final double DEFAULT_TOLERANCE = 1e-10;
+
+    /** Default maximum number of iterations */
+    public static final int DEFAULT_MAX_ITERATIONS = 1000;
+
+    /**
+     * Observer of the convergence of a solve.
+     */
+    @FunctionalInterface
+    public interface Listener {
+        /**
+         * Called after each iteration.
+         *
+         * @param iteration The number of iterations run so far
+         * @param residual The current relative residual
+         */
+        void iteration(int iteration, double residual);
+    }
+
+    private final double tolerance;
+    private final int maxIterations;
+    private Listener listener;
+
+    /**
+     * Creates a solver with a given stopping criterion.
+     *
+     * @param tolerance Relative residual at which a solve stops, positive
+     * @param maxIterations Maximum number of iterations, positive
+     */
+    protected IterativeSolver(double tolerance, int maxIterations) {
+        if (!(tolerance > 0) || maxIterations <= 0) {
+            throw new IllegalArgumentException(
+                "Tolerance and iteration cap must be positive, got " + tolerance + " and " + maxIterations);
+        }
+        this.tolerance = tolerance;
+        this.maxIterations = maxIterations;
+    }
+
+    /**
+     * Sets the listener notified after each iteration.
+     *
+     * @param listener The listener, or null to remove it
+     */
+    public void setListener(Listener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Gets the relative residual at which a solve stops.
+     *
+     * @return The tolerance
+     */
+    public double getTolerance() {
+        return tolerance;
+    }
+
+    /**
+     * Gets the maximum number of iterations.
+     *
+     * @return The iteration cap
+     */
+    public int getMaxIterations() {
+        return maxIterations;
+    }
+
+    /**
+     * Solves Ax = b without preconditioning, starting from x = 0.
+     *
+     * @param a The square matrix A
+     * @param b The right-hand side
+     * @return The solution and its convergence telemetry
+     * @throws IllegalArgumentException If A is not square or b does not match its size
+     */
+    public IterativeSolution solve(RealMatrix a, double[] b) {
+        return solve(a, b, Preconditioner.IDENTITY, null);
+    }
+
+    /**
+     * Solves Ax = b with a preconditioner, starting from x = 0.
+     *
+     * @param a The square matrix A
+     * @param b The right-hand side
+     * @param preconditioner The preconditioner, built from A
+     * @return The solution and its convergence telemetry
+     * @throws IllegalArgumentException If A is not square or b does not match its size
+     */
+    public IterativeSolution solve(RealMatrix a, double[] b, Preconditioner preconditioner) {
+        return solve(a, b, preconditioner, null);
+    }
+
+    /**
+     * Solves Ax = b with a preconditioner, starting from an initial guess,
+     * for instance the solution of a nearby system.
+     *
+     * @param a The square matrix A
+     * @param b The right-hand side
+     * @param preconditioner The preconditioner, built from A
+     * @param initialGuess The starting point, left untouched, or null for x = 0
+     * @return The solution and its convergence telemetry
+     * @throws IllegalArgumentException If A is not square or the vectors do not match its size
+     */
+    public IterativeSolution solve(RealMatrix a, double[] b, Preconditioner preconditioner, double[] initialGuess) {
+        int n = a.getRows();
+        if (a.getCols() != n) {
+            throw new IllegalArgumentException("Only square systems can be solved");
+        }
+        if (b.length != n || (initialGuess != null && initialGuess.length != n)) {
+            throw new IllegalArgumentException("Vector size mismatch for a system of " + n + " unknowns");
+        }
+
+        long start = System.nanoTime();
+        double[] x = (initialGuess != null) ? initialGuess.clone() : new double[n];
+        Progress progress = new Progress(norm(b));
+        if (progress.bNorm == 0.0) {
+            // The solution of Ax = 0 is x = 0
+            Arrays.fill(x, 0.0);
+            progress.record(0.0);
+        } else {
+            iterate(a, b, preconditioner, x, progress);
+        }
+        return new IterativeSolution(x, progress.converged, progress.iterations,
+                                     Arrays.copyOf(progress.history, progress.iterations + 1),
+                                     System.nanoTime() - start);
+    }
+
+    /**
+     * Runs the iterations of the method, updating x in place, until progress says to stop.
+     * The first residual recorded is that of the initial guess.
+     */
+    abstract void iterate(RealMatrix a, double[] b, Preconditioner preconditioner, double[] x, Progress progress);
+
+    /**
+     * Tracks the residuals of a solve and decides when it stops.
+     */
+    final class Progress {
+        final double bNorm;
+        double[] history = new double[64];
+        int iterations = -1;
+        boolean converged;
+
+        Progress(double bNorm) {
+            this.bNorm = bNorm;
+        }
+
+        /**
+         * Records the norm of the current residual, counting an iteration unless it is the initial one.
+         *
+         * @return true if the solve must stop, converged or out of iterations
+         */
+        boolean record(double residualNorm) {
+            double relative = (bNorm == 0.0) ? residualNorm : residualNorm / bNorm;
+            iterations++;
+            if (iterations == history.length) {
+                history = Arrays.copyOf(history, history.length * 2);
+            }
+            history[iterations] = relative;
+            if (iterations > 0 && listener != null) {
+                listener.iteration(iterations, relative);
+            }
+            converged = relative <= tolerance;
+            return converged || iterations >= maxIterations;
+        }
+    }
+
+    /**
+     * Computes y = Ax, in place for sparse matrices.
+     */
+    static void multiply(RealMatrix a, double[] x, double[] y) {
+        if (a instanceof SparseMatrix) {
+            ((SparseMatrix) a).multiplyInto(x, y);
+        } else {
+            System.arraycopy(a.multiply(x), 0, y, 0, y.length);
+        }
+    }
+
+    /**
+     * Computes r = b - Ax and returns its norm.
+     */
+    static double residual(RealMatrix a, double[] b, double[] x, double[] r) {
+        multiply(a, x, r);
+        for (int i = 0; i < r.length; i++) {
+            r[i] = b[i] - r[i];
+        }
+        return norm(r);
+    }
+
+    static double dot(double[] u, double[] v) {
+        double sum = 0.0;
+        for (int i = 0; i < u.length; i++) {
+            sum += u[i] * v[i];
+        }
+        return sum;
+    }
+
+    static double norm(double[] v) {
+        return Math.sqrt(dot(v, v));
+    }
+
+    /**
+     * Computes y += alpha * x.
+     */
+    static void axpy(double alpha, double[] x, double[] y) {
+        for (int i = 0; i < y.length; i++) {
+            y[i] += alpha * x[i];
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package calculator;
+
+/**
+ * Jacobi (diagonal) preconditioner: M is the diagonal of A.
+ * It costs one division per element to apply and suits diagonally dominant systems.
+ */
+public class JacobiPreconditioner implements Preconditioner {
+
+    private final double[] inverseDiagonal;
+
+    /**
+     * Builds the preconditioner of a square matrix.
+     *
+     * @param matrix The matrix A
+     * @throws IllegalArgumentException If the matrix is not square or has a zero on its diagonal
+     */
+    public JacobiPreconditioner(RealMatrix matrix) {
+        if (matrix.getRows() != matrix.getCols()) {
+            throw new IllegalArgumentException("A preconditioner requires a square matrix");
+        }
+        int n = matrix.getRows();
+        inverseDiagonal = new double[n];
+        for (int i = 0; i < n; i++) {
+            double d = matrix.get(i, i);
+            if (d == 0.0) {
+                throw new IllegalArgumentException("Jacobi preconditioner requires a non-zero diagonal, row " + i + " has none");
+            }
+            inverseDiagonal[i] = 1.0 / d;
+        }
+    }
+
+    @Override
+    public void apply(double[] residual, double[] result) {
+        for (int i = 0; i < inverseDiagonal.length; i++) {
+            result[i] = residual[i] * inverseDiagonal[i];
+        }
+    }
+}
@@ -0,0 +1,518 @@
+package calculator;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * LU decomposition with partial pivoting of a square matrix: PA = LU, where P is a row permutation,
+ * L is unit lower triangular and U is upper triangular.
+ * <p>
+ * The factorization costs O(n³) once; the determinant then costs O(n), and each solve O(n²)
+ * per right-hand side. L and U are stored together in a single row-major array,
+ * the unit diagonal of L being implicit.
+ * <p>
+ * Matrices of at least {@value #BLOCKED_THRESHOLD} rows are factored by blocks, right-looking:
+ * a panel of {@value #PANEL} columns is factored with partial pivoting, the matching rows of U
+ * are solved, then the trailing matrix receives the rank-{@value #PANEL} update of the panel,
+ * split into row bands computed in parallel on a fork-join pool. The update holds nearly all the
+ * work and reads the panel rows of U from cache; the pivots are the same as unblocked elimination.
+ */
+public class LUDecomposition {
+
+    /** Size from which the factorization is blocked and its trailing updates run in parallel */
+    static final int BLOCKED_THRESHOLD = 192;
+
+    /** Number of columns of a panel */
+    static final int PANEL = 64;
+
+    /** Number of columns of the trailing matrix updated together, so that the panel rows they read stay in cache */
+    static final int COLUMN_TILE = 256;
+
+    /** Number of multiply-adds below which a band of the trailing update is not split any further */
+    static final long LEAF_WORK = 1L << 20;
+
+    private final int n;
+    /** L below the diagonal, U on and above it */
+    private final double[] lu;
+    /** Row i of PA is row pivot[i] of A */
+    private final int[] pivot;
+    /** +1 or -1, the sign of the permutation */
+    private int pivotSign = 1;
+    /** 1-norm of A, kept for the condition number estimate */
+    private final double norm1;
+    private boolean singular;
+
+    /**
+     * Factors a square matrix, large ones in parallel on the common fork-join pool.
+     *
+     * @param matrix The matrix to factor
+     * @throws IllegalArgumentException If the matrix is not square
+     */
+    public LUDecomposition(Matrix matrix) {
+        this(matrix, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Factors a square matrix, large ones in parallel on a dedicated pool,
+     * for instance to bound the number of cores used by a batch job.
+     *
+     * @param matrix The matrix to factor
+     * @param pool The pool running the trailing updates of a blocked factorization
+     * @throws IllegalArgumentException If the matrix is not square
+     */
+    public LUDecomposition(Matrix matrix, ForkJoinPool pool) {
+        if (matrix.getRows() != matrix.getCols()) {
+            throw new IllegalArgumentException("LU decomposition requires a square matrix");
+        }
+        n = matrix.getRows();
+        lu = matrix.toRowMajorArray();
+        pivot = new int[n];
+        for (int i = 0; i < n; i++) {
+            pivot[i] = i;
+        }
+
+        double maxAbs = 0.0;
+        double maxColumnSum = 0.0;
+        for (int j = 0; j < n; j++) {
+            double columnSum = 0.0;
+            for (int i = 0; i < n; i++) {
+                double abs = Math.abs(lu[i * n + j]);
+                columnSum += abs;
+                maxAbs = Math.max(maxAbs, abs);
+            }
+            maxColumnSum = Math.max(maxColumnSum, columnSum);
+        }
+        norm1 = maxColumnSum;
+        // Pivots at rounding-error level relative to the entries of A are treated as zero
+        double tolerance = n * Math.ulp(1.0) * maxAbs;
+
+        if (n < BLOCKED_THRESHOLD) {
+            factorPanel(0, n, n, tolerance);
+        } else {
+            factorBlocked(tolerance, pool);
+        }
+    }
+
+    /**
+     * Right-looking blocked factorization: panel, rows of U, trailing update, for each panel in turn.
+     */
+    private void factorBlocked(double tolerance, ForkJoinPool pool) {
+        for (int k0 = 0; k0 < n; k0 += PANEL) {
+            int k1 = Math.min(k0 + PANEL, n);
+            factorPanel(k0, k1, k1, tolerance);
+            if (k1 == n) {
+                break;
+            }
+
+            // Rows k0..k1 of U right of the panel: forward substitution with the unit triangle of L in the panel
+            for (int i = k0 + 1; i < k1; i++) {
+                subtractCombination(lu, i * n, lu, n, i * n + k1, k1, k0, i, n - k1);
+            }
+
+            long work = (long) (n - k1) * (n - k1) * (k1 - k0);
+            if (work <= LEAF_WORK || pool.getParallelism() == 1) {
+                updateTrailing(k0, k1, k1, n);
+            } else {
+                pool.invoke(new TrailingUpdate(k0, k1, k1, n));
+            }
+        }
+    }
+
+    /**
+     * Factors columns [from, to) with partial pivoting, eliminating below each pivot in columns up to end.
+     * Rows are swapped whole, so that the multipliers already in L follow their rows. A column
+     * without a pivot above the tolerance marks the matrix singular and gets zero multipliers.
+     */
+    private void factorPanel(int from, int to, int end, double tolerance) {
+        for (int k = from; k < to; k++) {
+            // Pick the largest pivot in column k
+            int p = k;
+            double max = Math.abs(lu[k * n + k]);
+            for (int i = k + 1; i < n; i++) {
+                double abs = Math.abs(lu[i * n + k]);
+                if (abs > max) {
+                    max = abs;
+                    p = i;
+                }
+            }
+            if (p != k) {
+                swapRows(k, p);
+                int tmp = pivot[k];
+                pivot[k] = pivot[p];
+                pivot[p] = tmp;
+                pivotSign = -pivotSign;
+            }
+            if (max <= tolerance) {
+                singular = true;
+                for (int i = k + 1; i < n; i++) {
+                    lu[i * n + k] = 0.0;
+                }
+                continue;
+            }
+
+            // Eliminate below the pivot, row by row so that the inner loop is contiguous
+            double ukk = lu[k * n + k];
+            int pivotRow = k * n;
+            for (int i = k + 1; i < n; i++) {
+                int row = i * n;
+                double lik = lu[row + k] / ukk;
+                lu[row + k] = lik;
+                if (lik != 0.0) {
+                    for (int j = k + 1; j < end; j++) {
+                        lu[row + j] -= lik * lu[pivotRow + j];
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Subtracts from rows [rowFrom, rowTo) right of the panel [k0, k1) the product of their
+     * multipliers with the panel rows of U, one tile of columns at a time.
+     */
+    private void updateTrailing(int k0, int k1, int rowFrom, int rowTo) {
+        for (int tile = k1; tile < n; tile += COLUMN_TILE) {
+            int width = Math.min(COLUMN_TILE, n - tile);
+            for (int i = rowFrom; i < rowTo; i++) {
+                subtractCombination(lu, i * n, lu, n, i * n + tile, tile, k0, k1, width);
+            }
+        }
+    }
+
+    /**
+     * Task updating a band of rows of the trailing matrix, splitting it in two while it holds enough work.
+     */
+    private final class TrailingUpdate extends RecursiveAction {
+        private final int k0;
+        private final int k1;
+        private final int rowFrom;
+        private final int rowTo;
+
+        TrailingUpdate(int k0, int k1, int rowFrom, int rowTo) {
+            this.k0 = k0;
+            this.k1 = k1;
+            this.rowFrom = rowFrom;
+            this.rowTo = rowTo;
+        }
+
+        @Override
+        protected void compute() {
+            int rows = rowTo - rowFrom;
+            long work = (long) rows * (n - k1) * (k1 - k0);
+            if (work <= LEAF_WORK || rows < 2) {
+                updateTrailing(k0, k1, rowFrom, rowTo);
+            } else {
+                int mid = rowFrom + rows / 2;
+                invokeAll(new TrailingUpdate(k0, k1, rowFrom, mid),
+                          new TrailingUpdate(k0, k1, mid, rowTo));
+            }
+        }
+    }
+
+    private void swapRows(int r1, int r2) {
+        for (int j = 0; j < n; j++) {
+            double tmp = lu[r1 * n + j];
+            lu[r1 * n + j] = lu[r2 * n + j];
+            lu[r2 * n + j] = tmp;
+        }
+    }
+
+    /**
+     * Gets the size of the factored matrix.
+     *
+     * @return The number of rows (and columns)
+     */
+    public int getSize() {
+        return n;
+    }
+
+    /**
+     * Checks whether the factored matrix is singular, up to rounding errors.
+     *
+     * @return true if a pivot vanished during the factorization
+     */
+    public boolean isSingular() {
+        return singular;
+    }
+
+    /**
+     * Returns the unit lower triangular factor L.
+     *
+     * @return A new matrix holding L
+     */
+    public Matrix getL() {
+        double[] l = new double[n * n];
+        for (int i = 0; i < n; i++) {
+            System.arraycopy(lu, i * n, l, i * n, i);
+            l[i * n + i] = 1.0;
+        }
+        return new Matrix(n, n, l);
+    }
+
+    /**
+     * Returns the upper triangular factor U.
+     *
+     * @return A new matrix holding U
+     */
+    public Matrix getU() {
+        double[] u = new double[n * n];
+        for (int i = 0; i < n; i++) {
+            System.arraycopy(lu, i * n + i, u, i * n + i, n - i);
+        }
+        return new Matrix(n, n, u);
+    }
+
+    /**
+     * Returns the row permutation: row i of PA is row getPivot()[i] of A.
+     *
+     * @return A copy of the pivot indices
+     */
+    public int[] getPivot() {
+        return pivot.clone();
+    }
+
+    /**
+     * Computes the determinant of the factored matrix from the diagonal of U.
+     *
+     * @return The determinant, exactly zero if the matrix is singular
+     */
+    public double determinant() {
+        if (singular) {
+            return 0.0;
+        }
+        double det = pivotSign;
+        for (int i = 0; i < n; i++) {
+            det *= lu[i * n + i];
+        }
+        return det;
+    }
+
+    /**
+     * Solves A x = b for a single right-hand side.
+     *
+     * @param b The right-hand side, of the size of the matrix
+     * @return The solution x
+     * @throws IllegalArgumentException If the size of b does not match or the matrix is singular
+     */
+    public double[] solve(double[] b) {
+        if (b.length != n) {
+            throw new IllegalArgumentException(
+                "Right-hand side has " + b.length + " elements, expected " + n);
+        }
+        checkNonSingular();
+
+        double[] x = new double[n];
+        for (int i = 0; i < n; i++) {
+            x[i] = b[pivot[i]];
+        }
+        // Forward substitution with the unit lower triangle
+        for (int i = 0; i < n; i++) {
+            int row = i * n;
+            double sum = x[i];
+            for (int k = 0; k < i; k++) {
+                sum -= lu[row + k] * x[k];
+            }
+            x[i] = sum;
+        }
+        // Back substitution with the upper triangle
+        for (int i = n - 1; i >= 0; i--) {
+            int row = i * n;
+            double sum = x[i];
+            for (int k = i + 1; k < n; k++) {
+                sum -= lu[row + k] * x[k];
+            }
+            x[i] = sum / lu[row + i];
+        }
+        return x;
+    }
+
+    /**
+     * Solves A X = B for every column of B at once.
+     *
+     * @param b The right-hand sides, one per column
+     * @return The solutions X, one per column
+     * @throws IllegalArgumentException If the rows of b do not match or the matrix is singular
+     */
+    public Matrix solve(Matrix b) {
+        if (b.getRows() != n) {
+            throw new IllegalArgumentException(
+                "Matrix dimensions mismatch for solve: [" + n + "x" + n + "] and [" +
+                b.getRows() + "x" + b.getCols() + "]");
+        }
+        checkNonSingular();
+
+        int m = b.getCols();
+        double[] x = new double[n * m];
+        Matrix rhs = b.contiguous();
+        for (int i = 0; i < n; i++) {
+            System.arraycopy(rhs.data, rhs.offset + pivot[i] * m, x, i * m, m);
+        }
+        substitute(x, m);
+        return new Matrix(n, m, x);
+    }
+
+    /**
+     * Runs the forward and back substitutions in place on m right-hand sides stored
+     * as the columns of a row-major n x m array, already permuted by the pivots.
+     * Row i of the solution is computed from the rows above (forward) or below (back) it,
+     * so L and U are read along their rows.
+     */
+    void substitute(double[] x, int m) {
+        for (int i = 0; i < n; i++) {
+            subtractCombination(x, m, i, 0, i);
+        }
+        for (int i = n - 1; i >= 0; i--) {
+            subtractCombination(x, m, i, i + 1, n);
+            double uii = lu[i * n + i];
+            int rowI = i * m;
+            for (int j = 0; j < m; j++) {
+                x[rowI + j] /= uii;
+            }
+        }
+    }
+
+    /**
+     * Subtracts from row i of x the combination of its rows k in [from, to) with the coefficients
+     * of row i of the factors.
+     */
+    private void subtractCombination(double[] x, int m, int i, int from, int to) {
+        subtractCombination(lu, i * n, x, m, i * m, 0, from, to, m);
+    }
+
+    /**
+     * Computes x[target + j] -= sum over k in [from, to) of c[cOffset + k] * x[source + k * stride + j],
+     * for j in [0, width). Four columns are accumulated in registers at a time, so each
+     * multiply-add loads one element of x instead of loading and storing the target row as well.
+     */
+    private static void subtractCombination(double[] c, int cOffset, double[] x, int stride, int target, int source,
+                                            int from, int to, int width) {
+        if (from == to) {
+            return;
+        }
+        if (Vectorization.isEnabled() && width >= VectorKernels.LANES) {
+            VectorKernels.subtractCombination(c, cOffset, x, stride, target, source, from, to, width);
+            return;
+        }
+        int j = 0;
+        for (; j + 4 <= width; j += 4) {
+            double x0 = x[target + j];
+            double x1 = x[target + j + 1];
+            double x2 = x[target + j + 2];
+            double x3 = x[target + j + 3];
+            for (int k = from; k < to; k++) {
+                double coefficient = c[cOffset + k];
+                int rowK = source + k * stride + j;
+                x0 -= coefficient * x[rowK];
+                x1 -= coefficient * x[rowK + 1];
+                x2 -= coefficient * x[rowK + 2];
+                x3 -= coefficient * x[rowK + 3];
+            }
+            x[target + j] = x0;
+            x[target + j + 1] = x1;
+            x[target + j + 2] = x2;
+            x[target + j + 3] = x3;
+        }
+        for (; j < width; j++) {
+            double sum = x[target + j];
+            for (int k = from; k < to; k++) {
+                sum -= c[cOffset + k] * x[source + k * stride + j];
+            }
+            x[target + j] = sum;
+        }
+    }
+
+    /**
+     * Computes the inverse of the factored matrix by solving against the identity.
+     *
+     * @return The inverse
+     * @throws IllegalArgumentException If the matrix is singular
+     */
+    public Matrix inverse() {
+        return solve(Matrix.identity(n));
+    }
+
+    /**
+     * Estimates the condition number of the factored matrix in the 1-norm,
+     * ||A||₁ · ||A⁻¹||₁, with Hager's method: ||A⁻¹||₁ is estimated from a few solves
+     * with A and Aᵀ instead of forming the inverse. The estimate never exceeds
+     * the true condition number and is usually within a small factor of it.
+     *
+     * @return The estimated condition number, or positive infinity if the matrix is singular
+     */
+    public double conditionNumber() {
+        if (singular) {
+            return Double.POSITIVE_INFINITY;
+        }
+        if (n == 0) {
+            return 0.0;
+        }
+
+        double[] x = new double[n];
+        Arrays.fill(x, 1.0 / n);
+        double estimate = 0.0;
+        for (int iteration = 0; iteration < 5; iteration++) {
+            double[] y = solve(x);
+            double yNorm = 0.0;
+            double[] signs = new double[n];
+            for (int i = 0; i < n; i++) {
+                yNorm += Math.abs(y[i]);
+                signs[i] = (y[i] >= 0) ? 1.0 : -1.0;
+            }
+            if (yNorm <= estimate) {
+                break;
+            }
+            estimate = yNorm;
+
+            double[] z = solveTransposed(signs);
+            int j = 0;
+            double zx = 0.0;
+            for (int i = 0; i < n; i++) {
+                zx += z[i] * x[i];
+                if (Math.abs(z[i]) > Math.abs(z[j])) {
+                    j = i;
+                }
+            }
+            if (Math.abs(z[j]) <= zx) {
+                break;
+            }
+            Arrays.fill(x, 0.0);
+            x[j] = 1.0;
+        }
+        return norm1 * estimate;
+    }
+
+    /**
+     * Solves Aᵀ z = b using the same factors: Uᵀ Lᵀ (P z) = b.
+     */
+    private double[] solveTransposed(double[] b) {
+        double[] v = b.clone();
+        // Forward substitution with Uᵀ
+        for (int i = 0; i < n; i++) {
+            double sum = v[i];
+            for (int k = 0; k < i; k++) {
+                sum -= lu[k * n + i] * v[k];
+            }
+            v[i] = sum / lu[i * n + i];
+        }
+        // Back substitution with Lᵀ
+        for (int i = n - 1; i >= 0; i--) {
+            double sum = v[i];
+            for (int k = i + 1; k < n; k++) {
+                sum -= lu[k * n + i] * v[k];
+            }
+            v[i] = sum;
+        }
+        double[] z = new double[n];
+        for (int i = 0; i < n; i++) {
+            z[pivot[i]] = v[i];
+        }
+        return z;
+    }
+
+    private void checkNonSingular() {
+        if (singular) {
+            throw new IllegalArgumentException("Matrix is singular (determinant is zero)");
+        }
+    }
+}
@@ -0,0 +1,252 @@
+package calculator;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Single-pass parser of linear equations such as {@code 2x + 3.5y - 4 = z + 1}.
+ * <p>
+ * Each equation is read once, character by character, into a sparse list of terms: the ids of the
+ * variables it involves with their coefficients, moved to the left-hand side, and the constant,
+ * moved to the right-hand side. Building a system is therefore linear in the length of its
+ * equations, whatever its number of variables. Variables get ids in order of first appearance,
+ * shared by all the equations read by the same parser.
+ * <p>
+ * A term is a number, a variable, or a number followed by a variable, optionally separated by
+ * {@code *}; terms are separated by signs, several signs in a row combining as usual. Variable
+ * names start with a letter followed by letters or digits, so {@code x2} is a variable.
+ */
+final class LinearEquationParser {
+
+    /**
+     * An equation a₁x₁ + ... + aₖxₖ = c, as the ids of its variables with their non-zero coefficients.
+     */
+    static final class Equation {
+        final int[] variables;
+        final double[] coefficients;
+        final double constant;
+
+        Equation(int[] variables, double[] coefficients, double constant) {
+            this.variables = variables;
+            this.coefficients = coefficients;
+            this.constant = constant;
+        }
+
+        int size() {
+            return variables.length;
+        }
+    }
+
+    private final Map<String, Integer> ids = new HashMap<>();
+    private final List<String> names = new ArrayList<>();
+
+    /** Coefficient accumulated for each variable of the equation being parsed, indexed by id */
+    private double[] accumulator = new double[16];
+    /** Whether each variable appears in the equation being parsed, indexed by id */
+    private boolean[] present = new boolean[16];
+    /** Ids of the variables of the equation being parsed, in order of appearance */
+    private int[] touched = new int[16];
+    private int touchedCount;
+
+    private String text;
+    private int position;
+
+    /**
+     * Parses one equation.
+     *
+     * @param equation The equation, with exactly one equals sign
+     * @return Its terms, with the variables numbered by this parser
+     * @throws IllegalArgumentException If the equation is not a well-formed linear equation
+     */
+    Equation parse(String equation) {
+        text = equation;
+        position = 0;
+        touchedCount = 0;
+        try {
+            double constant = parseSide(1.0);
+            if (peek() != '=') {
+                throw new IllegalArgumentException("Equation must contain an equals sign (=): " + equation);
+            }
+            position++;
+            constant += parseSide(-1.0);
+            if (position < text.length()) {
+                throw new IllegalArgumentException("Equation must have exactly one equals sign: " + equation);
+            }
+
+            int nonZeros = 0;
+            for (int t = 0; t < touchedCount; t++) {
+                if (accumulator[touched[t]] != 0.0) {
+                    nonZeros++;
+                }
+            }
+            int[] variables = new int[nonZeros];
+            double[] coefficients = new double[nonZeros];
+            int k = 0;
+            for (int t = 0; t < touchedCount; t++) {
+                int id = touched[t];
+                if (accumulator[id] != 0.0) {
+                    variables[k] = id;
+                    coefficients[k] = accumulator[id];
+                    k++;
+                }
+            }
+            // Constants were accumulated on the left-hand side
+            return new Equation(variables, coefficients, -constant);
+        } finally {
+            for (int t = 0; t < touchedCount; t++) {
+                accumulator[touched[t]] = 0.0;
+                present[touched[t]] = false;
+            }
+        }
+    }
+
+    /**
+     * Gets the number of distinct variables met so far.
+     */
+    int getVariableCount() {
+        return names.size();
+    }
+
+    /**
+     * Gets the name of a variable from its id.
+     */
+    String getName(int id) {
+        return names.get(id);
+    }
+
+    /**
+     * Gets the names of the variables sorted alphabetically, for a deterministic ordering of the unknowns.
+     */
+    String[] sortedNames() {
+        String[] sorted = names.toArray(new String[0]);
+        Arrays.sort(sorted);
+        return sorted;
+    }
+
+    /**
+     * Gets the position of each variable, by id, in {@link #sortedNames()}.
+     */
+    int[] sortedRanks() {
+        String[] sorted = sortedNames();
+        int[] ranks = new int[sorted.length];
+        for (int r = 0; r < sorted.length; r++) {
+            ranks[ids.get(sorted[r])] = r;
+        }
+        return ranks;
+    }
+
+    /**
+     * Parses the terms of one side up to the equals sign or the end, adding sideSign times each
+     * coefficient to the accumulator.
+     *
+     * @return sideSign times the sum of the constants of the side
+     */
+    private double parseSide(double sideSign) {
+        double constant = 0.0;
+        int terms = 0;
+        while (true) {
+            int c = peek();
+            if (c == -1 || c == '=') {
+                if (terms == 0) {
+                    throw new IllegalArgumentException("Missing term in equation: " + text);
+                }
+                return constant;
+            }
+
+            double sign = sideSign;
+            int signs = 0;
+            while (c == '+' || c == '-') {
+                if (c == '-') {
+                    sign = -sign;
+                }
+                position++;
+                signs++;
+                c = peek();
+            }
+            if (terms > 0 && signs == 0) {
+                throw invalidTerm();
+            }
+
+            double coefficient = 1.0;
+            boolean hasNumber = false;
+            if (isDigit(c) || c == '.') {
+                coefficient = number();
+                hasNumber = true;
+                c = peek();
+                if (c == '*') {
+                    position++;
+                    c = peek();
+                    if (!Character.isLetter(c)) {
+                        throw invalidTerm();
+                    }
+                }
+            }
+            if (Character.isLetter(c)) {
+                int id = variable();
+                if (!present[id]) {
+                    present[id] = true;
+                    touched[touchedCount++] = id;
+                }
+                accumulator[id] += sign * coefficient;
+            } else if (hasNumber) {
+                constant += sign * coefficient;
+            } else {
+                throw invalidTerm();
+            }
+            terms++;
+        }
+    }
+
+    private double number() {
+        int start = position;
+        while (position < text.length() && (isDigit(text.charAt(position)) || text.charAt(position) == '.')) {
+            position++;
+        }
+        try {
+            return Double.parseDouble(text.substring(start, position));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid number '" + text.substring(start, position) + "' in equation: " + text);
+        }
+    }
+
+    private int variable() {
+        int start = position;
+        while (position < text.length() && Character.isLetterOrDigit(text.charAt(position))) {
+            position++;
+        }
+        String name = text.substring(start, position);
+        Integer id = ids.get(name);
+        if (id == null) {
+            id = names.size();
+            ids.put(name, id);
+            names.add(name);
+            if (id == accumulator.length) {
+                accumulator = Arrays.copyOf(accumulator, id * 2);
+                present = Arrays.copyOf(present, id * 2);
+                touched = Arrays.copyOf(touched, id * 2);
+            }
+        }
+        return id;
+    }
+
+    /**
+     * Skips whitespace and returns the next character without consuming it, or -1 at the end.
+     */
+    private int peek() {
+        while (position < text.length() && Character.isWhitespace(text.charAt(position))) {
+            position++;
+        }
+        return (position < text.length()) ? text.charAt(position) : -1;
+    }
+
+    private IllegalArgumentException invalidTerm() {
+        return new IllegalArgumentException("Invalid term at position " + position + " in equation: " + text);
+    }
+
+    private static boolean isDigit(int c) {
+        return c >= '0' && c <= '9';
+    }
+}
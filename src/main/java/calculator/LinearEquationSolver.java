@@ -1,24 +1,44 @@
 package calculator;
 
-import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
-import java.util.HashSet;
-import java.util.List;
 import java.util.Map;
-import java.util.Set;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 /**
  * Class for solving linear equations with one or multiple variables.
  * Supports systems of linear equations using Gaussian elimination.
+ * <p>
+ * Solves are traced through SLF4J at TRACE level, which is off by default: disabled tracing costs
+ * a level check, and the matrices are only formatted when it is enabled. Step timings are always
+ * collected, in {@link #getMetrics()}.
  */
 public class LinearEquationSolver {
 
-    // Debug flag for troubleshooting
-    private static final boolean DEBUG = true;
+    private static final Logger logger = LoggerFactory.getLogger(LinearEquationSolver.class);
+    
+    private static final SolverMetrics METRICS = new SolverMetrics();
+    
+    /** Number of unknowns from which a sparse square system is solved iteratively */
+    static final int ITERATIVE_THRESHOLD = 200;
+    
+    /** Largest fraction of non-zero coefficients for which a system counts as sparse */
+    static final double SPARSE_DENSITY = 0.05;
+    
+    /** Largest number of correction steps of iterative refinement */
+    static final int MAX_REFINEMENT_STEPS = 5;
 
+    /**
+     * Gets the cumulative timings of the steps of all the solves so far.
+     * 
+     * @return The metrics shared by every solve of this class
+     */
+    public static SolverMetrics getMetrics() {
+        return METRICS;
+    }
+    
     /**
      * Solves a single linear equation with one variable.
      * 
@@ -27,337 +47,493 @@ public class LinearEquationSolver {
      * @throws IllegalArgumentException If the equation is not linear or has no solution
      */
     public static String solveSingleVariable(String equation) {
-        if (DEBUG) System.out.println("Solving equation: " + equation);
+        logger.trace("Solving equation: {}", equation);
         
-        // Remove all spaces
-        equation = equation.replaceAll("\\s+", "");
+        // Read the equation into the form ax = c
+        long start = System.nanoTime();
+        LinearEquationParser parser = new LinearEquationParser();
+        LinearEquationParser.Equation parsed = parser.parse(equation);
+        METRICS.record(SolverMetrics.Step.PARSE, start);
         
-        // Check if equation contains equals sign
-        if (!equation.contains("=")) {
-            throw new IllegalArgumentException("Equation must contain an equals sign (=)");
-        }
-        
-        // Split into left and right sides
-        String[] sides = equation.split("=");
-        if (sides.length != 2) {
-            throw new IllegalArgumentException("Equation must have exactly one equals sign");
-        }
-        
-        String leftSide = sides[0];
-        String rightSide = sides[1];
-        
-        if (DEBUG) {
-            System.out.println("Left side: " + leftSide);
-            System.out.println("Right side: " + rightSide);
-        }
-        
-        // Find all variables in the equation
-        Set<String> allVariables = new HashSet<>();
-        allVariables.addAll(findAllVariables(leftSide));
-        allVariables.addAll(findAllVariables(rightSide));
-        
-        if (allVariables.isEmpty()) {
+        if (parser.getVariableCount() == 0) {
             throw new IllegalArgumentException("No variables found in the equation");
         }
         
-        if (allVariables.size() > 1) {
-            throw new IllegalArgumentException("Multiple variables found: " + String.join(", ", allVariables) + 
+        if (parser.getVariableCount() > 1) {
+            throw new IllegalArgumentException("Multiple variables found: " + String.join(", ", parser.sortedNames()) + 
                 ". For multiple variables, use the system solver.");
         }
         
         // Get the single variable
-        String variable = allVariables.iterator().next();
-        
-        if (DEBUG) System.out.println("Variable found: " + variable);
+        String variable = parser.getName(0);
+        double coefficient = (parsed.size() > 0) ? parsed.coefficients[0] : 0.0;
+        double constant = parsed.constant;
         
-        // Move all terms to the left side: ax + b = 0
-        // This is done by moving all terms from the right side to the left with their signs inverted
-        double coefficientSum = 0;  // Coefficient of the variable (a)
-        double constantSum = 0;     // Constant term (b)
-        
-        // Process left side
-        coefficientSum += extractCoefficient(leftSide, variable);
-        constantSum += extractConstant(leftSide);
-        
-        if (DEBUG) {
-            System.out.println("After left side: coeff = " + coefficientSum + ", const = " + constantSum);
-        }
-        
-        // Process right side (with inverted signs)
-        coefficientSum -= extractCoefficient(rightSide, variable);
-        constantSum -= extractConstant(rightSide);
-        
-        if (DEBUG) {
-            System.out.println("After right side: coeff = " + coefficientSum + ", const = " + constantSum);
-        }
+        logger.trace("Variable found: {}, coeff = {}, const = {}", variable, coefficient, constant);
         
         // If coefficient of variable is zero, check if it's a valid equation
-        if (Math.abs(coefficientSum) < 1e-10) {
-            if (Math.abs(constantSum) < 1e-10) {
+        if (Math.abs(coefficient) < 1e-10) {
+            if (Math.abs(constant) < 1e-10) {
                 return "Identity: The equation is true for all values of " + variable;
             } else {
                 return "No solution: The equation is inconsistent";
             }
         }
         
-        // Solve for the variable: ax + b = 0 => x = -b/a
-        double solution = -constantSum / coefficientSum;
+        // Solve for the variable: ax = c => x = c/a
+        double solution = constant / coefficient;
         
         // Format the result with proper precision
         return variable + " = " + formatDouble(solution);
     }
     
     /**
-     * Extract the coefficient of a variable from an expression.
+     * Solves a system of linear equations with multiple variables using Gaussian elimination.
      * 
-     * @param expression The expression to analyze
-     * @param variable The variable to find the coefficient for
-     * @return The coefficient of the variable
+     * @param equations An array of strings representing linear equations
+     * @return A map of variable names to their solution values
+     * @throws IllegalArgumentException If the system has no unique solution
      */
-    private static double extractCoefficient(String expression, String variable) {
-        double coefficient = 0.0;
-        
-        // Replace multi-character operators to avoid potential issues
-        String processedExpr = preprocessExpression(expression);
-        
-        // Split the expression into terms by + and - operators, keeping the signs
-        List<String> terms = splitIntoTerms(processedExpr);
-        
-        if (DEBUG) System.out.println("Terms for coefficient extraction: " + terms);
-        
-        for (String term : terms) {
-            // Check if the term contains the variable
-            if (term.contains(variable)) {
-                // Extract the coefficient
-                String coeffStr = term.replace(variable, "").trim();
-                double coeff;
-                
-                // Handle different cases
-                if (coeffStr.isEmpty() || coeffStr.equals("+")) {
-                    coeff = 1.0;
-                } else if (coeffStr.equals("-")) {
-                    coeff = -1.0;
-                } else {
-                    try {
-                        coeff = Double.parseDouble(coeffStr);
-                    } catch (NumberFormatException e) {
-                        if (DEBUG) System.out.println("Failed to parse coefficient: " + coeffStr);
-                        throw new IllegalArgumentException("Invalid coefficient format in term: " + term);
-                    }
+    public static Map<String, Double> solveSystem(String[] equations) {
+        return solveSystem(equations, false);
+    }
+    
+    /**
+     * Solves a system of linear equations with multiple variables, optionally refining the solution.
+     * <p>
+     * With refinement, a square system is factored once and its solution corrected with the
+     * residual b - Ax, computed in double-double precision, until the corrections stop shrinking.
+     * This recovers most of the digits lost on ill-conditioned systems for an O(n²) cost per step.
+     * 
+     * @param equations An array of strings representing linear equations
+     * @param refine Whether to apply iterative refinement to square systems
+     * @return A map of variable names to their solution values
+     * @throws IllegalArgumentException If the system has no unique solution
+     */
+    public static Map<String, Double> solveSystem(String[] equations, boolean refine) {
+        if (equations == null || equations.length == 0) {
+            throw new IllegalArgumentException("No equations provided");
+        }
+        
+        logger.trace("Solving system of {} equations", equations.length);
+        
+        // Read every equation once into its sparse list of terms
+        long start = System.nanoTime();
+        LinearEquationParser parser = new LinearEquationParser();
+        LinearEquationParser.Equation[] parsed = parseSystem(parser, equations);
+        String[] variableArray = parser.sortedNames();
+        int[] columns = parser.sortedRanks();
+        METRICS.record(SolverMetrics.Step.PARSE, start);
+        
+        int numVariables = variableArray.length;
+        int numEquations = equations.length;
+        
+        logger.trace("{} variables in {} equations", numVariables, numEquations);
+        if (logger.isTraceEnabled()) {
+            logger.trace("Variables found: {}", Arrays.toString(variableArray));
+        }
+        
+        // Large sparse systems are solved iteratively, in O(nnz) per iteration instead of O(n^3) overall
+        if (numEquations == numVariables && numVariables >= ITERATIVE_THRESHOLD) {
+            double[] solution = solveIfSparse(parsed, numVariables);
+            if (solution != null) {
+                Map<String, Double> solutions = new HashMap<>();
+                for (int id = 0; id < numVariables; id++) {
+                    solutions.put(parser.getName(id), solution[id]);
                 }
-                
-                coefficient += coeff;
-                if (DEBUG) System.out.println("Found coefficient " + coeff + " for term " + term);
+                return solutions;
             }
         }
         
-        return coefficient;
+        // Large dense systems are factored by blocks in parallel, refined ones factored once for all the corrections
+        if (numEquations == numVariables && (refine || numVariables >= LUDecomposition.BLOCKED_THRESHOLD)) {
+            double[] solution = solveFactored(parsed, columns, numVariables, refine);
+            if (solution != null) {
+                Map<String, Double> solutions = new HashMap<>();
+                for (int j = 0; j < numVariables; j++) {
+                    solutions.put(variableArray[j], solution[j]);
+                }
+                return solutions;
+            }
+        }
+        
+        // Create coefficient matrix [A|b] for Ax = b
+        start = System.nanoTime();
+        double[][] matrix = buildAugmentedMatrix(parsed, columns, numVariables);
+        METRICS.record(SolverMetrics.Step.ASSEMBLE, start);
+        
+        if (logger.isTraceEnabled()) {
+            logger.trace("Coefficient matrix:\n{}", formatRows(matrix));
+        }
+        
+        // Apply Gaussian elimination to get the solution
+        start = System.nanoTime();
+        reducedRowEchelonForm(matrix);
+        METRICS.record(SolverMetrics.Step.ELIMINATE, start);
+        
+        if (logger.isTraceEnabled()) {
+            logger.trace("Row-echelon form:\n{}", formatRows(matrix));
+        }
+        
+        // Check if the system has a unique solution
+        checkSystemSolution(matrix, numVariables, numEquations);
+        
+        // Extract solutions from the row-echelon form
+        Map<String, Double> solutions = new HashMap<>();
+        for (int i = 0; i < Math.min(numVariables, numEquations); i++) {
+            solutions.put(variableArray[i], matrix[i][numVariables]);
+        }
+        
+        return solutions;
     }
     
     /**
-     * Extract the constant term from an expression.
+     * Factors a square system of linear equations once, so that it can then be solved against
+     * many right-hand sides without parsing the equations or eliminating again.
      * 
-     * @param expression The expression to analyze
-     * @return The constant term
+     * @param equations An array of strings representing linear equations, as many as variables
+     * @return A handle holding the LU factors and the order of the variables
+     * @throws IllegalArgumentException If the equations are invalid, the system is not square,
+     *         or it does not have a unique solution
      */
-    private static double extractConstant(String expression) {
-        double constant = 0.0;
-        
-        // Replace multi-character operators to avoid potential issues
-        String processedExpr = preprocessExpression(expression);
-        
-        // Split the expression into terms by + and - operators, keeping the signs
-        List<String> terms = splitIntoTerms(processedExpr);
-        
-        if (DEBUG) System.out.println("Terms for constant extraction: " + terms);
-        
-        for (String term : terms) {
-            // Check if the term doesn't contain any variables (it's a constant)
-            if (!containsVariable(term)) {
-                try {
-                    // Parse the constant value
-                    if (term.isEmpty() || term.equals("+")) {
-                        // Skip empty terms or lone plus signs
-                        continue;
-                    } else if (term.equals("-")) {
-                        // Lone minus sign is not a valid constant
-                        throw new IllegalArgumentException("Invalid constant format: lone minus sign");
-                    } else {
-                        double value = Double.parseDouble(term);
-                        constant += value;
-                        if (DEBUG) System.out.println("Found constant " + value + " for term " + term);
-                    }
-                } catch (NumberFormatException e) {
-                    if (DEBUG) System.out.println("Failed to parse constant: " + term);
-                    // If it's not a variable and not a number, it's an invalid term
-                    throw new IllegalArgumentException("Invalid constant format: " + term);
-                }
+    public static LinearSystem factor(String[] equations) {
+        if (equations == null || equations.length == 0) {
+            throw new IllegalArgumentException("No equations provided");
+        }
+        
+        long start = System.nanoTime();
+        LinearEquationParser parser = new LinearEquationParser();
+        LinearEquationParser.Equation[] parsed = parseSystem(parser, equations);
+        String[] variableArray = parser.sortedNames();
+        int[] columns = parser.sortedRanks();
+        METRICS.record(SolverMetrics.Step.PARSE, start);
+        int n = variableArray.length;
+        if (equations.length != n) {
+            throw new IllegalArgumentException("A system can only be factored with as many equations as variables, got " +
+                equations.length + " equations for " + n + " variables");
+        }
+        
+        start = System.nanoTime();
+        double[] coefficients = new double[n * n];
+        double[] rightHandSide = new double[n];
+        for (int i = 0; i < n; i++) {
+            LinearEquationParser.Equation equation = parsed[i];
+            for (int t = 0; t < equation.size(); t++) {
+                coefficients[i * n + columns[equation.variables[t]]] = equation.coefficients[t];
             }
+            rightHandSide[i] = equation.constant;
         }
+        METRICS.record(SolverMetrics.Step.ASSEMBLE, start);
         
-        return constant;
+        start = System.nanoTime();
+        LinearSystem system = new LinearSystem(variableArray, Matrix.fromRowMajor(n, n, coefficients), rightHandSide);
+        METRICS.record(SolverMetrics.Step.FACTOR, start);
+        return system;
     }
     
     /**
-     * Check if a string contains any alphabetic characters (variables).
+     * Parses the equations of a system with a shared parser, which numbers their variables.
      */
-    private static boolean containsVariable(String str) {
-        return str.matches(".*[a-zA-Z].*");
+    private static LinearEquationParser.Equation[] parseSystem(LinearEquationParser parser, String[] equations) {
+        LinearEquationParser.Equation[] parsed = new LinearEquationParser.Equation[equations.length];
+        for (int i = 0; i < equations.length; i++) {
+            logger.trace("Processing equation: {}", equations[i]);
+            parsed[i] = parser.parse(equations[i]);
+        }
+        if (parser.getVariableCount() == 0) {
+            throw new IllegalArgumentException("No variables found in the system");
+        }
+        return parsed;
     }
     
     /**
-     * Preprocess an expression to simplify parsing.
+     * Builds the augmented matrix [A|b] of a system, one row per equation and one column per variable,
+     * the last column holding the right-hand side.
      */
-    private static String preprocessExpression(String expression) {
-        // Replace multiple operators with their equivalent
-        expression = expression.replaceAll("\\+\\+", "+");
-        expression = expression.replaceAll("--", "+");
-        expression = expression.replaceAll("\\+-", "-");
-        expression = expression.replaceAll("-\\+", "-");
-        
-        // Ensure the expression starts with a sign
-        if (!expression.startsWith("+") && !expression.startsWith("-")) {
-            expression = "+" + expression;
+    private static double[][] buildAugmentedMatrix(LinearEquationParser.Equation[] equations, int[] columns, int numVariables) {
+        double[][] matrix = new double[equations.length][numVariables + 1];
+        for (int i = 0; i < equations.length; i++) {
+            LinearEquationParser.Equation equation = equations[i];
+            for (int t = 0; t < equation.size(); t++) {
+                matrix[i][columns[equation.variables[t]]] = equation.coefficients[t];
+            }
+            matrix[i][numVariables] = equation.constant;
         }
-        
-        return expression;
+        return matrix;
     }
     
     /**
-     * Split an expression into terms, preserving the signs.
+     * Solves a square system with an iterative solver if its matrix is sparse enough,
+     * building the sparse matrix straight from the terms of the equations. Unknowns keep their
+     * order of first appearance, which usually keeps the main term of each equation on the diagonal
+     * where alphabetical order would scatter x2, x10 and x100 and defeat the preconditioners.
+     * <p>
+     * A Krylov solver can converge on a consistent singular system, to one of its many solutions,
+     * so only matrices that diagonal dominance proves nonsingular are solved this way.
+     * 
+     * @return The solution indexed by variable id, or null if the matrix is too dense, not provably
+     *         nonsingular, or the solvers did not converge, in which case elimination takes over and
+     *         reports singular systems
      */
-    private static List<String> splitIntoTerms(String expression) {
-        List<String> terms = new ArrayList<>();
+    private static double[] solveIfSparse(LinearEquationParser.Equation[] equations, int n) {
+        int nonZeros = 0;
+        for (LinearEquationParser.Equation equation : equations) {
+            nonZeros += equation.size();
+        }
+        if (nonZeros > SPARSE_DENSITY * n * n) {
+            return null;
+        }
         
-        // Use a regex pattern to find terms with their signs
-        Pattern pattern = Pattern.compile("([+\\-][^+\\-]*)");
-        Matcher matcher = pattern.matcher(expression);
+        long start = System.nanoTime();
+        int[] rowIndices = new int[nonZeros];
+        int[] colIndices = new int[nonZeros];
+        double[] values = new double[nonZeros];
+        double[] b = new double[n];
+        int k = 0;
+        for (int i = 0; i < n; i++) {
+            LinearEquationParser.Equation equation = equations[i];
+            for (int t = 0; t < equation.size(); t++) {
+                rowIndices[k] = i;
+                colIndices[k] = equation.variables[t];
+                values[k] = equation.coefficients[t];
+                k++;
+            }
+            b[i] = equation.constant;
+        }
         
-        while (matcher.find()) {
-            terms.add(matcher.group(1));
+        SparseMatrix a = SparseMatrix.fromTriplets(n, n, rowIndices, colIndices, values);
+        METRICS.record(SolverMetrics.Step.ASSEMBLE, start);
+        if (!isProvablyNonsingular(a)) {
+            logger.trace("Sparse system not diagonally dominant, solved by elimination");
+            return null;
         }
         
-        return terms;
+        start = System.nanoTime();
+        IterativeSolution solution = solveSparse(a, b);
+        METRICS.record(SolverMetrics.Step.ITERATIVE, start);
+        logger.trace("Iterative solve: {}", solution);
+        return solution.isConverged() ? solution.getSolution() : null;
     }
     
     /**
-     * Solves a system of linear equations with multiple variables using Gaussian elimination.
+     * Solves a large sparse square system Ax = b iteratively.
+     * Symmetric systems with a positive diagonal are tried with Jacobi-preconditioned conjugate
+     * gradient first; other systems, and those on which CG fails, go to BiCGSTAB with an ILU(0)
+     * preconditioner, then to restarted GMRES if BiCGSTAB does not converge.
      * 
-     * @param equations An array of strings representing linear equations
-     * @return A map of variable names to their solution values
-     * @throws IllegalArgumentException If the system has no unique solution
+     * @param a The sparse matrix A
+     * @param b The right-hand side
+     * @return The solution with its convergence telemetry; check {@link IterativeSolution#isConverged()}
+     * @throws IllegalArgumentException If A is not square or b does not match its size
      */
-    public static Map<String, Double> solveSystem(String[] equations) {
-        if (DEBUG) System.out.println("Solving system of " + equations.length + " equations");
-        
-        if (equations == null || equations.length == 0) {
-            throw new IllegalArgumentException("No equations provided");
+    public static IterativeSolution solveSparse(SparseMatrix a, double[] b) {
+        if (a.isSymmetric() && hasPositiveDiagonal(a)) {
+            IterativeSolution solution = new ConjugateGradientSolver().solve(a, b, new JacobiPreconditioner(a));
+            if (solution.isConverged()) {
+                return solution;
+            }
         }
         
-        // Extract variables from all equations
-        Set<String> variables = new HashSet<>();
-        for (String equation : equations) {
-            variables.addAll(findAllVariables(equation));
+        Preconditioner preconditioner = preconditionerFor(a);
+        IterativeSolution solution = new BiCGStabSolver().solve(a, b, preconditioner);
+        if (!solution.isConverged()) {
+            solution = new GmresSolver().solve(a, b, preconditioner);
         }
-        
-        if (variables.isEmpty()) {
-            throw new IllegalArgumentException("No variables found in the system");
+        return solution;
+    }
+    
+    /**
+     * Picks ILU(0) when the factorization exists, the diagonal otherwise, and no preconditioning as a last resort.
+     */
+    private static Preconditioner preconditionerFor(SparseMatrix a) {
+        try {
+            return new IluPreconditioner(a);
+        } catch (IllegalArgumentException e) {
+            logger.trace("ILU(0) unavailable: {}", e.getMessage());
         }
-        
-        // Convert variable names to an ordered array
-        String[] variableArray = variables.toArray(new String[0]);
-        Arrays.sort(variableArray); // Sort for deterministic ordering
-        
-        int numVariables = variableArray.length;
-        int numEquations = equations.length;
-        
-        if (DEBUG) {
-            System.out.println("Variables found: " + Arrays.toString(variableArray));
-            System.out.println("Number of equations: " + numEquations);
+        try {
+            return new JacobiPreconditioner(a);
+        } catch (IllegalArgumentException e) {
+            return Preconditioner.IDENTITY;
         }
-        
-        // Create coefficient matrix [A|b] for Ax = b
-        double[][] matrix = new double[numEquations][numVariables + 1];
-        
-        // Fill the matrix with coefficients and constants
-        for (int i = 0; i < numEquations; i++) {
-            String equation = equations[i];
-            
-            if (DEBUG) System.out.println("Processing equation: " + equation);
-            
-            // Split equation into left and right sides
-            String[] sides = equation.replaceAll("\\s+", "").split("=");
-            if (sides.length != 2) {
-                throw new IllegalArgumentException("Equation must have exactly one equals sign: " + equation);
+    }
+    
+    /**
+     * Tells whether a square matrix, or its transpose, is diagonally dominant in a way that proves it nonsingular:
+     * strictly in every row, or weakly in every row and strictly in one with a strongly connected graph
+     * (Taussky's theorem for irreducibly diagonally dominant matrices).
+     */
+    static boolean isProvablyNonsingular(SparseMatrix a) {
+        SparseMatrix rows = a.toCsr();
+        SparseMatrix columns = a.transpose().toCsr();
+        return isDiagonallyDominant(rows, columns) || isDiagonallyDominant(columns, rows);
+    }
+    
+    /**
+     * Checks the rows of a CSR matrix, given the CSR form of its transpose for the connectivity check.
+     * Strict dominance needs a relative margin, so that a sum rounded down does not pass for it.
+     */
+    private static boolean isDiagonallyDominant(SparseMatrix csr, SparseMatrix transposed) {
+        boolean allStrict = true;
+        boolean anyStrict = false;
+        for (int i = 0; i < csr.getRows(); i++) {
+            double diagonal = 0.0;
+            double offDiagonal = 0.0;
+            for (int p = csr.pointers[i]; p < csr.pointers[i + 1]; p++) {
+                if (csr.indices[p] == i) {
+                    diagonal = Math.abs(csr.values[p]);
+                } else {
+                    offDiagonal += Math.abs(csr.values[p]);
+                }
             }
-            
-            String leftSide = sides[0];
-            String rightSide = sides[1];
-            
-            if (DEBUG) {
-                System.out.println("  Left side: " + leftSide);
-                System.out.println("  Right side: " + rightSide);
+            if (diagonal < offDiagonal || diagonal == 0.0) {
+                return false;
             }
-            
-            // Process left side (positive coefficients)
-            for (int j = 0; j < numVariables; j++) {
-                String variable = variableArray[j];
-                matrix[i][j] += extractCoefficient(leftSide, variable);
+            if (diagonal > offDiagonal * (1 + 1e-12)) {
+                anyStrict = true;
+            } else {
+                allStrict = false;
             }
-            matrix[i][numVariables] += extractConstant(leftSide);
-            
-            // Process right side (negative coefficients)
-            for (int j = 0; j < numVariables; j++) {
-                String variable = variableArray[j];
-                matrix[i][j] -= extractCoefficient(rightSide, variable);
+        }
+        return allStrict || (anyStrict && reachesAll(csr) && reachesAll(transposed));
+    }
+    
+    /**
+     * Tells whether every node of the graph of a square CSR matrix can be reached from node 0.
+     */
+    private static boolean reachesAll(SparseMatrix csr) {
+        int n = csr.getRows();
+        boolean[] seen = new boolean[n];
+        int[] stack = new int[n];
+        int top = 0;
+        int reached = 1;
+        seen[0] = true;
+        stack[top++] = 0;
+        while (top > 0) {
+            int i = stack[--top];
+            for (int p = csr.pointers[i]; p < csr.pointers[i + 1]; p++) {
+                int j = csr.indices[p];
+                if (!seen[j]) {
+                    seen[j] = true;
+                    reached++;
+                    stack[top++] = j;
+                }
             }
-            matrix[i][numVariables] -= extractConstant(rightSide);
         }
-        
-        if (DEBUG) {
-            System.out.println("Coefficient matrix:");
-            for (int i = 0; i < numEquations; i++) {
-                System.out.println(Arrays.toString(matrix[i]));
+        return reached == n;
+    }
+    
+    private static boolean hasPositiveDiagonal(SparseMatrix a) {
+        for (int i = 0; i < a.getRows(); i++) {
+            if (!(a.get(i, i) > 0.0)) {
+                return false;
             }
         }
-        
-        // Apply Gaussian elimination to get the solution
-        reducedRowEchelonForm(matrix);
-        
-        if (DEBUG) {
-            System.out.println("Row-echelon form:");
-            for (int i = 0; i < numEquations; i++) {
-                System.out.println(Arrays.toString(matrix[i]));
+        return true;
+    }
+    
+    /**
+     * Solves a square system by LU decomposition, blocked and parallel for large systems,
+     * optionally with iterative refinement.
+     * 
+     * @return The solution, or null if the matrix is singular, in which case elimination
+     *         takes over and reports why the system has no unique solution
+     */
+    private static double[] solveFactored(LinearEquationParser.Equation[] equations, int[] columns, int n, boolean refine) {
+        long start = System.nanoTime();
+        double[] a = new double[n * n];
+        double[] b = new double[n];
+        for (int i = 0; i < n; i++) {
+            LinearEquationParser.Equation equation = equations[i];
+            for (int t = 0; t < equation.size(); t++) {
+                a[i * n + columns[equation.variables[t]]] = equation.coefficients[t];
             }
+            b[i] = equation.constant;
         }
+        METRICS.record(SolverMetrics.Step.ASSEMBLE, start);
         
-        // Check if the system has a unique solution
-        checkSystemSolution(matrix, numVariables, numEquations);
+        start = System.nanoTime();
+        LUDecomposition decomposition = new LUDecomposition(Matrix.fromRowMajor(n, n, a));
+        METRICS.record(SolverMetrics.Step.FACTOR, start);
+        if (decomposition.isSingular()) {
+            return null;
+        }
         
-        // Extract solutions from the row-echelon form
-        Map<String, Double> solutions = new HashMap<>();
-        for (int i = 0; i < Math.min(numVariables, numEquations); i++) {
-            solutions.put(variableArray[i], matrix[i][numVariables]);
+        double[] x = decomposition.solve(b);
+        if (!refine) {
+            return x;
         }
         
-        return solutions;
+        start = System.nanoTime();
+        double[] r = new double[n];
+        double previous = Double.POSITIVE_INFINITY;
+        for (int step = 0; step < MAX_REFINEMENT_STEPS; step++) {
+            residual(a, b, x, r);
+            double[] correction = decomposition.solve(r);
+            double correctionNorm = 0.0;
+            double solutionNorm = 0.0;
+            for (int i = 0; i < n; i++) {
+                correctionNorm = Math.max(correctionNorm, Math.abs(correction[i]));
+                solutionNorm = Math.max(solutionNorm, Math.abs(x[i]));
+            }
+            logger.trace("Refinement step {}: correction {}", step, correctionNorm);
+            // A correction that does not halve is rounding noise, or refinement diverges on a nearly singular matrix
+            if (correctionNorm > previous / 2) {
+                break;
+            }
+            for (int i = 0; i < n; i++) {
+                x[i] += correction[i];
+            }
+            if (correctionNorm <= Math.ulp(solutionNorm)) {
+                break;
+            }
+            previous = correctionNorm;
+        }
+        METRICS.record(SolverMetrics.Step.REFINE, start);
+        return x;
+    }
+    
+    /**
+     * Computes r = b - Ax in double-double arithmetic, then rounds it to double.
+     * Each product is split exactly into its rounded value and error with a fused multiply-add,
+     * and the sums carry their rounding errors (Knuth's TwoSum), so that the residual of an
+     * accurate solution is not drowned in the cancellation of b against Ax.
+     */
+    private static void residual(double[] a, double[] b, double[] x, double[] r) {
+        int n = b.length;
+        for (int i = 0; i < n; i++) {
+            int row = i * n;
+            double sum = b[i];
+            double error = 0.0;
+            for (int j = 0; j < n; j++) {
+                double product = -a[row + j] * x[j];
+                double productError = Math.fma(-a[row + j], x[j], -product);
+                double total = sum + product;
+                double virtual = total - sum;
+                error += ((sum - (total - virtual)) + (product - virtual)) + productError;
+                sum = total;
+            }
+            r[i] = sum + error;
+        }
     }
     
     /**
      * Check if a system of equations has a unique solution.
+     * Elimination leaves exact zeros and ones in the coefficient columns, and flushes the
+     * right-hand side of the rows it eliminated when it is at rounding-error level.
      */
     private static void checkSystemSolution(double[][] matrix, int numVariables, int numEquations) {
         // Check for rows with all zeros in coefficient columns but non-zero constant (inconsistent)
         for (int i = 0; i < numEquations; i++) {
             boolean allZeroCoeffs = true;
             for (int j = 0; j < numVariables; j++) {
-                if (Math.abs(matrix[i][j]) > 1e-10) {
+                if (matrix[i][j] != 0.0) {
                     allZeroCoeffs = false;
                     break;
                 }
             }
             
-            if (allZeroCoeffs && Math.abs(matrix[i][numVariables]) > 1e-10) {
+            if (allZeroCoeffs && matrix[i][numVariables] != 0.0) {
                 throw new IllegalArgumentException("The system is inconsistent (no solution)");
             }
         }
@@ -369,18 +545,29 @@ public class LinearEquationSolver {
         
         // Check if the system is properly triangular (unique solution)
         for (int i = 0; i < Math.min(numVariables, numEquations); i++) {
-            if (Math.abs(matrix[i][i] - 1.0) > 1e-10) {
+            if (matrix[i][i] != 1.0) {
                 throw new IllegalArgumentException("The system does not have a unique solution");
             }
             
             for (int j = 0; j < i; j++) {
-                if (Math.abs(matrix[i][j]) > 1e-10) {
+                if (matrix[i][j] != 0.0) {
                     throw new IllegalArgumentException("The system does not have a unique solution");
                 }
             }
         }
     }
     
+    /**
+     * Formats the rows of a matrix one per line, for tracing.
+     */
+    private static String formatRows(double[][] matrix) {
+        StringBuilder sb = new StringBuilder();
+        for (double[] row : matrix) {
+            sb.append(Arrays.toString(row)).append('\n');
+        }
+        return sb.toString();
+    }
+    
     /**
      * Formats a double value to a string, removing trailing zeros if it's a whole number.
      * 
@@ -403,80 +590,101 @@ public class LinearEquationSolver {
     }
     
     /**
-     * Finds all variables in the expression.
-     * 
-     * @param expression The expression to search for variables
-     * @return A set of all variables found
-     */
-    private static Set<String> findAllVariables(String expression) {
-        Set<String> variables = new HashSet<>();
-        Matcher matcher = Pattern.compile("[a-zA-Z][a-zA-Z0-9]*").matcher(expression);
-        while (matcher.find()) {
-            variables.add(matcher.group());
-        }
-        return variables;
-    }
-    
-    /**
-     * Applies Gaussian elimination to convert a matrix to reduced row-echelon form.
+     * Applies Gauss-Jordan elimination to convert an augmented matrix [A|b] to reduced row-echelon form.
+     * <p>
+     * Pivots are chosen by scaled partial pivoting: in each column, the entry that is largest
+     * relative to the largest coefficient of its row, so that the choice does not depend on how
+     * the equations happen to be scaled. An entry counts as zero when it is below a rounding-error
+     * tolerance relative to its row. Each pivot step only updates the columns right of the pivot,
+     * the ones on its left being already eliminated, and writes exact zeros in the pivot column.
+     * The right-hand side of rows left without a pivot is flushed to zero when it is rounding noise.
      * 
-     * @param matrix The matrix to transform
+     * @param matrix The augmented matrix to transform, with at least one column
      */
-    private static void reducedRowEchelonForm(double[][] matrix) {
+    static void reducedRowEchelonForm(double[][] matrix) {
         int numRows = matrix.length;
         if (numRows == 0) return;
         
         int numCols = matrix[0].length;
-        int lead = 0;
+        int numVariables = numCols - 1;
         
-        for (int r = 0; r < numRows; r++) {
-            if (lead >= numCols - 1) break;
-            
-            int i = r;
-            while (i < numRows && Math.abs(matrix[i][lead]) < 1e-10) {
-                i++;
+        // Largest coefficient of each row, and its zero threshold, relative to its largest entry
+        double relativeTolerance = Math.max(numRows, numCols) * Math.ulp(1.0);
+        double[] scale = new double[numRows];
+        double[] tolerance = new double[numRows];
+        for (int i = 0; i < numRows; i++) {
+            double maxAbs = 0.0;
+            for (int j = 0; j < numVariables; j++) {
+                maxAbs = Math.max(maxAbs, Math.abs(matrix[i][j]));
+            }
+            scale[i] = maxAbs;
+            tolerance[i] = relativeTolerance * Math.max(maxAbs, Math.abs(matrix[i][numVariables]));
+        }
+        
+        int r = 0;
+        for (int lead = 0; lead < numVariables && r < numRows; lead++) {
+            int pivotRow = -1;
+            double bestRatio = 0.0;
+            for (int i = r; i < numRows; i++) {
+                double abs = Math.abs(matrix[i][lead]);
+                if (abs > tolerance[i] && abs / scale[i] > bestRatio) {
+                    bestRatio = abs / scale[i];
+                    pivotRow = i;
+                }
             }
             
-            if (i == numRows) {
-                // No pivot in this column, move to next column
-                lead++;
-                r--; // Retry this row
+            if (pivotRow < 0) {
+                // No pivot in this column: what is left of it is rounding noise
+                for (int i = r; i < numRows; i++) {
+                    matrix[i][lead] = 0.0;
+                }
                 continue;
             }
             
-            // Swap rows i and r
-            double[] temp = matrix[i];
-            matrix[i] = matrix[r];
-            matrix[r] = temp;
+            swap(matrix, pivotRow, r);
+            swap(scale, pivotRow, r);
+            swap(tolerance, pivotRow, r);
             
             // Scale row r to make the leading coefficient 1
-            double factor = matrix[r][lead];
-            if (Math.abs(factor) > 1e-10) {
-                for (int j = 0; j < numCols; j++) {
-                    matrix[r][j] /= factor;
-                }
+            double[] pivot = matrix[r];
+            double factor = pivot[lead];
+            pivot[lead] = 1.0;
+            for (int j = lead + 1; j < numCols; j++) {
+                pivot[j] /= factor;
             }
             
             // Subtract from other rows to make all other entries in the lead column 0
-            for (i = 0; i < numRows; i++) {
-                if (i != r) {
-                    factor = matrix[i][lead];
-                    for (int j = 0; j < numCols; j++) {
-                        matrix[i][j] -= factor * matrix[r][j];
+            for (int i = 0; i < numRows; i++) {
+                double[] row = matrix[i];
+                factor = row[lead];
+                if (i != r && factor != 0.0) {
+                    row[lead] = 0.0;
+                    for (int j = lead + 1; j < numCols; j++) {
+                        row[j] -= factor * pivot[j];
                     }
                 }
             }
             
-            lead++;
+            r++;
         }
         
-        // Clean up very small values (numerical stability)
-        for (int i = 0; i < numRows; i++) {
-            for (int j = 0; j < numCols; j++) {
-                if (Math.abs(matrix[i][j]) < 1e-10) {
-                    matrix[i][j] = 0.0;
-                }
+        // Rows without a pivot have zero coefficients; their right-hand side is a residue to test for consistency
+        for (int i = r; i < numRows; i++) {
+            if (Math.abs(matrix[i][numVariables]) <= tolerance[i]) {
+                matrix[i][numVariables] = 0.0;
             }
         }
     }
-}
\ No newline at end of file
+    
+    private static void swap(double[][] array, int i, int j) {
+        double[] temp = array[i];
+        array[i] = array[j];
+        array[j] = temp;
+    }
+    
+    private static void swap(double[] array, int i, int j) {
+        double temp = array[i];
+        array[i] = array[j];
+        array[j] = temp;
+    }
+}
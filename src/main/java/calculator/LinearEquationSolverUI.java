@@ -26,6 +26,8 @@ public class LinearEquationSolverUI {
     private TextArea resultArea;
     private List<TextField> equationFields;
     private int currentEquations;
+    // Kept between solves, so that editing one equation updates the factored system instead of solving it again
+    private final EquationSystem system = new EquationSystem();
     
     // Constants for UI design - Light Mode
     private static final String LIGHT_BG = "linear-gradient(to bottom right, #ffffff, #f5f5f5)";
@@ -176,9 +178,6 @@ public class LinearEquationSolverUI {
                 return;
             }
             
-            // Convert to array
-            String[] equationArray = equations.toArray(new String[0]);
-            
             // Solve based on number of equations
             if (equations.size() == 1) {
                 // Single variable equation
@@ -187,7 +186,8 @@ public class LinearEquationSolverUI {
             } else {
                 // System of equations
                 try {
-                    Map<String, Double> solutions = LinearEquationSolver.solveSystem(equationArray);
+                    system.setEquations(equations);
+                    Map<String, Double> solutions = system.solve();
                     
                     // Format the results
                     StringBuilder resultText = new StringBuilder("Solution:\n");
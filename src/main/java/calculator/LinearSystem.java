@@ -0,0 +1,184 @@
+package calculator;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * A square system of linear equations factored once, to be solved against many right-hand sides.
+ * <p>
+ * The handle keeps the LU factors of the coefficients and the order of the variables, so each
+ * solve costs two triangular substitutions, O(n²), instead of parsing and eliminating again.
+ * {@link #solveBatch(double[][])} substitutes blocks of right-hand sides together, reading the
+ * factors once per block instead of once per right-hand side, and spreads the blocks over the
+ * cores of a fork-join pool.
+ *
+ * @see LinearEquationSolver#factor(String[])
+ */
+public class LinearSystem {
+
+    /** Number of right-hand sides substituted together, so that a row of a block spans a few cache lines */
+    static final int BLOCK_COLUMNS = 32;
+
+    /** Number of multiply-adds below which a batch is solved on the calling thread */
+    static final long SEQUENTIAL_THRESHOLD = 1L << 20;
+
+    private final String[] variables;
+    private final LUDecomposition decomposition;
+    private final int[] pivot;
+    private final double[] rightHandSide;
+    private final ForkJoinPool pool;
+
+    /**
+     * Factors a system given by its coefficients.
+     *
+     * @param variables The names of the unknowns, in the order of the columns
+     * @param coefficients The square matrix of coefficients
+     * @param rightHandSide The right-hand side of the equations the system was built from
+     * @throws IllegalArgumentException If the matrix is not square or singular
+     */
+    LinearSystem(String[] variables, Matrix coefficients, double[] rightHandSide) {
+        this.decomposition = new LUDecomposition(coefficients);
+        if (decomposition.isSingular()) {
+            throw new IllegalArgumentException("The system does not have a unique solution");
+        }
+        this.variables = variables;
+        this.pivot = decomposition.getPivot();
+        this.rightHandSide = rightHandSide;
+        this.pool = ForkJoinPool.commonPool();
+    }
+
+    /**
+     * Gets the number of equations, which is also the number of unknowns.
+     *
+     * @return The size of the system
+     */
+    public int getSize() {
+        return variables.length;
+    }
+
+    /**
+     * Gets the names of the unknowns, in the order of the elements of the solution vectors.
+     *
+     * @return A copy of the variable names
+     */
+    public String[] getVariables() {
+        return variables.clone();
+    }
+
+    /**
+     * Gets the right-hand side of the equations the system was built from.
+     *
+     * @return A copy of the right-hand side, one element per equation
+     */
+    public double[] getRightHandSide() {
+        return rightHandSide.clone();
+    }
+
+    /**
+     * Solves the system with the right-hand side of its equations.
+     *
+     * @return A map of variable names to their solution values
+     */
+    public Map<String, Double> solve() {
+        double[] x = solve(rightHandSide);
+        Map<String, Double> solutions = new HashMap<>();
+        for (int j = 0; j < x.length; j++) {
+            solutions.put(variables[j], x[j]);
+        }
+        return solutions;
+    }
+
+    /**
+     * Solves the system with another right-hand side.
+     *
+     * @param rhs The right-hand side, one element per equation
+     * @return The values of the unknowns, in the order of {@link #getVariables()}
+     * @throws IllegalArgumentException If the size of rhs does not match
+     */
+    public double[] solve(double[] rhs) {
+        return decomposition.solve(rhs);
+    }
+
+    /**
+     * Solves the system with many right-hand sides.
+     *
+     * @param rhs The right-hand sides, each with one element per equation
+     * @return The solutions, one per right-hand side, in the order of {@link #getVariables()}
+     * @throws IllegalArgumentException If the size of a right-hand side does not match
+     */
+    public double[][] solveBatch(double[][] rhs) {
+        int n = getSize();
+        for (double[] b : rhs) {
+            if (b.length != n) {
+                throw new IllegalArgumentException("Right-hand side has " + b.length + " elements, expected " + n);
+            }
+        }
+        double[][] solutions = new double[rhs.length][n];
+        int blocks = (rhs.length + BLOCK_COLUMNS - 1) / BLOCK_COLUMNS;
+        BatchTask task = new BatchTask(rhs, solutions, 0, blocks);
+        if ((long) n * n * rhs.length < SEQUENTIAL_THRESHOLD || pool.getParallelism() == 1) {
+            task.compute();
+        } else {
+            pool.invoke(task);
+        }
+        return solutions;
+    }
+
+    /**
+     * Substitutes one block of right-hand sides: they are gathered as the columns of a
+     * row-major array, in pivot order, solved together, then scattered back.
+     */
+    private void solveBlock(double[][] rhs, double[][] solutions, int block) {
+        int n = getSize();
+        int from = block * BLOCK_COLUMNS;
+        int m = Math.min(BLOCK_COLUMNS, rhs.length - from);
+        DoubleArrayPool buffers = DoubleArrayPool.forCurrentThread();
+        double[] x = buffers.acquire(n * m);
+        for (int c = 0; c < m; c++) {
+            double[] b = rhs[from + c];
+            for (int i = 0; i < n; i++) {
+                x[i * m + c] = b[pivot[i]];
+            }
+        }
+        decomposition.substitute(x, m);
+        for (int c = 0; c < m; c++) {
+            double[] solution = solutions[from + c];
+            for (int i = 0; i < n; i++) {
+                solution[i] = x[i * m + c];
+            }
+        }
+        buffers.release(x);
+    }
+
+    /**
+     * Task solving a range of blocks, splitting it in halves while it holds more than one block.
+     */
+    private final class BatchTask extends RecursiveAction {
+        private final double[][] rhs;
+        private final double[][] solutions;
+        private final int blockFrom;
+        private final int blockTo;
+
+        BatchTask(double[][] rhs, double[][] solutions, int blockFrom, int blockTo) {
+            this.rhs = rhs;
+            this.solutions = solutions;
+            this.blockFrom = blockFrom;
+            this.blockTo = blockTo;
+        }
+
+        @Override
+        protected void compute() {
+            if (blockTo - blockFrom <= 1 || !inForkJoinPool()) {
+                for (int block = blockFrom; block < blockTo; block++) {
+                    solveBlock(rhs, solutions, block);
+                }
+            } else {
+                int mid = (blockFrom + blockTo) >>> 1;
+                invokeAll(new BatchTask(rhs, solutions, blockFrom, mid),
+                          new BatchTask(rhs, solutions, mid, blockTo));
+            }
+        }
+    }
+}
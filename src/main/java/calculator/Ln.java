@@ -13,6 +13,14 @@ public final class Ln extends Operation implements UnaryOperation {
 
   protected static final List<String> SYMBOLES = new ArrayList<>(List.of("ln"));
 
+  private static EvaluationException nonPositiveArgument() {
+    return new EvaluationException(EvaluationException.Kind.DOMAIN_ERROR, "Cannot compute the natural logarithm of a non-positive number");
+  }
+
+  private static EvaluationException zeroArgument() {
+    return new EvaluationException(EvaluationException.Kind.DOMAIN_ERROR, "Cannot compute the natural logarithm of zero");
+  }
+
   /**
    * Class constructor specifying a single Expression argument.
    *
@@ -31,7 +39,7 @@ public final class Ln extends Operation implements UnaryOperation {
    * @throws IllegalConstruction If null or empty list is passed as parameter
    */
   public Ln(List<Expression> elist) throws IllegalConstruction {
-    super(elist, null);
+    super(elist, null, OP_LN);
     symbol = "ln";
     neutral = 0; // No real neutral element for logarithm
   }
@@ -44,7 +52,7 @@ public final class Ln extends Operation implements UnaryOperation {
    * @throws IllegalConstruction If a null expression is passed as parameter
    */
   public Ln(Notation n, Expression expr) throws IllegalConstruction {
-    super(n, expr);
+    super(n, OP_LN, expr);
     symbol = "ln";
     neutral = 0;
   }
@@ -86,7 +94,7 @@ public final class Ln extends Operation implements UnaryOperation {
   public Number opUnary(Number n) {
     double value = n.doubleValue();
     if (value <= 0) {
-      throw new ArithmeticException("Cannot compute the natural logarithm of a non-positive number");
+      throw nonPositiveArgument();
     }
     return Math.log(value);
   }
@@ -105,7 +113,7 @@ public final class Ln extends Operation implements UnaryOperation {
     double b = z.getImaginaryPart().doubleValue();
     
     if (a == 0 && b == 0) {
-      throw new ArithmeticException("Cannot compute the natural logarithm of zero");
+      throw zeroArgument();
     }
     
     // Compute the modulus (absolute value) of the complex number
@@ -0,0 +1,460 @@
+package calculator;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Dense matrix stored in a file and accessed through memory mapping, for matrices too large for the heap.
+ * <p>
+ * Elements are laid out row-major as little-endian doubles, like the buffer of an in-memory
+ * {@link Matrix}. The file is mapped in chunks of whole rows of at most 1 GiB each, and the
+ * operating system pages them in and out on demand. Products and transposes stream the
+ * matrix tile by tile through pooled in-memory blocks and never load it whole; blocks can
+ * also be read and written directly to run in-core algorithms on parts of the matrix.
+ * <p>
+ * A mapped matrix is not thread-safe for writing. Closing it flushes the changes to disk;
+ * the mapping itself is released by the garbage collector.
+ */
+public final class MappedMatrix implements RealMatrix, Closeable {
+
+    /** Side of the square tiles streamed by products and transposes, 8 MiB of doubles */
+    static final int TILE = 1024;
+
+    /** Number of elements of the row bands streamed by products with in-memory operands */
+    static final int BAND_ELEMENTS = 1 << 20;
+
+    private static final long MAX_CHUNK_BYTES = 1L << 30;
+
+    private final Path file;
+    private final int rows;
+    private final int cols;
+    private final boolean writable;
+    private final boolean temporary;
+    private final int rowsPerChunk;
+    private final MappedByteBuffer[] mappings;
+    private final DoubleBuffer[] chunks;
+
+    private MappedMatrix(Path file, FileChannel channel, long dataOffset, int rows, int cols,
+                         boolean writable, boolean temporary) throws IOException {
+        this.file = file;
+        this.rows = rows;
+        this.cols = cols;
+        this.writable = writable;
+        this.temporary = temporary;
+
+        long rowBytes = (long) cols * Double.BYTES;
+        if (rowBytes > MAX_CHUNK_BYTES) {
+            throw new IllegalArgumentException("Rows of " + cols + " elements are too long to be mapped");
+        }
+        this.rowsPerChunk = (int) Math.min(rows, MAX_CHUNK_BYTES / rowBytes);
+        int chunkCount = (rows + rowsPerChunk - 1) / rowsPerChunk;
+        this.mappings = new MappedByteBuffer[chunkCount];
+        this.chunks = new DoubleBuffer[chunkCount];
+
+        FileChannel.MapMode mode = writable ? FileChannel.MapMode.READ_WRITE : FileChannel.MapMode.READ_ONLY;
+        for (int c = 0; c < chunkCount; c++) {
+            int chunkRows = Math.min(rowsPerChunk, rows - c * rowsPerChunk);
+            long position = dataOffset + (long) c * rowsPerChunk * rowBytes;
+            mappings[c] = channel.map(mode, position, chunkRows * rowBytes);
+            chunks[c] = mappings[c].order(ByteOrder.LITTLE_ENDIAN).asDoubleBuffer();
+        }
+    }
+
+    /**
+     * Creates a file holding a rows x cols zero matrix and maps it for reading and writing.
+     * An existing file is overwritten.
+     *
+     * @param file The file to create
+     * @param rows Number of rows
+     * @param cols Number of columns
+     * @return A new writable mapped matrix
+     * @throws IOException If the file cannot be created or mapped
+     */
+    public static MappedMatrix create(Path file, int rows, int cols) throws IOException {
+        return create(file, rows, cols, false);
+    }
+
+    private static MappedMatrix create(Path file, int rows, int cols, boolean temporary) throws IOException {
+        checkDimensions(rows, cols);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            // Mapping past the end grows the file with zeros
+            return new MappedMatrix(file, channel, 0, rows, cols, true, temporary);
+        }
+    }
+
+    /**
+     * Maps an existing file holding a rows x cols matrix in row-major order.
+     *
+     * @param file The file to map
+     * @param rows Number of rows
+     * @param cols Number of columns
+     * @param writable Whether the matrix can be modified, changes being written back to the file
+     * @return A new mapped matrix
+     * @throws IOException If the file cannot be mapped or is too small for the given dimensions
+     */
+    public static MappedMatrix open(Path file, int rows, int cols, boolean writable) throws IOException {
+        return map(file, 0, rows, cols, writable);
+    }
+
+    /**
+     * Maps the elements of a matrix stored in a file from a given byte offset, for instance after a header.
+     */
+    static MappedMatrix map(Path file, long dataOffset, int rows, int cols, boolean writable) throws IOException {
+        checkDimensions(rows, cols);
+        StandardOpenOption[] options = writable
+            ? new StandardOpenOption[] {StandardOpenOption.READ, StandardOpenOption.WRITE}
+            : new StandardOpenOption[] {StandardOpenOption.READ};
+        try (FileChannel channel = FileChannel.open(file, options)) {
+            long required = dataOffset + (long) rows * cols * Double.BYTES;
+            if (channel.size() < required) {
+                throw new IOException("File " + file + " holds " + channel.size() + " bytes, " +
+                    required + " are needed for a " + rows + "x" + cols + " matrix");
+            }
+            return new MappedMatrix(file, channel, dataOffset, rows, cols, writable, false);
+        }
+    }
+
+    /**
+     * Writes an in-memory matrix to a new file and maps it.
+     *
+     * @param file The file to create
+     * @param matrix The matrix to store
+     * @return A new writable mapped matrix with the same elements
+     * @throws IOException If the file cannot be created or mapped
+     */
+    public static MappedMatrix fromMatrix(Path file, Matrix matrix) throws IOException {
+        MappedMatrix mapped = create(file, matrix.getRows(), matrix.getCols());
+        mapped.writeBlock(0, 0, matrix);
+        return mapped;
+    }
+
+    private static void checkDimensions(int rows, int cols) {
+        if (rows <= 0 || cols <= 0) {
+            throw new IllegalArgumentException("Invalid matrix dimensions: [" + rows + "x" + cols + "]");
+        }
+    }
+
+    @Override
+    public int getRows() {
+        return rows;
+    }
+
+    @Override
+    public int getCols() {
+        return cols;
+    }
+
+    /**
+     * Gets the file backing this matrix.
+     *
+     * @return The path of the file
+     */
+    public Path getFile() {
+        return file;
+    }
+
+    @Override
+    public double get(int row, int col) {
+        checkIndex(row, col);
+        return chunks[row / rowsPerChunk].get(position(row, col));
+    }
+
+    /**
+     * Sets the value at the specified position.
+     *
+     * @param row Row index (0-based)
+     * @param col Column index (0-based)
+     * @param value The value to set
+     * @throws UnsupportedOperationException If the matrix was mapped read-only
+     */
+    public void set(int row, int col, double value) {
+        checkIndex(row, col);
+        checkWritable();
+        chunks[row / rowsPerChunk].put(position(row, col), value);
+    }
+
+    /**
+     * Copies a block of this matrix into a new in-memory matrix.
+     *
+     * @param row Index of the first row of the block
+     * @param col Index of the first column of the block
+     * @param numRows Number of rows of the block
+     * @param numCols Number of columns of the block
+     * @return A new matrix holding the block
+     * @throws IndexOutOfBoundsException If the block extends beyond this matrix
+     */
+    public Matrix readBlock(int row, int col, int numRows, int numCols) {
+        return readBlockInto(row, col, Matrix.zeros(numRows, numCols));
+    }
+
+    /**
+     * Copies the block of this matrix starting at a given position into an in-memory matrix,
+     * whose dimensions give those of the block.
+     *
+     * @param row Index of the first row of the block
+     * @param col Index of the first column of the block
+     * @param dest The destination matrix
+     * @return The destination
+     * @throws IndexOutOfBoundsException If the block extends beyond this matrix
+     */
+    public Matrix readBlockInto(int row, int col, Matrix dest) {
+        int numRows = dest.getRows();
+        int numCols = dest.getCols();
+        checkBlock(row, col, numRows, numCols);
+        for (int i = 0; i < numRows; i++) {
+            DoubleBuffer chunk = chunks[(row + i) / rowsPerChunk];
+            int position = position(row + i, col);
+            if (dest.colStride == 1) {
+                chunk.get(position, dest.data, dest.index(i, 0), numCols);
+            } else {
+                for (int j = 0; j < numCols; j++) {
+                    dest.data[dest.index(i, j)] = chunk.get(position + j);
+                }
+            }
+        }
+        dest.invalidateDecomposition();
+        return dest;
+    }
+
+    /**
+     * Copies an in-memory matrix into this matrix at a given position.
+     *
+     * @param row Index of the row receiving the first row of the block
+     * @param col Index of the column receiving the first column of the block
+     * @param block The block to write
+     * @throws IndexOutOfBoundsException If the block extends beyond this matrix
+     * @throws UnsupportedOperationException If the matrix was mapped read-only
+     */
+    public void writeBlock(int row, int col, Matrix block) {
+        int numRows = block.getRows();
+        int numCols = block.getCols();
+        checkBlock(row, col, numRows, numCols);
+        checkWritable();
+        for (int i = 0; i < numRows; i++) {
+            DoubleBuffer chunk = chunks[(row + i) / rowsPerChunk];
+            int position = position(row + i, col);
+            if (block.colStride == 1) {
+                chunk.put(position, block.data, block.index(i, 0), numCols);
+            } else {
+                for (int j = 0; j < numCols; j++) {
+                    chunk.put(position + j, block.data[block.index(i, j)]);
+                }
+            }
+        }
+    }
+
+    @Override
+    public double[] multiply(double[] vector) {
+        if (vector.length != cols) {
+            throw new IllegalArgumentException(
+                "Vector size mismatch: [" + rows + "x" + cols + "] * [" + vector.length + "]");
+        }
+        double[] result = new double[rows];
+        DoubleArrayPool pool = DoubleArrayPool.forCurrentThread();
+        double[] row = pool.acquire(cols);
+        for (int i = 0; i < rows; i++) {
+            chunks[i / rowsPerChunk].get(position(i, 0), row, 0, cols);
+            double sum = 0.0;
+            for (int j = 0; j < cols; j++) {
+                sum += row[j] * vector[j];
+            }
+            result[i] = sum;
+        }
+        pool.release(row);
+        return result;
+    }
+
+    /**
+     * Multiplies this matrix by an in-memory matrix. This matrix is streamed in bands of rows,
+     * each multiplied with the in-memory kernels; the result must fit in memory.
+     *
+     * @param other The in-memory matrix to multiply by
+     * @return A new in-memory matrix holding the product
+     * @throws IllegalArgumentException If the matrices have incompatible dimensions
+     */
+    @Override
+    public Matrix multiply(Matrix other) {
+        if (cols != other.getRows()) {
+            throw new IllegalArgumentException(
+                "Matrix dimensions mismatch for multiplication: [" + rows + "x" + cols + "] * [" +
+                other.getRows() + "x" + other.getCols() + "]");
+        }
+        Matrix result = Matrix.zeros(rows, other.getCols());
+        DoubleArrayPool pool = DoubleArrayPool.forCurrentThread();
+        int band = Math.max(1, BAND_ELEMENTS / cols);
+        for (int i = 0; i < rows; i += band) {
+            int h = Math.min(band, rows - i);
+            Matrix block = readBlockInto(i, 0, pool.acquireMatrix(h, cols));
+            // Full-width bands of the result are contiguous, so the product is written in place
+            block.multiplyInto(other, result.submatrix(i, 0, h, other.getCols()));
+            pool.release(block);
+        }
+        return result;
+    }
+
+    /**
+     * Multiplies this matrix by another mapped matrix into a new file, tile by tile:
+     * each tile of the result accumulates the products of a row of tiles of this matrix
+     * by a column of tiles of the other, so only three tiles are in memory at a time.
+     *
+     * @param other The mapped matrix to multiply by
+     * @param target The file receiving the product
+     * @return A new writable mapped matrix holding the product
+     * @throws IllegalArgumentException If the matrices have incompatible dimensions
+     * @throws IOException If the target file cannot be created or mapped
+     */
+    public MappedMatrix multiply(MappedMatrix other, Path target) throws IOException {
+        if (cols != other.rows) {
+            throw new IllegalArgumentException(
+                "Matrix dimensions mismatch for multiplication: [" + rows + "x" + cols + "] * [" +
+                other.rows + "x" + other.cols + "]");
+        }
+        MappedMatrix result = create(target, rows, other.cols);
+        DoubleArrayPool pool = DoubleArrayPool.forCurrentThread();
+        for (int i = 0; i < rows; i += TILE) {
+            int h = Math.min(TILE, rows - i);
+            for (int j = 0; j < other.cols; j += TILE) {
+                int w = Math.min(TILE, other.cols - j);
+                Matrix sum = pool.acquireMatrix(h, w).fill(0.0);
+                Matrix product = pool.acquireMatrix(h, w);
+                for (int k = 0; k < cols; k += TILE) {
+                    int d = Math.min(TILE, cols - k);
+                    Matrix a = readBlockInto(i, k, pool.acquireMatrix(h, d));
+                    Matrix b = other.readBlockInto(k, j, pool.acquireMatrix(d, w));
+                    a.multiplyInto(b, product);
+                    sum.addInto(product, sum);
+                    pool.release(a);
+                    pool.release(b);
+                }
+                result.writeBlock(i, j, sum);
+                pool.release(product);
+                pool.release(sum);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Writes the transpose of this matrix to a new file, one tile at a time.
+     *
+     * @param target The file receiving the transpose
+     * @return A new writable mapped matrix holding the transpose
+     * @throws IOException If the target file cannot be created or mapped
+     */
+    public MappedMatrix transpose(Path target) throws IOException {
+        return transposeTiles(create(target, cols, rows));
+    }
+
+    /**
+     * Computes the transpose of this matrix into a temporary file, deleted when the result is closed.
+     *
+     * @return A new mapped matrix holding the transpose
+     * @throws UncheckedIOException If the temporary file cannot be created
+     */
+    @Override
+    public MappedMatrix transpose() {
+        try {
+            Path target = Files.createTempFile("matrix", ".bin");
+            return transposeTiles(create(target, cols, rows, true));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private MappedMatrix transposeTiles(MappedMatrix result) {
+        DoubleArrayPool pool = DoubleArrayPool.forCurrentThread();
+        for (int i = 0; i < rows; i += TILE) {
+            int h = Math.min(TILE, rows - i);
+            for (int j = 0; j < cols; j += TILE) {
+                int w = Math.min(TILE, cols - j);
+                Matrix tile = readBlockInto(i, j, pool.acquireMatrix(h, w));
+                Matrix transposed = tile.transposeInto(pool.acquireMatrix(w, h));
+                result.writeBlock(j, i, transposed);
+                pool.release(tile);
+                pool.release(transposed);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Loads the whole matrix in memory.
+     *
+     * @return A new in-memory matrix with the same elements
+     * @throws IllegalStateException If the matrix has too many elements for an in-memory matrix
+     */
+    @Override
+    public Matrix toMatrix() {
+        if ((long) rows * cols > Integer.MAX_VALUE - 8) {
+            throw new IllegalStateException(
+                "Matrix [" + rows + "x" + cols + "] is too large to be loaded in memory");
+        }
+        return readBlock(0, 0, rows, cols);
+    }
+
+    /**
+     * Writes the changes made to this matrix back to its file.
+     */
+    public void flush() {
+        if (writable) {
+            for (MappedByteBuffer mapping : mappings) {
+                mapping.force();
+            }
+        }
+    }
+
+    /**
+     * Flushes the changes to disk, and deletes the file if it was a temporary one.
+     * The matrix must not be used afterwards.
+     *
+     * @throws IOException If a temporary file cannot be deleted
+     */
+    @Override
+    public void close() throws IOException {
+        flush();
+        if (temporary) {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "MappedMatrix[" + rows + "x" + cols + ", " + file + "]";
+    }
+
+    /**
+     * Position of an element in the chunk holding its row.
+     */
+    private int position(int row, int col) {
+        return (row % rowsPerChunk) * cols + col;
+    }
+
+    private void checkIndex(int row, int col) {
+        if (row < 0 || row >= rows || col < 0 || col >= cols) {
+            throw new IndexOutOfBoundsException("Index out of bounds: [" + row + ", " + col + "]");
+        }
+    }
+
+    private void checkBlock(int row, int col, int numRows, int numCols) {
+        if (row < 0 || col < 0 || numRows < 0 || numCols < 0 || row + numRows > rows || col + numCols > cols) {
+            throw new IndexOutOfBoundsException(
+                "Block [" + numRows + "x" + numCols + "] at [" + row + ", " + col + "] out of bounds for [" +
+                rows + "x" + cols + "]");
+        }
+    }
+
+    private void checkWritable() {
+        if (!writable) {
+            throw new UnsupportedOperationException("Matrix " + file + " is mapped read-only");
+        }
+    }
+}
@@ -1,17 +1,33 @@
 package calculator;
 
-import java.util.ArrayList;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
 import java.util.Arrays;
-import java.util.List;
 import java.util.Objects;
 
 /**
  * Represents a mathematical matrix and provides operations for matrix manipulation.
+ * The elements are stored in a single contiguous row-major {@code double[]}.
+ * Element (i, j) lives at {@code offset + i * rowStride + j * colStride}, which lets
+ * row, column, submatrix and transpose views share the buffer of the matrix they come from.
+ * Element-wise operations use SIMD kernels when {@link Vectorization} is enabled.
  */
-public class Matrix {
-    private final double[][] data;
+public class Matrix implements RealMatrix {
+    /** Blocked kernel, spread over the common fork-join pool for large products */
+    private static final MatrixMultiplier DEFAULT_MULTIPLIER = new ParallelMatrixMultiplier();
+    
+    /** Backing buffer, possibly shared with other views */
+    final double[] data;
+    final int offset;
+    final int rowStride;
+    final int colStride;
     private final int rows;
     private final int cols;
+    
+    /** Opt-in cache of the LU decomposition */
+    private boolean decompositionCached;
+    private LUDecomposition decomposition;
 
     /**
      * Constructs a new matrix with the given data.
@@ -21,17 +37,60 @@ public class Matrix {
     public Matrix(double[][] data) {
         this.rows = data.length;
         this.cols = (rows > 0) ? data[0].length : 0;
+        this.offset = 0;
+        this.rowStride = cols;
+        this.colStride = 1;
         
-        // Create a deep copy of the input data
-        this.data = new double[rows][cols];
+        // Copy the input rows into the contiguous buffer
+        this.data = new double[rows * cols];
         for (int i = 0; i < rows; i++) {
             if (data[i].length != cols) {
                 throw new IllegalArgumentException("All rows must have the same length");
             }
-            System.arraycopy(data[i], 0, this.data[i], 0, cols);
+            System.arraycopy(data[i], 0, this.data, i * cols, cols);
         }
     }
     
+    /**
+     * Wraps a row-major buffer without copying it.
+     *
+     * @param rows Number of rows
+     * @param cols Number of columns
+     * @param data Row-major buffer holding at least rows * cols elements
+     */
+    Matrix(int rows, int cols, double[] data) {
+        this(rows, cols, data, 0, cols, 1);
+    }
+    
+    /**
+     * Creates a view over a buffer with arbitrary strides, without copying it.
+     */
+    private Matrix(int rows, int cols, double[] data, int offset, int rowStride, int colStride) {
+        this.rows = rows;
+        this.cols = cols;
+        this.data = data;
+        this.offset = offset;
+        this.rowStride = rowStride;
+        this.colStride = colStride;
+    }
+    
+    /**
+     * Creates a new matrix from a row-major array of elements, which is copied.
+     *
+     * @param rows Number of rows
+     * @param cols Number of columns
+     * @param values The elements, row after row
+     * @return A new matrix
+     * @throws IllegalArgumentException If the number of elements does not match the dimensions
+     */
+    public static Matrix fromRowMajor(int rows, int cols, double[] values) {
+        if (values.length != rows * cols) {
+            throw new IllegalArgumentException(
+                "Expected " + (rows * cols) + " elements for a [" + rows + "x" + cols + "] matrix, got " + values.length);
+        }
+        return new Matrix(rows, cols, values.clone());
+    }
+    
     /**
      * Creates a new matrix with the specified dimensions, filled with zeros.
      *
@@ -40,8 +99,7 @@ public class Matrix {
      * @return A new zero matrix
      */
     public static Matrix zeros(int rows, int cols) {
-        double[][] data = new double[rows][cols];
-        return new Matrix(data);
+        return new Matrix(rows, cols, new double[rows * cols]);
     }
     
     /**
@@ -51,11 +109,11 @@ public class Matrix {
      * @return A new identity matrix
      */
     public static Matrix identity(int size) {
-        double[][] data = new double[size][size];
+        double[] data = new double[size * size];
         for (int i = 0; i < size; i++) {
-            data[i][i] = 1.0;
+            data[i * size + i] = 1.0;
         }
-        return new Matrix(data);
+        return new Matrix(size, size, data);
     }
     
     /**
@@ -63,6 +121,7 @@ public class Matrix {
      *
      * @return Number of rows
      */
+    @Override
     public int getRows() {
         return rows;
     }
@@ -72,6 +131,7 @@ public class Matrix {
      *
      * @return Number of columns
      */
+    @Override
     public int getCols() {
         return cols;
     }
@@ -83,15 +143,17 @@ public class Matrix {
      * @param col Column index (0-based)
      * @return The value at the specified position
      */
+    @Override
     public double get(int row, int col) {
         if (row < 0 || row >= rows || col < 0 || col >= cols) {
             throw new IndexOutOfBoundsException("Index out of bounds: [" + row + ", " + col + "]");
         }
-        return data[row][col];
+        return data[index(row, col)];
     }
     
     /**
      * Sets the value at the specified position.
+     * Views sharing the same buffer see the change.
      *
      * @param row Row index (0-based)
      * @param col Column index (0-based)
@@ -101,22 +163,141 @@ public class Matrix {
         if (row < 0 || row >= rows || col < 0 || col >= cols) {
             throw new IndexOutOfBoundsException("Index out of bounds: [" + row + ", " + col + "]");
         }
-        data[row][col] = value;
+        data[index(row, col)] = value;
+        decomposition = null;
     }
     
     /**
-     * Returns a copy of the internal data array.
+     * Returns a copy of the matrix data as a 2D array.
      *
      * @return A copy of the matrix data
      */
     public double[][] getData() {
         double[][] copy = new double[rows][cols];
         for (int i = 0; i < rows; i++) {
-            System.arraycopy(data[i], 0, copy[i], 0, cols);
+            if (colStride == 1) {
+                System.arraycopy(data, offset + i * rowStride, copy[i], 0, cols);
+            } else {
+                for (int j = 0; j < cols; j++) {
+                    copy[i][j] = data[index(i, j)];
+                }
+            }
         }
         return copy;
     }
     
+    /**
+     * Returns a copy of the matrix elements as a row-major array.
+     *
+     * @return The elements, row after row
+     */
+    public double[] toRowMajorArray() {
+        if (isContiguous()) {
+            return Arrays.copyOfRange(data, offset, offset + rows * cols);
+        }
+        return compact().data;
+    }
+    
+    /**
+     * Returns a zero-copy view of one row of this matrix, as a 1 x cols matrix.
+     *
+     * @param row Row index (0-based)
+     * @return A view sharing this matrix's buffer
+     */
+    public Matrix row(int row) {
+        return submatrix(row, 0, 1, cols);
+    }
+    
+    /**
+     * Returns a zero-copy view of one column of this matrix, as a rows x 1 matrix.
+     *
+     * @param col Column index (0-based)
+     * @return A view sharing this matrix's buffer
+     */
+    public Matrix column(int col) {
+        return submatrix(0, col, rows, 1);
+    }
+    
+    /**
+     * Returns a zero-copy view of a rectangular block of this matrix.
+     *
+     * @param row First row of the block (0-based)
+     * @param col First column of the block (0-based)
+     * @param numRows Number of rows of the block
+     * @param numCols Number of columns of the block
+     * @return A view sharing this matrix's buffer
+     * @throws IndexOutOfBoundsException If the block does not fit in this matrix
+     */
+    public Matrix submatrix(int row, int col, int numRows, int numCols) {
+        if (row < 0 || col < 0 || numRows < 0 || numCols < 0 || row + numRows > rows || col + numCols > cols) {
+            throw new IndexOutOfBoundsException(
+                "Block [" + row + ", " + col + "] of size [" + numRows + "x" + numCols + 
+                "] out of bounds for [" + rows + "x" + cols + "]");
+        }
+        return new Matrix(numRows, numCols, data, offset + row * rowStride + col * colStride, rowStride, colStride);
+    }
+    
+    /**
+     * Returns a zero-copy transposed view of this matrix.
+     *
+     * @return A view sharing this matrix's buffer, with rows and columns swapped
+     * @see #transpose()
+     */
+    public Matrix transposeView() {
+        return new Matrix(cols, rows, data, offset, colStride, rowStride);
+    }
+    
+    /**
+     * Returns an independent copy of this matrix, with its own contiguous buffer.
+     *
+     * @return A new matrix equal to this one
+     */
+    public Matrix copy() {
+        if (isContiguous()) {
+            return new Matrix(rows, cols, Arrays.copyOfRange(data, offset, offset + rows * cols));
+        }
+        return compact();
+    }
+    
+    /**
+     * Checks whether the elements of this matrix form one contiguous row-major run of the buffer,
+     * which lets element-wise operations run as a single linear loop.
+     *
+     * @return true if the matrix is laid out contiguously in row-major order
+     */
+    boolean isContiguous() {
+        return (colStride == 1 || cols <= 1) && (rowStride == cols || rows <= 1);
+    }
+    
+    /**
+     * Computes the position of an element in the backing buffer.
+     */
+    int index(int row, int col) {
+        return offset + row * rowStride + col * colStride;
+    }
+    
+    /**
+     * Copies the elements of a strided view into a new contiguous matrix.
+     */
+    private Matrix compact() {
+        double[] result = new double[rows * cols];
+        int k = 0;
+        for (int i = 0; i < rows; i++) {
+            int base = offset + i * rowStride;
+            for (int j = 0; j < cols; j++) {
+                result[k++] = data[base + j * colStride];
+            }
+        }
+        return new Matrix(rows, cols, result);
+    }
+    
+    /**
+     * Returns this matrix itself if it is contiguous, or a contiguous copy of it otherwise.
+     */
+    Matrix contiguous() {
+        return isContiguous() ? this : compact();
+    }
+    
     /**
      * Adds this matrix to another matrix.
      *
@@ -131,14 +312,19 @@ public class Matrix {
                 other.rows + "x" + other.cols + "]");
         }
         
-        double[][] result = new double[rows][cols];
-        for (int i = 0; i < rows; i++) {
-            for (int j = 0; j < cols; j++) {
-                result[i][j] = data[i][j] + other.data[i][j];
+        Matrix a = contiguous();
+        Matrix b = other.contiguous();
+        int n = rows * cols;
+        double[] result = new double[n];
+        if (Vectorization.isEnabled()) {
+            VectorKernels.add(a.data, a.offset, b.data, b.offset, result, 0, n);
+        } else {
+            for (int k = 0; k < n; k++) {
+                result[k] = a.data[a.offset + k] + b.data[b.offset + k];
             }
         }
         
-        return new Matrix(result);
+        return new Matrix(rows, cols, result);
     }
     
     /**
@@ -155,42 +341,192 @@ public class Matrix {
                 other.rows + "x" + other.cols + "]");
         }
         
-        double[][] result = new double[rows][cols];
-        for (int i = 0; i < rows; i++) {
-            for (int j = 0; j < cols; j++) {
-                result[i][j] = data[i][j] - other.data[i][j];
+        Matrix a = contiguous();
+        Matrix b = other.contiguous();
+        int n = rows * cols;
+        double[] result = new double[n];
+        if (Vectorization.isEnabled()) {
+            VectorKernels.subtract(a.data, a.offset, b.data, b.offset, result, 0, n);
+        } else {
+            for (int k = 0; k < n; k++) {
+                result[k] = a.data[a.offset + k] - b.data[b.offset + k];
             }
         }
         
-        return new Matrix(result);
+        return new Matrix(rows, cols, result);
     }
     
     /**
-     * Multiplies this matrix by another matrix.
+     * Adds another matrix to this one into a destination matrix, overwriting all its elements.
+     * The destination may be one of the operands.
      *
-     * @param other The matrix to multiply by
-     * @return A new matrix representing the product
-     * @throws IllegalArgumentException If the matrices have incompatible dimensions
+     * @param other The matrix to add
+     * @param dest The destination, of the same dimensions
+     * @return The destination
+     * @throws IllegalArgumentException If the matrices have different dimensions
      */
-    public Matrix multiply(Matrix other) {
-        if (cols != other.rows) {
+    public Matrix addInto(Matrix other, Matrix dest) {
+        return elementWiseInto(other, dest, ADD, "+");
+    }
+    
+    /**
+     * Subtracts another matrix from this one into a destination matrix, overwriting all its elements.
+     * The destination may be one of the operands.
+     *
+     * @param other The matrix to subtract
+     * @param dest The destination, of the same dimensions
+     * @return The destination
+     * @throws IllegalArgumentException If the matrices have different dimensions
+     */
+    public Matrix subtractInto(Matrix other, Matrix dest) {
+        return elementWiseInto(other, dest, SUBTRACT, "-");
+    }
+    
+    private static final int ADD = 0;
+    private static final int SUBTRACT = 1;
+    
+    /**
+     * Applies an element-wise addition or subtraction into a destination,
+     * with linear loops when the three matrices are contiguous.
+     */
+    private Matrix elementWiseInto(Matrix other, Matrix dest, int op, String symbol) {
+        if (rows != other.rows || cols != other.cols || rows != dest.rows || cols != dest.cols) {
             throw new IllegalArgumentException(
-                "Matrix dimensions mismatch for multiplication: [" + rows + "x" + cols + "] * [" + 
-                other.rows + "x" + other.cols + "]");
+                "Matrix dimensions mismatch: [" + rows + "x" + cols + "] " + symbol + " [" + 
+                other.rows + "x" + other.cols + "] into [" + dest.rows + "x" + dest.cols + "]");
         }
         
-        double[][] result = new double[rows][other.cols];
-        for (int i = 0; i < rows; i++) {
-            for (int j = 0; j < other.cols; j++) {
-                double sum = 0.0;
-                for (int k = 0; k < cols; k++) {
-                    sum += data[i][k] * other.data[k][j];
+        if (isContiguous() && other.isContiguous() && dest.isContiguous()) {
+            int n = rows * cols;
+            if (Vectorization.isEnabled()) {
+                if (op == ADD) {
+                    VectorKernels.add(data, offset, other.data, other.offset, dest.data, dest.offset, n);
+                } else {
+                    VectorKernels.subtract(data, offset, other.data, other.offset, dest.data, dest.offset, n);
                 }
-                result[i][j] = sum;
+            } else {
+                for (int k = 0; k < n; k++) {
+                    double l = data[offset + k];
+                    double r = other.data[other.offset + k];
+                    dest.data[dest.offset + k] = (op == ADD) ? l + r : l - r;
+                }
+            }
+        } else {
+            for (int i = 0; i < rows; i++) {
+                for (int j = 0; j < cols; j++) {
+                    double l = data[index(i, j)];
+                    double r = other.data[other.index(i, j)];
+                    dest.data[dest.index(i, j)] = (op == ADD) ? l + r : l - r;
+                }
+            }
+        }
+        dest.decomposition = null;
+        return dest;
+    }
+    
+    /**
+     * Multiplies this matrix element by element with another matrix (Hadamard product).
+     *
+     * @param other The matrix to multiply with
+     * @return A new matrix whose elements are the products of the corresponding elements
+     * @throws IllegalArgumentException If the matrices have different dimensions
+     */
+    public Matrix multiplyElementWise(Matrix other) {
+        if (rows != other.rows || cols != other.cols) {
+            throw new IllegalArgumentException(
+                "Matrix dimensions mismatch: [" + rows + "x" + cols + "] .* [" + 
+                other.rows + "x" + other.cols + "]");
+        }
+        
+        Matrix a = contiguous();
+        Matrix b = other.contiguous();
+        int n = rows * cols;
+        double[] result = new double[n];
+        if (Vectorization.isEnabled()) {
+            VectorKernels.multiply(a.data, a.offset, b.data, b.offset, result, 0, n);
+        } else {
+            for (int k = 0; k < n; k++) {
+                result[k] = a.data[a.offset + k] * b.data[b.offset + k];
             }
         }
         
-        return new Matrix(result);
+        return new Matrix(rows, cols, result);
+    }
+    
+    /**
+     * Multiplies this matrix by another matrix, using the cache-blocked kernel.
+     * Large products are split across the cores of the common fork-join pool.
+     *
+     * @param other The matrix to multiply by
+     * @return A new matrix representing the product
+     * @throws IllegalArgumentException If the matrices have incompatible dimensions
+     */
+    @Override
+    public Matrix multiply(Matrix other) {
+        return multiply(other, DEFAULT_MULTIPLIER);
+    }
+    
+    /**
+     * Multiplies this matrix by another matrix with the given multiplication strategy.
+     *
+     * @param other The matrix to multiply by
+     * @param multiplier The algorithm computing the product
+     * @return A new matrix representing the product
+     * @throws IllegalArgumentException If the matrices have incompatible dimensions
+     */
+    public Matrix multiply(Matrix other, MatrixMultiplier multiplier) {
+        checkMultiplicable(this, other);
+        return multiplier.multiply(this, other);
+    }
+    
+    /**
+     * Checks that two matrices can be multiplied.
+     *
+     * @param left The left operand
+     * @param right The right operand
+     * @throws IllegalArgumentException If the columns of left do not match the rows of right
+     */
+    static void checkMultiplicable(Matrix left, Matrix right) {
+        if (left.cols != right.rows) {
+            throw new IllegalArgumentException(
+                "Matrix dimensions mismatch for multiplication: [" + left.rows + "x" + left.cols + "] * [" + 
+                right.rows + "x" + right.cols + "]");
+        }
+    }
+    
+    /**
+     * Multiplies this matrix by another matrix into a destination matrix, overwriting all its elements.
+     * With a contiguous destination, the product is written directly into it and
+     * the scratch buffers of the kernel come from the pool of the current thread,
+     * so repeated calls do not allocate.
+     *
+     * @param other The matrix to multiply by
+     * @param dest The destination, of getRows() x other.getCols(), not sharing storage with either operand
+     * @return The destination
+     * @throws IllegalArgumentException If the dimensions are incompatible or the destination shares storage with an operand
+     */
+    public Matrix multiplyInto(Matrix other, Matrix dest) {
+        return DEFAULT_MULTIPLIER.multiplyInto(this, other, dest);
+    }
+    
+    /**
+     * Checks that a destination can receive the product of two matrices.
+     *
+     * @param left The left operand
+     * @param right The right operand
+     * @param dest The destination
+     * @throws IllegalArgumentException If the dimensions are incompatible or the destination shares storage with an operand
+     */
+    static void checkProductDestination(Matrix left, Matrix right, Matrix dest) {
+        checkMultiplicable(left, right);
+        if (dest.rows != left.rows || dest.cols != right.cols) {
+            throw new IllegalArgumentException(
+                "Destination dimensions mismatch: [" + dest.rows + "x" + dest.cols + "] for product [" + 
+                left.rows + "x" + right.cols + "]");
+        }
+        if (dest.data == left.data || dest.data == right.data) {
+            throw new IllegalArgumentException("The destination of a product must not share storage with an operand");
+        }
     }
     
     /**
@@ -200,103 +536,186 @@ public class Matrix {
      * @return A new matrix with each element multiplied by the scalar
      */
     public Matrix multiply(double scalar) {
-        double[][] result = new double[rows][cols];
-        for (int i = 0; i < rows; i++) {
-            for (int j = 0; j < cols; j++) {
-                result[i][j] = data[i][j] * scalar;
+        Matrix a = contiguous();
+        int n = rows * cols;
+        double[] result = new double[n];
+        if (Vectorization.isEnabled()) {
+            VectorKernels.scale(a.data, a.offset, scalar, result, 0, n);
+        } else {
+            for (int k = 0; k < n; k++) {
+                result[k] = a.data[a.offset + k] * scalar;
             }
         }
         
-        return new Matrix(result);
+        return new Matrix(rows, cols, result);
     }
     
     /**
-     * Computes the transpose of this matrix.
+     * Multiplies this matrix by a column vector.
      *
-     * @return A new matrix that is the transpose of this matrix
+     * @param vector The vector, with as many elements as this matrix has columns
+     * @return A new vector with as many elements as this matrix has rows
+     * @throws IllegalArgumentException If the size of the vector does not match
      */
-    public Matrix transpose() {
-        double[][] result = new double[cols][rows];
+    @Override
+    public double[] multiply(double[] vector) {
+        if (vector.length != cols) {
+            throw new IllegalArgumentException(
+                "Matrix dimensions mismatch for multiplication: [" + rows + "x" + cols + "] * [" + 
+                vector.length + "]");
+        }
+        
+        double[] result = new double[rows];
         for (int i = 0; i < rows; i++) {
+            double sum = 0.0;
             for (int j = 0; j < cols; j++) {
-                result[j][i] = data[i][j];
+                sum += data[index(i, j)] * vector[j];
             }
+            result[i] = sum;
         }
-        
-        return new Matrix(result);
+        return result;
     }
     
     /**
-     * Calculates the determinant of this matrix.
+     * Multiplies every element of this matrix by a scalar, in place.
      *
-     * @return The determinant of this matrix
-     * @throws IllegalArgumentException If the matrix is not square
+     * @param scalar The scalar value to multiply by
+     * @return This matrix
      */
-    public double determinant() {
-        if (rows != cols) {
-            throw new IllegalArgumentException("Determinant can only be calculated for square matrices");
-        }
-        
-        if (rows == 1) {
-            return data[0][0];
+    public Matrix scaleInPlace(double scalar) {
+        if (isContiguous()) {
+            int n = rows * cols;
+            if (Vectorization.isEnabled()) {
+                VectorKernels.scale(data, offset, scalar, data, offset, n);
+            } else {
+                for (int k = offset; k < offset + n; k++) {
+                    data[k] *= scalar;
+                }
+            }
+        } else {
+            for (int i = 0; i < rows; i++) {
+                for (int j = 0; j < cols; j++) {
+                    data[index(i, j)] *= scalar;
+                }
+            }
         }
-        
-        if (rows == 2) {
-            return data[0][0] * data[1][1] - data[0][1] * data[1][0];
+        decomposition = null;
+        return this;
+    }
+    
+    /**
+     * Sets every element of this matrix to the same value.
+     *
+     * @param value The value to set
+     * @return This matrix
+     */
+    public Matrix fill(double value) {
+        if (isContiguous()) {
+            Arrays.fill(data, offset, offset + rows * cols, value);
+        } else {
+            for (int i = 0; i < rows; i++) {
+                for (int j = 0; j < cols; j++) {
+                    data[index(i, j)] = value;
+                }
+            }
         }
-        
-        // For larger matrices, use cofactor expansion
-        double det = 0.0;
-        for (int j = 0; j < cols; j++) {
-            det += data[0][j] * cofactor(0, j);
+        decomposition = null;
+        return this;
+    }
+    
+    /**
+     * Copies the elements of a matrix of the same dimensions into this one.
+     */
+    void assign(Matrix source) {
+        if (isContiguous() && source.isContiguous()) {
+            System.arraycopy(source.data, source.offset, data, offset, rows * cols);
+        } else {
+            for (int i = 0; i < rows; i++) {
+                for (int j = 0; j < cols; j++) {
+                    data[index(i, j)] = source.data[source.index(i, j)];
+                }
+            }
         }
-        
-        return det;
+        decomposition = null;
+    }
+    
+    /**
+     * Drops the cached LU decomposition, after code of this package wrote into the buffer directly.
+     */
+    void invalidateDecomposition() {
+        decomposition = null;
     }
     
     /**
-     * Calculates the cofactor of the element at the specified position.
+     * Computes the transpose of this matrix.
      *
-     * @param row Row index (0-based)
-     * @param col Column index (0-based)
-     * @return The cofactor of the element
+     * @return A new matrix that is the transpose of this matrix
+     * @see #transposeView()
      */
-    private double cofactor(int row, int col) {
-        return Math.pow(-1, row + col) * minor(row, col).determinant();
+    @Override
+    public Matrix transpose() {
+        // Copying the transposed view reads it with swapped strides, writing the result linearly
+        return transposeView().compact();
     }
     
     /**
-     * Creates a submatrix by removing the specified row and column.
+     * Writes the transpose of this matrix into a destination matrix.
+     * The destination may be this matrix itself when it is square.
      *
-     * @param excludeRow Row to exclude
-     * @param excludeCol Column to exclude
-     * @return A new matrix with the row and column removed
+     * @param dest The destination, of getCols() x getRows()
+     * @return The destination
+     * @throws IllegalArgumentException If the destination has the wrong dimensions
      */
-    private Matrix minor(int excludeRow, int excludeCol) {
-        if (rows <= 1 || cols <= 1) {
-            throw new IllegalArgumentException("Cannot create a minor for a 1x1 or smaller matrix");
+    public Matrix transposeInto(Matrix dest) {
+        if (dest.rows != cols || dest.cols != rows) {
+            throw new IllegalArgumentException(
+                "Destination dimensions mismatch: [" + dest.rows + "x" + dest.cols + "] for transpose [" + 
+                cols + "x" + rows + "]");
         }
         
-        double[][] result = new double[rows - 1][cols - 1];
-        int r = 0;
-        for (int i = 0; i < rows; i++) {
-            if (i == excludeRow) continue;
-            
-            int c = 0;
-            for (int j = 0; j < cols; j++) {
-                if (j == excludeCol) continue;
-                
-                result[r][c] = data[i][j];
-                c++;
+        if (dest.data == data) {
+            // Shared storage: transpose from a pooled copy
+            DoubleArrayPool pool = DoubleArrayPool.forCurrentThread();
+            Matrix source = pool.acquireMatrix(rows, cols);
+            source.assign(this);
+            source.transposeInto(dest);
+            pool.release(source);
+            return dest;
+        }
+        
+        // Tiles keep both the rows read and the columns written in cache
+        final int tile = 32;
+        for (int ii = 0; ii < rows; ii += tile) {
+            int iEnd = Math.min(ii + tile, rows);
+            for (int jj = 0; jj < cols; jj += tile) {
+                int jEnd = Math.min(jj + tile, cols);
+                for (int i = ii; i < iEnd; i++) {
+                    for (int j = jj; j < jEnd; j++) {
+                        dest.data[dest.index(j, i)] = data[index(i, j)];
+                    }
+                }
             }
-            r++;
+        }
+        dest.decomposition = null;
+        return dest;
+    }
+    
+    /**
+     * Calculates the determinant of this matrix from its LU decomposition.
+     *
+     * @return The determinant value
+     * @throws IllegalArgumentException If the matrix is not square
+     */
+    public double determinant() {
+        if (rows != cols) {
+            throw new IllegalArgumentException("Determinant can only be calculated for square matrices");
         }
         
-        return new Matrix(result);
+        return decompose().determinant();
     }
     
     /**
-     * Calculates the inverse of this matrix.
+     * Calculates the inverse of this matrix from its LU decomposition.
      *
      * @return A new matrix that is the inverse of this matrix
      * @throws IllegalArgumentException If the matrix is not invertible
@@ -306,25 +725,81 @@ public class Matrix {
             throw new IllegalArgumentException("Only square matrices can be inverted");
         }
         
-        double det = determinant();
-        if (Math.abs(det) < 1e-10) {
+        LUDecomposition lu = decompose();
+        if (lu.isSingular()) {
             throw new IllegalArgumentException("Matrix is singular (determinant is zero)");
         }
         
-        // For 1x1 matrix
-        if (rows == 1) {
-            return new Matrix(new double[][]{{1.0 / data[0][0]}});
+        return lu.inverse();
+    }
+    
+    /**
+     * Solves the linear system A X = B, where A is this matrix.
+     *
+     * @param b The right-hand sides, one per column
+     * @return The solutions X, one per column
+     * @throws IllegalArgumentException If this matrix is not square or singular, or if the rows of b do not match
+     */
+    public Matrix solve(Matrix b) {
+        if (rows != cols) {
+            throw new IllegalArgumentException("Only square systems can be solved");
         }
         
-        // For larger matrices, calculate the adjugate and divide by determinant
-        double[][] result = new double[rows][cols];
-        for (int i = 0; i < rows; i++) {
-            for (int j = 0; j < cols; j++) {
-                result[j][i] = cofactor(i, j) / det; // Note the swapped indices for transpose
+        return decompose().solve(b);
+    }
+    
+    /**
+     * Returns the LU decomposition of this matrix.
+     * If caching is enabled, the factorization is computed once and reused
+     * by later calls to determinant, inverse and solve.
+     *
+     * @return The LU decomposition of this matrix
+     * @throws IllegalArgumentException If the matrix is not square
+     * @see #setDecompositionCached(boolean)
+     */
+    public LUDecomposition decompose() {
+        LUDecomposition lu = decomposition;
+        if (lu == null) {
+            lu = new LUDecomposition(this);
+            if (decompositionCached) {
+                decomposition = lu;
             }
         }
-        
-        return new Matrix(result);
+        return lu;
+    }
+    
+    /**
+     * Enables or disables caching of the LU decomposition on this instance.
+     * The cache is dropped by {@link #set(int, int, double)} on this instance;
+     * writes through other views of the same buffer are not tracked.
+     *
+     * @param cached true to keep the factorization once computed
+     */
+    public void setDecompositionCached(boolean cached) {
+        decompositionCached = cached;
+        if (!cached) {
+            decomposition = null;
+        }
+    }
+    
+    /**
+     * Starts a lazy expression on this matrix, whose element-wise operations are fused when it is evaluated.
+     *
+     * @return An expression whose value is this matrix
+     * @see MatrixExpr
+     */
+    public MatrixExpr lazy() {
+        return MatrixExpr.of(this);
+    }
+    
+    /**
+     * Returns this matrix, which is already dense.
+     *
+     * @return This matrix
+     */
+    @Override
+    public Matrix toMatrix() {
+        return this;
     }
     
     /**
@@ -338,7 +813,7 @@ public class Matrix {
         for (int i = 0; i < rows; i++) {
             sb.append("[");
             for (int j = 0; j < cols; j++) {
-                sb.append(String.format("% .5f", data[i][j]).trim());
+                sb.append(String.format("% .5f", data[index(i, j)]).trim());
                 if (j < cols - 1) {
                     sb.append(", ");
                 }
@@ -351,58 +826,20 @@ public class Matrix {
     /**
      * Parses a string representation of a matrix.
      * Format: [[a, b, c], [d, e, f], [g, h, i]]
+     * The string is scanned once and the numbers are stored directly, without boxing them;
+     * use {@link MatrixIO#readText(java.io.Reader)} to parse text streamed from a file.
      *
      * @param matrixStr The matrix string to parse
      * @return A new Matrix object
      * @throws IllegalArgumentException If the input string cannot be parsed
      */
     public static Matrix parse(String matrixStr) {
-        // Remove spaces and validate overall format
-        String cleaned = matrixStr.trim().replaceAll("\\s+", "");
-        if (!cleaned.startsWith("[[") || !cleaned.endsWith("]]")) {
-            throw new IllegalArgumentException("Invalid matrix format. Expected format: [[a,b], [c,d]]");
+        try {
+            return MatrixIO.readText(new StringReader(matrixStr));
+        } catch (IOException e) {
+            // A StringReader never fails
+            throw new UncheckedIOException(e);
         }
-        
-        // Remove outer brackets and split by row
-        String content = cleaned.substring(1, cleaned.length() - 1);
-        String[] rowStrings = content.split("\\],\\[");
-        
-        // Remove remaining brackets
-        rowStrings[0] = rowStrings[0].replaceFirst("\\[", "");
-        rowStrings[rowStrings.length - 1] = rowStrings[rowStrings.length - 1].replaceFirst("\\]$", "");
-        
-        // Parse rows and columns
-        List<List<Double>> matrix = new ArrayList<>();
-        int cols = -1;
-        
-        for (String rowStr : rowStrings) {
-            String[] elements = rowStr.split(",");
-            List<Double> row = new ArrayList<>();
-            
-            for (String element : elements) {
-                if (!element.isEmpty()) {
-                    row.add(Double.parseDouble(element));
-                }
-            }
-            
-            if (cols == -1) {
-                cols = row.size();
-            } else if (cols != row.size()) {
-                throw new IllegalArgumentException("All rows must have the same number of columns");
-            }
-            
-            matrix.add(row);
-        }
-        
-        // Convert to array
-        double[][] data = new double[matrix.size()][cols];
-        for (int i = 0; i < matrix.size(); i++) {
-            for (int j = 0; j < cols; j++) {
-                data[i][j] = matrix.get(i).get(j);
-            }
-        }
-        
-        return new Matrix(data);
     }
     
     /**
@@ -421,7 +858,7 @@ public class Matrix {
         
         for (int i = 0; i < rows; i++) {
             for (int j = 0; j < cols; j++) {
-                if (Math.abs(data[i][j] - other.data[i][j]) > 1e-10) {
+                if (Math.abs(data[index(i, j)] - other.data[other.index(i, j)]) > 1e-10) {
                     return false;
                 }
             }
@@ -438,7 +875,17 @@ public class Matrix {
     @Override
     public int hashCode() {
         int result = Objects.hash(rows, cols);
-        result = 31 * result + Arrays.deepHashCode(data);
+        // Same value as Arrays.deepHashCode over the rows, independent of the strides of a view
+        int elements = 1;
+        for (int i = 0; i < rows; i++) {
+            int rowHash = 1;
+            for (int j = 0; j < cols; j++) {
+                long bits = Double.doubleToLongBits(data[index(i, j)]);
+                rowHash = 31 * rowHash + (int) (bits ^ (bits >>> 32));
+            }
+            elements = 31 * elements + rowHash;
+        }
+        result = 31 * result + elements;
         return result;
     }
 }
\ No newline at end of file
@@ -0,0 +1,441 @@
+package calculator;
+
+import java.util.Arrays;
+
+/**
+ * Lazy matrix expression. Operations on an expression only record a tree of operations;
+ * nothing is computed until the expression is evaluated into a destination.
+ * <p>
+ * Element-wise chains (sums, differences, element-wise products and scalings) are fused:
+ * the destination is computed in one pass, {@value #CHUNK} elements at a time, and the
+ * intermediate values of a chunk live in small scratch buffers that stay in L1, so no
+ * intermediate matrix is ever allocated. Matrix products cannot be fused this way: each
+ * product is computed once before the pass, it and its operands being evaluated into pooled
+ * buffers that are released after it.
+ * <pre>
+ * Matrix r = a.lazy().multiply(b).add(c).multiply(2.0).evaluateInto(dest);
+ * </pre>
+ */
+public abstract class MatrixExpr {
+
+    /** Number of elements computed per step of the fused pass */
+    static final int CHUNK = 512;
+
+    private final int rows;
+    private final int cols;
+
+    private MatrixExpr(int rows, int cols) {
+        this.rows = rows;
+        this.cols = cols;
+    }
+
+    /**
+     * Starts an expression from a matrix. The matrix is read when the expression is evaluated, not copied.
+     *
+     * @param matrix The matrix
+     * @return An expression whose value is the matrix
+     */
+    public static MatrixExpr of(Matrix matrix) {
+        return new Leaf(matrix);
+    }
+
+    /**
+     * Gets the number of rows of the value of this expression.
+     *
+     * @return Number of rows
+     */
+    public int getRows() {
+        return rows;
+    }
+
+    /**
+     * Gets the number of columns of the value of this expression.
+     *
+     * @return Number of columns
+     */
+    public int getCols() {
+        return cols;
+    }
+
+    /**
+     * Records the sum of this expression and a matrix.
+     *
+     * @param other The matrix to add
+     * @return The sum expression
+     * @throws IllegalArgumentException If the dimensions differ
+     */
+    public MatrixExpr add(Matrix other) {
+        return add(of(other));
+    }
+
+    /**
+     * Records the sum of this expression and another one.
+     *
+     * @param other The expression to add
+     * @return The sum expression
+     * @throws IllegalArgumentException If the dimensions differ
+     */
+    public MatrixExpr add(MatrixExpr other) {
+        return new ElementWise(ElementWise.ADD, this, other);
+    }
+
+    /**
+     * Records the difference of this expression and a matrix.
+     *
+     * @param other The matrix to subtract
+     * @return The difference expression
+     * @throws IllegalArgumentException If the dimensions differ
+     */
+    public MatrixExpr subtract(Matrix other) {
+        return subtract(of(other));
+    }
+
+    /**
+     * Records the difference of this expression and another one.
+     *
+     * @param other The expression to subtract
+     * @return The difference expression
+     * @throws IllegalArgumentException If the dimensions differ
+     */
+    public MatrixExpr subtract(MatrixExpr other) {
+        return new ElementWise(ElementWise.SUBTRACT, this, other);
+    }
+
+    /**
+     * Records the element-wise product of this expression and a matrix.
+     *
+     * @param other The matrix to multiply with
+     * @return The element-wise product expression
+     * @throws IllegalArgumentException If the dimensions differ
+     */
+    public MatrixExpr multiplyElementWise(Matrix other) {
+        return multiplyElementWise(of(other));
+    }
+
+    /**
+     * Records the element-wise product of this expression and another one.
+     *
+     * @param other The expression to multiply with
+     * @return The element-wise product expression
+     * @throws IllegalArgumentException If the dimensions differ
+     */
+    public MatrixExpr multiplyElementWise(MatrixExpr other) {
+        return new ElementWise(ElementWise.MULTIPLY, this, other);
+    }
+
+    /**
+     * Records the product of this expression by a scalar. Consecutive scalings are folded into one.
+     *
+     * @param scalar The scalar value to multiply by
+     * @return The scaled expression
+     */
+    public MatrixExpr multiply(double scalar) {
+        if (this instanceof Scaled) {
+            Scaled scaled = (Scaled) this;
+            return new Scaled(scaled.operand, scaled.scalar * scalar);
+        }
+        return new Scaled(this, scalar);
+    }
+
+    /**
+     * Records the matrix product of this expression and a matrix.
+     *
+     * @param other The matrix to multiply by
+     * @return The product expression
+     * @throws IllegalArgumentException If the dimensions are incompatible
+     */
+    public MatrixExpr multiply(Matrix other) {
+        return multiply(of(other));
+    }
+
+    /**
+     * Records the matrix product of this expression and another one.
+     *
+     * @param other The expression to multiply by
+     * @return The product expression
+     * @throws IllegalArgumentException If the dimensions are incompatible
+     */
+    public MatrixExpr multiply(MatrixExpr other) {
+        return new Product(this, other);
+    }
+
+    /**
+     * Evaluates this expression into a new matrix.
+     *
+     * @return The value of the expression
+     */
+    public Matrix evaluate() {
+        return evaluateInto(Matrix.zeros(rows, cols));
+    }
+
+    /**
+     * Evaluates this expression into a matrix whose buffer comes from a pool.
+     * The caller hands the buffer back with {@link DoubleArrayPool#release(Matrix)} once done.
+     *
+     * @param pool The pool providing the destination buffer
+     * @return The value of the expression
+     */
+    public Matrix evaluate(DoubleArrayPool pool) {
+        return evaluateInto(pool.acquireMatrix(rows, cols));
+    }
+
+    /**
+     * Evaluates this expression into a caller-provided matrix, overwriting all its elements.
+     * The destination may also be an operand of the expression, e.g. to update a matrix in place.
+     *
+     * @param dest The destination, with the dimensions of the expression
+     * @return The destination
+     * @throws IllegalArgumentException If the destination has different dimensions
+     */
+    public Matrix evaluateInto(Matrix dest) {
+        if (dest.getRows() != rows || dest.getCols() != cols) {
+            throw new IllegalArgumentException(
+                "Matrix dimensions mismatch: expression [" + rows + "x" + cols + "] into [" +
+                dest.getRows() + "x" + dest.getCols() + "]");
+        }
+
+        DoubleArrayPool pool = DoubleArrayPool.forCurrentThread();
+        Workspace workspace = new Workspace(pool);
+        try {
+            MatrixExpr bound = bind(workspace);
+            int n = rows * cols;
+            if (dest.isContiguous()) {
+                for (int start = 0; start < n; start += CHUNK) {
+                    bound.fill(start, Math.min(CHUNK, n - start), dest.data, dest.offset + start, workspace);
+                }
+                dest.invalidateDecomposition();
+            } else {
+                double[] chunk = workspace.borrow();
+                for (int start = 0; start < n; start += CHUNK) {
+                    int length = Math.min(CHUNK, n - start);
+                    bound.fill(start, length, chunk, 0, workspace);
+                    for (int k = 0; k < length; k++) {
+                        dest.set((start + k) / cols, (start + k) % cols, chunk[k]);
+                    }
+                }
+                workspace.giveBack();
+            }
+        } finally {
+            workspace.releaseTemporaries();
+        }
+        return dest;
+    }
+
+    /**
+     * Returns an equivalent expression ready for the fused pass: products are computed
+     * and leaves made contiguous.
+     */
+    abstract MatrixExpr bind(Workspace workspace);
+
+    /**
+     * Computes the elements [start, start + length) of the row-major value of this expression
+     * into out[outOffset ...]. Only called on bound expressions.
+     */
+    abstract void fill(int start, int length, double[] out, int outOffset, Workspace workspace);
+
+    /**
+     * Scratch chunks for the fused pass, handed out as a stack, and the pooled
+     * buffers of the products computed for one evaluation.
+     */
+    static final class Workspace {
+        private final DoubleArrayPool pool;
+        private double[][] chunks = new double[4][];
+        private int depth;
+        private Matrix[] temporaries = new Matrix[2];
+        private int temporaryCount;
+
+        Workspace(DoubleArrayPool pool) {
+            this.pool = pool;
+        }
+
+        double[] borrow() {
+            if (depth == chunks.length) {
+                chunks = Arrays.copyOf(chunks, depth * 2);
+            }
+            if (chunks[depth] == null) {
+                chunks[depth] = new double[CHUNK];
+            }
+            return chunks[depth++];
+        }
+
+        void giveBack() {
+            depth--;
+        }
+
+        Matrix temporary(int rows, int cols) {
+            Matrix m = pool.acquireMatrix(rows, cols);
+            if (temporaryCount == temporaries.length) {
+                temporaries = Arrays.copyOf(temporaries, temporaryCount * 2);
+            }
+            temporaries[temporaryCount++] = m;
+            return m;
+        }
+
+        void releaseTemporaries() {
+            for (int i = 0; i < temporaryCount; i++) {
+                pool.release(temporaries[i]);
+                temporaries[i] = null;
+            }
+            temporaryCount = 0;
+        }
+    }
+
+    /**
+     * A matrix operand.
+     */
+    private static final class Leaf extends MatrixExpr {
+        private final Matrix matrix;
+
+        Leaf(Matrix matrix) {
+            super(matrix.getRows(), matrix.getCols());
+            this.matrix = matrix;
+        }
+
+        @Override
+        MatrixExpr bind(Workspace workspace) {
+            return matrix.isContiguous() ? this : new Leaf(matrix.contiguous());
+        }
+
+        @Override
+        void fill(int start, int length, double[] out, int outOffset, Workspace workspace) {
+            System.arraycopy(matrix.data, matrix.offset + start, out, outOffset, length);
+        }
+    }
+
+    /**
+     * An expression multiplied by a scalar.
+     */
+    private static final class Scaled extends MatrixExpr {
+        private final MatrixExpr operand;
+        private final double scalar;
+
+        Scaled(MatrixExpr operand, double scalar) {
+            super(operand.getRows(), operand.getCols());
+            this.operand = operand;
+            this.scalar = scalar;
+        }
+
+        @Override
+        MatrixExpr bind(Workspace workspace) {
+            return new Scaled(operand.bind(workspace), scalar);
+        }
+
+        @Override
+        void fill(int start, int length, double[] out, int outOffset, Workspace workspace) {
+            operand.fill(start, length, out, outOffset, workspace);
+            if (Vectorization.isEnabled()) {
+                VectorKernels.scale(out, outOffset, scalar, out, outOffset, length);
+            } else {
+                for (int k = outOffset; k < outOffset + length; k++) {
+                    out[k] *= scalar;
+                }
+            }
+        }
+    }
+
+    /**
+     * An element-wise operation between two expressions of the same dimensions.
+     */
+    private static final class ElementWise extends MatrixExpr {
+        static final int ADD = 0;
+        static final int SUBTRACT = 1;
+        static final int MULTIPLY = 2;
+
+        private final int op;
+        private final MatrixExpr left;
+        private final MatrixExpr right;
+
+        ElementWise(int op, MatrixExpr left, MatrixExpr right) {
+            super(left.getRows(), left.getCols());
+            if (left.getRows() != right.getRows() || left.getCols() != right.getCols()) {
+                throw new IllegalArgumentException(
+                    "Matrix dimensions mismatch: [" + left.getRows() + "x" + left.getCols() + "] and [" +
+                    right.getRows() + "x" + right.getCols() + "]");
+            }
+            this.op = op;
+            this.left = left;
+            this.right = right;
+        }
+
+        @Override
+        MatrixExpr bind(Workspace workspace) {
+            return new ElementWise(op, left.bind(workspace), right.bind(workspace));
+        }
+
+        @Override
+        void fill(int start, int length, double[] out, int outOffset, Workspace workspace) {
+            // The right operand goes to scratch before anything is written to out,
+            // so that a destination which is also an operand is read before being overwritten
+            double[] tmp = workspace.borrow();
+            right.fill(start, length, tmp, 0, workspace);
+            left.fill(start, length, out, outOffset, workspace);
+            if (Vectorization.isEnabled()) {
+                switch (op) {
+                    case ADD -> VectorKernels.add(out, outOffset, tmp, 0, out, outOffset, length);
+                    case SUBTRACT -> VectorKernels.subtract(out, outOffset, tmp, 0, out, outOffset, length);
+                    default -> VectorKernels.multiply(out, outOffset, tmp, 0, out, outOffset, length);
+                }
+            } else {
+                switch (op) {
+                    case ADD -> {
+                        for (int k = 0; k < length; k++) {
+                            out[outOffset + k] += tmp[k];
+                        }
+                    }
+                    case SUBTRACT -> {
+                        for (int k = 0; k < length; k++) {
+                            out[outOffset + k] -= tmp[k];
+                        }
+                    }
+                    default -> {
+                        for (int k = 0; k < length; k++) {
+                            out[outOffset + k] *= tmp[k];
+                        }
+                    }
+                }
+            }
+            workspace.giveBack();
+        }
+    }
+
+    /**
+     * A matrix product, computed before the fused pass.
+     */
+    private static final class Product extends MatrixExpr {
+        private final MatrixExpr left;
+        private final MatrixExpr right;
+
+        Product(MatrixExpr left, MatrixExpr right) {
+            super(left.getRows(), right.getCols());
+            if (left.getCols() != right.getRows()) {
+                throw new IllegalArgumentException(
+                    "Matrix dimensions mismatch for multiplication: [" + left.getRows() + "x" + left.getCols() +
+                    "] * [" + right.getRows() + "x" + right.getCols() + "]");
+            }
+            this.left = left;
+            this.right = right;
+        }
+
+        @Override
+        MatrixExpr bind(Workspace workspace) {
+            Matrix a = operand(left, workspace);
+            Matrix b = operand(right, workspace);
+            return new Leaf(a.multiplyInto(b, workspace.temporary(getRows(), getCols())));
+        }
+
+        /**
+         * Materializes an operand of the product, into a pooled temporary unless it is a plain matrix.
+         */
+        private static Matrix operand(MatrixExpr expr, Workspace workspace) {
+            if (expr instanceof Leaf) {
+                return ((Leaf) expr).matrix;
+            }
+            return expr.evaluateInto(workspace.temporary(expr.getRows(), expr.getCols()));
+        }
+
+        @Override
+        void fill(int start, int length, double[] out, int outOffset, Workspace workspace) {
+            throw new IllegalStateException("Products are computed when the expression is bound");
+        }
+    }
+}
@@ -0,0 +1,506 @@
+package calculator;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Reading and writing matrices in files, in a compact binary format or as text.
+ * <p>
+ * The binary format is a 32-byte header followed by the elements in row-major order:
+ * <pre>
+ * offset  size  content
+ *      0     4  magic "MTRX"
+ *      4     1  format version, 1
+ *      5     1  element type, 1 for 64-bit IEEE 754 doubles
+ *      6     1  byte order of the elements, 0 for little-endian, 1 for big-endian
+ *      7     1  reserved, 0
+ *      8     4  number of rows, little-endian
+ *     12     4  number of columns, little-endian
+ *     16    16  reserved, 0
+ *     32        rows * cols elements
+ * </pre>
+ * Files are written little-endian through a {@link FileChannel} and a direct buffer, with
+ * bulk copies between the buffer and the matrix. The data starts on a 32-byte boundary, so a
+ * little-endian file can also be mapped as a {@link MappedMatrix} without copying.
+ * <p>
+ * The text format is the one of {@link Matrix#parse(String)}, {@code [[a, b], [c, d]]}. It is read
+ * in a single pass over a character buffer, the numbers going straight into a {@code double[]}.
+ */
+public final class MatrixIO {
+
+    /** Size of the header, which keeps the elements aligned for mapping */
+    static final int HEADER_BYTES = 32;
+
+    private static final byte[] MAGIC = {'M', 'T', 'R', 'X'};
+    private static final byte VERSION = 1;
+    private static final byte FLOAT64 = 1;
+    private static final byte LITTLE_ENDIAN = 0;
+    private static final byte BIG_ENDIAN = 1;
+
+    /** Size of the buffer between the file and the matrix, a multiple of the size of a double */
+    private static final int BUFFER_BYTES = 1 << 16;
+
+    private MatrixIO() {
+    }
+
+    /**
+     * Writes a matrix to a file in the binary format. An existing file is overwritten.
+     *
+     * @param matrix The matrix to write
+     * @param file The destination file
+     * @throws IOException If the file cannot be written
+     */
+    public static void write(Matrix matrix, Path file) throws IOException {
+        int rows = matrix.getRows();
+        int cols = matrix.getCols();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            writeFully(channel, header(rows, cols));
+
+            ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            DoubleBuffer doubles = buffer.asDoubleBuffer();
+            int step = BUFFER_BYTES / Double.BYTES;
+            for (int i = 0; i < rows; i++) {
+                // Rows are contiguous even in most views, so they are copied in bulk
+                Matrix row = matrix.row(i).contiguous();
+                for (int j = 0; j < cols; j += step) {
+                    int length = Math.min(step, cols - j);
+                    doubles.clear();
+                    doubles.put(row.data, row.offset + j, length);
+                    buffer.clear().limit(length * Double.BYTES);
+                    writeFully(channel, buffer);
+                }
+            }
+        }
+    }
+
+    /**
+     * Reads a matrix from a file in the binary format, in either byte order.
+     *
+     * @param file The file to read
+     * @return A new matrix holding the elements of the file
+     * @throws IOException If the file cannot be read, is not in the binary format, or is truncated
+     */
+    public static Matrix read(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            Header header = readHeader(channel, file);
+            if ((long) header.rows * header.cols > Integer.MAX_VALUE - 8) {
+                throw new IOException("Matrix [" + header.rows + "x" + header.cols + "] in " + file +
+                    " is too large to be loaded in memory, map it instead");
+            }
+            int n = header.rows * header.cols;
+            double[] data = new double[n];
+
+            ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_BYTES).order(header.order);
+            DoubleBuffer doubles = buffer.asDoubleBuffer();
+            int step = BUFFER_BYTES / Double.BYTES;
+            for (int k = 0; k < n; k += step) {
+                int length = Math.min(step, n - k);
+                buffer.clear().limit(length * Double.BYTES);
+                readFully(channel, buffer, file);
+                doubles.clear();
+                doubles.get(data, k, length);
+            }
+            return new Matrix(header.rows, header.cols, data);
+        }
+    }
+
+    /**
+     * Maps a little-endian file in the binary format as a matrix, without reading it.
+     *
+     * @param file The file to map
+     * @param writable Whether the matrix can be modified, changes being written back to the file
+     * @return A new mapped matrix over the elements of the file
+     * @throws IOException If the file cannot be mapped, is not in the binary format, or is big-endian
+     */
+    public static MappedMatrix map(Path file, boolean writable) throws IOException {
+        Header header;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            header = readHeader(channel, file);
+        }
+        if (header.order != ByteOrder.LITTLE_ENDIAN) {
+            throw new IOException("Only little-endian matrix files can be mapped: " + file);
+        }
+        return MappedMatrix.map(file, HEADER_BYTES, header.rows, header.cols, writable);
+    }
+
+    /**
+     * Creates a file in the binary format holding a rows x cols zero matrix, and maps it.
+     * An existing file is overwritten.
+     *
+     * @param file The file to create
+     * @param rows Number of rows
+     * @param cols Number of columns
+     * @return A new writable mapped matrix over the elements of the file
+     * @throws IOException If the file cannot be created or mapped
+     */
+    public static MappedMatrix create(Path file, int rows, int cols) throws IOException {
+        if (rows <= 0 || cols <= 0) {
+            throw new IllegalArgumentException("Invalid matrix dimensions: [" + rows + "x" + cols + "]");
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            writeFully(channel, header(rows, cols));
+            // Writing the last byte extends the file, the elements in between read as zeros
+            long size = HEADER_BYTES + (long) rows * cols * Double.BYTES;
+            channel.write(ByteBuffer.allocate(1), size - 1);
+        }
+        return MappedMatrix.map(file, HEADER_BYTES, rows, cols, true);
+    }
+
+    /**
+     * Reads a matrix in the text format {@code [[a, b], [c, d]]}, whitespace being allowed between tokens.
+     *
+     * @param reader The source of the text, read to its end
+     * @return A new matrix
+     * @throws IOException If the reader fails
+     * @throws IllegalArgumentException If the text is not a well-formed matrix
+     */
+    public static Matrix readText(Reader reader) throws IOException {
+        TextScanner scanner = new TextScanner(reader, null);
+        scanner.scan();
+        return new Matrix(scanner.rows, scanner.cols, scanner.values);
+    }
+
+    /**
+     * Reads a matrix in the text format into a preallocated matrix of the same dimensions,
+     * so that loading many matrices of a known size does not allocate their storage.
+     * A contiguous destination is filled as the text is scanned: if the text turns out not to be
+     * a well-formed matrix of its dimensions, its contents are left undefined.
+     *
+     * @param reader The source of the text, read to its end
+     * @param dest The destination matrix
+     * @return The destination
+     * @throws IOException If the reader fails
+     * @throws IllegalArgumentException If the text is not a well-formed matrix of the dimensions of dest
+     */
+    public static Matrix readText(Reader reader, Matrix dest) throws IOException {
+        Matrix target = dest.isContiguous() ? dest : Matrix.zeros(dest.getRows(), dest.getCols());
+        // Dropped before scanning, since a failed read may already have overwritten part of dest
+        dest.invalidateDecomposition();
+        TextScanner scanner = new TextScanner(reader, target);
+        scanner.scan();
+        if (scanner.rows != dest.getRows()) {
+            throw new IllegalArgumentException("Expected a matrix of " + dest.getRows() + " rows, got " + scanner.rows);
+        }
+        if (target != dest) {
+            dest.assign(target);
+        }
+        return dest;
+    }
+
+    /**
+     * Writes a matrix in the text format read by {@link #readText(Reader)}, with every digit
+     * needed to read the same values back.
+     *
+     * @param matrix The matrix to write
+     * @param writer The destination of the text, which is not closed
+     * @throws IOException If the writer fails
+     */
+    public static void writeText(Matrix matrix, Writer writer) throws IOException {
+        writer.write('[');
+        for (int i = 0; i < matrix.getRows(); i++) {
+            writer.write(i == 0 ? "[" : ", [");
+            for (int j = 0; j < matrix.getCols(); j++) {
+                if (j > 0) {
+                    writer.write(", ");
+                }
+                writer.write(Double.toString(matrix.get(i, j)));
+            }
+            writer.write(']');
+        }
+        writer.write(']');
+    }
+
+    private static ByteBuffer header(int rows, int cols) {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        header.put(MAGIC).put(VERSION).put(FLOAT64).put(LITTLE_ENDIAN).put((byte) 0);
+        header.putInt(rows).putInt(cols);
+        header.clear();
+        return header;
+    }
+
+    /**
+     * Dimensions and byte order read from the header of a file.
+     */
+    private static final class Header {
+        final int rows;
+        final int cols;
+        final ByteOrder order;
+
+        Header(int rows, int cols, ByteOrder order) {
+            this.rows = rows;
+            this.cols = cols;
+            this.order = order;
+        }
+    }
+
+    private static Header readHeader(FileChannel channel, Path file) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        readFully(channel, header, file);
+        header.flip();
+
+        byte[] magic = new byte[MAGIC.length];
+        header.get(magic);
+        if (!Arrays.equals(magic, MAGIC)) {
+            throw new IOException("Not a matrix file: " + file);
+        }
+        byte version = header.get();
+        byte type = header.get();
+        byte order = header.get();
+        header.get();
+        int rows = header.getInt();
+        int cols = header.getInt();
+        if (version != VERSION) {
+            throw new IOException("Unsupported matrix file version " + version + ": " + file);
+        }
+        if (type != FLOAT64) {
+            throw new IOException("Unsupported element type " + type + ": " + file);
+        }
+        if (order != LITTLE_ENDIAN && order != BIG_ENDIAN) {
+            throw new IOException("Invalid byte order " + order + ": " + file);
+        }
+        if (rows <= 0 || cols <= 0) {
+            throw new IOException("Invalid matrix dimensions [" + rows + "x" + cols + "]: " + file);
+        }
+        long expected = HEADER_BYTES + (long) rows * cols * Double.BYTES;
+        if (channel.size() < expected) {
+            throw new IOException("Truncated matrix file, " + channel.size() + " bytes instead of " + expected + ": " + file);
+        }
+        return new Header(rows, cols, order == LITTLE_ENDIAN ? ByteOrder.LITTLE_ENDIAN : ByteOrder.BIG_ENDIAN);
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, Path file) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0) {
+                throw new EOFException("Unexpected end of matrix file: " + file);
+            }
+        }
+    }
+
+    /**
+     * Single-pass parser of the text format. Numbers are collected in a reusable character
+     * buffer and converted without creating a string when they have at most 15 significant
+     * digits and a small exponent, which covers the usual decimal notation.
+     */
+    private static final class TextScanner {
+        private static final String FORMAT_ERROR = "Invalid matrix format. Expected format: [[a,b], [c,d]]";
+
+        /** Powers of ten represented exactly as doubles */
+        private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10,
+            1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+        };
+
+        private final Reader reader;
+        private final Matrix dest;
+        private final char[] buffer = new char[8192];
+        private int position;
+        private int limit;
+        private char[] token = new char[32];
+
+        int rows;
+        int cols = -1;
+        double[] values;
+        private int count;
+        /** End of the elements of the destination in values, or -1 to grow values as needed */
+        private final int end;
+
+        TextScanner(Reader reader, Matrix dest) {
+            this.reader = reader;
+            this.dest = dest;
+            this.values = (dest != null) ? dest.data : new double[64];
+            this.count = (dest != null) ? dest.offset : 0;
+            this.end = (dest != null) ? dest.offset + dest.getRows() * dest.getCols() : -1;
+        }
+
+        void scan() throws IOException {
+            expect('[');
+            do {
+                expect('[');
+                int rowCols = 0;
+                do {
+                    add(number());
+                    rowCols++;
+                } while (accept(','));
+                expect(']');
+
+                if (cols == -1) {
+                    cols = rowCols;
+                    if (dest != null && cols != dest.getCols()) {
+                        throw new IllegalArgumentException("Expected a matrix of " + dest.getCols() + " columns, got " + cols);
+                    }
+                } else if (cols != rowCols) {
+                    throw new IllegalArgumentException("All rows must have the same number of columns");
+                }
+                rows++;
+            } while (accept(','));
+            expect(']');
+            if (peek() != -1) {
+                throw new IllegalArgumentException(FORMAT_ERROR);
+            }
+        }
+
+        private void add(double value) {
+            if (count == end) {
+                throw new IllegalArgumentException("Expected a matrix of " + dest.getRows() + " rows, got more");
+            }
+            if (count == values.length) {
+                values = Arrays.copyOf(values, count * 2);
+            }
+            values[count++] = value;
+        }
+
+        /**
+         * Skips whitespace and returns the next character without consuming it, or -1 at the end.
+         */
+        private int peek() throws IOException {
+            int c = current();
+            while (c != -1 && Character.isWhitespace(c)) {
+                position++;
+                c = current();
+            }
+            return c;
+        }
+
+        /**
+         * Returns the next character without consuming it, refilling the buffer if needed, or -1 at the end.
+         */
+        private int current() throws IOException {
+            if (position == limit) {
+                limit = Math.max(reader.read(buffer, 0, buffer.length), 0);
+                position = 0;
+                if (limit == 0) {
+                    return -1;
+                }
+            }
+            return buffer[position];
+        }
+
+        private boolean accept(char expected) throws IOException {
+            if (peek() == expected) {
+                position++;
+                return true;
+            }
+            return false;
+        }
+
+        private void expect(char expected) throws IOException {
+            if (!accept(expected)) {
+                throw new IllegalArgumentException(FORMAT_ERROR);
+            }
+        }
+
+        private double number() throws IOException {
+            int length = 0;
+            int c = peek();
+            while (c != -1 && c != ',' && c != ']' && c != '[' && !Character.isWhitespace(c)) {
+                if (length == token.length) {
+                    token = Arrays.copyOf(token, length * 2);
+                }
+                token[length++] = (char) c;
+                position++;
+                c = current();
+            }
+            if (length == 0) {
+                throw new IllegalArgumentException(FORMAT_ERROR);
+            }
+            return parseDouble(token, length);
+        }
+
+        /**
+         * Converts a decimal number exactly when its significand fits in 53 bits and the power of ten
+         * is exact, in which case a single multiplication or division is correctly rounded;
+         * other numbers go through {@link Double#parseDouble(String)}.
+         */
+        private static double parseDouble(char[] token, int length) {
+            int i = 0;
+            boolean negative = false;
+            if (token[0] == '-' || token[0] == '+') {
+                negative = token[0] == '-';
+                i++;
+            }
+            long significand = 0;
+            int digits = 0;
+            int exponent = 0;
+            boolean seenDigit = false;
+            boolean seenPoint = false;
+            for (; i < length; i++) {
+                char c = token[i];
+                if (c >= '0' && c <= '9') {
+                    seenDigit = true;
+                    if (significand != 0 || c != '0') {
+                        if (++digits > 15) {
+                            return slowParse(token, length);
+                        }
+                        significand = significand * 10 + (c - '0');
+                    }
+                    if (seenPoint) {
+                        exponent--;
+                    }
+                } else if (c == '.' && !seenPoint) {
+                    seenPoint = true;
+                } else {
+                    break;
+                }
+            }
+            if (!seenDigit) {
+                return slowParse(token, length);
+            }
+            if (i < length) {
+                if ((token[i] != 'e' && token[i] != 'E') || i + 1 == length) {
+                    return slowParse(token, length);
+                }
+                i++;
+                boolean negativeExponent = false;
+                if (token[i] == '-' || token[i] == '+') {
+                    negativeExponent = token[i] == '-';
+                    i++;
+                }
+                if (i == length || length - i > 3) {
+                    return slowParse(token, length);
+                }
+                int e = 0;
+                for (; i < length; i++) {
+                    char c = token[i];
+                    if (c < '0' || c > '9') {
+                        return slowParse(token, length);
+                    }
+                    e = e * 10 + (c - '0');
+                }
+                exponent += negativeExponent ? -e : e;
+            }
+
+            double value;
+            if (significand == 0) {
+                value = 0.0;
+            } else if (exponent >= 0 && exponent < POWERS_OF_TEN.length) {
+                value = significand * POWERS_OF_TEN[exponent];
+            } else if (exponent < 0 && -exponent < POWERS_OF_TEN.length) {
+                value = significand / POWERS_OF_TEN[-exponent];
+            } else {
+                return slowParse(token, length);
+            }
+            return negative ? -value : value;
+        }
+
+        private static double slowParse(char[] token, int length) {
+            return Double.parseDouble(new String(token, 0, length));
+        }
+    }
+}
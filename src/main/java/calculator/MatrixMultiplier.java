@@ -0,0 +1,40 @@
+package calculator;
+
+/**
+ * Strategy computing the product of two matrices.
+ * Implementations trade simplicity for speed on large inputs;
+ * they all return a new matrix and leave their operands untouched.
+ *
+ * @see Matrix#multiply(Matrix, MatrixMultiplier)
+ * @see NaiveMatrixMultiplier
+ * @see BlockedMatrixMultiplier
+ */
+public interface MatrixMultiplier {
+
+    /**
+     * Multiplies two matrices.
+     *
+     * @param left The left operand
+     * @param right The right operand
+     * @return A new matrix holding left * right
+     * @throws IllegalArgumentException If the columns of left do not match the rows of right
+     */
+    Matrix multiply(Matrix left, Matrix right);
+
+    /**
+     * Multiplies two matrices into a destination matrix, overwriting all its elements.
+     * The default implementation computes the product then copies it;
+     * strategies that can write the destination directly override it.
+     *
+     * @param left The left operand
+     * @param right The right operand
+     * @param dest The destination, of left.getRows() x right.getCols(), not sharing storage with the operands
+     * @return The destination
+     * @throws IllegalArgumentException If the dimensions are incompatible or the destination shares storage with an operand
+     */
+    default Matrix multiplyInto(Matrix left, Matrix right, Matrix dest) {
+        Matrix.checkProductDestination(left, right, dest);
+        dest.assign(multiply(left, right));
+        return dest;
+    }
+}
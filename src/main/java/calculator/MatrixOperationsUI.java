@@ -271,6 +271,7 @@ public class MatrixOperationsUI {
                             
                         case "Matrix Multiplication (A × B)":
                             Matrix matrixB3 = matrixBPanel.getMatrix();
+                            // Large products are spread over the cores of the common fork-join pool
                             Matrix product = matrixA.multiply(matrixB3);
                             updateUI(() -> showResult(product, "Matrix Multiplication Result"));
                             break;
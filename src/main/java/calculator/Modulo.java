@@ -39,7 +39,7 @@ public final class Modulo extends Operation {
    * @see Operation#Operation(List<Expression>,Notation)
    */
   public Modulo(List<Expression> elist, Notation n) throws IllegalConstruction {
-    super(elist, n);
+    super(elist, n, OP_MODULO);
     symbol = "%";
     neutral = 0; // No real neutral element for modulo
   }
@@ -52,7 +52,7 @@ public final class Modulo extends Operation {
    * @throws IllegalConstruction If null is passed
    */
   public Modulo(Notation n, Expression... elist) throws IllegalConstruction {
-    super(n, elist);
+    super(n, OP_MODULO, elist);
     symbol = "%";
     neutral = 0;
   }
@@ -67,7 +67,7 @@ public final class Modulo extends Operation {
   @Override
   public int op(int l, int r) {
     if (r == 0) {
-      throw new ArithmeticException("Modulo by zero is not allowed.");
+      throw EvaluationException.moduloByZero();
     }
     return l % r;
   }
@@ -84,7 +84,7 @@ public final class Modulo extends Operation {
   public Number op(Number l, Number r) throws Exception {
     // Check for modulo by zero
     if (r.doubleValue() == 0.0) {
-      throw new ArithmeticException("Modulo by zero is not allowed.");
+      throw EvaluationException.moduloByZero();
     }
     
     // Determine the highest precision type involved
@@ -92,14 +92,10 @@ public final class Modulo extends Operation {
       return l.doubleValue() % r.doubleValue();
     } else if (l instanceof Float || r instanceof Float) {
       return l.floatValue() % r.floatValue();
-    } else if (l instanceof Long || r instanceof Long) {
-      return l.longValue() % r.longValue();
-    } else if (l instanceof Integer || r instanceof Integer) {
-      return l.intValue() % r.intValue();
-    } else if (l instanceof Short || r instanceof Short) {
-      return l.shortValue() % r.shortValue();
+    } else if (CheckedArithmetic.isIntegral(l) && CheckedArithmetic.isIntegral(r)) {
+      return CheckedArithmetic.remainder(l, r);
     } else {
-      return l.byteValue() % r.byteValue();
+      return l.doubleValue() % r.doubleValue();
     }
   }
 }
\ No newline at end of file
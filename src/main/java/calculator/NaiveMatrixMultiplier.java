@@ -0,0 +1,30 @@
+package calculator;
+
+/**
+ * Textbook i-j-k matrix multiplication, one dot product per element of the result.
+ * It walks the right operand column-wise and is kept as a reference
+ * for the faster strategies and for very small matrices.
+ */
+public class NaiveMatrixMultiplier implements MatrixMultiplier {
+
+    @Override
+    public Matrix multiply(Matrix left, Matrix right) {
+        Matrix.checkMultiplicable(left, right);
+
+        int rows = left.getRows();
+        int inner = left.getCols();
+        int cols = right.getCols();
+        double[] result = new double[rows * cols];
+        for (int i = 0; i < rows; i++) {
+            for (int j = 0; j < cols; j++) {
+                double sum = 0.0;
+                for (int k = 0; k < inner; k++) {
+                    sum += left.data[left.index(i, k)] * right.data[right.index(k, j)];
+                }
+                result[i * cols + j] = sum;
+            }
+        }
+
+        return new Matrix(rows, cols, result);
+    }
+}
@@ -31,6 +31,36 @@ public abstract class Operation implements Expression
    */
   protected int neutral;
 
+  /**
+   * Stable opcodes identifying each concrete operation, so that visitors can dispatch
+   * through a dense switch instead of a chain of instanceof tests.
+   * Opcodes from FIRST_UNARY_OPCODE onwards belong to unary operations,
+   * and OP_UNKNOWN is used by operations that do not declare an opcode.
+   */
+  public static final int OP_UNKNOWN = -1;
+  public static final int OP_PLUS = 0;
+  public static final int OP_MINUS = 1;
+  public static final int OP_TIMES = 2;
+  public static final int OP_DIVIDES = 3;
+  public static final int OP_POWER = 4;
+  public static final int OP_MODULO = 5;
+  public static final int OP_SQRT = 6;
+  public static final int OP_SIN = 7;
+  public static final int OP_COS = 8;
+  public static final int OP_TAN = 9;
+  public static final int OP_ASIN = 10;
+  public static final int OP_ACOS = 11;
+  public static final int OP_ATAN = 12;
+  public static final int OP_LN = 13;
+  public static final int OP_LOG = 14;
+  public static final int OP_EXP = 15;
+  public static final int FIRST_UNARY_OPCODE = OP_SQRT;
+
+  /**
+   * The opcode of the operation (e.g. OP_PLUS for +), given by each subclass to the constructor
+   */
+  private final int opcode;
+
   /**
    * The notation used to render operations as strings.
    * By default, the infix notation will be used.
@@ -59,14 +89,35 @@ public abstract class Operation implements Expression
 	protected /*constructor*/ Operation(List<Expression> elist,Notation n)
 			throws IllegalConstruction
 	{
+		this(elist, n, OP_UNKNOWN);
+	}
+
+	/** To construct an operation with a list of expressions as arguments,
+	 * the Notation used to represent the operation, and the opcode identifying it.
+	 *
+	 * @param elist	The list of expressions passed as argument to the arithmetic operation
+	 * @param n 	The notation to be used to represent the operation
+	 * @param opcode	The opcode of the operation (one of the OP_ constants)
+	 * @throws IllegalConstruction	Exception thrown if a null list of expressions is passed as argument
+	 */
+	protected /*constructor*/ Operation(List<Expression> elist, Notation n, int opcode)
+			throws IllegalConstruction
+	{
+		this.opcode = opcode;
 		operationConstructor(elist, n);
 	}
 
 	protected Operation(Notation n, Expression... elements)
 			throws IllegalConstruction
 	{
+		this(n, OP_UNKNOWN, elements);
+	}
+
+	protected Operation(Notation n, int opcode, Expression... elements)
+			throws IllegalConstruction
+	{
+		this.opcode = opcode;
 		operationConstructor(Arrays.asList(elements), n);
-		
 	}
 
 	protected void operationConstructor(List<Expression> elist, Notation n) 
@@ -90,6 +141,15 @@ public abstract class Operation implements Expression
   	return args;
   }
 
+	/**
+	 * getter method to return the opcode identifying the arithmetic operation.
+	 *
+	 * @return	The opcode of the arithmetic operation (one of the OP_ constants).
+	 */
+	public final int getOpcode() {
+		return opcode;
+	}
+
 	/**
 	 * Abstract method representing the actual binary arithmetic operation to compute
 	 * @param l	 first argument of the binary operation
@@ -0,0 +1,139 @@
+package calculator;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Multi-core matrix multiplication on a fork-join pool.
+ * <p>
+ * The result is split recursively in halves along its longer side, rows or columns,
+ * until a block holds too little work to be worth another task; each block is then
+ * computed with the cache-blocked kernel of {@link BlockedMatrixMultiplier}. Blocks are
+ * disjoint, so the tasks write to the shared result buffer without synchronization.
+ * Products below {@value #SEQUENTIAL_THRESHOLD} multiply-adds stay on the calling thread.
+ */
+public class ParallelMatrixMultiplier implements MatrixMultiplier {
+
+    /** Number of multiply-adds below which a product is computed sequentially */
+    static final long SEQUENTIAL_THRESHOLD = 128L * 128 * 128;
+
+    /** Number of multiply-adds below which a block is not split any further */
+    static final long LEAF_WORK = 64L * 64 * 256;
+
+    /** Smallest number of rows or columns of a block, so that packing stays amortized */
+    static final int MIN_SPAN = 64;
+
+    private final ForkJoinPool pool;
+
+    /**
+     * Creates a multiplier running on the common fork-join pool.
+     */
+    public ParallelMatrixMultiplier() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Creates a multiplier running on a dedicated pool,
+     * for instance to bound the number of cores used by a batch job.
+     *
+     * @param pool The pool running the multiplication tasks
+     */
+    public ParallelMatrixMultiplier(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    @Override
+    public Matrix multiply(Matrix left, Matrix right) {
+        Matrix.checkMultiplicable(left, right);
+
+        Matrix a = left.contiguous();
+        Matrix b = right.contiguous();
+        int rows = a.getRows();
+        int cols = b.getCols();
+        double[] c = new double[rows * cols];
+        compute(a, b, c, 0);
+
+        return new Matrix(rows, cols, c);
+    }
+
+    @Override
+    public Matrix multiplyInto(Matrix left, Matrix right, Matrix dest) {
+        if (!dest.isContiguous()) {
+            return MatrixMultiplier.super.multiplyInto(left, right, dest);
+        }
+        Matrix.checkProductDestination(left, right, dest);
+
+        Matrix a = left.contiguous();
+        Matrix b = right.contiguous();
+        dest.fill(0.0);
+        compute(a, b, dest.data, dest.offset);
+        return dest;
+    }
+
+    /**
+     * Accumulates the product of two contiguous matrices into a zeroed row-major buffer.
+     */
+    private void compute(Matrix a, Matrix b, double[] c, int cOffset) {
+        int rows = a.getRows();
+        int cols = b.getCols();
+        if ((long) rows * cols * a.getCols() < SEQUENTIAL_THRESHOLD || pool.getParallelism() == 1) {
+            BlockedMatrixMultiplier.multiplyRange(a, b, c, cOffset, 0, rows, 0, cols);
+        } else {
+            pool.invoke(new BlockTask(a, b, c, cOffset, 0, rows, 0, cols));
+        }
+    }
+
+    /**
+     * Task computing one block of the result, splitting it in two while it holds enough work.
+     */
+    private static final class BlockTask extends RecursiveAction {
+        private final Matrix a;
+        private final Matrix b;
+        private final double[] c;
+        private final int cOffset;
+        private final int rowFrom;
+        private final int rowTo;
+        private final int colFrom;
+        private final int colTo;
+
+        BlockTask(Matrix a, Matrix b, double[] c, int cOffset, int rowFrom, int rowTo, int colFrom, int colTo) {
+            this.a = a;
+            this.b = b;
+            this.c = c;
+            this.cOffset = cOffset;
+            this.rowFrom = rowFrom;
+            this.rowTo = rowTo;
+            this.colFrom = colFrom;
+            this.colTo = colTo;
+        }
+
+        @Override
+        protected void compute() {
+            int rowSpan = rowTo - rowFrom;
+            int colSpan = colTo - colFrom;
+            long work = (long) rowSpan * colSpan * a.getCols();
+            boolean splitRows = rowSpan >= colSpan && rowSpan >= 2 * MIN_SPAN;
+            boolean splitCols = !splitRows && colSpan >= 2 * MIN_SPAN;
+
+            if (work <= LEAF_WORK || (!splitRows && !splitCols)) {
+                BlockedMatrixMultiplier.multiplyRange(a, b, c, cOffset, rowFrom, rowTo, colFrom, colTo);
+            } else if (splitRows) {
+                int mid = rowFrom + half(rowSpan);
+                invokeAll(new BlockTask(a, b, c, cOffset, rowFrom, mid, colFrom, colTo),
+                          new BlockTask(a, b, c, cOffset, mid, rowTo, colFrom, colTo));
+            } else {
+                int mid = colFrom + half(colSpan);
+                invokeAll(new BlockTask(a, b, c, cOffset, rowFrom, rowTo, colFrom, mid),
+                          new BlockTask(a, b, c, cOffset, rowFrom, rowTo, mid, colTo));
+            }
+        }
+
+        /**
+         * Splits a span in two, keeping the first half a multiple of the register tile.
+         */
+        private static int half(int span) {
+            int tile = BlockedMatrixMultiplier.TILE;
+            return (span / 2 + tile - 1) / tile * tile;
+        }
+    }
+}
@@ -39,13 +39,13 @@ public final class Plus extends Operation
    * @see Operation#Operation(List<Expression>,Notation)
    */
   public Plus(List<Expression> elist, Notation n) throws IllegalConstruction {
-  	super(elist,n);
+  	super(elist, n, OP_PLUS);
   	symbol = "+";
   	neutral = 0;
   }
 
   public Plus(Notation n, Expression... elist) throws IllegalConstruction {
-  	super(n, elist);
+  	super(n, OP_PLUS, elist);
   	symbol = "+";
   	neutral = 0;
   }
@@ -55,24 +55,34 @@ public final class Plus extends Operation
    * @param l The first integer
    * @param r The second integer that should be added to the first
    * @return The integer that is the result of the addition
+   * @throws EvaluationException If the result overflows an int
    */
   public int op(int l, int r) {
-  	return (l+r);
+  	Number result = CheckedArithmetic.add(l, r);
+  	if (!(result instanceof Integer)) {
+  		throw EvaluationException.intOverflow();
+  	}
+  	return result.intValue();
   }
 
+  /**
+   * The actual computation of the (binary) arithmetic addition of two numbers of any numeric type.
+   * Integral operands are computed exactly and promoted to Long or BigInteger only on overflow.
+   * @param l The first number
+   * @param r The second number
+   * @return The number that is the result of the addition
+   */
   public Number op(Number l, Number r) {
-    if (l instanceof Double || r instanceof Double) {
+    if (l instanceof Integer && r instanceof Integer) {
+        return CheckedArithmetic.add(l.intValue(), r.intValue());
+    } else if (l instanceof Double || r instanceof Double) {
         return l.doubleValue() + r.doubleValue();
     } else if (l instanceof Float || r instanceof Float) {
         return l.floatValue() + r.floatValue();
-    } else if (l instanceof Long || r instanceof Long) {
-        return l.longValue() + r.longValue();
-    } else if (l instanceof Integer || r instanceof Integer) {
-        return l.intValue() + r.intValue();
-    } else if (l instanceof Short || r instanceof Short) {
-        return l.shortValue() + r.shortValue();
+    } else if (CheckedArithmetic.isIntegral(l) && CheckedArithmetic.isIntegral(r)) {
+        return CheckedArithmetic.add(l, r);
     } else {
-        return l.byteValue() + r.byteValue();
+        return l.doubleValue() + r.doubleValue();
     }
   }
 }
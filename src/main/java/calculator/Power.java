@@ -39,7 +39,7 @@ public final class Power extends Operation {
    * @see Operation#Operation(List<Expression>,Notation)
    */
   public Power(List<Expression> elist, Notation n) throws IllegalConstruction {
-  	super(elist,n);
+  	super(elist, n, OP_POWER);
   	symbol = "^";
   	neutral = 1; // Any number to the power of 0 is 1
   }
@@ -52,47 +52,48 @@ public final class Power extends Operation {
    * @throws IllegalConstruction If null is passed
    */
   public Power(Notation n, Expression... elist) throws IllegalConstruction {
-  	super(n, elist);
+  	super(n, OP_POWER, elist);
   	symbol = "^";
   	neutral = 1;
   }
 
   /**
    * The actual computation of the (binary) power operation for integers.
+   * Negative exponents truncate towards zero, as integer division does.
    * @param l The base integer
    * @param r The exponent integer
    * @return The integer that is the result of the power operation
+   * @throws EvaluationException If the result overflows an int
    */
   @Override
   public int op(int l, int r) {
-  	if (r < 0) {
-      // Negative exponents for integers should be handled differently
-      // as they result in fractions, but we're returning integers here
-      return (r == 0) ? 1 : 0; // Return 0 for negative exponents, as integer division truncates
+    Number result = CheckedArithmetic.pow(l, r);
+    if (!(result instanceof Integer)) {
+      throw EvaluationException.intOverflow();
     }
-    
-    // Calculate power using Math.pow and cast to int
-    return (int)Math.pow(l, r);
+    return result.intValue();
   }
 
   /**
    * The power operation for Number type.
+   * Integral operands are computed exactly by squaring and promoted to Long or BigInteger only on overflow.
    * 
    * @param l The base number
    * @param r The exponent number
    * @return The number that is the result of the power operation
+   * @throws ArithmeticException If zero is raised to a negative integral power
    */
   @Override
   public Number op(Number l, Number r) {
     // Calculate power operation with appropriate handling for different numeric types
-    if (l instanceof Double || r instanceof Double || r.doubleValue() != r.intValue()) {
+    if (CheckedArithmetic.isIntegral(l) && CheckedArithmetic.isIntegral(r)) {
+        return CheckedArithmetic.pow(l, r);
+    } else if (l instanceof Double || r instanceof Double || r.doubleValue() != Math.rint(r.doubleValue())) {
         return Math.pow(l.doubleValue(), r.doubleValue());
     } else if (l instanceof Float || r instanceof Float) {
         return (float)Math.pow(l.floatValue(), r.floatValue());
-    } else if (l instanceof Long || r instanceof Long) {
-        return (long)Math.pow(l.longValue(), r.intValue());
     } else {
-        return (int)Math.pow(l.intValue(), r.intValue());
+        return Math.pow(l.doubleValue(), r.doubleValue());
     }
   }
 }
\ No newline at end of file
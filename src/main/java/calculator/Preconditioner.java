@@ -0,0 +1,23 @@
+package calculator;
+
+/**
+ * Approximate inverse M⁻¹ of a matrix A, applied by the iterative solvers to every residual
+ * so that they converge in fewer iterations. A good preconditioner is cheap to apply and
+ * makes M⁻¹A close to the identity.
+ *
+ * @see JacobiPreconditioner
+ * @see IluPreconditioner
+ */
+public interface Preconditioner {
+
+    /** The identity, for solving without preconditioning */
+    Preconditioner IDENTITY = (residual, result) -> System.arraycopy(residual, 0, result, 0, residual.length);
+
+    /**
+     * Computes M⁻¹ r.
+     *
+     * @param residual The vector r, left untouched
+     * @param result The vector receiving M⁻¹ r, of the same size and distinct from residual
+     */
+    void apply(double[] residual, double[] result);
+}
@@ -0,0 +1,63 @@
+package calculator;
+
+/**
+ * Operations shared by the dense {@link Matrix}, the {@link SparseMatrix} and the file-backed {@link MappedMatrix},
+ * so that algorithms such as iterative solvers can work with any representation.
+ */
+public interface RealMatrix {
+
+    /**
+     * Gets the number of rows in this matrix.
+     *
+     * @return Number of rows
+     */
+    int getRows();
+
+    /**
+     * Gets the number of columns in this matrix.
+     *
+     * @return Number of columns
+     */
+    int getCols();
+
+    /**
+     * Gets the value at the specified position.
+     *
+     * @param row Row index (0-based)
+     * @param col Column index (0-based)
+     * @return The value at the specified position
+     */
+    double get(int row, int col);
+
+    /**
+     * Multiplies this matrix by a column vector.
+     *
+     * @param vector The vector, with as many elements as this matrix has columns
+     * @return A new vector with as many elements as this matrix has rows
+     * @throws IllegalArgumentException If the size of the vector does not match
+     */
+    double[] multiply(double[] vector);
+
+    /**
+     * Multiplies this matrix by a dense matrix.
+     *
+     * @param other The dense matrix to multiply by
+     * @return A new dense matrix representing the product
+     * @throws IllegalArgumentException If the matrices have incompatible dimensions
+     */
+    Matrix multiply(Matrix other);
+
+    /**
+     * Computes the transpose of this matrix.
+     *
+     * @return The transpose, in the same representation as this matrix
+     */
+    RealMatrix transpose();
+
+    /**
+     * Converts this matrix to a dense matrix.
+     *
+     * @return A dense matrix with the same elements
+     */
+    Matrix toMatrix();
+}
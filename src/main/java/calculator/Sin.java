@@ -31,7 +31,7 @@ public final class Sin extends Operation implements UnaryOperation {
    * @throws IllegalConstruction If null or empty list is passed as parameter
    */
   public Sin(List<Expression> elist) throws IllegalConstruction {
-    super(elist, null);
+    super(elist, null, OP_SIN);
     symbol = "sin";
     neutral = 0; // No real neutral element for sine
   }
@@ -44,7 +44,7 @@ public final class Sin extends Operation implements UnaryOperation {
    * @throws IllegalConstruction If a null expression is passed as parameter
    */
   public Sin(Notation n, Expression expr) throws IllegalConstruction {
-    super(n, expr);
+    super(n, OP_SIN, expr);
     symbol = "sin";
     neutral = 0;
   }
@@ -0,0 +1,110 @@
+package calculator;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Cumulative timings of the steps of {@link LinearEquationSolver}, shared by all the threads solving.
+ * <p>
+ * Each step counts how many times it ran and the nanoseconds it took in total. Recording is a
+ * pair of {@link LongAdder} increments, cheap enough to stay on in production and contention-free
+ * under concurrent solves; a monitoring layer can poll the counters and export them as metrics.
+ *
+ * @see LinearEquationSolver#getMetrics()
+ */
+public final class SolverMetrics {
+
+    /**
+     * The timed steps of a solve.
+     */
+    public enum Step {
+        /** Reading the equations into terms */
+        PARSE,
+        /** Building the dense or sparse matrix of a system from its terms */
+        ASSEMBLE,
+        /** Gaussian elimination of a dense system */
+        ELIMINATE,
+        /** Krylov solve of a large sparse system */
+        ITERATIVE,
+        /** LU factorization of a system to be solved against many right-hand sides, or refined */
+        FACTOR,
+        /** Iterative refinement of the solution of a factored system */
+        REFINE,
+        /** Rank-one update of a factored system after one of its equations changed */
+        UPDATE
+    }
+
+    private final LongAdder[] counts = new LongAdder[Step.values().length];
+    private final LongAdder[] nanos = new LongAdder[Step.values().length];
+
+    SolverMetrics() {
+        for (int s = 0; s < counts.length; s++) {
+            counts[s] = new LongAdder();
+            nanos[s] = new LongAdder();
+        }
+    }
+
+    /**
+     * Records one run of a step.
+     *
+     * @param step The step
+     * @param startNanos The value of {@link System#nanoTime()} when the step started
+     */
+    void record(Step step, long startNanos) {
+        counts[step.ordinal()].increment();
+        nanos[step.ordinal()].add(System.nanoTime() - startNanos);
+    }
+
+    /**
+     * Gets the number of times a step ran.
+     *
+     * @param step The step
+     * @return Its number of runs since the last reset
+     */
+    public long getCount(Step step) {
+        return counts[step.ordinal()].sum();
+    }
+
+    /**
+     * Gets the total time spent in a step.
+     *
+     * @param step The step
+     * @return Its cumulated duration since the last reset, in nanoseconds
+     */
+    public long getTotalNanos(Step step) {
+        return nanos[step.ordinal()].sum();
+    }
+
+    /**
+     * Gets the mean time of a step.
+     *
+     * @param step The step
+     * @return Its mean duration in nanoseconds, 0 if it never ran
+     */
+    public double getMeanNanos(Step step) {
+        long count = getCount(step);
+        return (count == 0) ? 0.0 : (double) getTotalNanos(step) / count;
+    }
+
+    /**
+     * Sets all the counters back to zero.
+     */
+    public void reset() {
+        for (int s = 0; s < counts.length; s++) {
+            counts[s].reset();
+            nanos[s].reset();
+        }
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("SolverMetrics[");
+        for (Step step : Step.values()) {
+            if (step.ordinal() > 0) {
+                sb.append(", ");
+            }
+            sb.append(step).append(": ").append(getCount(step)).append(" runs, ")
+              .append(getTotalNanos(step) / 1_000_000).append(" ms");
+        }
+        return sb.append(']').toString();
+    }
+}
@@ -0,0 +1,492 @@
+package calculator;
+
+import java.util.Arrays;
+
+/**
+ * Immutable sparse matrix in compressed sparse row (CSR) or compressed sparse column (CSC) format.
+ * <p>
+ * Only the non-zero elements are stored: for each row (CSR) or column (CSC), {@code pointers}
+ * gives the range of {@code indices} and {@code values} holding its elements, sorted by their
+ * column (CSR) or row (CSC) index. Memory and the cost of every product grow with the number
+ * of non-zeros instead of rows * cols. A CSR matrix and the CSC form of its transpose share
+ * the same arrays, so {@link #transpose()} costs nothing.
+ */
+public class SparseMatrix implements RealMatrix {
+
+    /**
+     * Storage format of a sparse matrix.
+     */
+    public enum Format {
+        /** Compressed sparse rows: fast row access and matrix-vector products */
+        CSR,
+        /** Compressed sparse columns: fast column access */
+        CSC
+    }
+
+    private final int rows;
+    private final int cols;
+    private final Format format;
+    /** Start of each row (CSR) or column (CSC) in indices and values, plus the total count */
+    final int[] pointers;
+    /** Column (CSR) or row (CSC) index of each non-zero */
+    final int[] indices;
+    final double[] values;
+
+    private SparseMatrix(int rows, int cols, Format format, int[] pointers, int[] indices, double[] values) {
+        this.rows = rows;
+        this.cols = cols;
+        this.format = format;
+        this.pointers = pointers;
+        this.indices = indices;
+        this.values = values;
+    }
+
+    /**
+     * Builds a CSR matrix from coordinate (COO) triplets, given in any order.
+     * Duplicate positions are summed and zero values are dropped.
+     *
+     * @param rows Number of rows
+     * @param cols Number of columns
+     * @param rowIndices Row index of each triplet
+     * @param colIndices Column index of each triplet
+     * @param values Value of each triplet
+     * @return A new sparse matrix
+     * @throws IllegalArgumentException If the triplet arrays differ in length
+     * @throws IndexOutOfBoundsException If a triplet lies outside the matrix
+     */
+    public static SparseMatrix fromTriplets(int rows, int cols, int[] rowIndices, int[] colIndices, double[] values) {
+        if (rowIndices.length != colIndices.length || rowIndices.length != values.length) {
+            throw new IllegalArgumentException("Triplet arrays must have the same length");
+        }
+        int count = values.length;
+        for (int t = 0; t < count; t++) {
+            if (rowIndices[t] < 0 || rowIndices[t] >= rows || colIndices[t] < 0 || colIndices[t] >= cols) {
+                throw new IndexOutOfBoundsException("Index out of bounds: [" + rowIndices[t] + ", " + colIndices[t] + "]");
+            }
+        }
+
+        // Counting sort of the triplets by row
+        int[] rowStart = new int[rows + 1];
+        for (int t = 0; t < count; t++) {
+            rowStart[rowIndices[t] + 1]++;
+        }
+        for (int i = 0; i < rows; i++) {
+            rowStart[i + 1] += rowStart[i];
+        }
+        int[] next = Arrays.copyOf(rowStart, rows);
+        int[] sortedCols = new int[count];
+        double[] sortedValues = new double[count];
+        for (int t = 0; t < count; t++) {
+            int position = next[rowIndices[t]]++;
+            sortedCols[position] = colIndices[t];
+            sortedValues[position] = values[t];
+        }
+
+        // Within each row, sum duplicates with a dense accumulator and emit the columns in order
+        int[] pointers = new int[rows + 1];
+        int[] indices = new int[count];
+        double[] compressed = new double[count];
+        double[] accumulator = new double[cols];
+        int[] marker = new int[cols];
+        Arrays.fill(marker, -1);
+        int[] touched = new int[cols];
+        int nnz = 0;
+        for (int i = 0; i < rows; i++) {
+            int touchedCount = 0;
+            for (int p = rowStart[i]; p < rowStart[i + 1]; p++) {
+                int j = sortedCols[p];
+                if (marker[j] != i) {
+                    marker[j] = i;
+                    accumulator[j] = 0.0;
+                    touched[touchedCount++] = j;
+                }
+                accumulator[j] += sortedValues[p];
+            }
+            Arrays.sort(touched, 0, touchedCount);
+            for (int q = 0; q < touchedCount; q++) {
+                int j = touched[q];
+                if (accumulator[j] != 0.0) {
+                    indices[nnz] = j;
+                    compressed[nnz] = accumulator[j];
+                    nnz++;
+                }
+            }
+            pointers[i + 1] = nnz;
+        }
+
+        return new SparseMatrix(rows, cols, Format.CSR,
+                pointers, Arrays.copyOf(indices, nnz), Arrays.copyOf(compressed, nnz));
+    }
+
+    /**
+     * Builds a CSR matrix holding the non-zero elements of a dense matrix.
+     *
+     * @param matrix The dense matrix
+     * @return A new sparse matrix
+     */
+    public static SparseMatrix fromMatrix(Matrix matrix) {
+        int rows = matrix.getRows();
+        int cols = matrix.getCols();
+        int[] pointers = new int[rows + 1];
+        int nnz = 0;
+        for (int i = 0; i < rows; i++) {
+            for (int j = 0; j < cols; j++) {
+                if (matrix.get(i, j) != 0.0) {
+                    nnz++;
+                }
+            }
+            pointers[i + 1] = nnz;
+        }
+        int[] indices = new int[nnz];
+        double[] values = new double[nnz];
+        int k = 0;
+        for (int i = 0; i < rows; i++) {
+            for (int j = 0; j < cols; j++) {
+                double value = matrix.get(i, j);
+                if (value != 0.0) {
+                    indices[k] = j;
+                    values[k] = value;
+                    k++;
+                }
+            }
+        }
+        return new SparseMatrix(rows, cols, Format.CSR, pointers, indices, values);
+    }
+
+    /**
+     * Parses a matrix written in the format of {@link Matrix#parse(String)}, keeping only the non-zero elements.
+     * Format: [[a, b, c], [d, e, f], [g, h, i]]
+     *
+     * @param matrixStr The matrix string to parse
+     * @return A new sparse matrix in CSR format
+     * @throws IllegalArgumentException If the input string cannot be parsed
+     */
+    public static SparseMatrix parse(String matrixStr) {
+        String cleaned = matrixStr.trim().replaceAll("\\s+", "");
+        if (!cleaned.startsWith("[[") || !cleaned.endsWith("]]")) {
+            throw new IllegalArgumentException("Invalid matrix format. Expected format: [[a,b], [c,d]]");
+        }
+
+        String content = cleaned.substring(2, cleaned.length() - 2);
+        String[] rowStrings = content.split("\\],\\[");
+        int rows = rowStrings.length;
+        int[] pointers = new int[rows + 1];
+        int[] indices = new int[16];
+        double[] values = new double[16];
+        int nnz = 0;
+        int cols = -1;
+
+        for (int i = 0; i < rows; i++) {
+            int rowCols = 0;
+            for (String element : rowStrings[i].split(",")) {
+                if (element.isEmpty()) {
+                    continue;
+                }
+                double value = Double.parseDouble(element);
+                if (value != 0.0) {
+                    if (nnz == values.length) {
+                        indices = Arrays.copyOf(indices, nnz * 2);
+                        values = Arrays.copyOf(values, nnz * 2);
+                    }
+                    indices[nnz] = rowCols;
+                    values[nnz] = value;
+                    nnz++;
+                }
+                rowCols++;
+            }
+            if (cols == -1) {
+                cols = rowCols;
+            } else if (cols != rowCols) {
+                throw new IllegalArgumentException("All rows must have the same number of columns");
+            }
+            pointers[i + 1] = nnz;
+        }
+
+        return new SparseMatrix(rows, cols, Format.CSR,
+                pointers, Arrays.copyOf(indices, nnz), Arrays.copyOf(values, nnz));
+    }
+
+    @Override
+    public int getRows() {
+        return rows;
+    }
+
+    @Override
+    public int getCols() {
+        return cols;
+    }
+
+    /**
+     * Gets the storage format of this matrix.
+     *
+     * @return CSR or CSC
+     */
+    public Format getFormat() {
+        return format;
+    }
+
+    /**
+     * Gets the number of stored non-zero elements.
+     *
+     * @return The number of non-zeros
+     */
+    public int nonZeros() {
+        return values.length;
+    }
+
+    /**
+     * Gets the value at the specified position, found by binary search in its row or column.
+     *
+     * @param row Row index (0-based)
+     * @param col Column index (0-based)
+     * @return The value at the specified position
+     */
+    @Override
+    public double get(int row, int col) {
+        if (row < 0 || row >= rows || col < 0 || col >= cols) {
+            throw new IndexOutOfBoundsException("Index out of bounds: [" + row + ", " + col + "]");
+        }
+        int major = (format == Format.CSR) ? row : col;
+        int minor = (format == Format.CSR) ? col : row;
+        int position = Arrays.binarySearch(indices, pointers[major], pointers[major + 1], minor);
+        return (position >= 0) ? values[position] : 0.0;
+    }
+
+    /**
+     * Multiplies this matrix by a column vector (SpMV), in time proportional to the number of non-zeros.
+     *
+     * @param vector The vector, with as many elements as this matrix has columns
+     * @return A new vector with as many elements as this matrix has rows
+     * @throws IllegalArgumentException If the size of the vector does not match
+     */
+    @Override
+    public double[] multiply(double[] vector) {
+        if (vector.length != cols) {
+            throw new IllegalArgumentException(
+                "Matrix dimensions mismatch for multiplication: [" + rows + "x" + cols + "] * [" +
+                vector.length + "]");
+        }
+
+        double[] result = new double[rows];
+        multiplyInto(vector, result);
+        return result;
+    }
+
+    /**
+     * Multiplies this matrix by a column vector into an existing vector, overwriting it,
+     * so that iterative solvers do not allocate a vector per product.
+     */
+    void multiplyInto(double[] vector, double[] result) {
+        if (format == Format.CSR) {
+            for (int i = 0; i < rows; i++) {
+                double sum = 0.0;
+                for (int p = pointers[i]; p < pointers[i + 1]; p++) {
+                    sum += values[p] * vector[indices[p]];
+                }
+                result[i] = sum;
+            }
+        } else {
+            Arrays.fill(result, 0, rows, 0.0);
+            for (int j = 0; j < cols; j++) {
+                double xj = vector[j];
+                if (xj != 0.0) {
+                    for (int p = pointers[j]; p < pointers[j + 1]; p++) {
+                        result[indices[p]] += values[p] * xj;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Multiplies this matrix by a dense matrix (SpMM). Each non-zero adds a scaled row
+     * of the dense operand to a row of the result, so the inner loop is contiguous.
+     *
+     * @param other The dense matrix to multiply by
+     * @return A new dense matrix representing the product
+     * @throws IllegalArgumentException If the matrices have incompatible dimensions
+     */
+    @Override
+    public Matrix multiply(Matrix other) {
+        if (cols != other.getRows()) {
+            throw new IllegalArgumentException(
+                "Matrix dimensions mismatch for multiplication: [" + rows + "x" + cols + "] * [" +
+                other.getRows() + "x" + other.getCols() + "]");
+        }
+
+        Matrix b = other.contiguous();
+        int n = b.getCols();
+        double[] result = new double[rows * n];
+        for (int major = 0; major < pointers.length - 1; major++) {
+            for (int p = pointers[major]; p < pointers[major + 1]; p++) {
+                int i = (format == Format.CSR) ? major : indices[p];
+                int k = (format == Format.CSR) ? indices[p] : major;
+                double value = values[p];
+                int source = b.offset + k * n;
+                int target = i * n;
+                for (int j = 0; j < n; j++) {
+                    result[target + j] += value * b.data[source + j];
+                }
+            }
+        }
+        return new Matrix(rows, n, result);
+    }
+
+    /**
+     * Multiplies this matrix by another sparse matrix (Gustavson's algorithm).
+     * Each row of the result is accumulated in a dense buffer, touching only the non-zeros involved.
+     *
+     * @param other The sparse matrix to multiply by
+     * @return A new sparse matrix in CSR format
+     * @throws IllegalArgumentException If the matrices have incompatible dimensions
+     */
+    public SparseMatrix multiply(SparseMatrix other) {
+        if (cols != other.rows) {
+            throw new IllegalArgumentException(
+                "Matrix dimensions mismatch for multiplication: [" + rows + "x" + cols + "] * [" +
+                other.rows + "x" + other.cols + "]");
+        }
+
+        SparseMatrix a = toCsr();
+        SparseMatrix b = other.toCsr();
+        int n = b.cols;
+        int[] pointers = new int[rows + 1];
+        int[] indices = new int[Math.max(16, a.nonZeros() + b.nonZeros())];
+        double[] values = new double[indices.length];
+        double[] accumulator = new double[n];
+        int[] marker = new int[n];
+        Arrays.fill(marker, -1);
+        int[] touched = new int[n];
+        int nnz = 0;
+
+        for (int i = 0; i < rows; i++) {
+            int touchedCount = 0;
+            for (int p = a.pointers[i]; p < a.pointers[i + 1]; p++) {
+                int k = a.indices[p];
+                double aik = a.values[p];
+                for (int q = b.pointers[k]; q < b.pointers[k + 1]; q++) {
+                    int j = b.indices[q];
+                    if (marker[j] != i) {
+                        marker[j] = i;
+                        accumulator[j] = 0.0;
+                        touched[touchedCount++] = j;
+                    }
+                    accumulator[j] += aik * b.values[q];
+                }
+            }
+            Arrays.sort(touched, 0, touchedCount);
+            if (nnz + touchedCount > indices.length) {
+                int capacity = Math.max(indices.length * 2, nnz + touchedCount);
+                indices = Arrays.copyOf(indices, capacity);
+                values = Arrays.copyOf(values, capacity);
+            }
+            for (int q = 0; q < touchedCount; q++) {
+                int j = touched[q];
+                if (accumulator[j] != 0.0) {
+                    indices[nnz] = j;
+                    values[nnz] = accumulator[j];
+                    nnz++;
+                }
+            }
+            pointers[i + 1] = nnz;
+        }
+
+        return new SparseMatrix(rows, n, Format.CSR,
+                pointers, Arrays.copyOf(indices, nnz), Arrays.copyOf(values, nnz));
+    }
+
+    /**
+     * Computes the transpose of this matrix without copying: the transpose of a CSR matrix
+     * is the CSC matrix made of the same arrays, and conversely.
+     *
+     * @return The transpose, sharing the storage of this matrix
+     */
+    @Override
+    public SparseMatrix transpose() {
+        Format swapped = (format == Format.CSR) ? Format.CSC : Format.CSR;
+        return new SparseMatrix(cols, rows, swapped, pointers, indices, values);
+    }
+
+    /**
+     * Tells whether this matrix is square and equal to its transpose, element for element.
+     *
+     * @return true if the matrix is symmetric
+     */
+    public boolean isSymmetric() {
+        if (rows != cols) {
+            return false;
+        }
+        SparseMatrix csr = toCsr();
+        SparseMatrix transposed = transpose().toCsr();
+        return Arrays.equals(csr.pointers, transposed.pointers)
+            && Arrays.equals(csr.indices, transposed.indices)
+            && Arrays.equals(csr.values, transposed.values);
+    }
+
+    /**
+     * Returns this matrix in CSR format, converting it if needed.
+     *
+     * @return A CSR matrix with the same elements
+     */
+    public SparseMatrix toCsr() {
+        return (format == Format.CSR) ? this : convert(Format.CSR);
+    }
+
+    /**
+     * Returns this matrix in CSC format, converting it if needed.
+     *
+     * @return A CSC matrix with the same elements
+     */
+    public SparseMatrix toCsc() {
+        return (format == Format.CSC) ? this : convert(Format.CSC);
+    }
+
+    /**
+     * Switches between CSR and CSC by a counting sort on the minor index, which keeps the indices sorted.
+     */
+    private SparseMatrix convert(Format target) {
+        int majorCount = (target == Format.CSR) ? rows : cols;
+        int nnz = nonZeros();
+        int[] newPointers = new int[majorCount + 1];
+        for (int p = 0; p < nnz; p++) {
+            newPointers[indices[p] + 1]++;
+        }
+        for (int m = 0; m < majorCount; m++) {
+            newPointers[m + 1] += newPointers[m];
+        }
+        int[] next = Arrays.copyOf(newPointers, majorCount);
+        int[] newIndices = new int[nnz];
+        double[] newValues = new double[nnz];
+        for (int major = 0; major < pointers.length - 1; major++) {
+            for (int p = pointers[major]; p < pointers[major + 1]; p++) {
+                int position = next[indices[p]]++;
+                newIndices[position] = major;
+                newValues[position] = values[p];
+            }
+        }
+        return new SparseMatrix(rows, cols, target, newPointers, newIndices, newValues);
+    }
+
+    @Override
+    public Matrix toMatrix() {
+        double[] dense = new double[rows * cols];
+        for (int major = 0; major < pointers.length - 1; major++) {
+            for (int p = pointers[major]; p < pointers[major + 1]; p++) {
+                int i = (format == Format.CSR) ? major : indices[p];
+                int j = (format == Format.CSR) ? indices[p] : major;
+                dense[i * cols + j] = values[p];
+            }
+        }
+        return new Matrix(rows, cols, dense);
+    }
+
+    /**
+     * Returns a short description of this matrix; use {@link #toMatrix()} to print its elements.
+     *
+     * @return The dimensions, number of non-zeros and format
+     */
+    @Override
+    public String toString() {
+        return "SparseMatrix[" + rows + "x" + cols + ", " + nonZeros() + " non-zeros, " + format + "]";
+    }
+}
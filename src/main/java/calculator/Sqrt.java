@@ -13,6 +13,10 @@ public final class Sqrt extends Operation implements UnaryOperation {
 
   protected static final List<String> SYMBOLES = new ArrayList<>(List.of("sqrt"));
 
+  private static EvaluationException negativeArgument() {
+    return new EvaluationException(EvaluationException.Kind.DOMAIN_ERROR, "Cannot compute the square root of a negative number");
+  }
+
   /**
    * Class constructor specifying a single Expression argument.
    *
@@ -31,7 +35,7 @@ public final class Sqrt extends Operation implements UnaryOperation {
    * @throws IllegalConstruction If null or empty list is passed as parameter
    */
   public Sqrt(List<Expression> elist) throws IllegalConstruction {
-    super(elist, null);
+    super(elist, null, OP_SQRT);
     symbol = "sqrt";
     neutral = 0; // No real neutral element for square root
   }
@@ -44,7 +48,7 @@ public final class Sqrt extends Operation implements UnaryOperation {
    * @throws IllegalConstruction If a null expression is passed as parameter
    */
   public Sqrt(Notation n, Expression expr) throws IllegalConstruction {
-    super(n, expr);
+    super(n, OP_SQRT, expr);
     symbol = "sqrt";
     neutral = 0;
   }
@@ -86,7 +90,7 @@ public final class Sqrt extends Operation implements UnaryOperation {
   public Number opUnary(Number n) {
     double value = n.doubleValue();
     if (value < 0) {
-      throw new ArithmeticException("Cannot compute the square root of a negative number");
+      throw negativeArgument();
     }
     return Math.sqrt(value);
   }
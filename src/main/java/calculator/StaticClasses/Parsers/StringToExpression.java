@@ -8,6 +8,7 @@ import java.util.Stack;
 import java.util.regex.Pattern;
 
 import calculator.Calculator;
+import calculator.CheckedArithmetic;
 import calculator.Divides;
 import calculator.Expression;
 import calculator.MathConstant;
@@ -420,7 +421,7 @@ public class StringToExpression {
                 if (token.contains(".")) {
                     stack.push(new MyNumber(Double.parseDouble(token)));
                 } else {
-                    stack.push(new MyNumber(Integer.parseInt(token)));
+                    stack.push(new MyNumber(CheckedArithmetic.parseInteger(token)));
                 }
             } 
             // Handle unary minus
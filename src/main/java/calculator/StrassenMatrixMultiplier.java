@@ -0,0 +1,188 @@
+package calculator;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Strassen-Winograd matrix multiplication, for very large dense matrices.
+ * <p>
+ * Each level of the recursion splits the operands into quadrants and computes the product
+ * with 7 multiplications and 15 additions of quadrants instead of 8 multiplications,
+ * for O(n^2.81) operations overall. Below the cutoff, quadrants are multiplied with the
+ * cache-blocked kernel. Operands are padded with zeros up to the next size of the form
+ * m * 2^d with m at most the cutoff, so that every level splits evenly. The seven sub-products
+ * of the upper levels run as parallel tasks on a fork-join pool.
+ * <p>
+ * <b>Accuracy.</b> The error bound is normwise rather than componentwise: for n x n operands,
+ * cutoff n0 and unit roundoff u (about 1.1e-16), the computed product satisfies
+ * ||C - Ĉ|| ≤ [(n/n0)^log2(18) (n0² + 6 n0) - 6n] u ||A|| ||B|| + O(u²) in the max norm
+ * (Higham, Accuracy and Stability of Numerical Algorithms, §23.2.2). Elements of C that are
+ * much smaller than ||A|| ||B|| may therefore lose most of their relative accuracy, which the
+ * classical kernels do not. This strategy is opt-in and best suited to well-scaled operands.
+ */
+public class StrassenMatrixMultiplier implements MatrixMultiplier {
+
+    /** Default size below which quadrants are multiplied with the blocked kernel; smaller quadrants lose to its SIMD micro-kernel */
+    public static final int DEFAULT_CUTOFF = 1024;
+
+    private final int cutoff;
+    private final ForkJoinPool pool;
+    private final MatrixMultiplier base = new BlockedMatrixMultiplier();
+
+    /**
+     * Creates a multiplier with the default cutoff, running on the common fork-join pool.
+     */
+    public StrassenMatrixMultiplier() {
+        this(DEFAULT_CUTOFF, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Creates a multiplier with a given cutoff and pool.
+     *
+     * @param cutoff Size below which quadrants are multiplied with the blocked kernel, at least 16
+     * @param pool The pool running the sub-products, or null to compute them sequentially
+     */
+    public StrassenMatrixMultiplier(int cutoff, ForkJoinPool pool) {
+        if (cutoff < 16) {
+            throw new IllegalArgumentException("Strassen cutoff must be at least 16, got " + cutoff);
+        }
+        this.cutoff = cutoff;
+        this.pool = pool;
+    }
+
+    @Override
+    public Matrix multiply(Matrix left, Matrix right) {
+        Matrix.checkMultiplicable(left, right);
+
+        int rows = left.getRows();
+        int inner = left.getCols();
+        int cols = right.getCols();
+        // Below the cutoff, or for thin operands that padding would blow up, the classical kernel wins
+        if (Math.min(rows, Math.min(inner, cols)) <= cutoff) {
+            return base.multiply(left, right);
+        }
+
+        int size = paddedSize(Math.max(rows, Math.max(inner, cols)));
+        Matrix a = pad(left, size);
+        Matrix b = pad(right, size);
+        Product task = new Product(a, b, pool != null);
+        Matrix c = (pool != null) ? pool.invoke(task) : task.compute();
+
+        return (size == rows && size == cols) ? c : c.submatrix(0, 0, rows, cols).copy();
+    }
+
+    /**
+     * Computes the smallest size m * 2^d at least n, with m at most the cutoff.
+     */
+    int paddedSize(int n) {
+        int levels = 0;
+        int m = n;
+        while (m > cutoff) {
+            m = (m + 1) / 2;
+            levels++;
+        }
+        return m << levels;
+    }
+
+    /**
+     * Embeds a matrix in the top-left corner of a size x size zero matrix, or makes it contiguous if it already fits.
+     */
+    private static Matrix pad(Matrix m, int size) {
+        if (m.getRows() == size && m.getCols() == size) {
+            return m.contiguous();
+        }
+        Matrix padded = Matrix.zeros(size, size);
+        Matrix source = m.contiguous();
+        for (int i = 0; i < m.getRows(); i++) {
+            System.arraycopy(source.data, source.offset + i * m.getCols(), padded.data, i * size, m.getCols());
+        }
+        return padded;
+    }
+
+    /**
+     * Task computing the product of two square matrices of even size, or of any size below the cutoff.
+     * Sequential tasks never fork, even when the caller itself runs in a fork-join pool.
+     */
+    private final class Product extends RecursiveTask<Matrix> {
+        private final Matrix a;
+        private final Matrix b;
+        private final boolean parallel;
+
+        Product(Matrix a, Matrix b, boolean parallel) {
+            this.a = a;
+            this.b = b;
+            this.parallel = parallel;
+        }
+
+        @Override
+        protected Matrix compute() {
+            int n = a.getRows();
+            if (n <= cutoff) {
+                return base.multiply(a, b);
+            }
+
+            int h = n / 2;
+            Matrix a11 = a.submatrix(0, 0, h, h);
+            Matrix a12 = a.submatrix(0, h, h, h);
+            Matrix a21 = a.submatrix(h, 0, h, h);
+            Matrix a22 = a.submatrix(h, h, h, h);
+            Matrix b11 = b.submatrix(0, 0, h, h);
+            Matrix b12 = b.submatrix(0, h, h, h);
+            Matrix b21 = b.submatrix(h, 0, h, h);
+            Matrix b22 = b.submatrix(h, h, h, h);
+
+            // Winograd's form: 8 additions on the operands, 7 on the products
+            Matrix s1 = a21.add(a22);
+            Matrix s2 = s1.subtract(a11);
+            Matrix s3 = a11.subtract(a21);
+            Matrix s4 = a12.subtract(s2);
+            Matrix t1 = b12.subtract(b11);
+            Matrix t2 = b22.subtract(t1);
+            Matrix t3 = b22.subtract(b12);
+            Matrix t4 = t2.subtract(b21);
+
+            Product[] products = {
+                new Product(a11, b11, parallel),
+                new Product(a12, b21, parallel),
+                new Product(s4, b22, parallel),
+                new Product(a22, t4, parallel),
+                new Product(s1, t1, parallel),
+                new Product(s2, t2, parallel),
+                new Product(s3, t3, parallel)
+            };
+            Matrix[] m = new Matrix[products.length];
+            if (parallel) {
+                ForkJoinTask.invokeAll(products);
+                for (int i = 0; i < products.length; i++) {
+                    m[i] = products[i].join();
+                }
+            } else {
+                for (int i = 0; i < products.length; i++) {
+                    m[i] = products[i].compute();
+                }
+            }
+
+            Matrix u2 = m[0].add(m[5]);
+            Matrix u3 = u2.add(m[6]);
+            Matrix u4 = u2.add(m[4]);
+
+            double[] c = new double[n * n];
+            place(c, n, m[0].add(m[1]), 0, 0);
+            place(c, n, u4.add(m[2]), 0, h);
+            place(c, n, u3.subtract(m[3]), h, 0);
+            place(c, n, u3.add(m[4]), h, h);
+            return new Matrix(n, n, c);
+        }
+
+        /**
+         * Copies a contiguous quadrant into a row-major n x n buffer at the given corner.
+         */
+        private void place(double[] c, int n, Matrix quadrant, int row, int col) {
+            int h = quadrant.getRows();
+            for (int i = 0; i < h; i++) {
+                System.arraycopy(quadrant.data, quadrant.offset + i * h, c, (row + i) * n + col, h);
+            }
+        }
+    }
+}
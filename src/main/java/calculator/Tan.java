@@ -13,6 +13,14 @@ public final class Tan extends Operation implements UnaryOperation {
 
   protected static final List<String> SYMBOLES = new ArrayList<>(List.of("tan"));
 
+  private static EvaluationException undefinedAtPole() {
+    return new EvaluationException(EvaluationException.Kind.DOMAIN_ERROR, "Tangent is undefined at x = π/2 + nπ");
+  }
+
+  private static EvaluationException undefinedForComplex() {
+    return new EvaluationException(EvaluationException.Kind.DOMAIN_ERROR, "Tangent is undefined for this complex number");
+  }
+
   /**
    * Class constructor specifying a single Expression argument.
    *
@@ -31,7 +39,7 @@ public final class Tan extends Operation implements UnaryOperation {
    * @throws IllegalConstruction If null or empty list is passed as parameter
    */
   public Tan(List<Expression> elist) throws IllegalConstruction {
-    super(elist, null);
+    super(elist, null, OP_TAN);
     symbol = "tan";
     neutral = 0; // No real neutral element for tangent
   }
@@ -44,7 +52,7 @@ public final class Tan extends Operation implements UnaryOperation {
    * @throws IllegalConstruction If a null expression is passed as parameter
    */
   public Tan(Notation n, Expression expr) throws IllegalConstruction {
-    super(n, expr);
+    super(n, OP_TAN, expr);
     symbol = "tan";
     neutral = 0;
   }
@@ -89,7 +97,7 @@ public final class Tan extends Operation implements UnaryOperation {
     // Check if the value is close to π/2 + nπ where tangent is undefined
     double modPi = value % Math.PI;
     if (Math.abs(modPi - Math.PI/2) < 1e-10 || Math.abs(modPi + Math.PI/2) < 1e-10) {
-      throw new ArithmeticException("Tangent is undefined at x = π/2 + nπ");
+      throw undefinedAtPole();
     }
     
     return Math.tan(value);
@@ -117,7 +125,7 @@ public final class Tan extends Operation implements UnaryOperation {
     
     // Check for potential division by zero
     if (Math.abs(denominator) < 1e-10) {
-      throw new ArithmeticException("Tangent is undefined for this complex number");
+      throw undefinedForComplex();
     }
     
     double realPart = sin2a / denominator;
@@ -37,13 +37,13 @@ public final class Times extends Operation
    * @see Operation#Operation(List<Expression>,Notation)
    */
   public Times(List<Expression> elist, Notation n) throws IllegalConstruction {
-  	super(elist,n);
+  	super(elist, n, OP_TIMES);
   	symbol = "*";
   	neutral = 1;
   }
 
   public Times(Notation n, Expression... elist) throws IllegalConstruction {
-  	super(n, elist);
+  	super(n, OP_TIMES, elist);
   	symbol = "*";
   	neutral = 1;
   }
@@ -53,23 +53,34 @@ public final class Times extends Operation
    * @param l The first integer
    * @param r The second integer that should be multiplied with the first
    * @return The integer that is the result of the multiplication
+   * @throws EvaluationException If the result overflows an int
    */
-  public int op(int l, int r)
-    { return (l*r); }
+  public int op(int l, int r) {
+    Number result = CheckedArithmetic.multiply(l, r);
+    if (!(result instanceof Integer)) {
+      throw EvaluationException.intOverflow();
+    }
+    return result.intValue();
+  }
 
+  /**
+   * The actual computation of the (binary) arithmetic multiplication of two numbers of any numeric type.
+   * Integral operands are computed exactly and promoted to Long or BigInteger only on overflow.
+   * @param l The first number
+   * @param r The second number
+   * @return The number that is the result of the multiplication
+   */
   public Number op(Number l, Number r) {
-    if (l instanceof Double || r instanceof Double) {
+    if (l instanceof Integer && r instanceof Integer) {
+        return CheckedArithmetic.multiply(l.intValue(), r.intValue());
+    } else if (l instanceof Double || r instanceof Double) {
         return l.doubleValue() * r.doubleValue();
     } else if (l instanceof Float || r instanceof Float) {
         return l.floatValue() * r.floatValue();
-    } else if (l instanceof Long || r instanceof Long) {
-        return l.longValue() * r.longValue();
-    } else if (l instanceof Integer || r instanceof Integer) {
-        return l.intValue() * r.intValue();
-    } else if (l instanceof Short || r instanceof Short) {
-        return l.shortValue() * r.shortValue();
+    } else if (CheckedArithmetic.isIntegral(l) && CheckedArithmetic.isIntegral(r)) {
+        return CheckedArithmetic.multiply(l, r);
     } else {
-        return l.byteValue() * r.byteValue();
+        return l.doubleValue() * r.doubleValue();
     }
   }
 }
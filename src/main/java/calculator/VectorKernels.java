@@ -0,0 +1,161 @@
+package calculator;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * SIMD kernels for the matrix operations, written with the incubating Vector API.
+ * Loops process {@link #LANES} doubles at a time with the widest vectors of the platform
+ * and finish with a scalar tail.
+ * <p>
+ * This class must only be reached when {@link Vectorization#isEnabled()} is true:
+ * loading it without the {@code jdk.incubator.vector} module fails.
+ */
+final class VectorKernels {
+
+    static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+
+    /** Number of doubles per vector */
+    static final int LANES = SPECIES.length();
+
+    private VectorKernels() {}
+
+    /**
+     * Computes dst[dstOffset + k] = a[aOffset + k] + b[bOffset + k] for k in [0, n).
+     */
+    static void add(double[] a, int aOffset, double[] b, int bOffset, double[] dst, int dstOffset, int n) {
+        int bound = SPECIES.loopBound(n);
+        int k = 0;
+        for (; k < bound; k += LANES) {
+            DoubleVector.fromArray(SPECIES, a, aOffset + k)
+                    .add(DoubleVector.fromArray(SPECIES, b, bOffset + k))
+                    .intoArray(dst, dstOffset + k);
+        }
+        for (; k < n; k++) {
+            dst[dstOffset + k] = a[aOffset + k] + b[bOffset + k];
+        }
+    }
+
+    /**
+     * Computes dst[dstOffset + k] = a[aOffset + k] - b[bOffset + k] for k in [0, n).
+     */
+    static void subtract(double[] a, int aOffset, double[] b, int bOffset, double[] dst, int dstOffset, int n) {
+        int bound = SPECIES.loopBound(n);
+        int k = 0;
+        for (; k < bound; k += LANES) {
+            DoubleVector.fromArray(SPECIES, a, aOffset + k)
+                    .sub(DoubleVector.fromArray(SPECIES, b, bOffset + k))
+                    .intoArray(dst, dstOffset + k);
+        }
+        for (; k < n; k++) {
+            dst[dstOffset + k] = a[aOffset + k] - b[bOffset + k];
+        }
+    }
+
+    /**
+     * Computes dst[dstOffset + k] = a[aOffset + k] * b[bOffset + k] for k in [0, n).
+     */
+    static void multiply(double[] a, int aOffset, double[] b, int bOffset, double[] dst, int dstOffset, int n) {
+        int bound = SPECIES.loopBound(n);
+        int k = 0;
+        for (; k < bound; k += LANES) {
+            DoubleVector.fromArray(SPECIES, a, aOffset + k)
+                    .mul(DoubleVector.fromArray(SPECIES, b, bOffset + k))
+                    .intoArray(dst, dstOffset + k);
+        }
+        for (; k < n; k++) {
+            dst[dstOffset + k] = a[aOffset + k] * b[bOffset + k];
+        }
+    }
+
+    /**
+     * Computes dst[dstOffset + k] = a[aOffset + k] * scalar for k in [0, n).
+     */
+    static void scale(double[] a, int aOffset, double scalar, double[] dst, int dstOffset, int n) {
+        int bound = SPECIES.loopBound(n);
+        int k = 0;
+        for (; k < bound; k += LANES) {
+            DoubleVector.fromArray(SPECIES, a, aOffset + k).mul(scalar).intoArray(dst, dstOffset + k);
+        }
+        for (; k < n; k++) {
+            dst[dstOffset + k] = a[aOffset + k] * scalar;
+        }
+    }
+
+    /**
+     * Accumulates a {@value BlockedMatrixMultiplier#TILE} x {@link #LANES} tile of a matrix product
+     * from a packed panel of the left operand ({@value BlockedMatrixMultiplier#TILE} values per step)
+     * and a packed panel of the right operand ({@link #LANES} values per step).
+     * Each row of the tile is kept in one vector register.
+     *
+     * @param a The packed left panels
+     * @param aPanel Start of the left panel
+     * @param b The packed right panels
+     * @param bPanel Start of the right panel
+     * @param depth Number of steps along the inner dimension
+     * @param c The row-major result buffer
+     * @param c0 Position of the top-left element of the tile in c
+     * @param ldc Distance between two rows of c
+     */
+    static void microKernel(double[] a, int aPanel, double[] b, int bPanel, int depth,
+                            double[] c, int c0, int ldc) {
+        DoubleVector acc0 = DoubleVector.zero(SPECIES);
+        DoubleVector acc1 = DoubleVector.zero(SPECIES);
+        DoubleVector acc2 = DoubleVector.zero(SPECIES);
+        DoubleVector acc3 = DoubleVector.zero(SPECIES);
+
+        int ak = aPanel;
+        int bk = bPanel;
+        for (int k = 0; k < depth; k++, ak += BlockedMatrixMultiplier.TILE, bk += LANES) {
+            DoubleVector bv = DoubleVector.fromArray(SPECIES, b, bk);
+            acc0 = bv.fma(DoubleVector.broadcast(SPECIES, a[ak]), acc0);
+            acc1 = bv.fma(DoubleVector.broadcast(SPECIES, a[ak + 1]), acc1);
+            acc2 = bv.fma(DoubleVector.broadcast(SPECIES, a[ak + 2]), acc2);
+            acc3 = bv.fma(DoubleVector.broadcast(SPECIES, a[ak + 3]), acc3);
+        }
+
+        int c1 = c0 + ldc;
+        int c2 = c1 + ldc;
+        int c3 = c2 + ldc;
+        DoubleVector.fromArray(SPECIES, c, c0).add(acc0).intoArray(c, c0);
+        DoubleVector.fromArray(SPECIES, c, c1).add(acc1).intoArray(c, c1);
+        DoubleVector.fromArray(SPECIES, c, c2).add(acc2).intoArray(c, c2);
+        DoubleVector.fromArray(SPECIES, c, c3).add(acc3).intoArray(c, c3);
+    }
+
+    /**
+     * Computes x[target + j] -= sum over k in [from, to) of c[cOffset + k] * x[source + k * stride + j], for j in [0, width).
+     * Two vectors of columns are accumulated in registers across the whole sum.
+     */
+    static void subtractCombination(double[] c, int cOffset, double[] x, int stride, int target, int source,
+                                    int from, int to, int width) {
+        int j = 0;
+        for (; j + 2 * LANES <= width; j += 2 * LANES) {
+            DoubleVector acc0 = DoubleVector.fromArray(SPECIES, x, target + j);
+            DoubleVector acc1 = DoubleVector.fromArray(SPECIES, x, target + j + LANES);
+            for (int k = from; k < to; k++) {
+                DoubleVector coefficient = DoubleVector.broadcast(SPECIES, -c[cOffset + k]);
+                int row = source + k * stride + j;
+                acc0 = DoubleVector.fromArray(SPECIES, x, row).fma(coefficient, acc0);
+                acc1 = DoubleVector.fromArray(SPECIES, x, row + LANES).fma(coefficient, acc1);
+            }
+            acc0.intoArray(x, target + j);
+            acc1.intoArray(x, target + j + LANES);
+        }
+        for (; j + LANES <= width; j += LANES) {
+            DoubleVector acc = DoubleVector.fromArray(SPECIES, x, target + j);
+            for (int k = from; k < to; k++) {
+                DoubleVector coefficient = DoubleVector.broadcast(SPECIES, -c[cOffset + k]);
+                acc = DoubleVector.fromArray(SPECIES, x, source + k * stride + j).fma(coefficient, acc);
+            }
+            acc.intoArray(x, target + j);
+        }
+        for (; j < width; j++) {
+            double sum = x[target + j];
+            for (int k = from; k < to; k++) {
+                sum -= c[cOffset + k] * x[source + k * stride + j];
+            }
+            x[target + j] = sum;
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package calculator;
+
+/**
+ * Runtime switch for the SIMD matrix kernels built on the incubating Vector API.
+ * <p>
+ * The kernels are used only when the {@code jdk.incubator.vector} module is present in the boot layer
+ * (the JVM must be started with {@code --add-modules jdk.incubator.vector}) and the platform offers
+ * vectors of at least two doubles. They can be turned off at startup with
+ * {@code -Dcalculator.vectorization=false}, or at any time with {@link #setEnabled(boolean)};
+ * the matrix operations then run their scalar loops.
+ */
+public final class Vectorization {
+
+    private static final boolean SUPPORTED = detect();
+
+    private static volatile boolean enabled =
+            SUPPORTED && Boolean.parseBoolean(System.getProperty("calculator.vectorization", "true"));
+
+    private Vectorization() {}
+
+    /**
+     * Checks whether the SIMD kernels can run on this JVM.
+     *
+     * @return true if the Vector API is available
+     */
+    public static boolean isSupported() {
+        return SUPPORTED;
+    }
+
+    /**
+     * Checks whether the matrix operations currently use the SIMD kernels.
+     *
+     * @return true if the SIMD kernels are in use
+     */
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Turns the SIMD kernels on or off. Turning them on has no effect if they are not supported.
+     *
+     * @param on true to use the SIMD kernels, false to use the scalar loops
+     */
+    public static void setEnabled(boolean on) {
+        enabled = on && SUPPORTED;
+    }
+
+    private static boolean detect() {
+        // VectorKernels must not be loaded unless its module is there
+        if (ModuleLayer.boot().findModule("jdk.incubator.vector").isEmpty()) {
+            return false;
+        }
+        return VectorKernels.LANES >= 2;
+    }
+}
@@ -0,0 +1,330 @@
+package calculator.controller;
+
+import calculator.dto.BatchResultDTO;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Function;
+
+/**
+ * Évaluation en flux d'un lot d'expressions, pour POST /api/calculator/evaluate/batch.
+ * <p>
+ * L'entrée est un tableau JSON ou du NDJSON (une valeur JSON par ligne) ; chaque élément est une
+ * chaîne ou un objet {"expression": "..."}. Elle est lue au fil de l'eau et découpée en paquets
+ * de {@value #CHUNK} éléments, évalués en parallèle sur l'exécuteur fourni. La sortie est du
+ * NDJSON, une ligne {"index": i, "result": ...} ou {"index": i, "error": ...} par élément, dans
+ * l'ordre de l'entrée : une erreur n'interrompt pas le lot.
+ * <p>
+ * Au plus {@code window} paquets attendent d'être écrits, donc la mémoire reste bornée quelle que
+ * soit la taille du lot. Les résultats sont écrits et envoyés dans l'ordre dès qu'ils sont prêts,
+ * et quand la lecture de l'entrée bloquerait, le paquet en cours est lancé : un client qui
+ * diffuse son lot reçoit les réponses sans attendre la fin de l'entrée.
+ */
+public final class BatchEvaluator {
+
+    /** Nombre d'éléments évalués par une même tâche */
+    static final int CHUNK = 256;
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final Function<String, BatchResultDTO> evaluation;
+    private final Executor executor;
+    private final int window;
+
+    /**
+     * @param evaluation Évaluation d'une expression, qui rend son résultat ou son erreur sans lever d'exception
+     * @param executor Exécuteur des paquets
+     * @param window Nombre maximal de paquets en attente d'écriture, au moins 1
+     */
+    public BatchEvaluator(Function<String, BatchResultDTO> evaluation, Executor executor, int window) {
+        if (window < 1) {
+            throw new IllegalArgumentException("La fenêtre doit contenir au moins un paquet : " + window);
+        }
+        this.evaluation = evaluation;
+        this.executor = executor;
+        this.window = window;
+    }
+
+    /**
+     * Lit le lot, l'évalue et écrit les résultats au fur et à mesure.
+     * Une entrée qui n'est pas du JSON valide termine le lot par une ligne d'erreur, après les résultats
+     * des éléments lus jusque-là.
+     *
+     * @return Le nombre d'éléments évalués
+     * @throws IOException Si la lecture ou l'écriture échoue
+     */
+    public int evaluate(InputStream in, OutputStream out) throws IOException {
+        Batch batch = new Batch(out);
+        try (JsonParser parser = JSON_FACTORY.createParser(new StarvationAwareInput(in, batch))) {
+            JsonToken token = parser.nextToken();
+            boolean array = token == JsonToken.START_ARRAY;
+            if (array) {
+                token = parser.nextToken();
+            }
+            while (token != null && !(array && token == JsonToken.END_ARRAY)) {
+                batch.add(readItem(parser, token));
+                token = parser.nextToken();
+            }
+        } catch (JsonParseException e) {
+            batch.drain();
+            BatchResultDTO error = BatchResultDTO.error("JSON invalide : " + e.getOriginalMessage());
+            error.setIndex(batch.count);
+            out.write(MAPPER.writeValueAsBytes(error));
+            out.write('\n');
+            out.flush();
+            return batch.count;
+        } catch (IOException | RuntimeException e) {
+            batch.abort();
+            throw e;
+        }
+        batch.drain();
+        return batch.count;
+    }
+
+    /**
+     * Lit un élément à partir de son premier jeton : l'expression, ou null si l'élément n'en est pas une.
+     */
+    private static String readItem(JsonParser parser, JsonToken token) throws IOException {
+        if (token == JsonToken.VALUE_STRING) {
+            return parser.getText();
+        }
+        String expression = null;
+        if (token == JsonToken.START_OBJECT) {
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.getCurrentName();
+                JsonToken value = parser.nextToken();
+                if ("expression".equals(field) && value == JsonToken.VALUE_STRING) {
+                    expression = parser.getText();
+                } else {
+                    parser.skipChildren();
+                }
+            }
+            return expression;
+        }
+        parser.skipChildren();
+        return null;
+    }
+
+    /**
+     * État d'un lot : le paquet en cours de lecture et la file ordonnée des paquets en vol.
+     * Un thread virtuel écrit les paquets dans l'ordre, à mesure qu'ils se terminent, pendant que
+     * le thread appelant lit l'entrée : la lecture n'attend jamais les résultats, sauf quand la
+     * fenêtre est pleine ou à la fin du lot.
+     */
+    private final class Batch {
+        /** Marque la fin du lot dans la file des paquets en vol */
+        private final CompletableFuture<byte[]> end = new CompletableFuture<>();
+        private final OutputStream out;
+        private final BlockingQueue<CompletableFuture<byte[]>> inFlight = new ArrayBlockingQueue<>(window);
+        private final Thread writer;
+        /** Vrai quand la marque de fin est dans la file */
+        private boolean ended;
+        /** Échec de l'écriture, relancé par le thread appelant */
+        private volatile IOException failure;
+        private String[] chunk = new String[CHUNK];
+        private int chunkSize;
+        /** Nombre d'éléments lus */
+        int count;
+
+        Batch(OutputStream out) {
+            this.out = out;
+            this.writer = Thread.ofVirtual().name("batch-writer").start(this::write);
+        }
+
+        void add(String expression) throws IOException {
+            chunk[chunkSize++] = expression;
+            count++;
+            if (chunkSize == CHUNK) {
+                submit();
+            }
+        }
+
+        /**
+         * Lance le paquet en cours sans attendre son résultat, sauf si la fenêtre est pleine.
+         */
+        void submit() throws IOException {
+            if (chunkSize == 0) {
+                return;
+            }
+            String[] expressions = chunk;
+            int size = chunkSize;
+            int first = count - size;
+            CompletableFuture<byte[]> lines;
+            try {
+                lines = CompletableFuture.supplyAsync(() -> evaluateChunk(expressions, size, first), executor);
+            } catch (RejectedExecutionException e) {
+                // Exécuteur saturé : le lot évalue ce paquet lui-même, ce qui ralentit sa lecture d'autant
+                lines = CompletableFuture.completedFuture(evaluateChunk(expressions, size, first));
+            }
+            chunk = new String[CHUNK];
+            chunkSize = 0;
+            enqueue(lines);
+        }
+
+        /**
+         * Lance le paquet en cours, attend que tous les résultats soient écrits et les envoie au client.
+         */
+        void drain() throws IOException {
+            try {
+                submit();
+            } catch (IOException e) {
+                abort();
+                throw e;
+            }
+            ended = true;
+            enqueue(end);
+            try {
+                writer.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Lot interrompu");
+            }
+            if (failure != null) {
+                throw failure;
+            }
+        }
+
+        /**
+         * Arrête le thread d'écriture après un échec de la lecture, sans écrire les paquets restants.
+         */
+        void abort() {
+            if (failure == null) {
+                failure = new IOException("Lot abandonné");
+            }
+            if (!ended) {
+                ended = true;
+                // Le thread d'écriture vide la file, l'attente est brève
+                boolean interrupted = false;
+                while (true) {
+                    try {
+                        inFlight.put(end);
+                        break;
+                    } catch (InterruptedException e) {
+                        interrupted = true;
+                    }
+                }
+                if (interrupted) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+
+        private void enqueue(CompletableFuture<byte[]> lines) throws IOException {
+            try {
+                inFlight.put(lines);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Lot interrompu");
+            }
+            if (failure != null) {
+                throw failure;
+            }
+        }
+
+        /**
+         * Boucle du thread d'écriture, jusqu'à la marque de fin. Après un échec, les paquets sont
+         * encore retirés de la file, pour que le thread appelant ne reste pas bloqué sur la fenêtre.
+         */
+        private void write() {
+            CompletableFuture<byte[]> lines = null;
+            while (lines != end) {
+                try {
+                    lines = inFlight.take();
+                    if (lines != end && failure == null) {
+                        out.write(lines.join());
+                        // Les réponses partent dès qu'aucun autre paquet n'est prêt
+                        CompletableFuture<byte[]> next = inFlight.peek();
+                        if (next == null || !next.isDone()) {
+                            out.flush();
+                        }
+                    }
+                } catch (InterruptedException e) {
+                    failure = new InterruptedIOException("Écriture du lot interrompue");
+                } catch (IOException e) {
+                    failure = e;
+                } catch (RuntimeException e) {
+                    failure = new IOException("Évaluation d'un paquet impossible", e);
+                }
+            }
+            if (failure == null) {
+                try {
+                    out.flush();
+                } catch (IOException e) {
+                    failure = e;
+                }
+            }
+        }
+    }
+
+    /**
+     * Évalue un paquet et le sérialise en lignes NDJSON.
+     */
+    private byte[] evaluateChunk(String[] expressions, int size, int first) {
+        ByteArrayOutputStream lines = new ByteArrayOutputStream(size * 32);
+        try {
+            for (int i = 0; i < size; i++) {
+                BatchResultDTO result = evaluateItem(expressions[i]);
+                result.setIndex(first + i);
+                lines.write(MAPPER.writeValueAsBytes(result));
+                lines.write('\n');
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return lines.toByteArray();
+    }
+
+    /**
+     * Évalue un élément. Une exception, ou un débordement de pile sur une expression très imbriquée,
+     * devient l'erreur de cet élément au lieu d'interrompre le flux au milieu de la réponse.
+     */
+    private BatchResultDTO evaluateItem(String expression) {
+        if (expression == null) {
+            return BatchResultDTO.error("Élément invalide : une expression ou {\"expression\": \"...\"} est attendue.");
+        }
+        try {
+            return evaluation.apply(expression);
+        } catch (StackOverflowError e) {
+            return BatchResultDTO.error("Expression trop imbriquée.");
+        } catch (RuntimeException e) {
+            return BatchResultDTO.error("Erreur interne : " + e.getMessage());
+        }
+    }
+
+    /**
+     * Entrée qui lance le paquet en cours avant chaque lecture qui bloquerait, faute d'octets disponibles,
+     * pour qu'un client qui diffuse son lot n'attende pas qu'un paquet soit plein.
+     */
+    private static final class StarvationAwareInput extends FilterInputStream {
+        private final Batch batch;
+
+        StarvationAwareInput(InputStream in, Batch batch) {
+            super(in);
+            this.batch = batch;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            if (in.available() == 0) {
+                batch.submit();
+            }
+            return in.read(buffer, offset, length);
+        }
+    }
+}
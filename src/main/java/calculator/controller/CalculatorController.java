@@ -1,21 +1,44 @@
 package calculator.controller;
 
 import calculator.Calculator;
+import calculator.EvaluationException;
 import calculator.Expression;
 import calculator.StaticClasses.Parsers.StringToExpression;
+import calculator.dto.BatchResultDTO;
 import calculator.dto.ExpressionDTO;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.InputStream;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.regex.Pattern;
+
 @RestController
 @RequestMapping("/api/calculator")
 public class CalculatorController {
 
+    // Partagé entre les threads d'évaluation : chaque thread évalue avec son propre Evaluator réutilisé
     private final Calculator calculator = new Calculator();
     private static final Logger logger = LoggerFactory.getLogger(CalculatorController.class);
+    private static final Pattern EXPRESSION_VALIDE = Pattern.compile("[0-9+\\-*/().]+");
+
+    // Évaluations liées au CPU, sorties des threads de requête : voir EvaluationExecutorConfiguration
+    private final Executor evaluationExecutor;
+    // Lots évalués en parallèle, avec au plus deux paquets en vol par cœur
+    private final BatchEvaluator batchEvaluator;
 
+    public CalculatorController(EvaluationPool evaluationPool) {
+        this.evaluationExecutor = evaluationPool.getExecutor();
+        this.batchEvaluator = new BatchEvaluator(
+                this::evaluateItem, evaluationExecutor, 2 * Runtime.getRuntime().availableProcessors());
+    }
 
 
     // ✅ POST /evaluate (Body: { "expression": "3+5*2" })
@@ -24,28 +47,73 @@ public class CalculatorController {
         return processExpression(expressionDTO.getExpression());
     }
 
-    // 🔁 Logique partagée POST
+    // 📦 POST /evaluate/batch (Body: ["3+5*2", {"expression": "1/0"}], ou NDJSON : une expression par ligne)
+    // Réponse NDJSON diffusée au fil du calcul : {"index":0,"result":"13"} puis {"index":1,"error":"..."}
+    @PostMapping(value = "/evaluate/batch",
+                 consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE},
+                 produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> evaluateBatch(InputStream body) {
+        StreamingResponseBody response = out -> {
+            long start = System.nanoTime();
+            int count = batchEvaluator.evaluate(body, out);
+            logger.info("Lot évalué: {} expressions en {} ms", count, (System.nanoTime() - start) / 1_000_000);
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(response);
+    }
+
+    // 🔁 Logique partagée POST : le thread de requête (virtuel) attend, l'évaluation tourne sur l'exécuteur borné
     private ResponseEntity<?> processExpression(String expression) {
-        logger.info("Expression reçue: {}", expression);
+        try {
+            return CompletableFuture.supplyAsync(() -> evaluateExpression(expression), evaluationExecutor).join();
+        } catch (RejectedExecutionException e) {
+            logger.warn("⏳ Évaluation refusée : file d'évaluation pleine");
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body("Serveur surchargé, réessayez plus tard.");
+        }
+    }
+
+    // Analyse et évaluation d'une expression, liées au CPU
+    private ResponseEntity<?> evaluateExpression(String expression) {
+        // Journalisation au niveau DEBUG : au niveau INFO, elle coûtait plus que l'évaluation elle-même
+        logger.debug("Expression reçue: {}", expression);
 
         try {
 
-            if (!expression.matches("[0-9+\\-*/().]+")) {
+            if (!EXPRESSION_VALIDE.matcher(expression).matches()) {
                 logger.error("❌ Expression invalide détectée: {}", expression);
                 return ResponseEntity.badRequest().body("Expression invalide.");
             }
            
             Expression parsedExpression = StringToExpression.parseStringTExpression(expression);
-            logger.info("Expression parsée avec succès: {}", parsedExpression);
+            logger.debug("Expression parsée avec succès: {}", parsedExpression);
 
             // Évaluer l'expression
             String result = calculator.eval(parsedExpression).toString();
-            logger.info("Résultat calculé: {}", result);
+            logger.debug("Résultat calculé: {}", result);
 
             return ResponseEntity.ok(result);
+        } catch (EvaluationException e) {
+            // Erreur d'évaluation attendue (ex. division par zéro) : pas de stack trace
+            logger.warn("Évaluation impossible ({}): {}", e.getKind(), e.getMessage());
+            return ResponseEntity.badRequest().body("Erreur d'évaluation : " + e.getMessage());
         } catch (Exception e) {
             logger.error("❌ Erreur lors de l'évaluation de l'expression: ", e);
             return ResponseEntity.status(500).body("Erreur interne : " + e.getMessage());
         }
     }
+
+    // 🔁 Évaluation d'un élément de lot : l'erreur reste attachée à l'élément, sans interrompre le lot
+    private BatchResultDTO evaluateItem(String expression) {
+        try {
+            if (!EXPRESSION_VALIDE.matcher(expression).matches()) {
+                return BatchResultDTO.error("Expression invalide.");
+            }
+            Expression parsedExpression = StringToExpression.parseStringTExpression(expression);
+            return BatchResultDTO.result(calculator.eval(parsedExpression).toString());
+        } catch (EvaluationException e) {
+            return BatchResultDTO.error("Erreur d'évaluation : " + e.getMessage());
+        } catch (Exception e) {
+            logger.error("❌ Erreur lors de l'évaluation de l'expression: {}", expression, e);
+            return BatchResultDTO.error("Erreur interne : " + e.getMessage());
+        }
+    }
 }
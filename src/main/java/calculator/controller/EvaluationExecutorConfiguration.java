@@ -0,0 +1,34 @@
+package calculator.controller;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Exécuteur des évaluations de l'API REST.
+ * <p>
+ * Les requêtes sont servies par des threads virtuels (spring.threads.virtual.enabled), qui
+ * attendent à peu de frais. L'analyse et l'évaluation, liées au CPU, passent par ce pool de
+ * threads plateforme, un par cœur : la charge CPU reste bornée quel que soit le nombre de
+ * connexions, et chaque thread réutilise son Evaluator confiné, qu'un thread virtuel par requête
+ * recréerait à chaque fois. La file est bornée : au-delà, les évaluations sont refusées plutôt
+ * que d'accumuler de la latence. Le pool est exposé sous forme d'EvaluationPool, et non d'Executor,
+ * pour laisser à Spring MVC l'exécuteur à threads virtuels de Spring Boot.
+ */
+@Configuration
+public class EvaluationExecutorConfiguration {
+
+    @Bean(destroyMethod = "shutdown")
+    public EvaluationPool evaluationPool(
+            @Value("${calculator.evaluation.queue-capacity:16384}") int queueCapacity) {
+        int cores = Runtime.getRuntime().availableProcessors();
+        return new EvaluationPool(new ThreadPoolExecutor(cores, cores, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                Thread.ofPlatform().name("evaluation-", 0).daemon(true).factory(),
+                new ThreadPoolExecutor.AbortPolicy()));
+    }
+}
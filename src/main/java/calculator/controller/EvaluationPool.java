@@ -0,0 +1,35 @@
+package calculator.controller;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * Pool des évaluations de l'API REST, voir EvaluationExecutorConfiguration.
+ * <p>
+ * Le pool est enveloppé plutôt qu'exposé comme bean Executor : un bean Executor ferait renoncer
+ * Spring Boot à son applicationTaskExecutor (threads virtuels), et le traitement asynchrone de
+ * Spring MVC, dont les réponses en flux de /evaluate/batch, retomberait sur un thread plateforme
+ * neuf par requête.
+ */
+public final class EvaluationPool {
+
+    private final ThreadPoolExecutor executor;
+
+    EvaluationPool(ThreadPoolExecutor executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * @return L'exécuteur des évaluations, qui refuse les tâches quand sa file est pleine
+     */
+    public Executor getExecutor() {
+        return executor;
+    }
+
+    /**
+     * Arrête le pool à la fermeture du contexte, après les évaluations en cours.
+     */
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,51 @@
+package calculator.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * Résultat d'un élément de /evaluate/batch : son rang dans le lot, puis son résultat ou son erreur.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BatchResultDTO {
+    private int index;
+    private String result;
+    private String error;
+
+    public BatchResultDTO() {} // Constructeur vide pour Jackson
+
+    public static BatchResultDTO result(String result) {
+        BatchResultDTO dto = new BatchResultDTO();
+        dto.result = result;
+        return dto;
+    }
+
+    public static BatchResultDTO error(String error) {
+        BatchResultDTO dto = new BatchResultDTO();
+        dto.error = error;
+        return dto;
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    public void setIndex(int index) {
+        this.index = index;
+    }
+
+    public String getResult() {
+        return result;
+    }
+
+    public void setResult(String result) {
+        this.result = result;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+}
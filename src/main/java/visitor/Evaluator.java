@@ -1,6 +1,6 @@
 package visitor;
 
-import calculator.Expression;
+import calculator.EvaluationException;
 import calculator.MyNumber;
 import calculator.MyComplexNumber;
 import calculator.MathConstant;
@@ -10,35 +10,97 @@ import calculator.Minus;
 import calculator.Times;
 import calculator.Divides;
 import calculator.Power;
-import calculator.Sin;
-import calculator.Cos;
-import calculator.Tan;
-import calculator.Ln;
-import calculator.Exp;
-import calculator.Sqrt;
+import calculator.Modulo;
 import calculator.UnaryOperation;
 
-import java.util.ArrayList;
+import java.util.Arrays;
 
 /** Evaluation is a concrete visitor that serves to
  * compute and evaluate the results of arithmetic expressions.
+ * Since operations hand the visitor to their arguments before visiting themselves,
+ * intermediate results are kept on an operand stack. Complex results are kept
+ * there as primitive (real, imaginary) pairs, and floating-point results as unboxed
+ * doubles, so that intermediate nodes do not allocate.
+ * An evaluator can be reset and reused: {@link #forCurrentThread()} hands out one
+ * instance per thread, whose operand stack keeps the size of the largest tree seen.
+ * An evaluator is not thread-safe and must not be used for two evaluations at once.
  */
 public class Evaluator extends Visitor {
 
+    private static EvaluationException zeroToNonPositivePower() {
+        return new EvaluationException(EvaluationException.Kind.DOMAIN_ERROR, "Cannot raise zero to a power with non-positive real part");
+    }
+
+    private static EvaluationException complexModulo() {
+        return new EvaluationException(EvaluationException.Kind.INVALID_OPERATION, "Modulo is not defined for complex numbers");
+    }
+
+    private static EvaluationException unsupportedComplexOperation() {
+        return new EvaluationException(EvaluationException.Kind.INVALID_OPERATION, "Operation doesn't support complex binary evaluation");
+    }
+
+    /** Evaluator reused by each thread, see {@link #forCurrentThread()} */
+    private static final ThreadLocal<Evaluator> CURRENT = ThreadLocal.withInitial(Evaluator::new);
+
+    /** Marker stored in the operand stack for a complex value whose parts only live in {@link #parts} */
+    private static final Object COMPLEX = new Object();
+
+    /** Marker stored in the operand stack for a real double whose value only lives in {@link #parts} */
+    private static final Object DOUBLE = new Object();
+
+    /** Operand stack: a Number or DOUBLE for real values, a MyComplexNumber or COMPLEX for complex values */
+    private Object[] values = new Object[16];
+
+    /** Real and imaginary parts of the values stored as markers, at index 2*i and 2*i+1 */
+    private double[] parts = new double[32];
+
+    /** Number of values currently on the operand stack */
+    private int top = 0;
+
+    /** Registers receiving the result of the primitive complex power */
+    private double resultReal;
+    private double resultImag;
+
     /**
      * Default constructor of the class. Does not initialise anything.
      */
     public Evaluator() {}
 
-    /** The result of the evaluation will be stored in this private variable */
-    private Object computedValue;
+    /**
+     * Get the evaluator confined to the calling thread, reset and ready for a new evaluation.
+     *
+     * @return The evaluator of the current thread
+     */
+    public static Evaluator forCurrentThread() {
+        Evaluator v = CURRENT.get();
+        v.reset();
+        return v;
+    }
+
+    /**
+     * Discard the state of a previous (possibly failed) evaluation, keeping the allocated operand stack.
+     */
+    public void reset() {
+        Arrays.fill(values, null);
+        top = 0;
+    }
 
     /** getter method to obtain the result of the evaluation
      *
      * @return an Object containing the result of the evaluation (could be Number or MyComplexNumber)
      */
     public Object getResult() { 
-        return computedValue; 
+        if (top == 0) {
+            return null;
+        }
+        int i = top - 1;
+        // Materialise the result only once, at the end of the evaluation
+        if (values[i] == COMPLEX) {
+            values[i] = new MyComplexNumber(parts[2 * i], parts[2 * i + 1]);
+        } else if (values[i] == DOUBLE) {
+            values[i] = parts[2 * i];
+        }
+        return values[i];
     }
 
     /** Use the visitor design pattern to visit a number.
@@ -46,7 +108,7 @@ public class Evaluator extends Visitor {
      * @param n The number being visited
      */
     public void visit(MyNumber n) {
-        computedValue = n.getValue();
+        pushReal(n.getValue());
     }
     
     /** Use the visitor design pattern to visit a complex number.
@@ -54,7 +116,7 @@ public class Evaluator extends Visitor {
      * @param n The complex number being visited
      */
     public void visit(MyComplexNumber n) {
-        computedValue = n;
+        pushComplex(n, n.getRealPart().doubleValue(), n.getImaginaryPart().doubleValue());
     }
     
     /** Use the visitor design pattern to visit a mathematical constant.
@@ -62,186 +124,226 @@ public class Evaluator extends Visitor {
      * @param m The mathematical constant being visited
      */
     public void visit(MathConstant m) {
-        computedValue = m.getValue();
+        pushReal(m.getValue());
     }
 
-    /** Use the visitor design pattern to visit an operation
+    /** Use the visitor design pattern to visit an operation.
+     * The arguments have already been visited, so their values are on top of the operand stack.
+     * The operator is selected by switching on its opcode.
      *
      * @param o The operation being visited
      */
     public void visit(Operation o) {
-        ArrayList<Object> evaluatedArgs = new ArrayList<>();
+        int opcode = o.getOpcode();
+        int arity = o.args.size();
+        int base = top - arity;
         boolean hasComplexOperand = false;
         
-        // First loop to recursively evaluate each subexpression
-        for (Expression a : o.args) {
-            a.accept(this);
-            evaluatedArgs.add(computedValue);
-            if (computedValue instanceof MyComplexNumber) {
+        for (int i = base; i < top; i++) {
+            if (isComplex(i)) {
                 hasComplexOperand = true;
+                break;
             }
         }
         
         // Handle unary operations separately
-        if (o instanceof UnaryOperation && evaluatedArgs.size() == 1) {
-            handleUnaryOperation(o, evaluatedArgs.get(0), hasComplexOperand);
+        if (opcode >= Operation.FIRST_UNARY_OPCODE && arity == 1) {
+            handleUnaryOperation(o, base, hasComplexOperand);
             return;
         }
         
-        // If any operand is complex, convert all operands to complex
         if (hasComplexOperand) {
-            // Convert any real numbers to complex numbers
-            for (int i = 0; i < evaluatedArgs.size(); i++) {
-                Object arg = evaluatedArgs.get(i);
-                if (arg instanceof Number) {
-                    evaluatedArgs.set(i, new MyComplexNumber((Number) arg, 0));
-                }
-            }
-            
-            // Compute with complex numbers
-            MyComplexNumber result = (MyComplexNumber) evaluatedArgs.get(0);
-            
-            for (int i = 1; i < evaluatedArgs.size(); i++) {
-                MyComplexNumber next = (MyComplexNumber) evaluatedArgs.get(i);
-                
-                if (o instanceof Plus) {
-                    result = complexAdd(result, next);
-                } else if (o instanceof Minus) {
-                    result = complexSubtract(result, next);
-                } else if (o instanceof Times) {
-                    result = complexMultiply(result, next);
-                } else if (o instanceof Divides) {
-                    result = complexDivide(result, next);
-                } else if (o instanceof Power) {
-                    result = complexPower(result, next);
-                }
-            }
-            
-            computedValue = result;
+            evaluateComplex(opcode, base);
         } else {
-            // All operands are real numbers, proceed with standard evaluation
-            Number temp = (Number) evaluatedArgs.get(0);
-            int max = evaluatedArgs.size();
-            
-            for (int counter = 1; counter < max; counter++) {
-                try {
-                    temp = o.op(temp, (Number) evaluatedArgs.get(counter));
-                } catch (Exception e) {
-                    e.printStackTrace();
-                }
-            }
-            
-            computedValue = temp;
+            evaluateReal(o, opcode, base);
         }
     }
     
     /**
-     * Handle unary operation evaluation (sin, cos, ln, exp)
-     * 
-     * @param o The operation (must implement UnaryOperation)
-     * @param arg The evaluated argument
-     * @param isComplex Whether the argument is a complex number
+     * Fold the real operands found from the given position of the operand stack.
+     * As soon as a double is involved the fold continues on an unboxed accumulator,
+     * with the same semantics as the op() methods give to Double operands.
+     * Otherwise each case casts to the final operation class, so that every call site stays monomorphic.
+     *
+     * @param o The operation being evaluated
+     * @param opcode The opcode of the operation
+     * @param base The position of the first operand on the operand stack
      */
-    private void handleUnaryOperation(Operation o, Object arg, boolean isComplex) {
-        UnaryOperation unaryOp = (UnaryOperation) o;
+    private void evaluateReal(Operation o, int opcode, int base) {
+        boolean knownOpcode = opcode >= Operation.OP_PLUS && opcode <= Operation.OP_MODULO;
+        boolean unboxed = knownOpcode && isDouble(base);
+        double acc = unboxed ? realPart(base) : 0;
+        Number temp = unboxed ? null : boxedReal(base);
         
-        if (isComplex) {
-            // Handle complex number
-            MyComplexNumber z = (MyComplexNumber) arg;
-            computedValue = unaryOp.opUnaryComplex(z);
+        for (int counter = base + 1; counter < top; counter++) {
+            if (!unboxed && knownOpcode && isDouble(counter)) {
+                acc = temp.doubleValue();
+                unboxed = true;
+            }
+            if (unboxed) {
+                acc = applyDouble(opcode, acc, realPart(counter));
+                continue;
+            }
+            Number next = boxedReal(counter);
+            try {
+                temp = switch (opcode) {
+                    case Operation.OP_PLUS -> ((Plus) o).op(temp, next);
+                    case Operation.OP_MINUS -> ((Minus) o).op(temp, next);
+                    case Operation.OP_TIMES -> ((Times) o).op(temp, next);
+                    case Operation.OP_DIVIDES -> ((Divides) o).op(temp, next);
+                    case Operation.OP_POWER -> ((Power) o).op(temp, next);
+                    case Operation.OP_MODULO -> ((Modulo) o).op(temp, next);
+                    default -> o.op(temp, next);
+                };
+            } catch (RuntimeException e) {
+                // Evaluation errors propagate to the caller instead of leaving a stale result behind
+                throw e;
+            } catch (Exception e) {
+                throw new EvaluationException(EvaluationException.Kind.INVALID_OPERATION, e.getMessage());
+            }
+            if (knownOpcode && temp instanceof Double) {
+                acc = temp.doubleValue();
+                unboxed = true;
+            }
+        }
+        
+        top = base;
+        if (unboxed) {
+            pushDouble(acc);
         } else {
-            // Handle real number
-            Number n = (Number) arg;
-            computedValue = unaryOp.opUnary(n);
+            pushReal(temp);
         }
     }
     
     /**
-     * Add two complex numbers.
-     * (a+bi) + (c+di) = (a+c) + (b+d)i
+     * Apply a binary operation to two doubles, as the op() methods do when an operand is a Double.
      */
-    private MyComplexNumber complexAdd(MyComplexNumber z1, MyComplexNumber z2) {
-        double a = z1.getRealPart().doubleValue();
-        double b = z1.getImaginaryPart().doubleValue();
-        double c = z2.getRealPart().doubleValue();
-        double d = z2.getImaginaryPart().doubleValue();
-        
-        return new MyComplexNumber(a + c, b + d);
+    private static double applyDouble(int opcode, double l, double r) {
+        switch (opcode) {
+            case Operation.OP_PLUS:
+                return l + r;
+            case Operation.OP_MINUS:
+                return l - r;
+            case Operation.OP_TIMES:
+                return l * r;
+            case Operation.OP_DIVIDES:
+                if (r == 0) {
+                    throw EvaluationException.divisionByZero();
+                }
+                return l / r;
+            case Operation.OP_POWER:
+                return Math.pow(l, r);
+            default:
+                if (r == 0) {
+                    throw EvaluationException.moduloByZero();
+                }
+                return l % r;
+        }
     }
     
     /**
-     * Subtract two complex numbers.
-     * (a+bi) - (c+di) = (a-c) + (b-d)i
+     * Fold the operands found from the given position of the operand stack as complex numbers,
+     * real operands having a zero imaginary part.
+     *
+     * @param opcode The opcode of the operation
+     * @param base The position of the first operand on the operand stack
      */
-    private MyComplexNumber complexSubtract(MyComplexNumber z1, MyComplexNumber z2) {
-        double a = z1.getRealPart().doubleValue();
-        double b = z1.getImaginaryPart().doubleValue();
-        double c = z2.getRealPart().doubleValue();
-        double d = z2.getImaginaryPart().doubleValue();
+    private void evaluateComplex(int opcode, int base) {
+        double real = realPart(base);
+        double imag = imaginaryPart(base);
         
-        return new MyComplexNumber(a - c, b - d);
-    }
-    
-    /**
-     * Multiply two complex numbers.
-     * (a+bi) * (c+di) = (ac-bd) + (bc+ad)i
-     */
-    private MyComplexNumber complexMultiply(MyComplexNumber z1, MyComplexNumber z2) {
-        double a = z1.getRealPart().doubleValue();
-        double b = z1.getImaginaryPart().doubleValue();
-        double c = z2.getRealPart().doubleValue();
-        double d = z2.getImaginaryPart().doubleValue();
+        for (int i = base + 1; i < top; i++) {
+            double c = realPart(i);
+            double d = imaginaryPart(i);
+            
+            switch (opcode) {
+                case Operation.OP_PLUS -> {
+                    // (a+bi) + (c+di) = (a+c) + (b+d)i
+                    real += c;
+                    imag += d;
+                }
+                case Operation.OP_MINUS -> {
+                    // (a+bi) - (c+di) = (a-c) + (b-d)i
+                    real -= c;
+                    imag -= d;
+                }
+                case Operation.OP_TIMES -> {
+                    // (a+bi) * (c+di) = (ac-bd) + (bc+ad)i
+                    double r = real * c - imag * d;
+                    imag = imag * c + real * d;
+                    real = r;
+                }
+                case Operation.OP_DIVIDES -> {
+                    // (a+bi) / (c+di) = ((ac+bd)/(c²+d²)) + ((bc-ad)/(c²+d²))i
+                    double denominator = c * c + d * d;
+                    if (denominator == 0) {
+                        throw EvaluationException.divisionByZero();
+                    }
+                    double r = (real * c + imag * d) / denominator;
+                    imag = (imag * c - real * d) / denominator;
+                    real = r;
+                }
+                case Operation.OP_POWER -> {
+                    complexPower(real, imag, c, d);
+                    real = resultReal;
+                    imag = resultImag;
+                }
+                case Operation.OP_MODULO -> throw complexModulo();
+                default -> throw unsupportedComplexOperation();
+            }
+        }
         
-        return new MyComplexNumber(a * c - b * d, b * c + a * d);
+        top = base;
+        pushComplex(COMPLEX, real, imag);
     }
     
     /**
-     * Divide two complex numbers.
-     * (a+bi) / (c+di) = ((ac+bd)/(c²+d²)) + ((bc-ad)/(c²+d²))i
+     * Handle unary operation evaluation (sin, cos, ln, exp)
+     * 
+     * @param o The operation (must implement UnaryOperation)
+     * @param slot The position of the evaluated argument on the operand stack
+     * @param isComplex Whether the argument is a complex number
      */
-    private MyComplexNumber complexDivide(MyComplexNumber z1, MyComplexNumber z2) {
-        double a = z1.getRealPart().doubleValue();
-        double b = z1.getImaginaryPart().doubleValue();
-        double c = z2.getRealPart().doubleValue();
-        double d = z2.getImaginaryPart().doubleValue();
-        
-        double denominator = c * c + d * d;
+    private void handleUnaryOperation(Operation o, int slot, boolean isComplex) {
+        UnaryOperation unaryOp = (UnaryOperation) o;
+        Object arg = values[slot];
+        top = slot;
         
-        if (denominator == 0) {
-            throw new ArithmeticException("Division by zero is not allowed.");
+        if (isComplex) {
+            // Handle complex number
+            MyComplexNumber z = (arg == COMPLEX)
+                    ? new MyComplexNumber(parts[2 * slot], parts[2 * slot + 1])
+                    : (MyComplexNumber) arg;
+            MyComplexNumber result = unaryOp.opUnaryComplex(z);
+            pushComplex(result, result.getRealPart().doubleValue(), result.getImaginaryPart().doubleValue());
+        } else {
+            // Handle real number
+            Number n = (arg == DOUBLE) ? (Number) parts[2 * slot] : (Number) arg;
+            pushReal(unaryOp.opUnary(n));
         }
-        
-        double realPart = (a * c + b * d) / denominator;
-        double imagPart = (b * c - a * d) / denominator;
-        
-        return new MyComplexNumber(realPart, imagPart);
     }
     
     /**
-     * Raise a complex number to a complex power.
+     * Raise a complex number to a complex power, leaving the result in the result registers.
      * For z1^z2, we use: z1^z2 = exp(z2 * ln(z1))
      */
-    private MyComplexNumber complexPower(MyComplexNumber z1, MyComplexNumber z2) {
-        // Special case: If base is 0 and exponent has positive real part
-        double baseReal = z1.getRealPart().doubleValue();
-        double baseImag = z1.getImaginaryPart().doubleValue();
-        double expReal = z2.getRealPart().doubleValue();
-        double expImag = z2.getImaginaryPart().doubleValue();
-        
+    private void complexPower(double baseReal, double baseImag, double expReal, double expImag) {
         // Check if base is zero
         if (baseReal == 0 && baseImag == 0) {
             if (expReal > 0) {
                 // 0^z = 0 for Re(z) > 0
-                return new MyComplexNumber(0, 0);
+                resultReal = 0;
+                resultImag = 0;
+                return;
             } else {
-                throw new ArithmeticException("Cannot raise zero to a power with non-positive real part");
+                throw zeroToNonPositivePower();
             }
         }
         
         // For real exponents with integer values, we can use direct computation
-        if (expImag == 0 && expReal == Math.floor(expReal) && expReal >= 0 && expReal <= 100) {
-            // Integer power calculation (more efficient for small integer powers)
-            return integerComplexPower(z1, (int)expReal);
+        if (expImag == 0 && expReal == Math.rint(expReal) && Math.abs(expReal) <= Integer.MAX_VALUE) {
+            integerComplexPower(baseReal, baseImag, (long) expReal);
+            return;
         }
         
         // General case: z1^z2 = exp(z2 * ln(z1))
@@ -258,30 +360,100 @@ public class Evaluator extends Visitor {
         double productImag = expReal * lnImag + expImag * lnReal;
         
         // exp(z2 * ln(z1))
-        double resultReal = Math.exp(productReal) * Math.cos(productImag);
-        double resultImag = Math.exp(productReal) * Math.sin(productImag);
-        
-        return new MyComplexNumber(resultReal, resultImag);
+        double modulus = Math.exp(productReal);
+        resultReal = modulus * Math.cos(productImag);
+        resultImag = modulus * Math.sin(productImag);
     }
     
     /**
-     * Compute integer powers of complex numbers more efficiently
+     * Compute integer powers of complex numbers by binary exponentiation,
+     * leaving the result in the result registers.
+     * Negative exponents are computed as the reciprocal of the positive power.
      */
-    private MyComplexNumber integerComplexPower(MyComplexNumber base, int exponent) {
-        if (exponent == 0) {
-            return new MyComplexNumber(1, 0);
-        }
+    private void integerComplexPower(double baseReal, double baseImag, long exponent) {
+        long e = Math.abs(exponent);
+        double real = 1;
+        double imag = 0;
+        double squareReal = baseReal;
+        double squareImag = baseImag;
         
-        if (exponent == 1) {
-            return base;
+        while (e != 0) {
+            if ((e & 1) != 0) {
+                double r = real * squareReal - imag * squareImag;
+                imag = imag * squareReal + real * squareImag;
+                real = r;
+            }
+            e >>>= 1;
+            if (e != 0) {
+                double r = squareReal * squareReal - squareImag * squareImag;
+                squareImag = 2 * squareReal * squareImag;
+                squareReal = r;
+            }
         }
         
-        // For small positive integer exponents, use repeated multiplication
-        MyComplexNumber result = new MyComplexNumber(1, 0);
-        for (int i = 0; i < exponent; i++) {
-            result = complexMultiply(result, base);
+        if (exponent < 0) {
+            // 1 / (a+bi) = (a-bi) / (a²+b²)
+            double denominator = real * real + imag * imag;
+            real = real / denominator;
+            imag = -imag / denominator;
         }
         
-        return result;
+        resultReal = real;
+        resultImag = imag;
+    }
+    
+    /** Whether the value at the given position of the operand stack is complex */
+    private boolean isComplex(int i) {
+        Object v = values[i];
+        return v == COMPLEX || v instanceof MyComplexNumber;
+    }
+    
+    /** Whether the value at the given position of the operand stack is a real double */
+    private boolean isDouble(int i) {
+        Object v = values[i];
+        return v == DOUBLE || v instanceof Double;
+    }
+    
+    /** The real value at the given position of the operand stack, as a Number */
+    private Number boxedReal(int i) {
+        Object v = values[i];
+        return (v == DOUBLE) ? (Number) parts[2 * i] : (Number) v;
+    }
+    
+    /** Real part of the value at the given position of the operand stack */
+    private double realPart(int i) {
+        Object v = values[i];
+        return (v instanceof Number) ? ((Number) v).doubleValue() : parts[2 * i];
+    }
+    
+    /** Imaginary part of the value at the given position of the operand stack */
+    private double imaginaryPart(int i) {
+        return (values[i] instanceof Number) ? 0 : parts[2 * i + 1];
+    }
+    
+    private void pushReal(Number n) {
+        ensureCapacity();
+        values[top++] = n;
+    }
+    
+    private void pushDouble(double value) {
+        ensureCapacity();
+        parts[2 * top] = value;
+        parts[2 * top + 1] = 0;
+        values[top++] = DOUBLE;
+    }
+    
+    private void pushComplex(Object complex, double real, double imag) {
+        ensureCapacity();
+        parts[2 * top] = real;
+        parts[2 * top + 1] = imag;
+        values[top++] = complex;
+    }
+    
+    private void ensureCapacity() {
+        if (top == values.length) {
+            values = Arrays.copyOf(values, 2 * values.length);
+            parts = Arrays.copyOf(parts, 2 * parts.length);
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,67 @@
+package calculator;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmark measuring the evaluator's operator dispatch cost
+ * on randomly generated trees mixing every binary and unary operation.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class BenchmarkEvaluatorDispatch {
+
+    @Param({"6", "10"})
+    public int depth;
+
+    private Calculator calc;
+    private Expression realTree;
+    private Expression complexTree;
+
+    @Setup
+    public void setUp() throws IllegalConstruction {
+        calc = new Calculator();
+        realTree = mixedTree(new Random(42), depth, false);
+        complexTree = mixedTree(new Random(42), depth, true);
+    }
+
+    @Benchmark
+    public Object evaluateMixedRealTree() {
+        return calc.eval(realTree);
+    }
+
+    @Benchmark
+    public Object evaluateMixedComplexTree() {
+        return calc.eval(complexTree);
+    }
+
+    /**
+     * Builds a tree of the given depth cycling through +, -, *, / and ^ with occasional unary nodes.
+     * Divisors and exponents are kept away from zero and overflow so that evaluation never fails.
+     */
+    private static Expression mixedTree(Random random, int depth, boolean complex) throws IllegalConstruction {
+        if (depth == 0) {
+            if (complex && random.nextBoolean()) {
+                return new MyComplexNumber(1 + random.nextInt(9), 1 + random.nextInt(9));
+            }
+            return new MyNumber(1.0 + random.nextInt(9));
+        }
+        Expression l = mixedTree(random, depth - 1, complex);
+        Expression r = mixedTree(random, depth - 1, complex);
+        return switch (random.nextInt(7)) {
+            case 0 -> new Plus(null, l, r);
+            case 1 -> new Minus(null, l, r);
+            case 2 -> new Times(null, l, r);
+            case 3 -> new Divides(null, l, new Plus(null, r, new MyNumber(100.0)));
+            case 4 -> new Power(null, new Sqrt(null, new Plus(null, new Times(null, l, l), new MyNumber(1.0))), new MyNumber(1.0 + random.nextInt(2)));
+            case 5 -> new Plus(null, new Sin(null, l), r);
+            default -> new Plus(null, new Exp(null, new Divides(null, l, new MyNumber(1000.0))), r);
+        };
+    }
+}
@@ -0,0 +1,66 @@
+package calculator;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmark comparing the overflow-checked integer operations
+ * with the unchecked int arithmetic they replaced.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class BenchmarkIntegerArithmetic {
+
+    private Plus plus;
+    private Times times;
+    private Power power;
+    private Number l;
+    private Number r;
+    private Number exponent;
+
+    @Setup
+    public void setUp() throws IllegalConstruction {
+        plus = new Plus(Collections.emptyList());
+        times = new Times(Collections.emptyList());
+        power = new Power(Collections.emptyList());
+        l = 12345;
+        r = 678;
+        exponent = 5;
+    }
+
+    @Benchmark
+    public Number uncheckedPlus() {
+        return l.intValue() + r.intValue();
+    }
+
+    @Benchmark
+    public Number checkedPlus() {
+        return plus.op(l, r);
+    }
+
+    @Benchmark
+    public Number uncheckedTimes() {
+        return l.intValue() * r.intValue();
+    }
+
+    @Benchmark
+    public Number checkedTimes() {
+        return times.op(l, r);
+    }
+
+    @Benchmark
+    public Number uncheckedPower() {
+        return (int) Math.pow(r.intValue(), exponent.intValue());
+    }
+
+    @Benchmark
+    public Number checkedPower() {
+        return power.op(r, exponent);
+    }
+}
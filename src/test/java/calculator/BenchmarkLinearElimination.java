@@ -0,0 +1,64 @@
+package calculator;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmark of the elimination of large dense systems: the row-by-row Gauss-Jordan loop
+ * versus the blocked LU factorization, on one thread and on all cores.
+ * Each operation solves one system, so the timings include a single substitution.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 1)
+@Measurement(iterations = 3, time = 1)
+@Fork(value = 1, jvmArgsAppend = "--add-modules=jdk.incubator.vector")
+@State(Scope.Benchmark)
+public class BenchmarkLinearElimination {
+
+    @Param({"500", "2000", "5000"})
+    public int n;
+
+    private Matrix a;
+    private double[] b;
+    private ForkJoinPool singleThread;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        a = TestMatrixMultiplier.randomMatrix(random, n, n);
+        b = TestMatrixMultiplier.randomMatrix(random, n, 1).toRowMajorArray();
+        singleThread = new ForkJoinPool(1);
+    }
+
+    @TearDown
+    public void tearDown() {
+        singleThread.shutdown();
+    }
+
+    @Benchmark
+    public double[][] gaussJordan() {
+        double[][] augmented = new double[n][n + 1];
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                augmented[i][j] = a.get(i, j);
+            }
+            augmented[i][n] = b[i];
+        }
+        LinearEquationSolver.reducedRowEchelonForm(augmented);
+        return augmented;
+    }
+
+    @Benchmark
+    public double[] blockedLU() {
+        return new LUDecomposition(a).solve(b);
+    }
+
+    @Benchmark
+    public double[] blockedLUSingleThread() {
+        return new LUDecomposition(a, singleThread).solve(b);
+    }
+}
@@ -0,0 +1,57 @@
+package calculator;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmark of a factored system against many right-hand sides:
+ * one substitution per right-hand side versus blocked batch substitutions.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "--add-modules=jdk.incubator.vector")
+@State(Scope.Benchmark)
+public class BenchmarkLinearSystem {
+
+    @Param({"200", "1000"})
+    public int n;
+
+    @Param({"1000"})
+    public int rightHandSides;
+
+    private LinearSystem system;
+    private double[][] rhs;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        Matrix a = TestMatrixMultiplier.randomMatrix(random, n, n);
+        String[] names = new String[n];
+        for (int j = 0; j < n; j++) {
+            names[j] = "x" + j;
+        }
+        system = new LinearSystem(names, a, new double[n]);
+        rhs = new double[rightHandSides][];
+        for (int k = 0; k < rightHandSides; k++) {
+            rhs[k] = TestMatrixMultiplier.randomMatrix(random, n, 1).toRowMajorArray();
+        }
+    }
+
+    @Benchmark
+    public double[][] oneByOne() {
+        double[][] solutions = new double[rhs.length][];
+        for (int k = 0; k < rhs.length; k++) {
+            solutions[k] = system.solve(rhs[k]);
+        }
+        return solutions;
+    }
+
+    @Benchmark
+    public double[][] batch() {
+        return system.solveBatch(rhs);
+    }
+}
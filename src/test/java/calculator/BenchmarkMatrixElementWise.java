@@ -0,0 +1,50 @@
+package calculator;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmark comparing the SIMD and scalar element-wise matrix operations.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "--add-modules=jdk.incubator.vector")
+@State(Scope.Thread)
+public class BenchmarkMatrixElementWise {
+
+    @Param({"64", "512"})
+    public int n;
+
+    @Param({"true", "false"})
+    public boolean vectorized;
+
+    private Matrix a;
+    private Matrix b;
+
+    @Setup
+    public void setUp() {
+        Vectorization.setEnabled(vectorized);
+        Random random = new Random(42);
+        a = TestMatrixMultiplier.randomMatrix(random, n, n);
+        b = TestMatrixMultiplier.randomMatrix(random, n, n);
+    }
+
+    @Benchmark
+    public Matrix add() {
+        return a.add(b);
+    }
+
+    @Benchmark
+    public Matrix scale() {
+        return a.multiply(2.5);
+    }
+
+    @Benchmark
+    public Matrix multiplyElementWise() {
+        return a.multiplyElementWise(b);
+    }
+}
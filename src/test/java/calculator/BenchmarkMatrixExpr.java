@@ -0,0 +1,46 @@
+package calculator;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmark comparing a chain of eager Matrix operations with the same chain
+ * evaluated as a fused lazy expression. Run with -prof gc to compare allocation rates.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "--add-modules=jdk.incubator.vector")
+@State(Scope.Thread)
+public class BenchmarkMatrixExpr {
+
+    @Param({"256", "2048"})
+    public int n;
+
+    private Matrix a;
+    private Matrix b;
+    private Matrix c;
+    private Matrix dest;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        a = TestMatrixMultiplier.randomMatrix(random, n, n);
+        b = TestMatrixMultiplier.randomMatrix(random, n, n);
+        c = TestMatrixMultiplier.randomMatrix(random, n, n);
+        dest = Matrix.zeros(n, n);
+    }
+
+    @Benchmark
+    public Matrix eager() {
+        return a.add(b).subtract(c).multiplyElementWise(a).multiply(2.0);
+    }
+
+    @Benchmark
+    public Matrix fused() {
+        return a.lazy().add(b).subtract(c).multiplyElementWise(a).multiply(2.0).evaluateInto(dest);
+    }
+}
@@ -0,0 +1,52 @@
+package calculator;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmark comparing the matrix multiplication strategies on square matrices.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(value = 1, jvmArgsAppend = "--add-modules=jdk.incubator.vector")
+@State(Scope.Benchmark)
+public class BenchmarkMatrixMultiply {
+
+    @Param({"256", "1024", "2048"})
+    public int n;
+
+    private Matrix a;
+    private Matrix b;
+    private MatrixMultiplier naive;
+    private MatrixMultiplier blocked;
+    private MatrixMultiplier parallel;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        a = TestMatrixMultiplier.randomMatrix(random, n, n);
+        b = TestMatrixMultiplier.randomMatrix(random, n, n);
+        naive = new NaiveMatrixMultiplier();
+        blocked = new BlockedMatrixMultiplier();
+        parallel = new ParallelMatrixMultiplier();
+    }
+
+    @Benchmark
+    public Matrix naive() {
+        return naive.multiply(a, b);
+    }
+
+    @Benchmark
+    public Matrix blocked() {
+        return blocked.multiply(a, b);
+    }
+
+    @Benchmark
+    public Matrix parallel() {
+        return parallel.multiply(a, b);
+    }
+}
@@ -0,0 +1,60 @@
+package calculator;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmark locating the size from which Strassen-Winograd beats the classical blocked kernel.
+ * Both run sequentially and in parallel on the common pool.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = {"--add-modules=jdk.incubator.vector", "-Xmx6g"})
+@State(Scope.Benchmark)
+public class BenchmarkStrassen {
+
+    @Param({"1024", "2048", "4096"})
+    public int n;
+
+    private Matrix a;
+    private Matrix b;
+    private MatrixMultiplier blocked;
+    private MatrixMultiplier parallel;
+    private MatrixMultiplier strassen;
+    private MatrixMultiplier parallelStrassen;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        a = TestMatrixMultiplier.randomMatrix(random, n, n);
+        b = TestMatrixMultiplier.randomMatrix(random, n, n);
+        blocked = new BlockedMatrixMultiplier();
+        parallel = new ParallelMatrixMultiplier();
+        strassen = new StrassenMatrixMultiplier(StrassenMatrixMultiplier.DEFAULT_CUTOFF, null);
+        parallelStrassen = new StrassenMatrixMultiplier();
+    }
+
+    @Benchmark
+    public Matrix blocked() {
+        return blocked.multiply(a, b);
+    }
+
+    @Benchmark
+    public Matrix strassen() {
+        return strassen.multiply(a, b);
+    }
+
+    @Benchmark
+    public Matrix parallel() {
+        return parallel.multiply(a, b);
+    }
+
+    @Benchmark
+    public Matrix parallelStrassen() {
+        return parallelStrassen.multiply(a, b);
+    }
+}
@@ -0,0 +1,129 @@
+package calculator;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Closed-loop load test of POST /api/calculator/evaluate against a running server.
+ * Each of the {@code connections} clients runs on its own virtual thread and sends its next
+ * request as soon as the previous answer arrives; the run reports the throughput and the p50/p99
+ * latencies of the measured period, and the number of 503 answers of the saturated server.
+ * <p>
+ * Compare a server started with {@code spring.threads.virtual.enabled=false} to one started with
+ * {@code true}: with platform threads, connections beyond the Tomcat pool (200 threads) queue up.
+ * <p>
+ * Usage: {@code LoadTestCalculatorApi [url] [connections] [seconds] [warmupSeconds]}
+ */
+public class LoadTestCalculatorApi {
+
+    private static final String[] EXPRESSIONS = {
+            "3+5*2", "(1+2)*(3+4)/7", "2*(3+4)-5/5", "((8-3)*(2+6))/4", "1.5*4+2.25"
+    };
+
+    /** Latency buckets of 2^(1/4) microseconds, up to about 70 seconds */
+    private static final int BUCKETS = 105;
+
+    private final AtomicLongArray histogram = new AtomicLongArray(BUCKETS);
+    private final AtomicLong overloaded = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+    private volatile boolean measuring;
+    private volatile boolean running = true;
+
+    public static void main(String[] args) throws InterruptedException {
+        String url = args.length > 0 ? args[0] : "http://localhost:8081/api/calculator/evaluate";
+        int connections = args.length > 1 ? Integer.parseInt(args[1]) : 10_000;
+        int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 30;
+        int warmup = args.length > 3 ? Integer.parseInt(args[3]) : 10;
+        new LoadTestCalculatorApi().run(URI.create(url), connections, seconds, warmup);
+    }
+
+    private void run(URI uri, int connections, int seconds, int warmup) throws InterruptedException {
+        HttpClient client = HttpClient.newBuilder()
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .connectTimeout(Duration.ofSeconds(30))
+                .build();
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int c = 0; c < connections; c++) {
+                int first = c;
+                clients.submit(() -> loop(client, uri, first));
+            }
+            Thread.sleep(warmup * 1000L);
+            measuring = true;
+            long start = System.nanoTime();
+            Thread.sleep(seconds * 1000L);
+            measuring = false;
+            double elapsed = (System.nanoTime() - start) / 1e9;
+            running = false;
+            report(connections, elapsed);
+            clients.shutdownNow();
+        }
+    }
+
+    private void loop(HttpClient client, URI uri, int first) {
+        for (int i = first; running; i++) {
+            String body = "{\"expression\": \"" + EXPRESSIONS[i % EXPRESSIONS.length] + "\"}";
+            HttpRequest request = HttpRequest.newBuilder(uri)
+                    .header("Content-Type", "application/json")
+                    .timeout(Duration.ofSeconds(60))
+                    .POST(HttpRequest.BodyPublishers.ofString(body))
+                    .build();
+            long start = System.nanoTime();
+            int status;
+            try {
+                status = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+            } catch (InterruptedException e) {
+                return;
+            } catch (Exception e) {
+                status = -1;
+            }
+            if (measuring) {
+                record(status, System.nanoTime() - start);
+            }
+        }
+    }
+
+    private void record(int status, long nanos) {
+        if (status == 200) {
+            double micros = Math.max(1.0, nanos / 1e3);
+            int bucket = (int) Math.min(BUCKETS - 1, 4 * Math.log(micros) / Math.log(2));
+            histogram.incrementAndGet(bucket);
+        } else if (status == 503) {
+            overloaded.incrementAndGet();
+        } else {
+            failures.incrementAndGet();
+        }
+    }
+
+    private void report(int connections, double elapsed) {
+        long total = 0;
+        for (int b = 0; b < BUCKETS; b++) {
+            total += histogram.get(b);
+        }
+        System.out.printf("connections=%d  ok=%d  503=%d  failures=%d%n",
+                connections, total, overloaded.get(), failures.get());
+        System.out.printf("throughput=%.0f req/s  p50=%.2f ms  p99=%.2f ms%n",
+                total / elapsed, percentile(total, 0.50), percentile(total, 0.99));
+    }
+
+    /**
+     * Upper bound of the bucket holding the given quantile, in milliseconds.
+     */
+    private double percentile(long total, double quantile) {
+        long rank = (long) Math.ceil(quantile * total);
+        long seen = 0;
+        for (int b = 0; b < BUCKETS; b++) {
+            seen += histogram.get(b);
+            if (seen >= rank && seen > 0) {
+                return Math.pow(2, (b + 1) / 4.0) / 1e3;
+            }
+        }
+        return Double.NaN;
+    }
+}
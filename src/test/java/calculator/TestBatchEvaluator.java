@@ -0,0 +1,201 @@
+package calculator;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.*;
+
+import calculator.controller.BatchEvaluator;
+import calculator.dto.BatchResultDTO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Test class for the streamed evaluation of expression batches.
+ */
+class TestBatchEvaluator {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private ForkJoinPool pool;
+    private BatchEvaluator evaluator;
+
+    @BeforeEach
+    void setUp() {
+        pool = new ForkJoinPool(4);
+        // Evaluates an expression to its length, and fails on "boom"
+        evaluator = new BatchEvaluator(expression -> expression.equals("boom")
+                ? BatchResultDTO.error("Erreur d'évaluation : boom")
+                : BatchResultDTO.result(Integer.toString(expression.length())), pool, 2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        pool.shutdown();
+    }
+
+    private List<BatchResultDTO> evaluate(String body) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        evaluator.evaluate(new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)), out);
+        List<BatchResultDTO> results = new ArrayList<>();
+        for (String line : out.toString(StandardCharsets.UTF_8).split("\n")) {
+            if (!line.isEmpty()) {
+                results.add(MAPPER.readValue(line, BatchResultDTO.class));
+            }
+        }
+        return results;
+    }
+
+    @Test
+    void testJsonArray() throws IOException {
+        List<BatchResultDTO> results = evaluate("[\"1+2\", {\"expression\": \"10*3\", \"id\": [1]}, \"boom\", 42, {}]");
+        assertEquals(5, results.size());
+        assertEquals("3", results.get(0).getResult());
+        assertEquals("4", results.get(1).getResult());
+        assertEquals("Erreur d'évaluation : boom", results.get(2).getError());
+        assertNull(results.get(2).getResult());
+        assertNotNull(results.get(3).getError());
+        assertNotNull(results.get(4).getError());
+        for (int i = 0; i < results.size(); i++) {
+            assertEquals(i, results.get(i).getIndex());
+        }
+    }
+
+    @Test
+    void testNdjsonKeepsOrderAcrossChunks() throws IOException {
+        // Several chunks of 256 items, the last one partial
+        int count = 5 * 256 + 17;
+        StringBuilder body = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            body.append(i % 100 == 0 ? "\"boom\"" : "{\"expression\": \"" + "1".repeat(i % 7 + 1) + "\"}").append('\n');
+        }
+        List<BatchResultDTO> results = evaluate(body.toString());
+        assertEquals(count, results.size());
+        for (int i = 0; i < count; i++) {
+            assertEquals(i, results.get(i).getIndex());
+            if (i % 100 == 0) {
+                assertNotNull(results.get(i).getError());
+            } else {
+                assertEquals(Integer.toString(i % 7 + 1), results.get(i).getResult());
+            }
+        }
+    }
+
+    @Test
+    void testMalformedJsonEndsBatchWithError() throws IOException {
+        List<BatchResultDTO> results = evaluate("\"1+1\"\n\"2\"\n{\"expression\": ");
+        assertEquals(3, results.size());
+        assertEquals("3", results.get(0).getResult());
+        assertEquals("1", results.get(1).getResult());
+        assertEquals(2, results.get(2).getIndex());
+        assertTrue(results.get(2).getError().startsWith("JSON invalide"));
+
+        assertTrue(evaluate("").isEmpty());
+        assertTrue(evaluate("[]").isEmpty());
+    }
+
+    @Test
+    void testResultsAreStreamedBeforeInputEnds() throws Exception {
+        PipedOutputStream client = new PipedOutputStream();
+        PipedInputStream requestBody = new PipedInputStream(client);
+        PipedInputStream responseBody = new PipedInputStream(1 << 16);
+        PipedOutputStream server = new PipedOutputStream(responseBody);
+        CompletableFuture<Integer> batch = CompletableFuture.supplyAsync(() -> {
+            try (server) {
+                return evaluator.evaluate(requestBody, server);
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        });
+
+        BufferedReader responses = new BufferedReader(new InputStreamReader(responseBody, StandardCharsets.UTF_8));
+        client.write("\"12\"\n\"boom\"\n".getBytes(StandardCharsets.UTF_8));
+        client.flush();
+        // Both answers arrive while the request is still open
+        assertEquals("2", MAPPER.readValue(responses.readLine(), BatchResultDTO.class).getResult());
+        assertNotNull(MAPPER.readValue(responses.readLine(), BatchResultDTO.class).getError());
+
+        client.write("\"123\"\n".getBytes(StandardCharsets.UTF_8));
+        client.close();
+        assertEquals("3", MAPPER.readValue(responses.readLine(), BatchResultDTO.class).getResult());
+        assertEquals(3, batch.get(10, TimeUnit.SECONDS).intValue());
+        assertNull(responses.readLine());
+    }
+
+    @Test
+    void testStarvedInputDoesNotWaitForChunksInFlight() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch laterChunkEvaluated = new CountDownLatch(1);
+        BatchEvaluator blocking = new BatchEvaluator(expression -> {
+            if (expression.equals("wait")) {
+                try {
+                    release.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            } else {
+                laterChunkEvaluated.countDown();
+            }
+            return BatchResultDTO.result(expression);
+        }, pool, 2);
+
+        PipedOutputStream client = new PipedOutputStream();
+        PipedInputStream requestBody = new PipedInputStream(client);
+        ByteArrayOutputStream response = new ByteArrayOutputStream();
+        CompletableFuture<Integer> batch = CompletableFuture.supplyAsync(() -> {
+            try {
+                return blocking.evaluate(requestBody, response);
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        });
+
+        client.write("\"wait\"\n".getBytes(StandardCharsets.UTF_8));
+        client.flush();
+        Thread.sleep(100);
+        // The reader starved on the first chunk, and still reads and submits the next one while it runs
+        client.write("\"next\"\n".getBytes(StandardCharsets.UTF_8));
+        client.close();
+        assertTrue(laterChunkEvaluated.await(5, TimeUnit.SECONDS));
+        release.countDown();
+
+        assertEquals(2, batch.get(10, TimeUnit.SECONDS).intValue());
+        assertEquals("{\"index\":0,\"result\":\"wait\"}\n{\"index\":1,\"result\":\"next\"}\n",
+                     response.toString(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Recursive descent over nested parentheses, one stack frame per level.
+     */
+    private static int depth(String expression, int position) {
+        return expression.charAt(position) == '(' ? 1 + depth(expression, position + 1) : 0;
+    }
+
+    @Test
+    void testDeeplyNestedItemFailsAlone() throws IOException {
+        BatchEvaluator recursive = new BatchEvaluator(
+                expression -> BatchResultDTO.result(Integer.toString(depth(expression, 0))), pool, 2);
+        String nested = "(".repeat(1_000_000) + "1" + ")".repeat(1_000_000);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        String body = "[\"((1))\", \"" + nested + "\", \"(1)\"]";
+        assertEquals(3, recursive.evaluate(new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)), out));
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(3, lines.length);
+        assertEquals("2", MAPPER.readValue(lines[0], BatchResultDTO.class).getResult());
+        assertEquals("Expression trop imbriquée.", MAPPER.readValue(lines[1], BatchResultDTO.class).getError());
+        assertEquals("1", MAPPER.readValue(lines[2], BatchResultDTO.class).getResult());
+    }
+}
@@ -0,0 +1,112 @@
+package calculator;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.function.Executable;
+
+import java.math.BigInteger;
+import java.util.Collections;
+
+import calculator.StaticClasses.Parsers.StringToExpression;
+
+/**
+ * Test class for overflow-checked integer arithmetic and its promotion rules.
+ */
+class TestCheckedArithmetic {
+
+    private Calculator calc;
+
+    @BeforeEach
+    void setUp() {
+        calc = new Calculator();
+    }
+
+    @Test
+    void testSmallResultsStayIntegers() {
+        assertEquals(14, CheckedArithmetic.add(8, 6));
+        assertEquals(2, CheckedArithmetic.subtract(8, 6));
+        assertEquals(48, CheckedArithmetic.multiply(8, 6));
+        assertEquals(1024, CheckedArithmetic.pow(2, 10));
+    }
+
+    @Test
+    void testIntegerOverflowPromotesToLong() {
+        assertEquals(2147483648L, CheckedArithmetic.add(Integer.MAX_VALUE, 1));
+        assertEquals(-2147483649L, CheckedArithmetic.subtract(Integer.MIN_VALUE, 1));
+        assertEquals(4611686014132420609L, CheckedArithmetic.multiply(Integer.MAX_VALUE, Integer.MAX_VALUE));
+        assertEquals(2147483648L, CheckedArithmetic.divide(Integer.MIN_VALUE, -1));
+        assertEquals(4611686018427387904L, CheckedArithmetic.pow(2, 62));
+    }
+
+    @Test
+    void testLongOverflowPromotesToBigInteger() {
+        assertEquals(BigInteger.valueOf(Long.MAX_VALUE).add(BigInteger.ONE),
+                CheckedArithmetic.add(Long.MAX_VALUE, 1));
+        assertEquals(BigInteger.valueOf(Long.MIN_VALUE).negate(),
+                CheckedArithmetic.divide(Long.MIN_VALUE, -1L));
+        assertEquals(BigInteger.TWO.pow(64), CheckedArithmetic.pow(2, 64));
+        assertEquals(BigInteger.valueOf(3).pow(40), CheckedArithmetic.pow(3, 40));
+    }
+
+    @Test
+    void testBigIntegerResultsNarrowBackToLong() {
+        Number big = CheckedArithmetic.add(Long.MAX_VALUE, 1);
+        assertEquals(Long.MAX_VALUE, CheckedArithmetic.subtract(big, 1));
+        // A BigInteger result narrows down to the smallest type that holds it
+        assertEquals(5, CheckedArithmetic.subtract(big, BigInteger.valueOf(Long.MAX_VALUE - 4)));
+    }
+
+    @Test
+    void testNegativeExponents() {
+        assertEquals(0, CheckedArithmetic.pow(2, -1));
+        assertEquals(1, CheckedArithmetic.pow(1, -5));
+        assertEquals(-1, CheckedArithmetic.pow(-1, -3));
+        assertThrows(ArithmeticException.class, () -> CheckedArithmetic.pow(0, -1));
+    }
+
+    @Test
+    void testPowerResultSizeIsCapped() {
+        assertEquals(BigInteger.TWO.pow(1_000_000), CheckedArithmetic.pow(2, 1_000_000));
+        EvaluationException error = assertThrows(EvaluationException.class, () -> CheckedArithmetic.pow(3, 1_000_000_000));
+        assertEquals(EvaluationException.Kind.OVERFLOW, error.getKind());
+        assertThrows(EvaluationException.class, () -> CheckedArithmetic.pow(2, CheckedArithmetic.MAX_RESULT_BITS + 1));
+        assertThrows(EvaluationException.class, () -> CheckedArithmetic.pow(BigInteger.TEN.pow(100), 5_000));
+        assertEquals(BigInteger.TEN.pow(100).negate().pow(3), CheckedArithmetic.pow(BigInteger.TEN.pow(100).negate(), 3));
+    }
+
+    @Test
+    void testParseInteger() {
+        assertEquals(42, CheckedArithmetic.parseInteger("42"));
+        assertEquals(9223372036854775807L, CheckedArithmetic.parseInteger("9223372036854775807"));
+        assertEquals(new BigInteger("9223372036854775808"), CheckedArithmetic.parseInteger("9223372036854775808"));
+    }
+
+    @Test
+    void testEvaluationDoesNotWrap() throws Exception {
+        assertEquals(2147483648L, calc.eval(StringToExpression.parseStringTExpression("2147483647+1")));
+        assertEquals(new BigInteger("9999999999800000000001"),
+                calc.eval(StringToExpression.parseStringTExpression("99999999999*99999999999")));
+        assertEquals(BigInteger.TWO.pow(100), calc.eval(StringToExpression.parseStringTExpression("2^100")));
+    }
+
+    @Test
+    void testIntOverloadsThrowOnOverflow() throws IllegalConstruction {
+        Plus plus = new Plus(Collections.emptyList());
+        Minus minus = new Minus(Collections.emptyList());
+        Times times = new Times(Collections.emptyList());
+        Divides divides = new Divides(Collections.emptyList());
+        Power power = new Power(Collections.emptyList());
+        assertOverflow(() -> plus.op(Integer.MAX_VALUE, 1));
+        assertOverflow(() -> minus.op(Integer.MIN_VALUE, 1));
+        assertOverflow(() -> times.op(Integer.MAX_VALUE, 2));
+        assertOverflow(() -> divides.op(Integer.MIN_VALUE, -1));
+        assertOverflow(() -> power.op(2, 31));
+        assertEquals(1 << 30, power.op(2, 30));
+        assertEquals(-Integer.MAX_VALUE, divides.op(Integer.MAX_VALUE, -1));
+    }
+
+    private static void assertOverflow(Executable operation) {
+        EvaluationException e = assertThrows(EvaluationException.class, operation);
+        assertEquals(EvaluationException.Kind.OVERFLOW, e.getKind());
+    }
+}
@@ -198,6 +198,30 @@ public class TestComplexExpressions {
         assertEquals(12.0, complex.getImaginaryPart().doubleValue(), 0.0001);
     }
     
+    @Test
+    void testComplexIntegerPowers() throws Exception {
+        // (1+i)^10 = (2i)^5 = 32i, computed by binary exponentiation
+        Object result = calc.eval(StringToExpression.parseStringTExpression("(1+1i)^10"));
+        MyComplexNumber complex = (MyComplexNumber) result;
+        assertEquals(0.0, complex.getRealPart().doubleValue(), 1e-9);
+        assertEquals(32.0, complex.getImaginaryPart().doubleValue(), 1e-9);
+        
+        // (1+i)^-2 = 1/(2i) = -0.5i
+        result = calc.eval(StringToExpression.parseStringTExpression("(1+1i)^-2"));
+        complex = (MyComplexNumber) result;
+        assertEquals(0.0, complex.getRealPart().doubleValue(), 1e-12);
+        assertEquals(-0.5, complex.getImaginaryPart().doubleValue(), 1e-12);
+    }
+    
+    @Test
+    void testNestedComplexExpression() throws Exception {
+        // Impedance of a resistor in series with a parallel RC branch: 10 + (5*(-2i))/(5-2i)
+        Object result = calc.eval(StringToExpression.parseStringTExpression("10 + (5*(0-2i))/(5-2i)"));
+        MyComplexNumber complex = (MyComplexNumber) result;
+        assertEquals(10.0 + 20.0 / 29.0, complex.getRealPart().doubleValue(), 1e-9);
+        assertEquals(-50.0 / 29.0, complex.getImaginaryPart().doubleValue(), 1e-9);
+    }
+    
     @Test
     void testDivisionByZeroComplex() {
         assertThrows(Exception.class, () -> {
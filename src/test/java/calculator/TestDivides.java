@@ -85,4 +85,20 @@ class TestDivides {
 		assertEquals("Division by zero is not allowed.", exception.getMessage());
 
 	}
+
+	@Test
+	void testDivisionByZeroPropagatesFromEvaluation() throws IllegalConstruction {
+		// The error must reach the caller instead of yielding the stale dividend
+		Divides divides = new Divides(Arrays.asList(new MyNumber(8), new MyNumber(0)));
+		Calculator calc = new Calculator();
+
+		EvaluationException first = assertThrows(EvaluationException.class, () -> calc.eval(divides));
+		assertEquals(EvaluationException.Kind.DIVISION_BY_ZERO, first.getKind());
+		// Evaluation errors carry no stack trace
+		assertEquals(0, first.getStackTrace().length);
+		// What a caller attaches to one error is not seen by the next
+		first.addSuppressed(new IllegalStateException());
+		EvaluationException second = assertThrows(EvaluationException.class, () -> calc.eval(divides));
+		assertEquals(0, second.getSuppressed().length);
+	}
 }
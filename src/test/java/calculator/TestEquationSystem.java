@@ -0,0 +1,149 @@
+package calculator;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Test class for the incremental equation system and its rank-one updates.
+ */
+class TestEquationSystem {
+
+    private EquationSystem system;
+
+    @BeforeEach
+    void setUp() {
+        system = new EquationSystem();
+        system.add("x + y + z = 6");
+        system.add("2x - y = 0");
+        system.add("x + 3z = 10");
+    }
+
+    private static void assertSolution(Map<String, Double> expected, Map<String, Double> actual) {
+        assertEquals(expected.keySet(), actual.keySet());
+        for (Map.Entry<String, Double> entry : expected.entrySet()) {
+            assertEquals(entry.getValue(), actual.get(entry.getKey()), 1e-9, entry.getKey());
+        }
+    }
+
+    private void assertMatchesSolver() {
+        String[] equations = new String[system.getEquationCount()];
+        for (int i = 0; i < equations.length; i++) {
+            equations[i] = system.getEquation(i);
+        }
+        assertSolution(LinearEquationSolver.solveSystem(equations), system.solve());
+    }
+
+    @Test
+    void testReplaceEquationIsAnUpdate() {
+        assertMatchesSolver();
+        assertTrue(system.isFactored());
+
+        system.set(1, "x - y = -1");
+        assertTrue(system.isFactored());
+        assertEquals(1, system.getUpdateCount());
+        assertMatchesSolver();
+
+        system.set(0, "x + y = 3");
+        assertTrue(system.isFactored());
+        assertMatchesSolver();
+
+        // Trading a variable that only this equation holds for a new one keeps the system square
+        system.set(2, "x + 3w = 10");
+        assertTrue(system.isFactored());
+        assertMatchesSolver();
+        assertNull(system.solve().get("z"));
+    }
+
+    @Test
+    void testAddAndRemoveAreUpdates() {
+        system.solve();
+        system.add("z - 2t = 1");
+        assertTrue(system.isFactored());
+        assertEquals(1, system.getUpdateCount());
+        assertMatchesSolver();
+
+        system.remove(3);
+        assertTrue(system.isFactored());
+        assertMatchesSolver();
+
+        // The vacant row and column are reused
+        system.add("y + s = 5");
+        assertTrue(system.isFactored());
+        assertMatchesSolver();
+    }
+
+    @Test
+    void testNonSquareSystemsAreSolvedFromScratch() {
+        system.solve();
+        // A redundant equation makes the system overdetermined but consistent
+        system.add("x + y + z = 6");
+        assertFalse(system.isFactored());
+        assertMatchesSolver();
+
+        system.remove(3);
+        assertMatchesSolver();
+        assertTrue(system.isFactored());
+    }
+
+    @Test
+    void testSingularUpdate() {
+        system.solve();
+        system.set(2, "2x + 2y + 2z = 12");
+        assertThrows(IllegalArgumentException.class, system::solve);
+        system.set(2, "x + 3z = 10");
+        assertMatchesSolver();
+    }
+
+    @Test
+    void testSetEquations() {
+        system.solve();
+        system.setEquations(List.of("x + y + z = 6", "2x - y = 1", "x + 3z = 10"));
+        assertEquals(1, system.getUpdateCount());
+        assertMatchesSolver();
+
+        assertThrows(IllegalArgumentException.class, () -> system.setEquations(List.of("x + y = 1", "x - = 2")));
+        assertEquals("2x - y = 1", system.getEquation(1));
+        assertEquals(3, system.getEquationCount());
+        assertMatchesSolver();
+
+        assertThrows(IllegalArgumentException.class, () -> new EquationSystem().solve());
+    }
+
+    @Test
+    void testRandomEditsMatchSolver() {
+        Random random = new Random(5);
+        int n = 30;
+        List<String> equations = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            equations.add(randomEquation(random, i, n));
+        }
+        system.setEquations(equations);
+        assertMatchesSolver();
+
+        for (int step = 0; step < 2 * EquationSystem.MAX_UPDATES; step++) {
+            int i = random.nextInt(n);
+            system.set(i, randomEquation(random, i, n));
+            assertMatchesSolver();
+            assertTrue(system.getUpdateCount() <= EquationSystem.MAX_UPDATES);
+        }
+    }
+
+    /**
+     * A diagonally dominant equation, so that the system stays well conditioned.
+     */
+    private static String randomEquation(Random random, int i, int n) {
+        StringBuilder equation = new StringBuilder().append(n + random.nextInt(5)).append("v").append(i);
+        for (int k = 0; k < 4; k++) {
+            int j = random.nextInt(n);
+            if (j != i) {
+                equation.append(random.nextBoolean() ? " + " : " - ").append(1 + random.nextInt(3)).append("v").append(j);
+            }
+        }
+        return equation.append(" = ").append(random.nextInt(21) - 10).toString();
+    }
+}
@@ -9,6 +9,8 @@ import org.junit.jupiter.params.provider.ValueSource;
 import java.util.Arrays;
 import java.util.List;
 
+import visitor.Evaluator;
+
 class TestEvaluator {
 
     private Calculator calc;
@@ -45,4 +47,27 @@ class TestEvaluator {
         }
     }
 
+    @Test
+    void testEvaluatorIsReusedPerThread() {
+        assertSame(Evaluator.forCurrentThread(), Evaluator.forCurrentThread());
+    }
+
+    @Test
+    void testEvaluatorRecoversAfterFailedEvaluation() throws IllegalConstruction {
+        List<Expression> zeroDivisor = Arrays.asList(new MyNumber(value1), new MyNumber(0));
+        List<Expression> params = Arrays.asList(new MyNumber(value1), new MyNumber(value2));
+        assertThrows(EvaluationException.class, () -> calc.eval(new Plus(Arrays.asList(new MyNumber(1), new Divides(zeroDivisor)))));
+        // The operands left over by the failed evaluation must not leak into the next one
+        assertEquals(value1 * value2, calc.eval(new Times(params)));
+    }
+
+    @Test
+    void testDoubleOperandsAreFoldedUnboxed() throws IllegalConstruction {
+        List<Expression> params = Arrays.asList(new MyNumber(1.5), new MyNumber(2), new MyNumber(0.25));
+        assertEquals(3.75, calc.eval(new Plus(params)));
+        assertEquals(0.75, calc.eval(new Times(params)));
+        assertEquals(-0.75, calc.eval(new Minus(params)));
+        assertEquals(9, calc.eval(new Plus(Arrays.asList(new MyNumber(value1), new MyNumber(1)))));
+    }
+
 }
@@ -0,0 +1,173 @@
+package calculator;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Test class for the Krylov solvers and their preconditioners, on discretized
+ * diffusion (symmetric) and convection-diffusion (non-symmetric) problems.
+ */
+class TestIterativeSolvers {
+
+    private static final int GRID = 20;
+
+    /**
+     * Five-point Laplacian on a GRID x GRID grid, plus a convection term making it non-symmetric.
+     */
+    private static SparseMatrix laplacian(double convection) {
+        int n = GRID * GRID;
+        List<int[]> positions = new ArrayList<>();
+        List<Double> values = new ArrayList<>();
+        for (int i = 0; i < GRID; i++) {
+            for (int j = 0; j < GRID; j++) {
+                int row = i * GRID + j;
+                positions.add(new int[] {row, row});
+                values.add(4.0);
+                int[][] neighbours = {{i - 1, j}, {i + 1, j}, {i, j - 1}, {i, j + 1}};
+                for (int k = 0; k < neighbours.length; k++) {
+                    int ni = neighbours[k][0];
+                    int nj = neighbours[k][1];
+                    if (ni >= 0 && ni < GRID && nj >= 0 && nj < GRID) {
+                        positions.add(new int[] {row, ni * GRID + nj});
+                        values.add(k == 3 ? -1.0 + convection : -1.0 - convection * (k == 2 ? 1 : 0));
+                    }
+                }
+            }
+        }
+        int[] rows = new int[values.size()];
+        int[] cols = new int[values.size()];
+        double[] vals = new double[values.size()];
+        for (int k = 0; k < vals.length; k++) {
+            rows[k] = positions.get(k)[0];
+            cols[k] = positions.get(k)[1];
+            vals[k] = values.get(k);
+        }
+        return SparseMatrix.fromTriplets(n, n, rows, cols, vals);
+    }
+
+    private static double[] randomVector(int n) {
+        Random random = new Random(11);
+        double[] v = new double[n];
+        for (int i = 0; i < n; i++) {
+            v[i] = random.nextDouble() - 0.5;
+        }
+        return v;
+    }
+
+    private static void assertSolves(SparseMatrix a, double[] x, double[] expected) {
+        assertArrayEquals(expected, x, 1e-7);
+        double[] ax = a.multiply(x);
+        double[] b = a.multiply(expected);
+        assertArrayEquals(b, ax, 1e-8);
+    }
+
+    @Test
+    void testConjugateGradient() {
+        SparseMatrix a = laplacian(0.0);
+        double[] expected = randomVector(a.getRows());
+        double[] b = a.multiply(expected);
+        IterativeSolution plain = new ConjugateGradientSolver().solve(a, b);
+        assertTrue(plain.isConverged());
+        assertSolves(a, plain.getSolution(), expected);
+        IterativeSolution jacobi = new ConjugateGradientSolver().solve(a, b, new JacobiPreconditioner(a));
+        assertTrue(jacobi.isConverged());
+        assertSolves(a, jacobi.getSolution(), expected);
+    }
+
+    @Test
+    void testBiCGStabAndGmresOnNonSymmetricSystem() {
+        SparseMatrix a = laplacian(0.4);
+        assertFalse(a.isSymmetric());
+        double[] expected = randomVector(a.getRows());
+        double[] b = a.multiply(expected);
+
+        IterativeSolution bicgstab = new BiCGStabSolver().solve(a, b, new IluPreconditioner(a));
+        assertTrue(bicgstab.isConverged());
+        assertSolves(a, bicgstab.getSolution(), expected);
+
+        IterativeSolution gmres = new GmresSolver(10, 1e-10, 2000).solve(a, b, new JacobiPreconditioner(a));
+        assertTrue(gmres.isConverged());
+        assertSolves(a, gmres.getSolution(), expected);
+    }
+
+    @Test
+    void testIluCutsIterations() {
+        SparseMatrix a = laplacian(0.4);
+        double[] b = a.multiply(randomVector(a.getRows()));
+        IterativeSolution plain = new GmresSolver().solve(a, b);
+        IterativeSolution ilu = new GmresSolver().solve(a, b, new IluPreconditioner(a));
+        assertTrue(plain.isConverged());
+        assertTrue(ilu.isConverged());
+        assertTrue(ilu.getIterations() < plain.getIterations() / 2,
+                   ilu.getIterations() + " iterations with ILU(0), " + plain.getIterations() + " without");
+    }
+
+    @Test
+    void testIluIsExactOnTriangularMatrices() {
+        // No fill-in is dropped for a lower triangular matrix, so ILU(0) is its exact LU
+        SparseMatrix lower = SparseMatrix.parse("[[2, 0, 0], [1, 3, 0], [0, -1, 4]]");
+        double[] z = new double[3];
+        new IluPreconditioner(lower).apply(new double[] {2, 4, 3}, z);
+        assertArrayEquals(new double[] {1, 1, 1}, z, 1e-15);
+        assertThrows(IllegalArgumentException.class,
+                     () -> new IluPreconditioner(SparseMatrix.parse("[[0, 1], [1, 0]]")));
+    }
+
+    @Test
+    void testTelemetryAndIterationCap() {
+        SparseMatrix a = laplacian(0.0);
+        double[] b = a.multiply(randomVector(a.getRows()));
+        ConjugateGradientSolver solver = new ConjugateGradientSolver(1e-12, 5);
+        List<Double> seen = new ArrayList<>();
+        solver.setListener((iteration, residual) -> {
+            assertEquals(seen.size() + 1, iteration);
+            seen.add(residual);
+        });
+        IterativeSolution solution = solver.solve(a, b);
+        assertFalse(solution.isConverged());
+        assertEquals(5, solution.getIterations());
+        double[] history = solution.getResidualHistory();
+        assertEquals(6, history.length);
+        assertEquals(1.0, history[0], 1e-12);
+        assertEquals(seen.get(4).doubleValue(), solution.getResidual());
+        assertTrue(solution.getElapsedNanos() > 0);
+    }
+
+    @Test
+    void testZeroRightHandSideAndWarmStart() {
+        SparseMatrix a = laplacian(0.0);
+        IterativeSolution zero = new BiCGStabSolver().solve(a, new double[a.getRows()]);
+        assertTrue(zero.isConverged());
+        assertEquals(0, zero.getIterations());
+        assertArrayEquals(new double[a.getRows()], zero.getSolution(), 0.0);
+
+        double[] expected = randomVector(a.getRows());
+        IterativeSolution warm = new ConjugateGradientSolver().solve(a, a.multiply(expected), Preconditioner.IDENTITY, expected);
+        assertTrue(warm.isConverged());
+        assertEquals(0, warm.getIterations());
+    }
+
+    @Test
+    void testInvalidArguments() {
+        SparseMatrix a = laplacian(0.0);
+        assertThrows(IllegalArgumentException.class, () -> new GmresSolver().solve(a, new double[3]));
+        assertThrows(IllegalArgumentException.class, () -> new GmresSolver(0, 1e-8, 10));
+        assertThrows(IllegalArgumentException.class, () -> new BiCGStabSolver(0.0, 10));
+    }
+
+    @Test
+    void testLinearEquationSolverPicksAMethod() {
+        SparseMatrix symmetric = laplacian(0.0);
+        SparseMatrix general = laplacian(0.4);
+        double[] expected = randomVector(symmetric.getRows());
+        for (SparseMatrix a : new SparseMatrix[] {symmetric, general}) {
+            IterativeSolution solution = LinearEquationSolver.solveSparse(a, a.multiply(expected));
+            assertTrue(solution.isConverged());
+            assertSolves(a, solution.getSolution(), expected);
+        }
+    }
+}
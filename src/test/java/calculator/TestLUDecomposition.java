@@ -0,0 +1,129 @@
+package calculator;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.*;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Test class for the LU decomposition and the matrix operations built on it.
+ */
+class TestLUDecomposition {
+
+    private Matrix a;
+
+    @BeforeEach
+    void setUp() {
+        a = Matrix.parse("[[0, 2, 1], [1, 3, 1], [4, 1, 4]]");
+    }
+
+    @Test
+    void testFactorsReproducePermutedMatrix() {
+        LUDecomposition lu = new LUDecomposition(a);
+        int[] pivot = lu.getPivot();
+        Matrix product = lu.getL().multiply(lu.getU());
+        for (int i = 0; i < 3; i++) {
+            for (int j = 0; j < 3; j++) {
+                assertEquals(a.get(pivot[i], j), product.get(i, j), 1e-12);
+            }
+        }
+    }
+
+    @Test
+    void testDeterminant() {
+        assertEquals(-11, a.determinant(), 1e-10);
+        assertEquals(-1, Matrix.parse("[[0, 1], [1, 0]]").determinant(), 1e-12);
+        assertEquals(0, Matrix.parse("[[1, 2, 3], [4, 5, 6], [7, 8, 9]]").determinant());
+    }
+
+    @Test
+    void testSolve() {
+        Matrix b = Matrix.parse("[[1, 2], [3, 4], [5, 6]]");
+        assertEquals(b, a.multiply(a.solve(b)));
+        double[] x = a.decompose().solve(new double[]{3, 5, 9});
+        assertArrayEquals(new double[]{1, 1, 1}, x, 1e-12);
+    }
+
+    @Test
+    void testInverseOfLargeMatrix() {
+        Random random = new Random(3);
+        Matrix m = TestMatrixMultiplier.randomMatrix(random, 12, 12);
+        assertEquals(Matrix.identity(12), m.multiply(m.inverse()));
+    }
+
+    @Test
+    void testSingularMatrix() {
+        Matrix singular = Matrix.parse("[[1, 2], [2, 4]]");
+        assertTrue(singular.decompose().isSingular());
+        assertThrows(IllegalArgumentException.class, singular::inverse);
+        assertThrows(IllegalArgumentException.class, () -> singular.solve(Matrix.identity(2)));
+        assertEquals(Double.POSITIVE_INFINITY, singular.decompose().conditionNumber());
+    }
+
+    @Test
+    void testConditionNumberOfHilbertMatrix() {
+        double[][] hilbert = new double[4][4];
+        for (int i = 0; i < 4; i++) {
+            for (int j = 0; j < 4; j++) {
+                hilbert[i][j] = 1.0 / (i + j + 1);
+            }
+        }
+        assertEquals(28375, new Matrix(hilbert).decompose().conditionNumber(), 1e-3);
+        assertEquals(1, Matrix.identity(5).decompose().conditionNumber(), 1e-12);
+    }
+
+    @Test
+    void testCachedDecomposition() {
+        assertNotSame(a.decompose(), a.decompose());
+        a.setDecompositionCached(true);
+        LUDecomposition cached = a.decompose();
+        assertSame(cached, a.decompose());
+        a.set(0, 0, 5);
+        assertNotSame(cached, a.decompose());
+        assertEquals(Matrix.identity(3), a.multiply(a.inverse()));
+    }
+
+    @Test
+    void testNonSquareMatrix() {
+        Matrix rect = Matrix.zeros(2, 3);
+        assertThrows(IllegalArgumentException.class, () -> new LUDecomposition(rect));
+        assertThrows(IllegalArgumentException.class, rect::determinant);
+    }
+
+    @Test
+    void testBlockedFactorization() {
+        // Not a multiple of the panel width, so that the last panel is partial
+        int n = LUDecomposition.BLOCKED_THRESHOLD + LUDecomposition.PANEL / 2 + 5;
+        Random random = new Random(11);
+        Matrix m = TestMatrixMultiplier.randomMatrix(random, n, n);
+        ForkJoinPool sequential = new ForkJoinPool(1);
+        ForkJoinPool parallel = new ForkJoinPool(4);
+        try {
+            LUDecomposition lu = new LUDecomposition(m, parallel);
+            assertFalse(lu.isSingular());
+            // Bands are updated in the same order whatever the split, so the factors are identical
+            LUDecomposition reference = new LUDecomposition(m, sequential);
+            assertArrayEquals(reference.getPivot(), lu.getPivot());
+            assertEquals(reference.getU(), lu.getU());
+            assertEquals(reference.getL(), lu.getL());
+
+            int[] pivot = lu.getPivot();
+            Matrix product = lu.getL().multiply(lu.getU());
+            for (int i = 0; i < n; i++) {
+                for (int j = 0; j < n; j++) {
+                    assertEquals(m.get(pivot[i], j), product.get(i, j), 1e-9);
+                }
+            }
+
+            // A repeated row makes the matrix singular
+            for (int j = 0; j < n; j++) {
+                m.set(n - 1, j, m.get(3, j));
+            }
+            assertTrue(new LUDecomposition(m, parallel).isSingular());
+        } finally {
+            sequential.shutdown();
+            parallel.shutdown();
+        }
+    }
+}
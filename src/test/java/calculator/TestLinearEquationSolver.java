@@ -0,0 +1,210 @@
+package calculator;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.*;
+
+import java.util.Map;
+
+/**
+ * Test class for the parsing of linear equations and the solving of single equations and systems.
+ */
+class TestLinearEquationSolver {
+
+    @Test
+    void testParserBuildsSparseTerms() {
+        LinearEquationParser parser = new LinearEquationParser();
+        LinearEquationParser.Equation equation = parser.parse(" 2x + 3.5 y - 4 = x - -1 + 2*z ");
+        assertEquals(3, parser.getVariableCount());
+        // x: 2 - 1, y: 3.5, z: -2, constant: 1 + 4
+        assertArrayEquals(new int[] {0, 1, 2}, equation.variables);
+        assertArrayEquals(new double[] {1, 3.5, -2}, equation.coefficients, 0.0);
+        assertEquals(5, equation.constant, 0.0);
+
+        // Ids are shared across equations, cancelled variables are dropped from the terms
+        LinearEquationParser.Equation second = parser.parse("z - z + w = 0");
+        assertEquals(4, parser.getVariableCount());
+        assertArrayEquals(new int[] {3}, second.variables);
+        assertArrayEquals(new String[] {"w", "x", "y", "z"}, parser.sortedNames());
+        assertArrayEquals(new int[] {1, 2, 3, 0}, parser.sortedRanks());
+    }
+
+    @Test
+    void testParserRejectsMalformedEquations() {
+        LinearEquationParser parser = new LinearEquationParser();
+        assertThrows(IllegalArgumentException.class, () -> parser.parse("2x + 3"));
+        assertThrows(IllegalArgumentException.class, () -> parser.parse("x = 1 = 2"));
+        assertThrows(IllegalArgumentException.class, () -> parser.parse("x + = 1"));
+        assertThrows(IllegalArgumentException.class, () -> parser.parse("= 1"));
+        assertThrows(IllegalArgumentException.class, () -> parser.parse("2 3x = 1"));
+        assertThrows(IllegalArgumentException.class, () -> parser.parse("x / 2 = 1"));
+        assertThrows(IllegalArgumentException.class, () -> parser.parse("1.2.3x = 1"));
+        // A failed parse leaves the parser usable
+        assertEquals(1, parser.parse("x = 1").size());
+    }
+
+    @Test
+    void testSingleVariable() {
+        assertEquals("x = 2", LinearEquationSolver.solveSingleVariable("2x + 3 = 7"));
+        assertEquals("y = -0.5", LinearEquationSolver.solveSingleVariable("4y = 2y - 1"));
+        assertEquals("No solution: The equation is inconsistent", LinearEquationSolver.solveSingleVariable("x = x + 1"));
+        assertTrue(LinearEquationSolver.solveSingleVariable("x + 1 = 1 + x").startsWith("Identity"));
+        assertThrows(IllegalArgumentException.class, () -> LinearEquationSolver.solveSingleVariable("x + y = 1"));
+        assertThrows(IllegalArgumentException.class, () -> LinearEquationSolver.solveSingleVariable("1 = 1"));
+    }
+
+    @Test
+    void testConstantsMoveToRightHandSide() {
+        // Constants on either side of the equals sign change sign when moved to the right-hand side
+        Map<String, Double> solution = LinearEquationSolver.solveSystem(new String[] {"x + 2 = 5", "y = 1"});
+        assertEquals(3, solution.get("x"), 1e-10);
+        assertEquals(1, solution.get("y"), 1e-10);
+        solution = LinearEquationSolver.solveSystem(new String[] {"x - y = 1 - 4", "2 = y"});
+        assertEquals(-1, solution.get("x"), 1e-10);
+        assertEquals(2, solution.get("y"), 1e-10);
+    }
+
+    @Test
+    void testSystem() {
+        Map<String, Double> solution = LinearEquationSolver.solveSystem(new String[] {"x + y = 3", "x - y = 1"});
+        assertEquals(2, solution.get("x"), 1e-10);
+        assertEquals(1, solution.get("y"), 1e-10);
+        // Names that contain each other are distinct variables
+        solution = LinearEquationSolver.solveSystem(new String[] {"x1 + x10 = 3", "x1 - x10 = -1"});
+        assertEquals(1, solution.get("x1"), 1e-10);
+        assertEquals(2, solution.get("x10"), 1e-10);
+        assertThrows(IllegalArgumentException.class,
+                     () -> LinearEquationSolver.solveSystem(new String[] {"x + y = 1", "2x + 2y = 3"}));
+    }
+
+    @Test
+    void testScaledPivoting() {
+        // The first equation, 1e-9 x + y = 1 scaled by 1e12, has the largest x coefficient but is a poor pivot
+        Map<String, Double> solution = LinearEquationSolver.solveSystem(
+            new String[] {"1000x + 1000000000000y = 1000000000000", "x + y = 2"});
+        double x = 1 / (1 - 1e-9);
+        assertEquals(x, solution.get("x"), 1e-15);
+        assertEquals(2 - x, solution.get("y"), 1e-15);
+        // Rank deficiency is found relative to the size of the coefficients, however small
+        assertThrows(IllegalArgumentException.class, () -> LinearEquationSolver.solveSystem(
+            new String[] {"0.000000000001x + 0.000000000001y = 0.000000000001", "0.000000000002x + 0.000000000002y = 0.000000000003"}));
+        solution = LinearEquationSolver.solveSystem(
+            new String[] {"0.000000000001x + 0.000000000001y = 0.000000000003", "0.000000000001x - 0.000000000001y = 0.000000000001"});
+        assertEquals(2, solution.get("x"), 1e-12);
+        assertEquals(1, solution.get("y"), 1e-12);
+    }
+
+    @Test
+    void testIterativeRefinement() {
+        // Hilbert matrix of order 9 times lcm(1..17), so that its entries are integers, condition number ~5e11
+        int n = 9;
+        long lcm = 12252240;
+        String[] equations = new String[n];
+        for (int i = 0; i < n; i++) {
+            StringBuilder equation = new StringBuilder();
+            long b = 0;
+            for (int j = 0; j < n; j++) {
+                long a = lcm / (i + j + 1);
+                equation.append(j == 0 ? "" : " + ").append(a).append("x").append(j);
+                b += a;
+            }
+            // The solution is all ones
+            equations[i] = equation.append(" = ").append(b).toString();
+        }
+
+        Map<String, Double> plain = LinearEquationSolver.solveSystem(equations);
+        Map<String, Double> refined = LinearEquationSolver.solveSystem(equations, true);
+        double plainError = 0.0;
+        double refinedError = 0.0;
+        for (int j = 0; j < n; j++) {
+            plainError = Math.max(plainError, Math.abs(plain.get("x" + j) - 1));
+            refinedError = Math.max(refinedError, Math.abs(refined.get("x" + j) - 1));
+        }
+        assertTrue(refinedError < 1e-12, "refined error " + refinedError);
+        assertTrue(refinedError <= plainError, "refined error " + refinedError + ", plain error " + plainError);
+
+        // Singular systems are still reported
+        assertThrows(IllegalArgumentException.class,
+                     () -> LinearEquationSolver.solveSystem(new String[] {"x + y = 1", "2x + 2y = 2"}, true));
+    }
+
+    @Test
+    void testMetricsCountSteps() {
+        SolverMetrics metrics = LinearEquationSolver.getMetrics();
+        long parses = metrics.getCount(SolverMetrics.Step.PARSE);
+        long eliminations = metrics.getCount(SolverMetrics.Step.ELIMINATE);
+        LinearEquationSolver.solveSystem(new String[] {"x + y = 3", "x - y = 1"});
+        // Other tests may solve concurrently, so the counters only grow
+        assertTrue(metrics.getCount(SolverMetrics.Step.PARSE) > parses);
+        assertTrue(metrics.getCount(SolverMetrics.Step.ELIMINATE) > eliminations);
+        assertTrue(metrics.getTotalNanos(SolverMetrics.Step.ELIMINATE) > 0);
+        assertTrue(metrics.getMeanNanos(SolverMetrics.Step.ELIMINATE) > 0);
+        assertTrue(metrics.toString().contains("ELIMINATE"));
+    }
+
+    @Test
+    void testLargeSparseSystemFromEquations() {
+        // Tridiagonal system large enough for the iterative path
+        int n = 2 * LinearEquationSolver.ITERATIVE_THRESHOLD;
+        String[] equations = new String[n];
+        for (int i = 0; i < n; i++) {
+            StringBuilder equation = new StringBuilder("4x" + i);
+            if (i > 0) {
+                equation.append(" - x").append(i - 1);
+            }
+            if (i < n - 1) {
+                equation.append(" - x").append(i + 1);
+            }
+            equations[i] = equation.append(" = ").append(i % 7).toString();
+        }
+        long iterations = LinearEquationSolver.getMetrics().getCount(SolverMetrics.Step.ITERATIVE);
+        Map<String, Double> solution = LinearEquationSolver.solveSystem(equations);
+        assertTrue(LinearEquationSolver.getMetrics().getCount(SolverMetrics.Step.ITERATIVE) > iterations);
+        for (int i = 0; i < n; i++) {
+            double lhs = 4 * solution.get("x" + i)
+                - (i > 0 ? solution.get("x" + (i - 1)) : 0)
+                - (i < n - 1 ? solution.get("x" + (i + 1)) : 0);
+            assertEquals(i % 7, lhs, 1e-8);
+        }
+    }
+
+    @Test
+    void testLargeSingularSparseSystem() {
+        // Consistent but singular: an iterative solver converges to one of its solutions
+        int n = LinearEquationSolver.ITERATIVE_THRESHOLD;
+        String[] equations = new String[n];
+        equations[0] = "x0 + x1 = 2";
+        equations[1] = "x0 + x1 = 2";
+        for (int i = 2; i < n; i++) {
+            equations[i] = "x" + i + " = 1";
+        }
+        assertThrows(IllegalArgumentException.class, () -> LinearEquationSolver.solveSystem(equations));
+        assertThrows(IllegalArgumentException.class,
+                     () -> LinearEquationSolver.solveSystem(new String[] {"x0 + x1 = 2", "x0 + x1 = 2"}));
+    }
+
+    @Test
+    void testDiagonalDominanceProvesNonsingularity() {
+        // Tridiagonal 2, -1: weakly dominant, strictly only in its first and last rows, and irreducible
+        int n = 50;
+        int[] rows = new int[3 * n - 2];
+        int[] cols = new int[3 * n - 2];
+        double[] values = new double[3 * n - 2];
+        int k = 0;
+        for (int i = 0; i < n; i++) {
+            rows[k] = i; cols[k] = i; values[k++] = 2;
+            if (i > 0) {
+                rows[k] = i; cols[k] = i - 1; values[k++] = -1;
+            }
+            if (i < n - 1) {
+                rows[k] = i; cols[k] = i + 1; values[k++] = -1;
+            }
+        }
+        assertTrue(LinearEquationSolver.isProvablyNonsingular(SparseMatrix.fromTriplets(n, n, rows, cols, values)));
+        // Two decoupled blocks make it reducible, and the singular block is not caught by weak dominance
+        assertFalse(LinearEquationSolver.isProvablyNonsingular(SparseMatrix.fromTriplets(3, 3,
+            new int[] {0, 0, 1, 1, 2}, new int[] {0, 1, 0, 1, 2}, new double[] {1, 1, 1, 1, 3})));
+        // Strict dominance by columns only
+        assertTrue(LinearEquationSolver.isProvablyNonsingular(SparseMatrix.fromTriplets(2, 2,
+            new int[] {0, 0, 1}, new int[] {0, 1, 1}, new double[] {2, 5, 6})));
+    }
+}
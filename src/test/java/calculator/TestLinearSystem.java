@@ -0,0 +1,69 @@
+package calculator;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.*;
+
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Test class for the factor-once, solve-many handle of linear systems.
+ */
+class TestLinearSystem {
+
+    @Test
+    void testFactorAndSolve() {
+        LinearSystem system = LinearEquationSolver.factor(new String[] {"2x + y = 5", "x - y = 1"});
+        assertArrayEquals(new String[] {"x", "y"}, system.getVariables());
+        assertArrayEquals(new double[] {5, 1}, system.getRightHandSide(), 0.0);
+
+        Map<String, Double> solution = system.solve();
+        assertEquals(2, solution.get("x"), 1e-12);
+        assertEquals(1, solution.get("y"), 1e-12);
+        assertArrayEquals(new double[] {3, 1}, system.solve(new double[] {7, 2}), 1e-12);
+    }
+
+    @Test
+    void testFactorMatchesSolveSystem() {
+        String[] equations = {"x + y + z = 6", "2y + 5z = -4", "2x + 5y - z = 27"};
+        Map<String, Double> expected = LinearEquationSolver.solveSystem(equations);
+        Map<String, Double> actual = LinearEquationSolver.factor(equations).solve();
+        for (String variable : expected.keySet()) {
+            assertEquals(expected.get(variable), actual.get(variable), 1e-10);
+        }
+    }
+
+    @Test
+    void testBatchMatchesSingleSolves() {
+        Random random = new Random(4);
+        int n = 70;
+        Matrix a = TestMatrixMultiplier.randomMatrix(random, n, n);
+        String[] names = new String[n];
+        for (int j = 0; j < n; j++) {
+            names[j] = "x" + j;
+        }
+        LinearSystem system = new LinearSystem(names, a, new double[n]);
+        // Enough right-hand sides for several blocks, the last one partial
+        double[][] rhs = new double[3 * LinearSystem.BLOCK_COLUMNS + 5][];
+        for (int k = 0; k < rhs.length; k++) {
+            rhs[k] = TestMatrixMultiplier.randomMatrix(random, n, 1).toRowMajorArray();
+        }
+        double[][] solutions = system.solveBatch(rhs);
+        assertEquals(rhs.length, solutions.length);
+        for (int k = 0; k < rhs.length; k++) {
+            assertArrayEquals(system.solve(rhs[k]), solutions[k], 1e-9);
+            assertArrayEquals(rhs[k], a.multiply(solutions[k]), 1e-9);
+        }
+        assertEquals(0, system.solveBatch(new double[0][]).length);
+    }
+
+    @Test
+    void testInvalidSystems() {
+        assertThrows(IllegalArgumentException.class,
+                     () -> LinearEquationSolver.factor(new String[] {"x + y = 1", "2x + 2y = 2"}));
+        assertThrows(IllegalArgumentException.class,
+                     () -> LinearEquationSolver.factor(new String[] {"x + y = 1"}));
+        LinearSystem system = LinearEquationSolver.factor(new String[] {"x = 1", "y = 2"});
+        assertThrows(IllegalArgumentException.class, () -> system.solveBatch(new double[][] {{1, 2}, {3}}));
+    }
+}
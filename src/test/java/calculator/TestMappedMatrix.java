@@ -0,0 +1,90 @@
+package calculator;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+/**
+ * Test class for the memory-mapped matrices, checked against in-memory matrices.
+ * Dimensions straddle the streaming tiles so that edge tiles are exercised.
+ */
+class TestMappedMatrix {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void testRoundTripThroughFile() throws IOException {
+        Matrix a = TestMatrixMultiplier.randomMatrix(new Random(1), 30, 20);
+        try (MappedMatrix mapped = MappedMatrix.fromMatrix(dir.resolve("a.bin"), a)) {
+            assertEquals(a.get(3, 7), mapped.get(3, 7));
+            mapped.set(3, 7, 42);
+        }
+        assertEquals(30L * 20 * Double.BYTES, Files.size(dir.resolve("a.bin")));
+        try (MappedMatrix reopened = MappedMatrix.open(dir.resolve("a.bin"), 30, 20, false)) {
+            assertEquals(42, reopened.get(3, 7));
+            assertEquals(a.submatrix(10, 5, 8, 6), reopened.readBlock(10, 5, 8, 6));
+            assertThrows(UnsupportedOperationException.class, () -> reopened.set(0, 0, 1));
+            assertThrows(IndexOutOfBoundsException.class, () -> reopened.readBlock(25, 0, 8, 6));
+        }
+        assertThrows(IOException.class, () -> MappedMatrix.open(dir.resolve("a.bin"), 31, 20, false));
+    }
+
+    @Test
+    void testBlocksThroughViews() throws IOException {
+        try (MappedMatrix mapped = MappedMatrix.create(dir.resolve("b.bin"), 6, 5)) {
+            Matrix block = Matrix.parse("[[1, 2], [3, 4], [5, 6]]");
+            mapped.writeBlock(2, 1, block.transposeView().transposeView());
+            mapped.writeBlock(0, 2, block.transposeView());
+            assertEquals(block, mapped.readBlock(2, 1, 3, 2));
+            assertEquals(block.transpose(), mapped.readBlockInto(0, 2, Matrix.zeros(3, 2).transposeView()));
+            assertEquals(0, mapped.get(5, 4));
+        }
+    }
+
+    @Test
+    void testReadBlockIntoDropsCachedDecomposition() throws IOException {
+        try (MappedMatrix mapped = MappedMatrix.fromMatrix(dir.resolve("d.bin"), Matrix.identity(3).multiply(2.0))) {
+            Matrix dest = Matrix.identity(3);
+            dest.setDecompositionCached(true);
+            assertEquals(1, dest.determinant(), 1e-12);
+            assertEquals(8, mapped.readBlockInto(0, 0, dest).determinant(), 1e-12);
+        }
+    }
+
+    @Test
+    void testStreamingProducts() throws IOException {
+        Random random = new Random(2);
+        Matrix a = TestMatrixMultiplier.randomMatrix(random, MappedMatrix.TILE + 37, 70);
+        Matrix b = TestMatrixMultiplier.randomMatrix(random, 70, MappedMatrix.TILE + 5);
+        double[] v = TestMatrixMultiplier.randomMatrix(random, 70, 1).toRowMajorArray();
+        try (MappedMatrix ma = MappedMatrix.fromMatrix(dir.resolve("a.bin"), a);
+             MappedMatrix mb = MappedMatrix.fromMatrix(dir.resolve("b.bin"), b);
+             MappedMatrix mc = ma.multiply(mb, dir.resolve("c.bin"))) {
+            Matrix expected = a.multiply(b);
+            assertEquals(expected, mc.toMatrix());
+            assertEquals(expected, ma.multiply(b));
+            assertArrayEquals(a.multiply(v), ma.multiply(v), 1e-12);
+            assertThrows(IllegalArgumentException.class, () -> ma.multiply(a));
+        }
+    }
+
+    @Test
+    void testStreamingTranspose() throws IOException {
+        Matrix a = TestMatrixMultiplier.randomMatrix(new Random(3), MappedMatrix.TILE + 3, 40);
+        Path temporary;
+        try (MappedMatrix mapped = MappedMatrix.fromMatrix(dir.resolve("a.bin"), a);
+             MappedMatrix transposed = mapped.transpose(dir.resolve("t.bin"));
+             MappedMatrix implicit = mapped.transpose()) {
+            assertEquals(a.transpose(), transposed.toMatrix());
+            assertEquals(a.transpose(), implicit.toMatrix());
+            temporary = implicit.getFile();
+        }
+        assertFalse(Files.exists(temporary));
+    }
+}
@@ -0,0 +1,194 @@
+package calculator;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.*;
+
+import java.util.Random;
+
+/**
+ * Test class for the matrix operations and the views sharing a matrix buffer.
+ */
+class TestMatrix {
+
+    private Matrix m;
+
+    @BeforeEach
+    void setUp() {
+        m = Matrix.parse("[[1, 2, 3], [4, 5, 6]]");
+    }
+
+    @Test
+    void testElementWiseOperations() {
+        Matrix other = Matrix.parse("[[6, 5, 4], [3, 2, 1]]");
+        assertEquals(Matrix.parse("[[7, 7, 7], [7, 7, 7]]"), m.add(other));
+        assertEquals(Matrix.parse("[[-5, -3, -1], [1, 3, 5]]"), m.subtract(other));
+        assertEquals(Matrix.parse("[[2, 4, 6], [8, 10, 12]]"), m.multiply(2));
+        assertThrows(IllegalArgumentException.class, () -> m.add(Matrix.identity(2)));
+    }
+
+    @Test
+    void testTranspose() {
+        Matrix expected = Matrix.parse("[[1, 4], [2, 5], [3, 6]]");
+        assertEquals(expected, m.transpose());
+        assertEquals(expected, m.transposeView());
+        assertEquals(expected.hashCode(), m.transposeView().hashCode());
+    }
+
+    @Test
+    void testMultiply() {
+        assertEquals(Matrix.parse("[[14, 32], [32, 77]]"), m.multiply(m.transposeView()));
+        assertThrows(IllegalArgumentException.class, () -> m.multiply(m));
+    }
+
+    @Test
+    void testViewsShareTheBuffer() {
+        Matrix column = m.column(1);
+        assertEquals(2, column.getRows());
+        assertEquals(1, column.getCols());
+        column.set(1, 0, 50);
+        assertEquals(50, m.get(1, 1));
+
+        m.row(0).set(0, 2, 30);
+        assertEquals(30, m.transposeView().get(2, 0));
+    }
+
+    @Test
+    void testOperationsOnViews() {
+        Matrix left = m.submatrix(0, 0, 2, 2);
+        Matrix right = m.submatrix(0, 1, 2, 2);
+        assertEquals(Matrix.parse("[[3, 5], [9, 11]]"), left.add(right));
+        assertEquals(Matrix.parse("[[8, 10, 12]]"), m.row(1).multiply(2));
+        assertArrayEquals(new double[][]{{1, 4}, {2, 5}, {3, 6}}, m.transposeView().getData());
+        assertThrows(IndexOutOfBoundsException.class, () -> m.submatrix(1, 1, 2, 2));
+    }
+
+    @Test
+    void testCopyIsIndependent() {
+        Matrix copy = m.transposeView().copy();
+        copy.set(0, 0, 100);
+        assertEquals(1, m.get(0, 0));
+    }
+
+    @Test
+    void testElementWiseProduct() {
+        assertEquals(Matrix.parse("[[1, 4, 9], [16, 25, 36]]"), m.multiplyElementWise(m));
+        assertEquals(Matrix.parse("[[1, 8], [8, 25]]"), m.submatrix(0, 0, 2, 2).multiplyElementWise(m.transposeView().submatrix(0, 0, 2, 2)));
+    }
+
+    @Test
+    void testScalarAndVectorizedKernelsAgree() {
+        Matrix a = TestMatrixMultiplier.randomMatrix(new Random(7), 37, 53);
+        Matrix b = TestMatrixMultiplier.randomMatrix(new Random(8), 53, 29);
+        boolean initial = Vectorization.isEnabled();
+        try {
+            Vectorization.setEnabled(true);
+            Matrix sum = a.add(a.multiply(0.5)).subtract(a.multiplyElementWise(a));
+            Matrix product = a.multiply(b);
+            Vectorization.setEnabled(false);
+            assertFalse(Vectorization.isEnabled());
+            assertEquals(a.add(a.multiply(0.5)).subtract(a.multiplyElementWise(a)), sum);
+            assertEquals(a.multiply(b), product);
+        } finally {
+            Vectorization.setEnabled(initial);
+        }
+    }
+
+    @Test
+    void testDeterminantAndInverse() {
+        Matrix a = Matrix.parse("[[2, 1], [1, 3]]");
+        assertEquals(5, a.determinant(), 1e-10);
+        assertEquals(Matrix.identity(2), a.multiply(a.inverse()));
+    }
+
+    @Test
+    void testDestinationOperations() {
+        Matrix dest = Matrix.zeros(2, 3);
+        assertSame(dest, m.addInto(m, dest));
+        assertEquals(m.add(m), dest);
+        m.subtractInto(m.multiply(2.0), dest);
+        assertEquals(m.multiply(-1.0), dest);
+        // The destination may be an operand
+        Matrix copy = m.copy();
+        copy.addInto(m, copy);
+        assertEquals(m.multiply(2.0), copy);
+        assertSame(copy, copy.scaleInPlace(0.5));
+        assertEquals(m, copy);
+        // Views as operands and destinations
+        Matrix big = Matrix.zeros(4, 4);
+        m.transposeView().addInto(m.transposeView(), big.submatrix(1, 1, 3, 2));
+        assertEquals(m.add(m).transpose(), big.submatrix(1, 1, 3, 2));
+        assertEquals(0, big.get(0, 0));
+        assertThrows(IllegalArgumentException.class, () -> m.addInto(m, Matrix.zeros(3, 2)));
+    }
+
+    @Test
+    void testMultiplyAndTransposeInto() {
+        Matrix a = TestMatrixMultiplier.randomMatrix(new Random(3), 70, 45);
+        Matrix b = TestMatrixMultiplier.randomMatrix(new Random(4), 45, 33);
+        Matrix dest = Matrix.zeros(70, 33).fill(7.0);
+        assertSame(dest, a.multiplyInto(b, dest));
+        assertEquals(a.multiply(b), dest);
+        Matrix view = Matrix.zeros(80, 40).submatrix(5, 3, 70, 33);
+        assertEquals(a.multiply(b), a.multiplyInto(b, view));
+        assertEquals(a.multiply(b), new NaiveMatrixMultiplier().multiplyInto(a, b, Matrix.zeros(70, 33)));
+        assertThrows(IllegalArgumentException.class, () -> a.multiplyInto(b, Matrix.zeros(33, 70)));
+        Matrix square = Matrix.zeros(45, 45);
+        assertThrows(IllegalArgumentException.class, () -> square.multiplyInto(square, square));
+
+        assertEquals(a.transpose(), a.transposeInto(Matrix.zeros(45, 70)));
+        Matrix s = TestMatrixMultiplier.randomMatrix(new Random(5), 40, 40);
+        Matrix expected = s.transpose();
+        assertEquals(expected, s.transposeInto(s));
+    }
+
+    @Test
+    void testPooledIterationDoesNotAllocateBuffers() {
+        DoubleArrayPool pool = new DoubleArrayPool();
+        Matrix a = Matrix.identity(8).multiply(0.5);
+        Matrix x = pool.acquireMatrix(8, 8).fill(1.0);
+        double[] storage = null;
+        for (int i = 0; i < 3; i++) {
+            Matrix next = pool.acquireMatrix(8, 8);
+            a.multiplyInto(x, next);
+            pool.release(x);
+            x = next;
+            if (i == 1) {
+                storage = x.data;
+            }
+        }
+        // Buffers swap between two pooled arrays once the loop reaches steady state
+        assertNotSame(storage, x.data);
+        Matrix next = pool.acquireMatrix(8, 8);
+        assertSame(storage, next.data);
+        assertEquals(0.125, x.get(0, 0), 1e-15);
+    }
+
+    @Test
+    void testPoolSizeClassesAndBudget() {
+        DoubleArrayPool pool = new DoubleArrayPool(4, 64 * 1024);
+        for (int length = 1; length <= 5000; length++) {
+            int size = pool.acquire(length).length;
+            assertTrue(size >= length && (size <= 16 || size <= 1.25 * length), length + " -> " + size);
+        }
+        assertEquals(1280, pool.acquire(1025).length);
+
+        // Released buffers are kept within the byte budget, 64 KiB here
+        for (int i = 0; i < 4; i++) {
+            pool.release(new double[4096]);
+        }
+        pool.release(new double[2048]);
+        assertEquals(2 * 4096 * 8, pool.getRetainedBytes());
+        pool.acquire(4096);
+        assertEquals(4096 * 8, pool.getRetainedBytes());
+
+        // Large buffers are still recycled, very large ones never kept
+        double[] large = pool.acquire(DoubleArrayPool.SOFT_LENGTH + 1);
+        pool.release(large);
+        assertSame(large, pool.acquire(DoubleArrayPool.SOFT_LENGTH + 1));
+        assertEquals(4096 * 8, pool.getRetainedBytes());
+        double[] huge = pool.acquire(DoubleArrayPool.MAX_LENGTH + 1);
+        assertEquals(DoubleArrayPool.MAX_LENGTH + 1, huge.length);
+        pool.release(huge);
+        assertNotSame(huge, pool.acquire(DoubleArrayPool.MAX_LENGTH + 1));
+    }
+}
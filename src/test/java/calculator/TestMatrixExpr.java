@@ -0,0 +1,90 @@
+package calculator;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.*;
+
+import java.util.Random;
+
+/**
+ * Test class for lazy matrix expressions, checked against the eager Matrix operations.
+ */
+class TestMatrixExpr {
+
+    private Matrix a;
+    private Matrix b;
+    private Matrix c;
+    private Matrix d;
+
+    @BeforeEach
+    void setUp() {
+        Random random = new Random(1);
+        // Sizes that do not divide the fused chunk
+        a = TestMatrixMultiplier.randomMatrix(random, 37, 29);
+        b = TestMatrixMultiplier.randomMatrix(random, 29, 41);
+        c = TestMatrixMultiplier.randomMatrix(random, 37, 41);
+        d = TestMatrixMultiplier.randomMatrix(random, 37, 41);
+    }
+
+    @Test
+    void testProductFollowedByElementWiseChain() {
+        Matrix expected = a.multiply(b).add(c).multiply(2.0);
+        assertEquals(expected, a.lazy().multiply(b).add(c).multiply(2.0).evaluate());
+    }
+
+    @Test
+    void testElementWiseChain() {
+        Matrix expected = c.subtract(d.multiplyElementWise(c)).add(c.multiply(3)).multiply(0.5);
+        MatrixExpr expr = c.lazy().subtract(d.lazy().multiplyElementWise(c)).add(c.lazy().multiply(3)).multiply(0.5);
+        assertEquals(37, expr.getRows());
+        assertEquals(41, expr.getCols());
+        assertEquals(expected, expr.evaluate());
+    }
+
+    @Test
+    void testProductOfExpressions() {
+        Matrix expected = c.add(d).multiply(b.transpose().multiply(2));
+        assertEquals(expected, c.lazy().add(d).multiply(b.transposeView().lazy().add(b.transpose())).evaluate());
+    }
+
+    @Test
+    void testEvaluateIntoOperand() {
+        Matrix expected = d.add(c).multiply(2);
+        Matrix dest = c.copy();
+        assertSame(dest, MatrixExpr.of(d).add(dest).multiply(2).evaluateInto(dest));
+        assertEquals(expected, dest);
+    }
+
+    @Test
+    void testEvaluateIntoView() {
+        Matrix dest = Matrix.zeros(41, 37);
+        c.lazy().add(d).evaluateInto(dest.transposeView());
+        assertEquals(c.add(d).transpose(), dest);
+    }
+
+    @Test
+    void testEvaluateIntoPooledBuffer() {
+        DoubleArrayPool pool = new DoubleArrayPool();
+        Matrix first = c.lazy().add(d).evaluate(pool);
+        assertEquals(c.add(d), first);
+        pool.release(first);
+        Matrix second = c.lazy().subtract(d).evaluate(pool);
+        assertSame(first.data, second.data);
+        assertEquals(c.subtract(d), second);
+    }
+
+    @Test
+    void testDimensionMismatch() {
+        assertThrows(IllegalArgumentException.class, () -> a.lazy().add(c));
+        assertThrows(IllegalArgumentException.class, () -> a.lazy().multiply(c));
+        assertThrows(IllegalArgumentException.class, () -> c.lazy().evaluateInto(a));
+    }
+
+    @Test
+    void testEvaluateIntoDropsCachedDecomposition() {
+        Matrix dest = Matrix.identity(3);
+        dest.setDecompositionCached(true);
+        assertEquals(1, dest.determinant(), 1e-12);
+        Matrix.identity(3).lazy().multiply(2.0).evaluateInto(dest);
+        assertEquals(8, dest.determinant(), 1e-12);
+    }
+}
@@ -0,0 +1,142 @@
+package calculator;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Test class for the binary matrix files and the streaming text parser.
+ */
+class TestMatrixIO {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void testBinaryRoundTrip() throws IOException {
+        Matrix a = TestMatrixMultiplier.randomMatrix(new Random(1), 300, 70);
+        Path file = dir.resolve("a.mtx");
+        MatrixIO.write(a, file);
+        assertEquals(MatrixIO.HEADER_BYTES + 300L * 70 * Double.BYTES, Files.size(file));
+        assertEquals(a, MatrixIO.read(file));
+        // Views are written with their logical layout
+        MatrixIO.write(a.transposeView().submatrix(5, 10, 20, 30), file);
+        assertEquals(a.transpose().submatrix(5, 10, 20, 30), MatrixIO.read(file));
+    }
+
+    @Test
+    void testHeaderLayout() throws IOException {
+        Path file = dir.resolve("h.mtx");
+        MatrixIO.write(Matrix.parse("[[1.5, 2], [3, 4], [5, 6]]"), file);
+        ByteBuffer bytes = ByteBuffer.wrap(Files.readAllBytes(file)).order(ByteOrder.LITTLE_ENDIAN);
+        assertEquals('M', bytes.get(0));
+        assertEquals('X', bytes.get(3));
+        assertEquals(1, bytes.get(4));
+        assertEquals(1, bytes.get(5));
+        assertEquals(0, bytes.get(6));
+        assertEquals(3, bytes.getInt(8));
+        assertEquals(2, bytes.getInt(12));
+        assertEquals(1.5, bytes.getDouble(MatrixIO.HEADER_BYTES));
+    }
+
+    @Test
+    void testBigEndianFilesAreRead() throws IOException {
+        Path file = dir.resolve("be.mtx");
+        MatrixIO.write(Matrix.parse("[[1, 2], [3, 4]]"), file);
+        ByteBuffer bytes = ByteBuffer.wrap(Files.readAllBytes(file));
+        bytes.put(6, (byte) 1);
+        bytes.order(ByteOrder.BIG_ENDIAN);
+        for (int k = 0; k < 4; k++) {
+            bytes.putDouble(MatrixIO.HEADER_BYTES + k * Double.BYTES, k + 1);
+        }
+        Files.write(file, bytes.array());
+        assertEquals(Matrix.parse("[[1, 2], [3, 4]]"), MatrixIO.read(file));
+        assertThrows(IOException.class, () -> MatrixIO.map(file, false));
+    }
+
+    @Test
+    void testInvalidFiles() throws IOException {
+        Path file = dir.resolve("bad.mtx");
+        Files.write(file, new byte[] {'n', 'o', 'p', 'e'});
+        assertThrows(IOException.class, () -> MatrixIO.read(file));
+        MatrixIO.write(Matrix.identity(4), file);
+        byte[] bytes = Files.readAllBytes(file);
+        Files.write(file, Arrays.copyOf(bytes, bytes.length - 8));
+        assertThrows(IOException.class, () -> MatrixIO.read(file));
+    }
+
+    @Test
+    void testMappingWithoutCopy() throws IOException {
+        Matrix a = TestMatrixMultiplier.randomMatrix(new Random(2), 40, 30);
+        Path file = dir.resolve("a.mtx");
+        MatrixIO.write(a, file);
+        try (MappedMatrix mapped = MatrixIO.map(file, true)) {
+            assertEquals(a, mapped.toMatrix());
+            mapped.set(1, 2, 42);
+        }
+        assertEquals(42, MatrixIO.read(file).get(1, 2));
+
+        try (MappedMatrix created = MatrixIO.create(dir.resolve("z.mtx"), 5, 7)) {
+            created.set(4, 6, 1);
+        }
+        Matrix expected = Matrix.zeros(5, 7);
+        expected.set(4, 6, 1);
+        assertEquals(expected, MatrixIO.read(dir.resolve("z.mtx")));
+    }
+
+    @Test
+    void testTextParsing() throws IOException {
+        assertEquals(new Matrix(new double[][] {{1, -2.5}, {3e2, 0.001}}),
+                     MatrixIO.readText(new StringReader(" [ [1, -2.5 ],\n[ 3e2 ,1E-3]] ")));
+        // Numbers outside the exact fast path go through the standard conversion
+        Matrix odd = MatrixIO.readText(new StringReader("[[0.1234567890123456789, 1e300, -0, NaN]]"));
+        assertEquals(0.1234567890123456789, odd.get(0, 0));
+        assertEquals(1e300, odd.get(0, 1));
+        assertEquals(-0.0, odd.get(0, 2));
+        assertTrue(Double.isNaN(odd.get(0, 3)));
+
+        assertThrows(IllegalArgumentException.class, () -> Matrix.parse("[[1, 2], [3]]"));
+        assertThrows(IllegalArgumentException.class, () -> Matrix.parse("[[1, 2]"));
+        assertThrows(IllegalArgumentException.class, () -> Matrix.parse("[[1, 2]] x"));
+        assertThrows(IllegalArgumentException.class, () -> Matrix.parse("[[1, two]]"));
+    }
+
+    @Test
+    void testTextRoundTripIntoPreallocatedMatrix() throws IOException {
+        Random random = new Random(3);
+        Matrix a = TestMatrixMultiplier.randomMatrix(random, 50, 200);
+        StringWriter text = new StringWriter();
+        MatrixIO.writeText(a, text);
+        // Long inputs span several refills of the character buffer
+        Matrix dest = Matrix.zeros(50, 200);
+        assertSame(dest, MatrixIO.readText(new StringReader(text.toString()), dest));
+        assertArrayEquals(a.toRowMajorArray(), dest.toRowMajorArray(), 0.0);
+        assertThrows(IllegalArgumentException.class,
+                     () -> MatrixIO.readText(new StringReader(text.toString()), Matrix.zeros(49, 200)));
+        assertThrows(IllegalArgumentException.class,
+                     () -> MatrixIO.readText(new StringReader(text.toString()), Matrix.zeros(50, 199)));
+    }
+
+    @Test
+    void testReadTextDropsCachedDecomposition() throws IOException {
+        Matrix dest = Matrix.identity(2);
+        dest.setDecompositionCached(true);
+        assertEquals(1, dest.determinant(), 1e-12);
+        assertEquals(-2, MatrixIO.readText(new StringReader("[[0, 1], [2, 0]]"), dest).determinant(), 1e-12);
+
+        // A failed read leaves dest undefined, but never with the factorization of its former contents
+        assertEquals(-2, dest.determinant(), 1e-12);
+        assertThrows(IllegalArgumentException.class, () -> MatrixIO.readText(new StringReader("[[3, 0]]"), dest));
+        assertEquals(dest.copy().determinant(), dest.determinant(), 1e-12);
+    }
+}
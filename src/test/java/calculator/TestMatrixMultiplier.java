@@ -0,0 +1,99 @@
+package calculator;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.*;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Test class checking every matrix multiplication strategy against the naive triple loop.
+ */
+class TestMatrixMultiplier {
+
+    private final MatrixMultiplier reference = new NaiveMatrixMultiplier();
+    private Random random;
+
+    @BeforeEach
+    void setUp() {
+        random = new Random(42);
+    }
+
+    static Matrix randomMatrix(Random random, int rows, int cols) {
+        double[][] data = new double[rows][cols];
+        for (double[] row : data) {
+            for (int j = 0; j < cols; j++) {
+                row[j] = random.nextDouble() * 2 - 1;
+            }
+        }
+        return new Matrix(data);
+    }
+
+    private void assertSameProduct(MatrixMultiplier multiplier, int rows, int inner, int cols) {
+        Matrix a = randomMatrix(random, rows, inner);
+        Matrix b = randomMatrix(random, inner, cols);
+        assertEquals(reference.multiply(a, b), multiplier.multiply(a, b),
+                "[" + rows + "x" + inner + "] * [" + inner + "x" + cols + "]");
+    }
+
+    @Test
+    void testBlockedMatchesNaive() {
+        MatrixMultiplier blocked = new BlockedMatrixMultiplier();
+        // Sizes straddling the register tile and the cache blocks
+        assertSameProduct(blocked, 1, 1, 1);
+        assertSameProduct(blocked, 4, 4, 4);
+        assertSameProduct(blocked, 3, 5, 7);
+        assertSameProduct(blocked, 65, 300, 130);
+        assertSameProduct(blocked, 9, 513, 258);
+    }
+
+    @Test
+    void testParallelMatchesNaive() {
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            MatrixMultiplier parallel = new ParallelMatrixMultiplier(pool);
+            assertSameProduct(parallel, 3, 5, 7);
+            assertSameProduct(parallel, 300, 200, 500);
+            assertSameProduct(parallel, 129, 700, 131);
+            assertSameProduct(parallel, 517, 3, 517);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void testStrassenMatchesNaive() {
+        // A small cutoff exercises several levels of recursion and the padding
+        assertSameProduct(new StrassenMatrixMultiplier(16, null), 100, 70, 90);
+        assertSameProduct(new StrassenMatrixMultiplier(16, null), 64, 64, 64);
+        assertSameProduct(new StrassenMatrixMultiplier(16, ForkJoinPool.commonPool()), 120, 40, 130);
+        assertSameProduct(new StrassenMatrixMultiplier(16, ForkJoinPool.commonPool()), 5, 40, 7);
+        assertThrows(IllegalArgumentException.class, () -> new StrassenMatrixMultiplier(8, null));
+    }
+
+    @Test
+    void testStrassenPaddedSize() {
+        StrassenMatrixMultiplier strassen = new StrassenMatrixMultiplier(512, null);
+        assertEquals(512, strassen.paddedSize(512));
+        assertEquals(1000, strassen.paddedSize(1000));
+        assertEquals(1028, strassen.paddedSize(1025));
+        assertEquals(2048, strassen.paddedSize(2048));
+    }
+
+    @Test
+    void testBlockedOnViews() {
+        Matrix a = randomMatrix(random, 20, 30);
+        Matrix b = randomMatrix(random, 20, 30);
+        Matrix expected = reference.multiply(a, b.transpose());
+        assertEquals(expected, a.multiply(b.transposeView()));
+        assertEquals(reference.multiply(a.submatrix(2, 3, 10, 10), b.submatrix(5, 5, 10, 6)),
+                a.submatrix(2, 3, 10, 10).multiply(b.submatrix(5, 5, 10, 6)));
+    }
+
+    @Test
+    void testDimensionMismatch() {
+        Matrix a = randomMatrix(random, 2, 3);
+        assertThrows(IllegalArgumentException.class, () -> new BlockedMatrixMultiplier().multiply(a, a));
+        assertThrows(IllegalArgumentException.class, () -> a.multiply(a, reference));
+    }
+}
@@ -197,4 +197,12 @@ public class TestModulo {
         
         assertEquals(m1.hashCode(), m2.hashCode());
     }
-}
\ No newline at end of file
+    
+    @Test
+    void testModuloWithComplexOperands() throws Exception {
+        // Modulo is not defined on complex numbers and must not be silently skipped
+        Expression e = StringToExpression.parseStringTExpression("(3+4i) % 2");
+        EvaluationException error = assertThrows(EvaluationException.class, () -> calc.eval(e));
+        assertEquals(EvaluationException.Kind.INVALID_OPERATION, error.getKind());
+    }
+}
@@ -41,4 +41,14 @@ class TestOperation {
 		assertEquals(Integer.valueOf(6), o.countNbs());
 	}
 
+	@Test
+	void testOpcodes() throws Exception {
+		List<Expression> params = Arrays.asList(new MyNumber(5), new MyNumber(4));
+		assertEquals(Operation.OP_DIVIDES, o.getOpcode());
+		assertEquals(Operation.OP_PLUS, new Plus(params).getOpcode());
+		assertEquals(Operation.OP_MODULO, new Modulo(params).getOpcode());
+		assertTrue(new Sqrt(new MyNumber(4)).getOpcode() >= Operation.FIRST_UNARY_OPCODE);
+		assertTrue(new Power(params).getOpcode() < Operation.FIRST_UNARY_OPCODE);
+	}
+
 }
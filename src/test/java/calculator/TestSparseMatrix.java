@@ -0,0 +1,102 @@
+package calculator;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.*;
+
+import java.util.Random;
+
+/**
+ * Test class for the sparse matrix formats and their products, checked against dense matrices.
+ */
+class TestSparseMatrix {
+
+    private Matrix dense;
+    private SparseMatrix sparse;
+
+    @BeforeEach
+    void setUp() {
+        Random random = new Random(5);
+        double[][] data = new double[40][30];
+        for (double[] row : data) {
+            for (int j = 0; j < row.length; j++) {
+                if (random.nextInt(5) == 0) {
+                    row[j] = random.nextInt(9) - 4;
+                }
+            }
+        }
+        dense = new Matrix(data);
+        sparse = SparseMatrix.fromMatrix(dense);
+    }
+
+    @Test
+    void testFromTripletsSumsDuplicatesAndDropsZeros() {
+        SparseMatrix m = SparseMatrix.fromTriplets(3, 3,
+                new int[]{2, 0, 2, 1, 0}, new int[]{1, 2, 1, 1, 2}, new double[]{1, 5, 2, 0, -5});
+        assertEquals(1, m.nonZeros());
+        assertEquals(3, m.get(2, 1));
+        assertEquals(0, m.get(0, 2));
+        assertThrows(IndexOutOfBoundsException.class,
+                () -> SparseMatrix.fromTriplets(2, 2, new int[]{2}, new int[]{0}, new double[]{1}));
+    }
+
+    @Test
+    void testParse() {
+        SparseMatrix m = SparseMatrix.parse("[[1, 0, 0], [0, 0, 2.5], [0, 0, 0]]");
+        assertEquals(3, m.getRows());
+        assertEquals(3, m.getCols());
+        assertEquals(2, m.nonZeros());
+        assertEquals(Matrix.parse("[[1, 0, 0], [0, 0, 2.5], [0, 0, 0]]"), m.toMatrix());
+        assertThrows(IllegalArgumentException.class, () -> SparseMatrix.parse("[[1, 2], [3]]"));
+    }
+
+    @Test
+    void testFormatConversions() {
+        SparseMatrix csc = sparse.toCsc();
+        assertEquals(SparseMatrix.Format.CSC, csc.getFormat());
+        assertEquals(dense, csc.toMatrix());
+        assertEquals(dense, csc.toCsr().toMatrix());
+        assertEquals(sparse.nonZeros(), csc.nonZeros());
+    }
+
+    @Test
+    void testTransposeSharesStorage() {
+        SparseMatrix t = sparse.transpose();
+        assertEquals(SparseMatrix.Format.CSC, t.getFormat());
+        assertEquals(dense.transpose(), t.toMatrix());
+        assertEquals(dense.get(7, 3), t.get(3, 7));
+    }
+
+    @Test
+    void testMatrixVectorProduct() {
+        double[] x = new double[30];
+        for (int i = 0; i < x.length; i++) {
+            x[i] = i * 0.25 - 3;
+        }
+        assertArrayEquals(dense.multiply(x), sparse.multiply(x), 1e-12);
+        assertArrayEquals(dense.multiply(x), sparse.toCsc().multiply(x), 1e-12);
+        assertThrows(IllegalArgumentException.class, () -> sparse.multiply(new double[3]));
+    }
+
+    @Test
+    void testSparseDenseProduct() {
+        Matrix b = TestMatrixMultiplier.randomMatrix(new Random(6), 30, 5);
+        assertEquals(dense.multiply(b), sparse.multiply(b));
+        assertEquals(dense.multiply(b), sparse.toCsc().multiply(b));
+    }
+
+    @Test
+    void testSparseSparseProduct() {
+        assertEquals(dense.multiply(dense.transpose()), sparse.multiply(sparse.transpose()).toMatrix());
+        assertEquals(dense.transpose().multiply(dense), sparse.transpose().multiply(sparse).toMatrix());
+        assertThrows(IllegalArgumentException.class, () -> sparse.multiply(sparse));
+    }
+
+    @Test
+    void testCommonInterface() {
+        RealMatrix[] matrices = {dense, sparse};
+        for (RealMatrix m : matrices) {
+            assertEquals(40, m.getRows());
+            assertEquals(dense.transpose(), m.transpose().toMatrix());
+        }
+    }
+}